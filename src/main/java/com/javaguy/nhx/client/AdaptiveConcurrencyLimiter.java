@@ -0,0 +1,168 @@
+package com.javaguy.nhx.client;
+
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Concurrency limit for calls to one upstream that adapts to the latency it observes (AIMD).
+ * The limit starts at {@code maxLimit}. A call that fails, is rejected by the upstream as
+ * overloaded, or takes longer than {@code slowCallThreshold} cuts the limit by
+ * {@link #BACKOFF_RATIO}, down to {@code minLimit}. A fast call made while at least half the
+ * limit was in use raises it by one, back up to {@code maxLimit}.
+ *
+ * Callers beyond the limit wait in a queue of at most {@code maxQueued} for up to
+ * {@code maxWait}. A full queue rejects at once, so a slow upstream turns extra load into
+ * fast failures instead of blocked threads. With {@code minLimit == maxLimit} the limit is fixed.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    static final double BACKOFF_RATIO = 0.9;
+
+    private final String upstream;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueued;
+    private final long maxWaitNanos;
+    private final long slowCallNanos;
+    private final LongSupplier nanoTime;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition slotFreed = lock.newCondition();
+    private int limit;
+    private int inFlight;
+    private int queued;
+
+    public AdaptiveConcurrencyLimiter(String upstream, int minLimit, int maxLimit, int maxQueued,
+                                      Duration maxWait, Duration slowCallThreshold) {
+        this(upstream, minLimit, maxLimit, maxQueued, maxWait, slowCallThreshold, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(String upstream, int minLimit, int maxLimit, int maxQueued,
+                               Duration maxWait, Duration slowCallThreshold, LongSupplier nanoTime) {
+        this.upstream = upstream;
+        this.maxLimit = Math.max(1, maxLimit);
+        this.minLimit = Math.max(1, Math.min(minLimit, this.maxLimit));
+        this.maxQueued = Math.max(0, maxQueued);
+        this.maxWaitNanos = maxWait.toNanos();
+        this.slowCallNanos = slowCallThreshold != null ? slowCallThreshold.toNanos() : 0;
+        this.nanoTime = nanoTime;
+        this.limit = this.maxLimit;
+    }
+
+    /**
+     * Takes a slot, waiting in the queue if none is free. The returned permit must be released
+     * exactly once when the call finishes.
+     */
+    public Permit acquire() throws UpstreamSaturatedException, InterruptedIOException {
+        lock.lock();
+        try {
+            if (inFlight < limit) {
+                inFlight++;
+                return new Permit(nanoTime.getAsLong());
+            }
+            if (queued >= maxQueued) {
+                throw new UpstreamSaturatedException(upstream, limit, UpstreamSaturatedException.Reason.QUEUE_FULL);
+            }
+
+            queued++;
+            try {
+                long remaining = maxWaitNanos;
+                while (inFlight >= limit) {
+                    if (remaining <= 0) {
+                        throw new UpstreamSaturatedException(upstream, limit, UpstreamSaturatedException.Reason.TIMEOUT);
+                    }
+                    remaining = slotFreed.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting to call " + upstream);
+            } finally {
+                queued--;
+            }
+            inFlight++;
+            return new Permit(nanoTime.getAsLong());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(long startNanos, boolean dropped) {
+        long elapsed = nanoTime.getAsLong() - startNanos;
+        lock.lock();
+        try {
+            boolean saturated = inFlight * 2 >= limit;
+            inFlight--;
+            if (dropped || (slowCallNanos > 0 && elapsed > slowCallNanos)) {
+                limit = Math.max(minLimit, (int) (limit * BACKOFF_RATIO));
+            } else if (saturated) {
+                limit = Math.min(maxLimit, limit + 1);
+            }
+            slotFreed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public String getUpstream() {
+        return upstream;
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public final class Permit {
+        private final long startNanos;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(long startNanos) {
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * Call completed; its latency feeds into the limit.
+         */
+        public void success() {
+            if (released.compareAndSet(false, true)) {
+                release(startNanos, false);
+            }
+        }
+
+        /**
+         * Call failed or the upstream reported overload; the limit backs off.
+         */
+        public void dropped() {
+            if (released.compareAndSet(false, true)) {
+                release(startNanos, true);
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.javaguy.nhx.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Runs every call to one upstream under its {@link AdaptiveConcurrencyLimiter}. Calls that
+ * cannot get a slot fail with {@link UpstreamSaturatedException}, which RestClient reports as
+ * a ResourceAccessException. Connection failures, timeouts, 429 and 5xx responses count as
+ * dropped calls and make the limit back off.
+ *
+ * Metrics, tagged with the upstream name: {@code http.client.upstream.in_flight},
+ * {@code http.client.upstream.limit}, {@code http.client.upstream.queued} and
+ * {@code http.client.upstream.rejected} (also tagged with the reason).
+ */
+@Slf4j
+public class ConcurrencyLimitInterceptor implements ClientHttpRequestInterceptor {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final Map<UpstreamSaturatedException.Reason, Counter> rejectedCounters =
+            new EnumMap<>(UpstreamSaturatedException.Reason.class);
+
+    public ConcurrencyLimitInterceptor(AdaptiveConcurrencyLimiter limiter, MeterRegistry meterRegistry) {
+        this.limiter = limiter;
+        String upstream = limiter.getUpstream();
+
+        Gauge.builder("http.client.upstream.in_flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .tag("upstream", upstream)
+                .description("Calls to the upstream currently in flight")
+                .register(meterRegistry);
+        Gauge.builder("http.client.upstream.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .tag("upstream", upstream)
+                .description("Current concurrency limit for the upstream")
+                .register(meterRegistry);
+        Gauge.builder("http.client.upstream.queued", limiter, AdaptiveConcurrencyLimiter::getQueued)
+                .tag("upstream", upstream)
+                .description("Calls waiting for a slot under the upstream's concurrency limit")
+                .register(meterRegistry);
+        for (UpstreamSaturatedException.Reason reason : UpstreamSaturatedException.Reason.values()) {
+            rejectedCounters.put(reason, Counter.builder("http.client.upstream.rejected")
+                    .tag("upstream", upstream)
+                    .tag("reason", reason.name().toLowerCase(Locale.ROOT))
+                    .description("Calls rejected because the upstream's concurrency limit was reached")
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        AdaptiveConcurrencyLimiter.Permit permit;
+        try {
+            permit = limiter.acquire();
+        } catch (UpstreamSaturatedException e) {
+            rejectedCounters.get(e.getReason()).increment();
+            log.warn("{}", e.getMessage());
+            throw e;
+        }
+
+        ClientHttpResponse response;
+        boolean overloaded;
+        try {
+            response = execution.execute(request, body);
+            HttpStatusCode status = response.getStatusCode();
+            overloaded = status.is5xxServerError() || status.value() == HttpStatus.TOO_MANY_REQUESTS.value();
+        } catch (IOException | RuntimeException e) {
+            permit.dropped();
+            throw e;
+        }
+        // the slot stays taken until the body has been read and the response closed
+        return new PermitReleasingResponse(response, permit, overloaded);
+    }
+
+    private static final class PermitReleasingResponse implements ClientHttpResponse {
+        private final ClientHttpResponse delegate;
+        private final AdaptiveConcurrencyLimiter.Permit permit;
+        private final boolean overloaded;
+
+        private PermitReleasingResponse(ClientHttpResponse delegate, AdaptiveConcurrencyLimiter.Permit permit,
+                                        boolean overloaded) {
+            this.delegate = delegate;
+            this.permit = permit;
+            this.overloaded = overloaded;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                if (overloaded) {
+                    permit.dropped();
+                } else {
+                    permit.success();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.javaguy.nhx.client;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Thrown when a call cannot get a slot under an upstream's concurrency limit: the wait queue
+ * was full or the wait timed out.
+ */
+public class UpstreamSaturatedException extends IOException {
+
+    public enum Reason {
+        QUEUE_FULL,
+        TIMEOUT
+    }
+
+    private final Reason reason;
+
+    public UpstreamSaturatedException(String upstream, int limit, Reason reason) {
+        super("Too many concurrent calls to " + upstream + " (limit " + limit + ", "
+                + reason.name().toLowerCase(Locale.ROOT) + ")");
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
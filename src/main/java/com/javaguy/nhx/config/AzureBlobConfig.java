@@ -2,10 +2,12 @@ package com.javaguy.nhx.config;
 
 import com.azure.storage.blob.BlobContainerClient;
 import com.azure.storage.blob.BlobContainerClientBuilder;
+import com.azure.storage.blob.models.ParallelTransferOptions;
 import com.azure.storage.common.StorageSharedKeyCredential;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
 
 @Configuration
 public class AzureBlobConfig {
@@ -19,6 +21,15 @@ public class AzureBlobConfig {
     @Value("${spring.cloud.azure.storage.blob.container-name}")
     private String containerName;
 
+    @Value("${storage.azure.upload.block-size:2MB}")
+    private DataSize uploadBlockSize;
+
+    @Value("${storage.azure.upload.max-concurrency:4}")
+    private int uploadMaxConcurrency;
+
+    @Value("${storage.azure.upload.max-single-upload-size:4MB}")
+    private DataSize uploadMaxSingleUploadSize;
+
     @Bean
     public BlobContainerClient blobContainerClient() {
         String endpoint = String.format("https://%s.blob.core.windows.net", accountName);
@@ -37,4 +48,16 @@ public class AzureBlobConfig {
 
         return containerClient;
     }
+
+    /**
+     * Documents up to max-single-upload-size go up in one Put Blob; larger ones are split into
+     * block-size blocks, up to max-concurrency of them in flight (and buffered) at once.
+     */
+    @Bean
+    public ParallelTransferOptions blobUploadTransferOptions() {
+        return new ParallelTransferOptions()
+                .setBlockSizeLong(uploadBlockSize.toBytes())
+                .setMaxConcurrency(uploadMaxConcurrency)
+                .setMaxSingleUploadSizeLong(uploadMaxSingleUploadSize.toBytes());
+    }
 }
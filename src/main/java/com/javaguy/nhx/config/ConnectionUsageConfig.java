@@ -0,0 +1,129 @@
+package com.javaguy.nhx.config;
+
+import com.javaguy.nhx.service.storage.AzureBlobStorageService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.handler.MappedInterceptor;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Wires the {@link ConnectionUsageTracker}: wraps the DataSource, names the controller handler and
+ * repository method around each piece of work, and checks the outbound clients (the SMTP sender,
+ * Azure Blob storage and the upstream RestClients) for a held connection before each call.
+ */
+@Configuration
+@ConditionalOnProperty(name = "db.connection-usage.enabled", havingValue = "true", matchIfMissing = true)
+public class ConnectionUsageConfig {
+
+    @Bean
+    public ConnectionUsageTracker connectionUsageTracker(
+            MeterRegistry meterRegistry,
+            @Value("${db.connection-usage.warn-interval:1m}") Duration warnInterval) {
+        return new ConnectionUsageTracker(meterRegistry, warnInterval);
+    }
+
+    @Bean
+    public MappedInterceptor connectionUsageHandlerInterceptor(ConnectionUsageTracker tracker) {
+        return new MappedInterceptor(null, new AsyncHandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                if (handler instanceof HandlerMethod method) {
+                    tracker.enterHandler(method.getBeanType().getSimpleName() + "." + method.getMethod().getName());
+                }
+                return true;
+            }
+
+            // a streamed response finishes on another thread; this one goes back to the pool now
+            @Override
+            public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                                       Object handler) {
+                tracker.exitHandler();
+            }
+
+            @Override
+            public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                        Exception ex) {
+                tracker.exitHandler();
+            }
+        });
+    }
+
+    // static: post-processors are created before the beans they handle, the tracker only on first use
+    @Bean
+    public static BeanPostProcessor connectionUsagePostProcessor(ObjectProvider<ConnectionUsageTracker> tracker) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> repositoryFactoryBean) {
+                    repositoryFactoryBean.addRepositoryFactoryCustomizer(factory ->
+                            factory.addRepositoryProxyPostProcessor((proxyFactory, repositoryInformation) -> {
+                                String repository = repositoryInformation.getRepositoryInterface().getSimpleName();
+                                proxyFactory.addAdvice(0, (MethodInterceptor) invocation -> {
+                                    String outer = tracker.getObject().enterRepository(
+                                            repository + "." + invocation.getMethod().getName());
+                                    try {
+                                        return invocation.proceed();
+                                    } finally {
+                                        tracker.getObject().exitRepository(outer);
+                                    }
+                                });
+                            }));
+                }
+                return bean;
+            }
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConnectionUsageDataSource)) {
+                    return new ConnectionUsageDataSource(dataSource, tracker.getObject());
+                }
+                if (bean instanceof RestClient restClient) {
+                    return restClient.mutate()
+                            .requestInterceptor((request, body, execution) -> {
+                                tracker.getObject().beforeOutboundCall("http:" + request.getURI().getHost());
+                                return execution.execute(request, body);
+                            })
+                            .build();
+                }
+                if (bean instanceof JavaMailSender) {
+                    return checkedBeforeCalls(bean, "smtp", Set.of("send"), tracker);
+                }
+                if (bean instanceof AzureBlobStorageService) {
+                    // signedUrl is signed locally
+                    return checkedBeforeCalls(bean, "azure-blob", Set.of("store", "open", "delete"), tracker);
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static Object checkedBeforeCalls(Object target, String name, Set<String> methods,
+                                             ObjectProvider<ConnectionUsageTracker> tracker) {
+        ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice((MethodInterceptor) invocation -> {
+            if (methods.contains(invocation.getMethod().getName())) {
+                tracker.getObject().beforeOutboundCall(name);
+            }
+            return invocation.proceed();
+        });
+        return proxyFactory.getProxy();
+    }
+}
@@ -0,0 +1,89 @@
+package com.javaguy.nhx.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Set;
+
+/**
+ * Wraps the pool so every checkout is timed and reported to the {@link ConnectionUsageTracker}.
+ * Pool metrics still find the Hikari pool underneath: Spring Boot unwraps a DelegatingDataSource.
+ */
+class ConnectionUsageDataSource extends DelegatingDataSource {
+
+    private static final Set<String> STATEMENT_FACTORIES = Set.of("prepareStatement", "createStatement", "prepareCall");
+
+    private final ConnectionUsageTracker tracker;
+
+    ConnectionUsageDataSource(DataSource target, ConnectionUsageTracker tracker) {
+        super(target);
+        this.tracker = tracker;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return track(super.getConnection(), start);
+        } catch (SQLException | RuntimeException e) {
+            tracker.acquireFailed(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return track(super.getConnection(username, password), start);
+        } catch (SQLException | RuntimeException e) {
+            tracker.acquireFailed(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    private Connection track(Connection connection, long start) {
+        ConnectionUsageTracker.Lease lease = tracker.acquired(System.nanoTime() - start);
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                new TrackedConnection(connection, lease));
+    }
+
+    private final class TrackedConnection implements InvocationHandler {
+
+        private final Connection target;
+        private final ConnectionUsageTracker.Lease lease;
+
+        private TrackedConnection(Connection target, ConnectionUsageTracker.Lease lease) {
+            this.target = target;
+            this.lease = lease;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "close":
+                    tracker.released(lease);
+                    break;
+                default:
+                    if (STATEMENT_FACTORIES.contains(method.getName())) {
+                        tracker.statementPrepared(lease);
+                    }
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.javaguy.nhx.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Attributes JDBC connection use to the controller handler and repository method it happened in,
+ * so pool exhaustion can be traced to the endpoints holding connections. Fed by
+ * {@link ConnectionUsageDataSource} and the hooks in {@link ConnectionUsageConfig}.
+ *
+ * Metrics, tagged {@code handler} (e.g. {@code AdminController.getAllMints}, {@code none} outside a
+ * request) and {@code repository} (the first repository method that ran a statement on the
+ * connection, or {@code none}): {@code db.connection.acquire} (wait for the pool, with
+ * {@code outcome} success or failure), {@code db.connection.held} (checkout to close) and
+ * {@code db.connection.held.outbound}, counting SMTP, blob and HTTP calls made while the calling
+ * thread held a connection, tagged with the {@code target} as well. Each such handler and target
+ * is also logged at most once per {@code warnInterval}.
+ */
+@Slf4j
+public class ConnectionUsageTracker {
+
+    static final String NONE = "none";
+
+    private final MeterRegistry meterRegistry;
+    private final Duration warnInterval;
+
+    private final ThreadLocal<String> handler = new ThreadLocal<>();
+    private final ThreadLocal<String> repositoryMethod = new ThreadLocal<>();
+    private final ThreadLocal<List<Lease>> leases = ThreadLocal.withInitial(ArrayList::new);
+    private final Map<String, Long> lastWarned = new ConcurrentHashMap<>();
+
+    public ConnectionUsageTracker(MeterRegistry meterRegistry, Duration warnInterval) {
+        this.meterRegistry = meterRegistry;
+        this.warnInterval = warnInterval;
+    }
+
+    /**
+     * A checked-out connection. Closed on the thread that borrowed it in practice; if not, the
+     * owning thread drops it the next time it looks at its leases.
+     */
+    static final class Lease {
+        private final String handler;
+        private final long acquiredAt = System.nanoTime();
+        private volatile String repository;
+        private volatile boolean released;
+
+        private Lease(String handler, String repository) {
+            this.handler = handler;
+            this.repository = repository;
+        }
+
+        String repository() {
+            return repository != null ? repository : NONE;
+        }
+    }
+
+    public void enterHandler(String name) {
+        handler.set(name);
+    }
+
+    public void exitHandler() {
+        handler.remove();
+    }
+
+    /**
+     * @return the repository method this call is nested in, to pass back to {@link #exitRepository}
+     */
+    public String enterRepository(String name) {
+        String outer = repositoryMethod.get();
+        if (outer == null) {
+            repositoryMethod.set(name);
+        }
+        return outer;
+    }
+
+    public void exitRepository(String outer) {
+        if (outer == null) {
+            repositoryMethod.remove();
+        }
+    }
+
+    Lease acquired(long waitNanos) {
+        Lease lease = new Lease(currentHandler(), repositoryMethod.get());
+        recordAcquire(waitNanos, lease.handler, lease.repository(), "success");
+        List<Lease> held = leases.get();
+        held.removeIf(previous -> previous.released);
+        held.add(lease);
+        return lease;
+    }
+
+    // the pool timed out or the database refused the connection
+    void acquireFailed(long waitNanos) {
+        String repository = repositoryMethod.get();
+        recordAcquire(waitNanos, currentHandler(), repository != null ? repository : NONE, "failure");
+    }
+
+    private void recordAcquire(long waitNanos, String handler, String repository, String outcome) {
+        Timer.builder("db.connection.acquire")
+                .description("Time spent waiting for a pooled connection")
+                .tag("handler", handler)
+                .tag("repository", repository)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(Duration.ofNanos(waitNanos));
+    }
+
+    // a connection checked out at transaction start is attributed to the first repository call on it
+    void statementPrepared(Lease lease) {
+        if (lease.repository == null) {
+            lease.repository = repositoryMethod.get();
+        }
+    }
+
+    void released(Lease lease) {
+        if (lease.released) {
+            return;
+        }
+        lease.released = true;
+        leases.get().remove(lease);
+        Timer.builder("db.connection.held")
+                .description("Time a connection was checked out of the pool")
+                .tag("handler", lease.handler)
+                .tag("repository", lease.repository())
+                .register(meterRegistry)
+                .record(Duration.ofNanos(System.nanoTime() - lease.acquiredAt));
+    }
+
+    /**
+     * Called before a blocking call to another service; counts and reports it when this thread
+     * is holding a database connection across it.
+     */
+    public void beforeOutboundCall(String target) {
+        List<Lease> held = leases.get();
+        held.removeIf(lease -> lease.released);
+        if (held.isEmpty()) {
+            return;
+        }
+        Lease oldest = held.get(0);
+        Counter.builder("db.connection.held.outbound")
+                .description("Outbound calls made while holding a database connection")
+                .tag("handler", oldest.handler)
+                .tag("repository", oldest.repository())
+                .tag("target", target)
+                .register(meterRegistry)
+                .increment();
+
+        String key = oldest.handler + "|" + target;
+        long now = System.nanoTime();
+        Long previous = lastWarned.get(key);
+        if (previous != null && now - previous < warnInterval.toNanos()) {
+            return;
+        }
+        lastWarned.put(key, now);
+        log.warn("{} calls {} while holding a database connection for {} ms (first used by {}); "
+                        + "the connection stays out of the pool for the whole call",
+                oldest.handler, target, Duration.ofNanos(now - oldest.acquiredAt).toMillis(), oldest.repository());
+    }
+
+    private String currentHandler() {
+        String name = handler.get();
+        return name != null ? name : NONE;
+    }
+}
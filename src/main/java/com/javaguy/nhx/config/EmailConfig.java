@@ -1,11 +1,11 @@
 package com.javaguy.nhx.config;
 
+import com.javaguy.nhx.service.email.PooledJavaMailSender;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.JavaMailSenderImpl;
 
+import java.time.Duration;
 import java.util.Properties;
 
 @Configuration
@@ -23,9 +23,19 @@ public class EmailConfig {
     @Value("${spring.mail.password}")
     private String password;
 
+    @Value("${email.smtp.pool.max-connections:4}")
+    private int maxConnections;
+
+    @Value("${email.smtp.pool.max-messages-per-connection:100}")
+    private int maxMessagesPerConnection;
+
+    @Value("${email.smtp.pool.idle-timeout:30s}")
+    private Duration idleTimeout;
+
+    // Declared as the pooled type so its connection metrics get bound to the meter registry
     @Bean
-    public JavaMailSender javaMailSender() {
-        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+    public PooledJavaMailSender javaMailSender() {
+        PooledJavaMailSender mailSender = new PooledJavaMailSender(maxConnections, maxMessagesPerConnection, idleTimeout);
         mailSender.setHost(host);
         mailSender.setPort(port);
         mailSender.setUsername(username);
@@ -15,4 +15,7 @@ public class JwtConfig {
 
     @Value("${jwt.refresh-token-expiry}")
     private long refreshTokenExpiry;
+
+    @Value("${jwt.claims-cache.max-size:10000}")
+    private int claimsCacheMaxSize;
 }
@@ -1,33 +1,82 @@
 package com.javaguy.nhx.config;
 
-import java.net.http.HttpClient;
-import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
 
-import org.springframework.boot.web.client.RestClientCustomizer;
+import com.javaguy.nhx.client.AdaptiveConcurrencyLimiter;
+import com.javaguy.nhx.client.ConcurrencyLimitInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.client.ReactorClientHttpRequestFactory;
 import org.springframework.web.client.RestClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.resources.ConnectionProvider;
 
+/**
+ * One RestClient per upstream, each with its own connection pool, timeouts and concurrency
+ * limit (see {@link UpstreamClientProperties}), so a slow multisig service cannot hold the
+ * connections or call slots the SDK mint path needs. The SDK limit adapts to observed latency
+ * ({@link AdaptiveConcurrencyLimiter}).
+ *
+ * The clients use Reactor Netty: HTTP/2 is negotiated over TLS when the server offers it, with
+ * HTTP/1.1 keep-alive otherwise. Pool metrics ({@code reactor.netty.connection.provider.*}) and
+ * client metrics ({@code reactor.netty.http.client.*}, where {@code connect.time} counts new
+ * connections) are published through the global Micrometer registry, which Spring Boot links
+ * to the application's.
+ */
 @Configuration
-public class RestClientConfig {
+@RequiredArgsConstructor
+public class RestClientConfig implements DisposableBean {
+
+    private final UpstreamClientProperties upstreamClientProperties;
+    private final MeterRegistry meterRegistry;
+
+    private final List<ConnectionProvider> connectionProviders = new ArrayList<>();
 
     @Bean
-    public RestClientCustomizer restClientCustomizer() {
-        return restClient -> restClient
-                .requestFactory(new JdkClientHttpRequestFactory(
-                        HttpClient.newBuilder()
-                                .connectTimeout(Duration.ofSeconds(5))
-                                .build()));
+    public RestClient sdkRestClient() {
+        return createRestClient("sdk", upstreamClientProperties.getSdk());
     }
 
     @Bean
-    public RestClient restClient() {
+    public RestClient multisigRestClient() {
+        return createRestClient("multisig", upstreamClientProperties.getMultisig());
+    }
+
+    RestClient createRestClient(String upstream, UpstreamClientProperties.Client client) {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder(upstream)
+                .maxConnections(client.getMaxConnections())
+                .pendingAcquireTimeout(client.getPendingAcquireTimeout())
+                .maxIdleTime(client.getMaxIdleTime())
+                .evictInBackground(client.getMaxIdleTime())
+                .metrics(true)
+                .build();
+        connectionProviders.add(connectionProvider);
+
+        reactor.netty.http.client.HttpClient httpClient = reactor.netty.http.client.HttpClient.create(connectionProvider)
+                .protocol(HttpProtocol.H2, HttpProtocol.HTTP11)
+                // upstream paths are fixed, so the uri tag stays low-cardinality
+                .metrics(true, Function.identity());
+
+        ReactorClientHttpRequestFactory requestFactory = new ReactorClientHttpRequestFactory(httpClient);
+        requestFactory.setConnectTimeout(client.getConnectTimeout());
+        requestFactory.setReadTimeout(client.getReadTimeout());
+
         return RestClient.builder()
-                .requestFactory(new JdkClientHttpRequestFactory(
-                        HttpClient.newBuilder()
-                                .connectTimeout(Duration.ofSeconds(5))
-                                .build()))
+                .requestFactory(requestFactory)
+                .requestInterceptor(new ConcurrencyLimitInterceptor(new AdaptiveConcurrencyLimiter(upstream,
+                        client.getMinConcurrentRequests(), client.getMaxConcurrentRequests(),
+                        client.getMaxQueuedRequests(), client.getAcquireTimeout(), client.getSlowCallThreshold()),
+                        meterRegistry))
                 .build();
     }
+
+    @Override
+    public void destroy() {
+        connectionProviders.forEach(ConnectionProvider::dispose);
+    }
 }
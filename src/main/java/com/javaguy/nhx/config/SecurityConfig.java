@@ -1,8 +1,10 @@
 package com.javaguy.nhx.config;
 
+import com.javaguy.nhx.security.BoundedBCryptPasswordEncoder;
 import com.javaguy.nhx.security.JwtAuthenticationFilter;
 import com.javaguy.nhx.security.CustomUserDetailsService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.Ordered;
@@ -14,7 +16,6 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -23,6 +24,7 @@ import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.CorsFilter;
 
+import java.time.Duration;
 import java.util.List;
 
 @Configuration
@@ -34,15 +36,38 @@ public class SecurityConfig {
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final CustomUserDetailsService customUserDetailsService;
 
+    @Value("${security.password.bcrypt.strength:10}")
+    private int bcryptStrength;
+
+    // When non-zero (e.g. 250ms), the BCrypt cost is calibrated at startup to this hash latency, using strength as a floor
+    @Value("${security.password.bcrypt.target-latency:0s}")
+    private Duration bcryptTargetLatency;
+
+    // 0 uses half the cores, leaving the rest for requests that don't hash
+    @Value("${security.password.hashing.pool-size:0}")
+    private int hashingPoolSize;
+
+    @Value("${security.password.hashing.queue-capacity:64}")
+    private int hashingQueueCapacity;
+
+    @Value("${security.password.hashing.wait-timeout:5s}")
+    private Duration hashingWaitTimeout;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        int strength = !bcryptTargetLatency.isZero()
+                ? BoundedBCryptPasswordEncoder.calibrateStrength(bcryptStrength, bcryptTargetLatency)
+                : bcryptStrength;
+        int poolSize = hashingPoolSize > 0 ? hashingPoolSize : BoundedBCryptPasswordEncoder.defaultPoolSize();
+        return new BoundedBCryptPasswordEncoder(strength, poolSize, hashingQueueCapacity, hashingWaitTimeout);
     }
 
     @Bean
     public DaoAuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider(customUserDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
+        // Rehashes stored passwords on successful login when their BCrypt cost is below the configured one
+        authProvider.setUserDetailsPasswordService(customUserDetailsService);
         return authProvider;
     }
 
@@ -61,6 +86,8 @@ public class SecurityConfig {
                         .requestMatchers(
                                 "/api/auth/**",
                                 "/api/newsletter/subscribe",
+                                // signed, expiring links; only mapped when storing documents locally
+                                "/api/storage/local",
                                 "/h2-console/**",
                                 "/v3/api-docs/**",
                                 "/swagger-ui/**",
@@ -0,0 +1,41 @@
+package com.javaguy.nhx.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Connection and concurrency settings for each upstream the application calls over HTTP.
+ * Every upstream gets its own connection pool and concurrency limit, so one slow service
+ * cannot use up the capacity of another.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "http.clients")
+@Data
+public class UpstreamClientProperties {
+
+    private Client sdk = new Client();
+    private Client multisig = new Client();
+
+    @Data
+    public static class Client {
+        private Duration connectTimeout = Duration.ofSeconds(5);
+        // longest wait for the response once the request is sent
+        private Duration readTimeout = Duration.ofSeconds(30);
+        private int maxConnections = 50;
+        // longest a request waits for a pooled connection once all maxConnections are in use
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(2);
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+        // calls allowed in flight at once; the limit adapts between min and max (fixed when equal)
+        private int maxConcurrentRequests = 32;
+        private int minConcurrentRequests = 32;
+        // calls slower than this shrink the limit; unset means only failures do
+        private Duration slowCallThreshold;
+        // callers waiting for a slot; beyond this they are rejected at once
+        private int maxQueuedRequests = 64;
+        // longest a queued caller waits for a slot before failing
+        private Duration acquireTimeout = Duration.ofSeconds(1);
+    }
+}
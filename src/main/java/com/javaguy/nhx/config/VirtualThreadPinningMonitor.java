@@ -0,0 +1,147 @@
+package com.javaguy.nhx.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads pinned to their carrier, which on Java 21 happens when a virtual thread
+ * blocks inside a synchronized block or method (the mail stack's SMTPTransport, for one). While
+ * pinned the carrier can run nothing else, so a few slow pinned calls cap request concurrency at
+ * the number of carriers. Only active with {@code spring.threads.virtual.enabled=true}.
+ *
+ * Listens for the JFR {@code jdk.VirtualThreadPinned} event in-process, records every pin longer
+ * than {@code threshold} in the {@code jvm.threads.virtual.pinned} timer, tagged with the stack it
+ * came from (mail, jdbc, azure-blob, http or other), and logs each pinning site with its stack at
+ * most once per {@code log-interval}.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+@RequiredArgsConstructor
+@Slf4j
+public class VirtualThreadPinningMonitor {
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 12;
+
+    // first match walking down from the top of the stack wins; JDK frames (socket reads and the
+    // like) sit above whichever library made the call, so they are not matched
+    private static final Map<String, String> SOURCES = new LinkedHashMap<>();
+
+    static {
+        SOURCES.put("jakarta.mail.", "mail");
+        SOURCES.put("com.sun.mail.", "mail");
+        SOURCES.put("org.eclipse.angus.mail.", "mail");
+        SOURCES.put("org.springframework.mail.", "mail");
+        SOURCES.put("org.postgresql.", "jdbc");
+        SOURCES.put("org.h2.", "jdbc");
+        SOURCES.put("com.zaxxer.hikari.", "jdbc");
+        SOURCES.put("org.hibernate.", "jdbc");
+        SOURCES.put("com.azure.", "azure-blob");
+        SOURCES.put("reactor.netty.", "http");
+        SOURCES.put("org.springframework.web.client.", "http");
+    }
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${threads.virtual.pinning.threshold:20ms}")
+    private Duration threshold;
+
+    @Value("${threads.virtual.pinning.log-interval:1m}")
+    private Duration logInterval;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, Long> lastLogged = new ConcurrentHashMap<>();
+    private RecordingStream stream;
+
+    @PostConstruct
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        log.info("Reporting virtual threads pinned for longer than {} ms", threshold.toMillis());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    void onPinned(RecordedEvent event) {
+        List<String> frames = frames(event.getStackTrace());
+        String source = classify(frames);
+        Duration pinned = event.getDuration();
+        timers.computeIfAbsent(source, tag -> Timer.builder("jvm.threads.virtual.pinned")
+                        .description("Time virtual threads spent blocked while pinned to their carrier")
+                        .tag("source", tag)
+                        .register(meterRegistry))
+                .record(pinned);
+
+        String site = site(frames);
+        long now = System.nanoTime();
+        Long previous = lastLogged.get(site);
+        if (previous != null && now - previous < logInterval.toNanos()) {
+            return;
+        }
+        lastLogged.put(site, now);
+        log.warn("Virtual thread pinned for {} ms ({}) at {}\n\t{}", pinned.toMillis(), source, site,
+                frames.stream().limit(LOGGED_FRAMES).collect(Collectors.joining("\n\tat ", "at ", "")));
+    }
+
+    static String classify(List<String> frames) {
+        for (String frame : frames) {
+            for (Map.Entry<String, String> source : SOURCES.entrySet()) {
+                if (frame.startsWith(source.getKey())) {
+                    return source.getValue();
+                }
+            }
+        }
+        return "other";
+    }
+
+    // the innermost frame outside the JDK: the code that blocked while holding the monitor
+    static String site(List<String> frames) {
+        for (String frame : frames) {
+            if (!frame.startsWith("java.") && !frame.startsWith("jdk.") && !frame.startsWith("sun.")) {
+                return frame;
+            }
+        }
+        return frames.isEmpty() ? "unknown" : frames.get(0);
+    }
+
+    private static List<String> frames(RecordedStackTrace stackTrace) {
+        List<String> frames = new ArrayList<>();
+        if (stackTrace == null) {
+            return frames;
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (frame.isJavaFrame()) {
+                frames.add(frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + ":" + frame.getLineNumber());
+            }
+        }
+        return frames;
+    }
+}
@@ -4,20 +4,27 @@ import com.javaguy.nhx.model.dto.request.AdminMintRequest;
 import com.javaguy.nhx.model.dto.request.AdminTransferRequest;
 import com.javaguy.nhx.model.dto.request.UpdateKycStatusRequest;
 import com.javaguy.nhx.model.dto.request.UpdateMintStatusRequest;
+import com.javaguy.nhx.model.dto.response.BatchOperationResponse;
+import com.javaguy.nhx.model.dto.response.CursorPage;
 import com.javaguy.nhx.model.dto.response.KycSubmissionAdminResponse;
 import com.javaguy.nhx.model.dto.response.MintAdminResponse;
 import com.javaguy.nhx.model.enums.KycStatus;
 import com.javaguy.nhx.model.enums.MintStatus;
 import com.javaguy.nhx.service.admin.AdminService;
+import com.javaguy.nhx.service.mint.AdminBatchService;
 import com.javaguy.nhx.service.mint.AdminMintService;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -28,8 +35,11 @@ import java.util.UUID;
 @PreAuthorize("hasRole('ADMIN')")
 public class AdminController {
 
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final AdminService adminService;
     private final AdminMintService adminMintService;
+    private final AdminBatchService adminBatchService;
 
     // ============ KYC ENDPOINTS ============
 
@@ -43,6 +53,19 @@ public class AdminController {
         return ResponseEntity.ok(submissions);
     }
 
+    /**
+     * The KYC queue by continuation token: omit {@code cursor} for the first page, then pass back
+     * {@code nextCursor} until it is null. Costs the same at any depth; there is no total.
+     */
+    @GetMapping("/kyc/cursor")
+    public ResponseEntity<CursorPage<KycSubmissionAdminResponse>> getKycSubmissionsByCursor(
+            @RequestParam(required = false) KycStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        return ResponseEntity.ok(adminService.getKycSubmissionsByCursor(status, cursor, size));
+    }
+
     @PatchMapping("/kyc/{kycId}/status")
     public ResponseEntity<Void> updateKycStatus(
             @PathVariable UUID kycId,
@@ -52,6 +75,19 @@ public class AdminController {
         return ResponseEntity.ok().build();
     }
 
+    /**
+     * Streams a KYC document image straight from storage. A single Range (or several, served as
+     * the span covering them) gets a 206 with just those bytes.
+     */
+    @GetMapping("/kyc/{kycId}/documents/{side}")
+    public ResponseEntity<InputStreamResource> getKycDocument(
+            @PathVariable UUID kycId,
+            @PathVariable String side,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range) {
+
+        return DocumentResponses.stream(adminService.openKycDocument(kycId, side, range));
+    }
+
     // ============ MINT ENDPOINTS ============
 
     @GetMapping("/mints")
@@ -64,6 +100,15 @@ public class AdminController {
         return ResponseEntity.ok(mints);
     }
 
+    @GetMapping("/mints/cursor")
+    public ResponseEntity<CursorPage<MintAdminResponse>> getMintsByCursor(
+            @RequestParam(required = false) MintStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        return ResponseEntity.ok(adminService.getMintsByCursor(status, cursor, size));
+    }
+
     @PatchMapping("/mints/{mintId}/status")
     public ResponseEntity<Void> updateMintStatus(
             @PathVariable UUID mintId,
@@ -75,17 +120,50 @@ public class AdminController {
 
     // ============ MINT TOKEN ENDPOINTS ============
 
+    // Send the same Idempotency-Key when retrying a mint or transfer; a key that already completed
+    // gets the recorded response instead of a second SDK call. The header is required: a key made up
+    // here would differ on every retry and protect nothing.
+
     @PostMapping("/mint")
-    public ResponseEntity<String> mint(@RequestBody AdminMintRequest request) {
+    public ResponseEntity<String> mint(
+            @RequestHeader(IDEMPOTENCY_KEY_HEADER) String idempotencyKey,
+            @RequestBody AdminMintRequest request) {
         log.info("Admin initiating mint request");
-        String response = adminMintService.mint(request);
-        return ResponseEntity.ok(response);
+        String response = adminMintService.mint(request, idempotencyKey);
+        return ResponseEntity.ok().header(IDEMPOTENCY_KEY_HEADER, idempotencyKey).body(response);
     }
 
     @PostMapping("/transfer")
-    public ResponseEntity<String> transfer(@RequestBody AdminTransferRequest request) {
+    public ResponseEntity<String> transfer(
+            @RequestHeader(IDEMPOTENCY_KEY_HEADER) String idempotencyKey,
+            @RequestBody AdminTransferRequest request) {
         log.info("Admin initiating transfer request for account: {}", request.targetAccountId());
-        String response = adminMintService.transfer(request);
-        return ResponseEntity.ok(response);
+        String response = adminMintService.transfer(request, idempotencyKey);
+        return ResponseEntity.ok().header(IDEMPOTENCY_KEY_HEADER, idempotencyKey).body(response);
+    }
+
+    // Batches answer 200 when every item succeeded and 207 with per-item results otherwise.
+    // Resubmitting a batch with the same Idempotency-Key only repeats the items that failed.
+
+    @PostMapping("/mint/batch")
+    public ResponseEntity<BatchOperationResponse> mintBatch(
+            @RequestHeader(IDEMPOTENCY_KEY_HEADER) String idempotencyKey,
+            @RequestBody List<AdminMintRequest> requests) {
+        log.info("Admin initiating batch mint of {} items", requests.size());
+        return batchResponse(idempotencyKey, adminBatchService.mintAll(requests, idempotencyKey));
+    }
+
+    @PostMapping("/transfer/batch")
+    public ResponseEntity<BatchOperationResponse> transferBatch(
+            @RequestHeader(IDEMPOTENCY_KEY_HEADER) String idempotencyKey,
+            @RequestBody List<AdminTransferRequest> requests) {
+        log.info("Admin initiating batch transfer of {} items", requests.size());
+        return batchResponse(idempotencyKey, adminBatchService.transferAll(requests, idempotencyKey));
+    }
+
+    private ResponseEntity<BatchOperationResponse> batchResponse(String key, BatchOperationResponse response) {
+        return ResponseEntity.status(response.getFailed() == 0 ? HttpStatus.OK : HttpStatus.MULTI_STATUS)
+                .header(IDEMPOTENCY_KEY_HEADER, key)
+                .body(response);
     }
 }
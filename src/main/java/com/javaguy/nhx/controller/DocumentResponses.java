@@ -0,0 +1,30 @@
+package com.javaguy.nhx.controller;
+
+import com.javaguy.nhx.service.storage.DocumentStream;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+final class DocumentResponses {
+
+    private DocumentResponses() {
+    }
+
+    /**
+     * A 200, or a 206 with Content-Range for a partial document, streaming the document body.
+     * The converter copies with InputStream.transferTo and closes the stream afterwards.
+     */
+    static ResponseEntity<InputStreamResource> stream(DocumentStream document) {
+        ResponseEntity.BodyBuilder response = ResponseEntity
+                .status(document.isPartial() ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .contentType(MediaType.parseMediaType(document.contentType()))
+                .contentLength(document.length());
+        if (document.isPartial()) {
+            response.header(HttpHeaders.CONTENT_RANGE, document.contentRange());
+        }
+        return response.body(new InputStreamResource(document.content()));
+    }
+}
@@ -14,12 +14,12 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
 import java.util.UUID;
 
 @RestController
@@ -31,9 +31,10 @@ public class KesyController {
 
     private final MintRequestService mintRequestService;
 
-    @Operation(summary = "Request Token Mint", description = "Submits a request to mint KESY tokens. Requires KYC VERIFIED status and a minimum amount.")
+    @Operation(summary = "Request Token Mint", description = "Submits a request to mint KESY tokens. Requires KYC VERIFIED status and a minimum amount. "
+            + "The request is processed in the background; poll the Location URL for its progress.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "201", description = "Mint request created successfully",
+            @ApiResponse(responseCode = "201", description = "Mint request created; processing continues in the background",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = MintResponse.class))),
             @ApiResponse(responseCode = "400", description = "Bad Request - Invalid amount, wallet, or KYC status",
@@ -49,7 +50,8 @@ public class KesyController {
             @Valid @RequestBody MintRequest request,
             @AuthenticationPrincipal UserPrincipal currentUser) {
         MintResponse response = mintRequestService.requestMint(currentUser.getId(), request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        return ResponseEntity.created(URI.create("/api/kesy/mint/" + response.getRequestId()))
+                .body(response);
     }
 
     @Operation(summary = "Check Mint Status", description = "Retrieves the status of a specific token mint request by its ID.")
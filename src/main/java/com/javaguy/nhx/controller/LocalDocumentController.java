@@ -0,0 +1,36 @@
+package com.javaguy.nhx.controller;
+
+import com.javaguy.nhx.service.storage.DocumentStream;
+import com.javaguy.nhx.service.storage.LocalFileStorageService;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Serves the signed document links LocalFileStorageService hands out when running locally, the
+ * counterpart of a SAS URL in prod. The signature is the credential, so no login is needed.
+ */
+@RestController
+@RequestMapping(LocalFileStorageService.DOWNLOAD_PATH)
+@RequiredArgsConstructor
+@Profile({"dev", "local"})
+@Tag(name = "Local Document Controller", description = "Signed local document downloads")
+public class LocalDocumentController {
+
+    private final LocalFileStorageService localFileStorageService;
+
+    @GetMapping
+    public ResponseEntity<InputStreamResource> getDocument(
+            @RequestParam String path,
+            @RequestParam long expires,
+            @RequestParam String signature,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range) {
+
+        return DocumentResponses.stream(localFileStorageService.openSigned(path, expires, signature,
+                DocumentStream.parseRanges(range)));
+    }
+}
@@ -2,8 +2,10 @@ package com.javaguy.nhx.controller;
 
 import com.javaguy.nhx.model.dto.request.DetailsRequest;
 import com.javaguy.nhx.model.dto.request.UserProfileRequest;
+import com.javaguy.nhx.model.dto.response.CursorPage;
 import com.javaguy.nhx.model.dto.response.MintResponseDto;
 import com.javaguy.nhx.model.dto.response.UserProfileResponse;
+import com.javaguy.nhx.model.enums.MintStatus;
 import com.javaguy.nhx.security.UserPrincipal;
 import com.javaguy.nhx.service.mint.MintRequestService;
 import com.javaguy.nhx.service.auth.UserService;
@@ -11,6 +13,7 @@ import io.swagger.v3.oas.annotations.media.ArraySchema;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -22,6 +25,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -88,7 +92,9 @@ public class UserController {
         return ResponseEntity.ok(response);
     }
 
-    @Operation(summary = "Get All mint operations for a logged in user")
+    @Operation(summary = "Get All mint operations for a logged in user",
+            description = "Unbounded; use /api/user/mints/cursor to page through long histories.",
+            deprecated = true)
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Mints retrieved",
             content = @Content(mediaType = "application/json",
@@ -100,4 +106,27 @@ public class UserController {
         List<MintResponseDto> mints = mintRequestService.getAllMintsForUser(currentUser.getId());
         return ResponseEntity.ok(mints);
     }
+
+    /**
+     * The user's mints newest first by continuation token: omit {@code cursor} for the first page,
+     * then pass back {@code nextCursor} until it is null. Costs the same at any depth; there is no total.
+     */
+    @Operation(summary = "Page through mint operations for a logged in user",
+            description = "Newest first, optionally filtered by status and an inclusive initiation date range.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Mints retrieved",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = CursorPage.class)))
+    })
+    @GetMapping("/mints/cursor")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<CursorPage<MintResponseDto>> getMintHistory(
+            @AuthenticationPrincipal UserPrincipal currentUser,
+            @RequestParam(required = false) MintStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(mintRequestService.getMintHistory(currentUser.getId(), status, from, to, cursor, size));
+    }
 }
@@ -14,6 +14,7 @@ import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.HttpMediaTypeNotSupportedException;
 import org.springframework.web.HttpRequestMethodNotSupportedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.MissingRequestHeaderException;
 import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.multipart.support.MissingServletRequestPartException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -191,6 +192,13 @@ public class GlobalExceptionHandler {
         return logAndRespond(HttpStatus.BAD_REQUEST, "Missing Parameter", message, request.getRequestURI(), ex, false);
     }
 
+    @ExceptionHandler(MissingRequestHeaderException.class)
+    public ResponseEntity<ErrorResponse> handleMissingRequestHeader(MissingRequestHeaderException ex,
+            HttpServletRequest request) {
+        String message = String.format("Required header '%s' is missing", ex.getHeaderName());
+        return logAndRespond(HttpStatus.BAD_REQUEST, "Missing Header", message, request.getRequestURI(), ex, false);
+    }
+
     // ==================== HTTP Method & Media Type Exceptions ====================
 
     @ExceptionHandler(HttpRequestMethodNotSupportedException.class)
@@ -247,6 +255,11 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(AuthenticationException.class)
     public ResponseEntity<ErrorResponse> handleAuthenticationException(AuthenticationException ex,
             HttpServletRequest request) {
+        // DaoAuthenticationProvider wraps a saturated password hashing pool in
+        // InternalAuthenticationServiceException; that is an overload, not bad credentials
+        if (ex.getCause() instanceof ServiceUnavailableException unavailable) {
+            return handleServiceUnavailableException(unavailable, request);
+        }
         String message = ex.getMessage() != null ? ex.getMessage()
                 : "Authentication failed. Please provide valid credentials.";
         return logAndRespond(HttpStatus.UNAUTHORIZED, "Authentication Failed", message, request.getRequestURI(), ex,
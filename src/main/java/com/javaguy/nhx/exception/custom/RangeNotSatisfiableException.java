@@ -0,0 +1,13 @@
+package com.javaguy.nhx.exception.custom;
+
+import org.springframework.http.HttpStatus;
+
+public class RangeNotSatisfiableException extends BaseException {
+    public RangeNotSatisfiableException(String message) {
+        super(message, HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+    }
+
+    public RangeNotSatisfiableException(String message, Throwable cause) {
+        super(message, HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE, cause);
+    }
+}
@@ -0,0 +1,13 @@
+package com.javaguy.nhx.exception.custom;
+
+/**
+ * An upstream call was refused locally because that upstream's concurrency limit was full.
+ * Still a 503 for the caller, but never retried in-process: a retry would only queue again
+ * behind the calls that filled the limit.
+ */
+public class UpstreamBusyException extends ServiceUnavailableException {
+
+    public UpstreamBusyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,16 @@
+package com.javaguy.nhx.model.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class BatchItemResult {
+    // position of the item in the submitted list
+    private int index;
+    private String idempotencyKey;
+    private boolean success;
+    // SDK response body when the item succeeded
+    private String response;
+    private String error;
+}
@@ -0,0 +1,16 @@
+package com.javaguy.nhx.model.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class BatchOperationResponse {
+    private String idempotencyKey;
+    private int total;
+    private int succeeded;
+    private int failed;
+    private List<BatchItemResult> results;
+}
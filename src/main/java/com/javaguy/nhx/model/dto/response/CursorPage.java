@@ -0,0 +1,16 @@
+package com.javaguy.nhx.model.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class CursorPage<T> {
+    private List<T> content;
+    private int size;
+    // pass back as ?cursor= for the next page; null on the last page
+    private String nextCursor;
+    private boolean hasNext;
+}
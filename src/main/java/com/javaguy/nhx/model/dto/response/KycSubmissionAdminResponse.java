@@ -18,8 +18,9 @@ public class KycSubmissionAdminResponse {
     private String documentType;
     private String documentNumber;
     private String sourceOfFunds;
-    private String documentFrontPath;
-    private String documentBackPath;
+    // short-lived signed links that read straight from storage
+    private String documentFrontUrl;
+    private String documentBackUrl;
     private KycStatus status;
     private LocalDateTime submittedAt;
 }
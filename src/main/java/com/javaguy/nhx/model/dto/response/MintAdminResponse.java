@@ -1,5 +1,6 @@
 package com.javaguy.nhx.model.dto.response;
 
+import com.javaguy.nhx.model.enums.MintProcessingStage;
 import com.javaguy.nhx.model.enums.MintStatus;
 import lombok.Builder;
 import lombok.Data;
@@ -18,6 +19,7 @@ public class MintAdminResponse {
     private String walletAddress;
     private BigDecimal amountKes;
     private MintStatus status;
+    private MintProcessingStage processingStage;
     private LocalDate dateInitiated;
     private String treasuryTransactionId;
     private LocalDateTime createdAt;
@@ -1,5 +1,6 @@
 package com.javaguy.nhx.model.dto.response;
 
+import com.javaguy.nhx.model.enums.MintProcessingStage;
 import com.javaguy.nhx.model.enums.MintStatus;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -19,6 +20,7 @@ public class MintResponseDto {
     private UUID id;
     private BigDecimal amountKes;
     private MintStatus status;
+    private MintProcessingStage processingStage;
     private LocalDate dateInitiated;
     private String treasuryTransactionId;
     private LocalDateTime createdAt;
@@ -1,5 +1,6 @@
 package com.javaguy.nhx.model.dto.response;
 
+import com.javaguy.nhx.model.enums.MintProcessingStage;
 import com.javaguy.nhx.model.enums.MintStatus;
 import lombok.Builder;
 import lombok.Data;
@@ -13,6 +14,7 @@ import java.util.UUID;
 public class MintStatusResponse {
     private UUID requestId;
     private MintStatus status;
+    private MintProcessingStage processingStage;
     private BigDecimal tokensMinted;
     private LocalDateTime dateInitiated;
     private LocalDateTime dateCompleted;
@@ -0,0 +1,70 @@
+package com.javaguy.nhx.model.entity;
+
+import com.javaguy.nhx.model.enums.EmailOutboxStatus;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+@Entity
+@Table(name = "email_outbox", indexes = {
+        @Index(name = "idx_email_outbox_status_next_attempt", columnList = "status, next_attempt_at")
+})
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmailOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(nullable = false)
+    private String subject;
+
+    // Rendered at dispatch from template and variables, so no message body is stored
+    private String template;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    private Map<String, Object> variables;
+
+    // Only set on rows queued before messages were rendered at dispatch
+    @Column(columnDefinition = "TEXT")
+    private String htmlBody;
+
+    // Notification type used in logs, e.g. "OTP" or "Mint Status Change"
+    @Column(nullable = false)
+    private String type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private EmailOutboxStatus status = EmailOutboxStatus.PENDING;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private LocalDateTime nextAttemptAt = LocalDateTime.now();
+
+    // Identifies the poller holding a SENDING row; its updates are ignored once another takes over
+    private UUID leaseToken;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    private LocalDateTime sentAt;
+}
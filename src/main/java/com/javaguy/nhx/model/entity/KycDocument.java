@@ -9,7 +9,11 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "kyc_documents")
+@Table(name = "kyc_documents", indexes = {
+        // keyset pages of the admin KYC queue
+        @Index(name = "idx_kyc_documents_submitted_at_id", columnList = "submitted_at, id"),
+        @Index(name = "idx_kyc_documents_user_id", columnList = "user_id")
+})
 @Getter
 @Setter
 @Builder
@@ -41,6 +45,8 @@ public class KycDocument {
     private String documentFrontPath;
     private String documentBackPath;
     
+    // part of the admin queue's keyset, so never null
     @CreatedDate
+    @Column(nullable = false, updatable = false)
     private LocalDateTime submittedAt;
 }
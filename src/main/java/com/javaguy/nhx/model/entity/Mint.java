@@ -1,12 +1,11 @@
 package com.javaguy.nhx.model.entity;
 
+import com.javaguy.nhx.model.enums.MintProcessingStage;
 import com.javaguy.nhx.model.enums.MintStatus;
 import jakarta.persistence.*;
-import lombok.AllArgsConstructor;
-import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.*;
 import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.domain.Persistable;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import java.math.BigDecimal;
@@ -15,16 +14,23 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "mints")
+@Table(name = "mints", indexes = {
+        @Index(name = "idx_mints_processing_stage_created_at", columnList = "processing_stage, created_at"),
+        // keyset pages of the admin mint list, unfiltered and by status
+        @Index(name = "idx_mints_date_initiated_id", columnList = "date_initiated, id"),
+        @Index(name = "idx_mints_status_date_initiated_id", columnList = "status, date_initiated, id"),
+        @Index(name = "idx_mints_user_id_date_initiated_id", columnList = "user_id, date_initiated, id")
+        // also idx_mints_payment_reference, a partial index only in db/migration
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @EntityListeners(AuditingEntityListener.class)
-public class Mint {
+public class Mint implements Persistable<UUID> {
 
+    // assigned by the application (see TimeOrderedUuid) so the row is written in a single INSERT
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -42,6 +48,15 @@ public class Mint {
     @Column(nullable = false)
     private MintStatus status;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "processing_stage", nullable = false)
+    private MintProcessingStage processingStage;
+
+    // Failed pipeline runs; at mint.pipeline.max-attempts the mint is moved to ABANDONED and left alone
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer processingAttempts = 0;
+
     @Column(nullable = false)
     private LocalDate dateInitiated;
 
@@ -57,4 +72,26 @@ public class Mint {
     @CreatedDate
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
+
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private boolean persisted;
+
+    /**
+     * With an assigned id, Spring Data would otherwise treat a new mint as existing and
+     * SELECT it before merging.
+     */
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
 }
@@ -1,5 +1,6 @@
 package com.javaguy.nhx.model.entity;
 
+import com.javaguy.nhx.model.enums.OtpPurpose;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -10,7 +11,11 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "otps")
+@Table(name = "otps", indexes = {
+        @Index(name = "idx_otps_email_purpose", columnList = "email, purpose"),
+        @Index(name = "idx_otps_expiry_time", columnList = "expiry_time")
+        // also idx_otps_unused_email_purpose_created_at, a partial index only in db/migration
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -23,6 +28,11 @@ public class Otp {
     @Column(nullable = false)
     private String email;
     
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    @Builder.Default
+    private OtpPurpose purpose = OtpPurpose.EMAIL_VERIFICATION;
+    
     @Column(nullable = false)
     private String otpCode;
     
@@ -33,6 +43,10 @@ public class Otp {
     @Builder.Default
     private Boolean used = false;
     
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+    
     @Builder.Default
     private LocalDateTime createdAt = LocalDateTime.now();
 }
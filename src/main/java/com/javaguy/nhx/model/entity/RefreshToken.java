@@ -7,7 +7,10 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "refresh_tokens")
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_tokens_expiry_date", columnList = "expiry_date"),
+        @Index(name = "idx_refresh_tokens_user_created_at", columnList = "user_id, created_at")
+})
 @Getter
 @Setter
 @Builder
@@ -22,8 +25,9 @@ public class RefreshToken {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
     
-    @Column(nullable = false, unique = true)
-    private String token;
+    // SHA-256 hex digest of the refresh token; the token itself is never stored
+    @Column(name = "token_hash", nullable = false, unique = true, length = 64)
+    private String tokenHash;
     
     @Column(nullable = false)
     private LocalDateTime expiryDate;
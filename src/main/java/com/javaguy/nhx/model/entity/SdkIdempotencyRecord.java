@@ -0,0 +1,39 @@
+package com.javaguy.nhx.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Response the SDK returned for an idempotency key, so a repeated mint or transfer with the same
+ * key is answered locally instead of reaching the SDK a second time.
+ */
+@Entity
+@Table(name = "sdk_idempotency_records", indexes = {
+        @Index(name = "idx_sdk_idempotency_records_created_at", columnList = "created_at")
+})
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SdkIdempotencyRecord {
+    @Id
+    @Column(name = "idempotency_key", length = 128)
+    private String idempotencyKey;
+
+    // SDK operation the key was used for, e.g. "mint" or "transfer"
+    @Column(nullable = false, length = 32)
+    private String operation;
+
+    // SHA-256 hex digest of the request, to reject a key reused for a different request
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(columnDefinition = "TEXT")
+    private String responseBody;
+
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
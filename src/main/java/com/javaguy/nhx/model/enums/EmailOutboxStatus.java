@@ -0,0 +1,8 @@
+package com.javaguy.nhx.model.enums;
+
+public enum EmailOutboxStatus {
+    PENDING,
+    SENDING,
+    SENT,
+    DEAD
+}
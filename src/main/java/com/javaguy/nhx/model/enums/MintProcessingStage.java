@@ -0,0 +1,12 @@
+package com.javaguy.nhx.model.enums;
+
+/**
+ * Progress of the background work that follows a mint request, in order.
+ */
+public enum MintProcessingStage {
+    ACCEPTED,
+    TREASURY_REGISTERED,
+    COMPLETED,
+    // the pipeline gave up after mint.pipeline.max-attempts failed runs; the mint's status is left as it was
+    ABANDONED
+}
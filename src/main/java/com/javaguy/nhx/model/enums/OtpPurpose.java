@@ -0,0 +1,6 @@
+package com.javaguy.nhx.model.enums;
+
+public enum OtpPurpose {
+    EMAIL_VERIFICATION,
+    PASSWORD_RESET
+}
@@ -0,0 +1,68 @@
+package com.javaguy.nhx.repository;
+
+import com.javaguy.nhx.model.entity.EmailOutbox;
+import com.javaguy.nhx.model.enums.EmailOutboxStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, UUID> {
+
+    // SKIP LOCKED (lock timeout -2) lets several instances claim disjoint batches
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM EmailOutbox e WHERE e.status IN :statuses AND e.nextAttemptAt <= :now ORDER BY e.nextAttemptAt")
+    List<EmailOutbox> findDueForUpdate(@Param("statuses") Collection<EmailOutboxStatus> statuses,
+                                       @Param("now") LocalDateTime now,
+                                       Pageable pageable);
+
+    // The lease predicate makes these no-ops (0 rows) once the lease has passed to another poller
+    @Transactional
+    @Modifying
+    @Query("UPDATE EmailOutbox e SET e.status = com.javaguy.nhx.model.enums.EmailOutboxStatus.SENT, " +
+            "e.attempts = :attempts, e.sentAt = :sentAt, e.lastError = null, e.htmlBody = null, " +
+            "e.variables = null, e.leaseToken = null " +
+            "WHERE e.id = :id AND e.status = com.javaguy.nhx.model.enums.EmailOutboxStatus.SENDING " +
+            "AND e.leaseToken = :leaseToken")
+    int markSent(@Param("id") UUID id,
+                 @Param("leaseToken") UUID leaseToken,
+                 @Param("attempts") int attempts,
+                 @Param("sentAt") LocalDateTime sentAt);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE EmailOutbox e SET e.status = :status, e.attempts = :attempts, " +
+            "e.nextAttemptAt = :nextAttemptAt, e.lastError = :lastError, e.leaseToken = null " +
+            "WHERE e.id = :id AND e.status = com.javaguy.nhx.model.enums.EmailOutboxStatus.SENDING " +
+            "AND e.leaseToken = :leaseToken")
+    int markFailed(@Param("id") UUID id,
+                   @Param("leaseToken") UUID leaseToken,
+                   @Param("status") EmailOutboxStatus status,
+                   @Param("attempts") int attempts,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                   @Param("lastError") String lastError);
+
+    @Query("SELECT e.id FROM EmailOutbox e WHERE e.status = com.javaguy.nhx.model.enums.EmailOutboxStatus.SENT " +
+            "AND e.sentAt < :cutoff ORDER BY e.sentAt")
+    List<UUID> findSentIdsBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM EmailOutbox e WHERE e.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<UUID> ids);
+
+    long countByStatus(EmailOutboxStatus status);
+}
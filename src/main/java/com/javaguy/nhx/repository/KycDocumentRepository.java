@@ -2,14 +2,67 @@ package com.javaguy.nhx.repository;
 
 import com.javaguy.nhx.model.entity.KycDocument;
 import com.javaguy.nhx.model.enums.KycStatus;
-import org.springframework.data.domain.Page;
+import com.javaguy.nhx.repository.projection.KycSubmissionRow;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface KycDocumentRepository extends JpaRepository<KycDocument, UUID> {
     List<KycDocument> findByUserId(UUID userId);
-    Page<KycDocument> findByUser_KycStatus(KycStatus status, Pageable pageable);
+
+    // For AdminService: a review updates the submitter's status
+    @EntityGraph(attributePaths = "user")
+    Optional<KycDocument> findWithUserById(UUID id);
+
+    long countByUser_KycStatus(KycStatus status);
+
+    // For AdminService: one statement per page, user columns from the join. The total is a separate
+    // count, run only when the page does not already tell it. Also the first keyset page
+    @Query("""
+            SELECT new com.javaguy.nhx.repository.projection.KycSubmissionRow(
+                d.id, u.id, u.email, d.fullName, d.dob, d.documentType, d.documentNumber,
+                d.documentFrontPath, d.documentBackPath, u.kycStatus, d.submittedAt)
+            FROM KycDocument d JOIN d.user u
+            ORDER BY d.submittedAt DESC, d.id DESC""")
+    List<KycSubmissionRow> findSubmissionRows(Pageable pageable);
+
+    @Query("""
+            SELECT new com.javaguy.nhx.repository.projection.KycSubmissionRow(
+                d.id, u.id, u.email, d.fullName, d.dob, d.documentType, d.documentNumber,
+                d.documentFrontPath, d.documentBackPath, u.kycStatus, d.submittedAt)
+            FROM KycDocument d JOIN d.user u
+            WHERE u.kycStatus = :status
+            ORDER BY d.submittedAt DESC, d.id DESC""")
+    List<KycSubmissionRow> findSubmissionRowsByStatus(@Param("status") KycStatus status, Pageable pageable);
+
+    // Keyset pages for AdminService: newest first, continuing strictly after the (submittedAt, id)
+    // of the last row already seen, so each page is an index range read with no OFFSET and no count
+    // (the first page is findSubmissionRows)
+    @Query("""
+            SELECT new com.javaguy.nhx.repository.projection.KycSubmissionRow(
+                d.id, u.id, u.email, d.fullName, d.dob, d.documentType, d.documentNumber,
+                d.documentFrontPath, d.documentBackPath, u.kycStatus, d.submittedAt)
+            FROM KycDocument d JOIN d.user u
+            WHERE (d.submittedAt, d.id) < (:submittedAt, :id)
+            ORDER BY d.submittedAt DESC, d.id DESC""")
+    List<KycSubmissionRow> findSubmissionRowsAfter(@Param("submittedAt") LocalDateTime submittedAt,
+                                                   @Param("id") UUID id, Pageable pageable);
+
+    @Query("""
+            SELECT new com.javaguy.nhx.repository.projection.KycSubmissionRow(
+                d.id, u.id, u.email, d.fullName, d.dob, d.documentType, d.documentNumber,
+                d.documentFrontPath, d.documentBackPath, u.kycStatus, d.submittedAt)
+            FROM KycDocument d JOIN d.user u
+            WHERE u.kycStatus = :status AND (d.submittedAt, d.id) < (:submittedAt, :id)
+            ORDER BY d.submittedAt DESC, d.id DESC""")
+    List<KycSubmissionRow> findSubmissionRowsAfterByStatus(@Param("status") KycStatus status,
+                                                           @Param("submittedAt") LocalDateTime submittedAt,
+                                                           @Param("id") UUID id, Pageable pageable);
 }
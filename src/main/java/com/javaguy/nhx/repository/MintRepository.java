@@ -1,11 +1,22 @@
 package com.javaguy.nhx.repository;
 
 import com.javaguy.nhx.model.entity.Mint;
+import com.javaguy.nhx.model.enums.MintProcessingStage;
 import com.javaguy.nhx.model.enums.MintStatus;
+import com.javaguy.nhx.repository.projection.MintAdminRow;
+import com.javaguy.nhx.repository.projection.MintHistoryRow;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -13,11 +24,123 @@ import java.util.UUID;
 public interface MintRepository extends JpaRepository<Mint, UUID> {
     Optional<Mint> findByPaymentReference(String paymentReference);
 
-    // For AdminService
-    Page<Mint> findByStatus(MintStatus status, Pageable pageable);
+    // For AdminService: one statement per page, user and wallet columns from the joins. The total is
+    // a separate count, run only when the page does not already tell it, so the page itself stops
+    // reading idx_mints_date_initiated_id after its rows. Also the first keyset page
+    @Query("""
+            SELECT new com.javaguy.nhx.repository.projection.MintAdminRow(
+                m.id, u.id, u.email, w.walletAddress, m.amountKes, m.status, m.processingStage,
+                m.dateInitiated, m.treasuryTransactionId, m.createdAt)
+            FROM Mint m JOIN m.user u JOIN m.wallet w
+            ORDER BY m.dateInitiated DESC, m.id DESC""")
+    List<MintAdminRow> findAdminRows(Pageable pageable);
+
+    @Query("""
+            SELECT new com.javaguy.nhx.repository.projection.MintAdminRow(
+                m.id, u.id, u.email, w.walletAddress, m.amountKes, m.status, m.processingStage,
+                m.dateInitiated, m.treasuryTransactionId, m.createdAt)
+            FROM Mint m JOIN m.user u JOIN m.wallet w
+            WHERE m.status = :status
+            ORDER BY m.dateInitiated DESC, m.id DESC""")
+    List<MintAdminRow> findAdminRowsByStatus(@Param("status") MintStatus status, Pageable pageable);
+
+    long countByStatus(MintStatus status);
+
+    // Keyset pages for AdminService: newest first, continuing strictly after the (dateInitiated, id)
+    // of the last row already seen, so each page is an index range read with no OFFSET and no count
+    // (the first page is findAdminRows)
+    @Query("""
+            SELECT new com.javaguy.nhx.repository.projection.MintAdminRow(
+                m.id, u.id, u.email, w.walletAddress, m.amountKes, m.status, m.processingStage,
+                m.dateInitiated, m.treasuryTransactionId, m.createdAt)
+            FROM Mint m JOIN m.user u JOIN m.wallet w
+            WHERE (m.dateInitiated, m.id) < (:dateInitiated, :id)
+            ORDER BY m.dateInitiated DESC, m.id DESC""")
+    List<MintAdminRow> findAdminRowsAfter(@Param("dateInitiated") LocalDate dateInitiated,
+                                          @Param("id") UUID id, Pageable pageable);
+
+    @Query("""
+            SELECT new com.javaguy.nhx.repository.projection.MintAdminRow(
+                m.id, u.id, u.email, w.walletAddress, m.amountKes, m.status, m.processingStage,
+                m.dateInitiated, m.treasuryTransactionId, m.createdAt)
+            FROM Mint m JOIN m.user u JOIN m.wallet w
+            WHERE m.status = :status AND (m.dateInitiated, m.id) < (:dateInitiated, :id)
+            ORDER BY m.dateInitiated DESC, m.id DESC""")
+    List<MintAdminRow> findAdminRowsAfterByStatus(@Param("status") MintStatus status,
+                                                  @Param("dateInitiated") LocalDate dateInitiated,
+                                                  @Param("id") UUID id, Pageable pageable);
+
+    // Keyset pages of one user's history for MintRequestService, same order as the admin list. The
+    // date range is always bound so each page is a single range read of
+    // idx_mints_user_id_date_initiated_id, with the wallet address from the join
+    @Query("""
+            SELECT new com.javaguy.nhx.repository.projection.MintHistoryRow(
+                m.id, w.walletAddress, m.amountKes, m.status, m.processingStage, m.dateInitiated,
+                m.treasuryTransactionId, m.createdAt)
+            FROM Mint m JOIN m.wallet w
+            WHERE m.user.id = :userId AND m.dateInitiated BETWEEN :from AND :to
+            ORDER BY m.dateInitiated DESC, m.id DESC""")
+    List<MintHistoryRow> findHistoryRowsFirst(@Param("userId") UUID userId, @Param("from") LocalDate from,
+                                              @Param("to") LocalDate to, Pageable pageable);
+
+    @Query("""
+            SELECT new com.javaguy.nhx.repository.projection.MintHistoryRow(
+                m.id, w.walletAddress, m.amountKes, m.status, m.processingStage, m.dateInitiated,
+                m.treasuryTransactionId, m.createdAt)
+            FROM Mint m JOIN m.wallet w
+            WHERE m.user.id = :userId AND m.dateInitiated BETWEEN :from AND :to
+                AND (m.dateInitiated, m.id) < (:dateInitiated, :id)
+            ORDER BY m.dateInitiated DESC, m.id DESC""")
+    List<MintHistoryRow> findHistoryRowsAfter(@Param("userId") UUID userId, @Param("from") LocalDate from,
+                                              @Param("to") LocalDate to,
+                                              @Param("dateInitiated") LocalDate dateInitiated,
+                                              @Param("id") UUID id, Pageable pageable);
+
+    @Query("""
+            SELECT new com.javaguy.nhx.repository.projection.MintHistoryRow(
+                m.id, w.walletAddress, m.amountKes, m.status, m.processingStage, m.dateInitiated,
+                m.treasuryTransactionId, m.createdAt)
+            FROM Mint m JOIN m.wallet w
+            WHERE m.user.id = :userId AND m.dateInitiated BETWEEN :from AND :to AND m.status = :status
+            ORDER BY m.dateInitiated DESC, m.id DESC""")
+    List<MintHistoryRow> findHistoryRowsFirstByStatus(@Param("userId") UUID userId, @Param("from") LocalDate from,
+                                                      @Param("to") LocalDate to,
+                                                      @Param("status") MintStatus status, Pageable pageable);
+
+    @Query("""
+            SELECT new com.javaguy.nhx.repository.projection.MintHistoryRow(
+                m.id, w.walletAddress, m.amountKes, m.status, m.processingStage, m.dateInitiated,
+                m.treasuryTransactionId, m.createdAt)
+            FROM Mint m JOIN m.wallet w
+            WHERE m.user.id = :userId AND m.dateInitiated BETWEEN :from AND :to AND m.status = :status
+                AND (m.dateInitiated, m.id) < (:dateInitiated, :id)
+            ORDER BY m.dateInitiated DESC, m.id DESC""")
+    List<MintHistoryRow> findHistoryRowsAfterByStatus(@Param("userId") UUID userId, @Param("from") LocalDate from,
+                                                      @Param("to") LocalDate to,
+                                                      @Param("status") MintStatus status,
+                                                      @Param("dateInitiated") LocalDate dateInitiated,
+                                                      @Param("id") UUID id, Pageable pageable);
+
     Page<Mint> findByUserId(UUID userId, Pageable pageable);
     Optional<Mint> findByUserIdAndId(UUID userId, UUID id);
 
-    // For UserService
+    // For UserService; the response shows each mint's wallet address
+    @EntityGraph(attributePaths = "wallet")
     List<Mint> findByUser(com.javaguy.nhx.model.entity.User user);
+
+    // For AdminService: the status change notification goes to the user and names the wallet
+    @EntityGraph(attributePaths = {"user", "wallet"})
+    Optional<Mint> findWithUserAndWalletById(UUID id);
+
+    // For MintPipeline: the row lock serialises stage transitions between workers
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT m FROM Mint m JOIN FETCH m.user JOIN FETCH m.wallet WHERE m.id = :id")
+    Optional<Mint> findByIdForProcessing(@Param("id") UUID id);
+
+    @Query("SELECT m.id FROM Mint m WHERE m.processingStage IN :stages AND m.createdAt < :before " +
+            "AND m.processingAttempts < :maxAttempts ORDER BY m.createdAt")
+    List<UUID> findStalledIds(@Param("stages") Collection<MintProcessingStage> stages,
+                              @Param("before") LocalDateTime before,
+                              @Param("maxAttempts") int maxAttempts,
+                              Pageable pageable);
 }
@@ -1,7 +1,11 @@
 package com.javaguy.nhx.repository;
 
 import com.javaguy.nhx.model.entity.Otp;
+import com.javaguy.nhx.model.enums.OtpPurpose;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -10,8 +14,16 @@ import java.util.UUID;
 
 @Repository
 public interface OtpRepository extends JpaRepository<Otp, UUID> {
-    Optional<Otp> findByEmailAndOtpCodeAndUsedFalseAndExpiryTimeAfter(
-            String email, String otpCode, LocalDateTime currentTime);
+    Optional<Otp> findTopByEmailAndPurposeAndUsedFalseAndExpiryTimeAfterOrderByCreatedAtDesc(
+            String email, OtpPurpose purpose, LocalDateTime currentTime);
 
     Optional<Otp> findTopByEmailOrderByCreatedAtDesc(String email);
+
+    @Modifying
+    @Query("DELETE FROM Otp o WHERE o.email = :email AND o.purpose = :purpose")
+    int deleteByEmailAndPurpose(@Param("email") String email, @Param("purpose") OtpPurpose purpose);
+
+    @Modifying
+    @Query("DELETE FROM Otp o WHERE o.used = true OR o.expiryTime < :now")
+    int deleteUsedOrExpired(@Param("now") LocalDateTime now);
 }
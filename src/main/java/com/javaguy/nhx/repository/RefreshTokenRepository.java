@@ -2,14 +2,31 @@ package com.javaguy.nhx.repository;
 
 import com.javaguy.nhx.model.entity.RefreshToken;
 import com.javaguy.nhx.model.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, UUID> {
-    Optional<RefreshToken> findByToken(String token);
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
     void deleteByUser(User user);
+
+    @Query("SELECT r.id FROM RefreshToken r WHERE r.user = :user ORDER BY r.createdAt DESC")
+    List<UUID> findIdsByUserNewestFirst(@Param("user") User user);
+
+    @Query("SELECT r.id FROM RefreshToken r WHERE r.expiryDate < :now ORDER BY r.expiryDate")
+    List<UUID> findExpiredIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken r WHERE r.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<UUID> ids);
 }
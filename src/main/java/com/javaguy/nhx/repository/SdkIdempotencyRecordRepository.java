@@ -0,0 +1,20 @@
+package com.javaguy.nhx.repository;
+
+import com.javaguy.nhx.model.entity.SdkIdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface SdkIdempotencyRecordRepository extends JpaRepository<SdkIdempotencyRecord, String> {
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM SdkIdempotencyRecord r WHERE r.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,23 @@
+package com.javaguy.nhx.repository.projection;
+
+import com.javaguy.nhx.model.enums.KycStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One row of the admin KYC queue: the document joined with its user's email and status.
+ */
+public record KycSubmissionRow(
+        UUID kycId,
+        UUID userId,
+        String userEmail,
+        String fullName,
+        String dob,
+        String documentType,
+        String documentNumber,
+        String documentFrontPath,
+        String documentBackPath,
+        KycStatus status,
+        LocalDateTime submittedAt) {
+}
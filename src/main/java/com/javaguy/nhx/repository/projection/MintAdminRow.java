@@ -0,0 +1,25 @@
+package com.javaguy.nhx.repository.projection;
+
+import com.javaguy.nhx.model.enums.MintProcessingStage;
+import com.javaguy.nhx.model.enums.MintStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One row of the admin mint list: the mint joined with its user's email and wallet address.
+ */
+public record MintAdminRow(
+        UUID requestId,
+        UUID userId,
+        String userEmail,
+        String walletAddress,
+        BigDecimal amountKes,
+        MintStatus status,
+        MintProcessingStage processingStage,
+        LocalDate dateInitiated,
+        String treasuryTransactionId,
+        LocalDateTime createdAt) {
+}
@@ -0,0 +1,23 @@
+package com.javaguy.nhx.repository.projection;
+
+import com.javaguy.nhx.model.enums.MintProcessingStage;
+import com.javaguy.nhx.model.enums.MintStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One row of a user's own mint history: the mint joined with the address of the wallet it pays into.
+ */
+public record MintHistoryRow(
+        UUID requestId,
+        String walletAddress,
+        BigDecimal amountKes,
+        MintStatus status,
+        MintProcessingStage processingStage,
+        LocalDate dateInitiated,
+        String treasuryTransactionId,
+        LocalDateTime createdAt) {
+}
@@ -0,0 +1,34 @@
+package com.javaguy.nhx.security;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory record of users whose identity or authorities changed, keyed by user id and holding
+ * the authorities version (epoch millis) at which the change happened. An access token stamped
+ * with an older version must not be trusted on its embedded claims alone.
+ *
+ * Entries only need to live as long as an access token can, after which every token issued
+ * before the change has expired anyway, so the set stays small.
+ */
+public class AuthoritiesVersionRegistry {
+
+    private final ConcurrentHashMap<UUID, Long> changedAt = new ConcurrentHashMap<>();
+
+    public void markChanged(UUID userId, long version) {
+        changedAt.merge(userId, version, Math::max);
+    }
+
+    public boolean isStale(UUID userId, long tokenVersion) {
+        Long changed = changedAt.get(userId);
+        return changed != null && tokenVersion <= changed;
+    }
+
+    public void purgeOlderThan(long version) {
+        changedAt.values().removeIf(changed -> changed < version);
+    }
+
+    public int size() {
+        return changedAt.size();
+    }
+}
@@ -0,0 +1,140 @@
+package com.javaguy.nhx.security;
+
+import com.javaguy.nhx.exception.custom.ServiceUnavailableException;
+import com.javaguy.nhx.util.DaemonThreadPool;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+
+/**
+ * BCrypt encoder that runs every hash on a dedicated, size-limited executor instead of the
+ * calling request thread. At most {@code poolSize} hashes run at once and at most
+ * {@code queueCapacity} wait; anything beyond that is rejected immediately with a
+ * {@link ServiceUnavailableException} (HTTP 503, also when DaoAuthenticationProvider wraps it)
+ * rather than tying up request threads on CPU.
+ *
+ * {@link #upgradeEncoding(String)} reports hashes stored with a lower cost than the configured
+ * one, which lets DaoAuthenticationProvider rehash them transparently on the next login.
+ */
+@Slf4j
+public class BoundedBCryptPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    static final int MIN_STRENGTH = 4;
+    static final int MAX_STRENGTH = 31;
+
+    private final BCryptPasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Duration waitTimeout;
+    private final int strength;
+
+    public BoundedBCryptPasswordEncoder(int strength, int poolSize, int queueCapacity, Duration waitTimeout) {
+        this.strength = strength;
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.waitTimeout = waitTimeout;
+
+        BlockingQueue<Runnable> queue = queueCapacity > 0
+                ? new ArrayBlockingQueue<>(queueCapacity)
+                : new SynchronousQueue<>();
+        this.executor = DaemonThreadPool.fixed("password-hash", poolSize, queue, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Half the available cores, at least one: enough hashing throughput for login bursts while
+     * leaving cores for the requests that don't hash.
+     */
+    public static int defaultPoolSize() {
+        return Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    }
+
+    /**
+     * Picks the highest BCrypt cost whose measured hash time on this machine stays within the
+     * target latency, never going below {@code minStrength}. Each extra cost step doubles the work.
+     */
+    public static int calibrateStrength(int minStrength, Duration targetLatency) {
+        int strength = Math.max(minStrength, MIN_STRENGTH);
+        // warm up so the first measurement isn't dominated by class loading and JIT
+        new BCryptPasswordEncoder(MIN_STRENGTH).encode("calibration");
+
+        long elapsed = measure(strength);
+        while (strength < MAX_STRENGTH && elapsed * 2 <= targetLatency.toNanos()) {
+            strength++;
+            elapsed = measure(strength);
+        }
+        if (elapsed > targetLatency.toNanos() && strength > minStrength) {
+            strength--;
+        }
+        log.info("Calibrated BCrypt strength {} for target latency {} ms (last hash took {} ms)",
+                strength, targetLatency.toMillis(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+        return strength;
+    }
+
+    private static long measure(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        long start = System.nanoTime();
+        encoder.encode("calibration");
+        return System.nanoTime() - start;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    private <T> T submit(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            log.warn("Password hashing pool saturated (active={}, queued={})",
+                    executor.getActiveCount(), executor.getQueue().size());
+            throw new ServiceUnavailableException("Too many concurrent authentication requests. Please retry shortly.", e);
+        }
+
+        try {
+            return future.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new ServiceUnavailableException("Authentication is taking too long. Please retry shortly.", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Authentication was interrupted. Please retry.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", cause);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
@@ -3,6 +3,9 @@ package com.javaguy.nhx.security;
 import com.javaguy.nhx.model.entity.User;
 import com.javaguy.nhx.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -12,9 +15,11 @@ import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+@Slf4j
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
+    private final UserPrincipalCache userPrincipalCache;
 
     @Override
     @Transactional
@@ -25,12 +30,33 @@ public class CustomUserDetailsService implements UserDetailsService {
         return UserPrincipal.create(user);
     }
 
-    @Transactional
     public UserPrincipal loadUserById(UUID id) {
+        UserPrincipal cached = userPrincipalCache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = userPrincipalCache.generation(id);
+
         User user = userRepository.findById(id).orElseThrow(
             () -> new UsernameNotFoundException("User not found with id : " + id)
         );
 
+        UserPrincipal principal = UserPrincipal.create(user);
+        userPrincipalCache.put(principal, generation);
+        return principal;
+    }
+
+    @Override
+    @Transactional
+    public UserPrincipal updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with email : " + userDetails.getUsername()));
+
+        user.setPasswordHash(newPassword);
+        userRepository.save(user);
+        userPrincipalCache.evict(user.getId());
+        log.info("Rehashed password with current BCrypt cost for user {}", user.getId());
+
         return UserPrincipal.create(user);
     }
 }
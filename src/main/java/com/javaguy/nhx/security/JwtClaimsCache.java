@@ -0,0 +1,55 @@
+package com.javaguy.nhx.security;
+
+import com.javaguy.nhx.util.ExpiringMap;
+import com.javaguy.nhx.util.TokenDigest;
+import io.jsonwebtoken.Claims;
+
+import java.util.Date;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded cache of signature-verified JWT claims, keyed by a SHA-256 digest of the token (see
+ * {@link #key}, computed once per lookup by the caller). Entries are dropped once the token's
+ * {@code exp} has passed, so a cached token can never outlive its own expiry; when full, the
+ * tokens closest to expiry make room for new ones.
+ */
+public class JwtClaimsCache {
+
+    private final ExpiringMap<String, Claims> entries;
+
+    public JwtClaimsCache(int maxSize) {
+        this(maxSize, System::currentTimeMillis);
+    }
+
+    JwtClaimsCache(int maxSize, LongSupplier clock) {
+        this.entries = new ExpiringMap<>(maxSize, clock);
+    }
+
+    public static String key(String token) {
+        return TokenDigest.sha256Hex(token);
+    }
+
+    public Claims get(String key) {
+        return entries.get(key);
+    }
+
+    public void put(String key, Claims claims) {
+        Date expiration = claims.getExpiration();
+        if (expiration == null) {
+            return;
+        }
+        entries.put(key, claims, expiration.getTime());
+    }
+
+    public void invalidate(String key) {
+        entries.remove(key);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+}
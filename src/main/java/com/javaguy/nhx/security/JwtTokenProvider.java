@@ -1,16 +1,20 @@
 package com.javaguy.nhx.security;
 
 import com.javaguy.nhx.config.JwtConfig;
+import com.javaguy.nhx.model.entity.User;
+import com.javaguy.nhx.model.enums.UserRole;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseCookie;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.UUID;
 
@@ -19,12 +23,22 @@ import java.util.UUID;
 @Slf4j
 public class JwtTokenProvider {
 
+    static final String CLAIM_EMAIL = "email";
+    static final String CLAIM_ROLE = "role";
+    static final String CLAIM_AUTHORITIES_VERSION = "av";
+
     private final JwtConfig jwtConfig;
+    private final AuthoritiesVersionRegistry authoritiesVersionRegistry = new AuthoritiesVersionRegistry();
     private Key key;
+    private JwtParser jwtParser;
+    private JwtClaimsCache claimsCache;
 
     @PostConstruct
     public void init() {
         this.key = Keys.hmacShaKeyFor(jwtConfig.getSecret().getBytes());
+        // JwtParser is immutable and thread-safe, so one instance serves every request
+        this.jwtParser = Jwts.parserBuilder().setSigningKey(key).build();
+        this.claimsCache = new JwtClaimsCache(jwtConfig.getClaimsCacheMaxSize());
     }
 
     public String generateToken(Authentication authentication) {
@@ -44,6 +58,25 @@ public class JwtTokenProvider {
                 .compact();
     }
 
+    /**
+     * Issues an access token that also carries the user's email, role and authorities version,
+     * so the stateless authentication mode can rebuild the principal without a database lookup.
+     */
+    public String generateToken(User user) {
+        Date now = new Date();
+        Date expiryDate = new Date(now.getTime() + jwtConfig.getAccessTokenExpiry());
+
+        return Jwts.builder()
+                .setSubject(user.getId().toString())
+                .claim(CLAIM_EMAIL, user.getEmail())
+                .claim(CLAIM_ROLE, user.getRole().name())
+                .claim(CLAIM_AUTHORITIES_VERSION, now.getTime())
+                .setIssuedAt(now)
+                .setExpiration(expiryDate)
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+    }
+
     public String generateRefreshToken() {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtConfig.getRefreshTokenExpiry());
@@ -56,19 +89,66 @@ public class JwtTokenProvider {
                 .compact();
     }
 
+    /**
+     * Returns the verified claims for a token, parsing and checking the signature only on the
+     * first sighting; later calls are served from the claims cache until the token expires.
+     */
+    public Claims parseClaims(String token) {
+        String key = JwtClaimsCache.key(token);
+        Claims claims = claimsCache.get(key);
+        if (claims != null) {
+            return claims;
+        }
+
+        claims = jwtParser.parseClaimsJws(token).getBody();
+        claimsCache.put(key, claims);
+        return claims;
+    }
+
     public UUID getUserIdFromJWT(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        Claims claims = parseClaims(token);
 
         return UUID.fromString(claims.getSubject());
     }
 
+    /**
+     * Builds a principal purely from the claims of an already validated access token. Returns null
+     * when the token predates embedded claims or the user was touched after it was issued, in
+     * which case the caller must load the principal from the database.
+     */
+    public UserPrincipal getPrincipalFromClaims(String token) {
+        Claims claims = parseClaims(token);
+        String email = claims.get(CLAIM_EMAIL, String.class);
+        String role = claims.get(CLAIM_ROLE, String.class);
+        Long version = claims.get(CLAIM_AUTHORITIES_VERSION, Long.class);
+        if (email == null || role == null || version == null) {
+            return null;
+        }
+
+        UUID userId = UUID.fromString(claims.getSubject());
+        if (authoritiesVersionRegistry.isStale(userId, version)) {
+            return null;
+        }
+
+        return new UserPrincipal(userId, email, null, new ArrayList<>(UserRole.valueOf(role).getAuthorities()));
+    }
+
+    /**
+     * Records that the user's identity or authorities changed, so access tokens issued before now
+     * are no longer trusted on their embedded claims.
+     */
+    public void markAuthoritiesChanged(UUID userId) {
+        authoritiesVersionRegistry.markChanged(userId, System.currentTimeMillis());
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.stateless-auth.purge-interval:300000}")
+    public void purgeAuthoritiesChanges() {
+        authoritiesVersionRegistry.purgeOlderThan(System.currentTimeMillis() - jwtConfig.getAccessTokenExpiry());
+    }
+
     public boolean validateToken(String authToken) {
         try {
-            Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(authToken);
+            parseClaims(authToken);
             return true;
         } catch (io.jsonwebtoken.security.SecurityException | MalformedJwtException ex) {
             log.error("Invalid JWT signature");
@@ -83,11 +163,7 @@ public class JwtTokenProvider {
     }
 
     public Date getExpiryDateFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        Claims claims = parseClaims(token);
         return claims.getExpiration();
     }
 
@@ -0,0 +1,162 @@
+package com.javaguy.nhx.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+import com.javaguy.nhx.util.ExpiringMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded, TTL-based cache of {@link UserPrincipal} by user id, consulted by
+ * {@link CustomUserDetailsService#loadUserById(UUID)} so authenticated requests do not hit the
+ * users table every time. Callers that change anything a principal carries (password, role,
+ * enabled flag, revoked sessions) must call {@link #evict(UUID)}; inside a transaction the entry
+ * is evicted again once it commits. A loader takes a {@link #generation} before reading the user
+ * and passes it to {@link #put}, which drops the principal if the user was evicted meanwhile, so
+ * a read of the pre-commit row is never cached past the change.
+ *
+ * Hit/miss/eviction counts are published as the standard {@code cache.*} meters with
+ * {@code cache=userPrincipals}, visible under /actuator/metrics.
+ */
+@Component
+@Slf4j
+public class UserPrincipalCache implements MeterBinder {
+
+    public static final String CACHE_NAME = "userPrincipals";
+
+    private static final int GENERATION_STRIPES = 64;
+
+    private final ExpiringMap<UUID, UserPrincipal> entries;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    // bumped on every eviction of a user in the stripe
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @Autowired
+    public UserPrincipalCache(@Value("${security.principal-cache.ttl:60s}") Duration ttl,
+                              @Value("${security.principal-cache.max-size:10000}") int maxSize) {
+        this(ttl, maxSize, System::currentTimeMillis);
+    }
+
+    UserPrincipalCache(Duration ttl, int maxSize, LongSupplier clock) {
+        this.ttlMillis = ttl.toMillis();
+        this.entries = new ExpiringMap<>(ttlMillis > 0 ? maxSize : 0, clock);
+        this.clock = clock;
+    }
+
+    public UserPrincipal get(UUID userId) {
+        UserPrincipal principal = entries.get(userId);
+        if (principal != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return principal;
+    }
+
+    /**
+     * To be read before loading the user the principal is built from; see {@link #put}.
+     */
+    public long generation(UUID userId) {
+        return generations.get(stripe(userId));
+    }
+
+    /**
+     * Caches the principal unless its user was evicted since {@code generation} was read.
+     */
+    public void put(UserPrincipal principal, long generation) {
+        int stripe = stripe(principal.getId());
+        if (generations.get(stripe) != generation) {
+            return;
+        }
+        entries.put(principal.getId(), principal, clock.getAsLong() + ttlMillis);
+        puts.increment();
+        // an eviction between the check and the put bumped the generation first
+        if (generations.get(stripe) != generation) {
+            entries.remove(principal.getId());
+        }
+    }
+
+    public void evict(UUID userId) {
+        evictNow(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(userId);
+                }
+            });
+        }
+    }
+
+    private void evictNow(UUID userId) {
+        generations.incrementAndGet(stripe(userId));
+        if (entries.remove(userId)) {
+            evictions.increment();
+            log.debug("Evicted cached principal for user {}", userId);
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static int stripe(UUID userId) {
+        return Math.floorMod(userId.hashCode(), GENERATION_STRIPES);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new CacheMeterBinder<>(this, CACHE_NAME, Tags.empty()) {
+            @Override
+            protected Long size() {
+                return (long) entries.size();
+            }
+
+            @Override
+            protected long hitCount() {
+                return hits.sum();
+            }
+
+            @Override
+            protected Long missCount() {
+                return misses.sum();
+            }
+
+            @Override
+            protected Long evictionCount() {
+                return evictions.sum() + entries.evictionCount();
+            }
+
+            @Override
+            protected long putCount() {
+                return puts.sum();
+            }
+
+            @Override
+            protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+            }
+        }.bindTo(registry);
+    }
+}
@@ -1,8 +1,10 @@
 package com.javaguy.nhx.service.admin;
 
+import com.javaguy.nhx.exception.custom.BadRequestException;
 import com.javaguy.nhx.exception.custom.ResourceNotFoundException;
 import com.javaguy.nhx.model.dto.request.UpdateKycStatusRequest;
 import com.javaguy.nhx.model.dto.request.UpdateMintStatusRequest;
+import com.javaguy.nhx.model.dto.response.CursorPage;
 import com.javaguy.nhx.model.dto.response.KycSubmissionAdminResponse;
 import com.javaguy.nhx.model.dto.response.MintAdminResponse;
 import com.javaguy.nhx.model.entity.KycDocument;
@@ -13,16 +15,26 @@ import com.javaguy.nhx.model.enums.MintStatus;
 import com.javaguy.nhx.repository.KycDocumentRepository;
 import com.javaguy.nhx.repository.MintRepository;
 import com.javaguy.nhx.repository.UserRepository;
+import com.javaguy.nhx.repository.projection.KycSubmissionRow;
+import com.javaguy.nhx.repository.projection.MintAdminRow;
 import com.javaguy.nhx.service.email.NotificationService;
+import com.javaguy.nhx.service.storage.DocumentStorageService;
+import com.javaguy.nhx.service.storage.DocumentStream;
+import com.javaguy.nhx.service.storage.DocumentUrlSigner;
+import com.javaguy.nhx.util.KeysetPage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
 
 @Service
@@ -30,44 +42,70 @@ import java.util.UUID;
 @Slf4j
 public class AdminService {
 
+    private static final String KYC_CURSOR = "kyc";
+    private static final String MINT_CURSOR = "mint";
+
     private final UserRepository userRepository;
     private final KycDocumentRepository kycDocumentRepository;
     private final MintRepository mintRepository;
     private final NotificationService notificationService;
+    private final DocumentStorageService storageService;
+    private final DocumentUrlSigner documentUrlSigner;
 
     @Transactional(readOnly = true)
-    public Page<KycSubmissionAdminResponse> getAllKycSubmissions(
-            KycStatus status, 
-            int page, 
-            int size) {
-        
-        Pageable pageable = PageRequest.of(page, size, Sort.by("submittedAt").descending());
-        Page<KycDocument> kycDocs;
-        
-        if (status != null) {
-            kycDocs = kycDocumentRepository.findByUser_KycStatus(status, pageable);
-        } else {
-            kycDocs = kycDocumentRepository.findAll(pageable);
-        }
-        
-        return kycDocs.map(doc -> KycSubmissionAdminResponse.builder()
-                .kycId(doc.getId())
-                .userId(doc.getUser().getId())
-                .userEmail(doc.getUser().getEmail())
-                .fullName(doc.getFullName())
-                .dob(doc.getDob())
-                .documentType(doc.getDocumentType())
-                .documentNumber(doc.getDocumentNumber())
-                .documentFrontPath(doc.getDocumentFrontPath())
-                .documentBackPath(doc.getDocumentBackPath())
-                .status(doc.getUser().getKycStatus())
-                .submittedAt(doc.getSubmittedAt())
-                .build());
+    public Page<KycSubmissionAdminResponse> getAllKycSubmissions(KycStatus status, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        List<KycSubmissionRow> rows = status != null
+                ? kycDocumentRepository.findSubmissionRowsByStatus(status, pageable)
+                : kycDocumentRepository.findSubmissionRows(pageable);
+
+        List<KycSubmissionAdminResponse> content = rows.stream().map(this::toResponse).toList();
+        // a short page already gives the total; only a full or empty one needs the count
+        return PageableExecutionUtils.getPage(content, pageable, () -> status != null
+                ? kycDocumentRepository.countByUser_KycStatus(status)
+                : kycDocumentRepository.count());
+    }
+
+    /**
+     * The KYC queue a page at a time by continuation token instead of page number: each page
+     * starts right after the last row of the previous one, so it costs the same at any depth and
+     * nothing is counted. Rows submitted while paging show up on a later first page, not mid-way.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<KycSubmissionAdminResponse> getKycSubmissionsByCursor(KycStatus status, String cursor, int size) {
+        return KeysetPage.fetch(KYC_CURSOR, cursor, size, LocalDateTime::parse,
+                (submittedAt, id, pageable) -> {
+                    if (submittedAt == null) {
+                        return status != null
+                                ? kycDocumentRepository.findSubmissionRowsByStatus(status, pageable)
+                                : kycDocumentRepository.findSubmissionRows(pageable);
+                    }
+                    return status != null
+                            ? kycDocumentRepository.findSubmissionRowsAfterByStatus(status, submittedAt, id, pageable)
+                            : kycDocumentRepository.findSubmissionRowsAfter(submittedAt, id, pageable);
+                },
+                KycSubmissionRow::submittedAt, KycSubmissionRow::kycId, this::toResponse);
+    }
+
+    private KycSubmissionAdminResponse toResponse(KycSubmissionRow row) {
+        return KycSubmissionAdminResponse.builder()
+                .kycId(row.kycId())
+                .userId(row.userId())
+                .userEmail(row.userEmail())
+                .fullName(row.fullName())
+                .dob(row.dob())
+                .documentType(row.documentType())
+                .documentNumber(row.documentNumber())
+                .documentFrontUrl(documentUrlSigner.sign(row.documentFrontPath()))
+                .documentBackUrl(documentUrlSigner.sign(row.documentBackPath()))
+                .status(row.status())
+                .submittedAt(row.submittedAt())
+                .build();
     }
 
     @Transactional
     public void updateKycStatus(UUID kycId, UpdateKycStatusRequest request) {
-        KycDocument kycDoc = kycDocumentRepository.findById(kycId)
+        KycDocument kycDoc = kycDocumentRepository.findWithUserById(kycId)
                 .orElseThrow(() -> new ResourceNotFoundException("KYC document not found"));
         
         User user = kycDoc.getUser();
@@ -87,33 +125,76 @@ public class AdminService {
         );
     }
 
+    /**
+     * Opens the front or back image of a KYC submission for streaming, limited to the ranges in
+     * {@code rangeHeader} if there is one. Not transactional: the lookup is a single read, and no
+     * connection should be held while the document comes back from storage.
+     */
+    public DocumentStream openKycDocument(UUID kycId, String side, String rangeHeader) {
+        KycDocument kycDoc = kycDocumentRepository.findById(kycId)
+                .orElseThrow(() -> new ResourceNotFoundException("KYC document not found"));
+
+        String reference = switch (side.toLowerCase(Locale.ROOT)) {
+            case "front" -> kycDoc.getDocumentFrontPath();
+            case "back" -> kycDoc.getDocumentBackPath();
+            default -> throw new BadRequestException("Document side must be 'front' or 'back'");
+        };
+        if (reference == null) {
+            throw new ResourceNotFoundException("KYC submission has no " + side + " document");
+        }
+        return storageService.open(reference, DocumentStream.parseRanges(rangeHeader));
+    }
+
     @Transactional(readOnly = true)
     public Page<MintAdminResponse> getAllMints(MintStatus status, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("dateInitiated").descending());
-        Page<Mint> mints;
-        
-        if (status != null) {
-            mints = mintRepository.findByStatus(status, pageable);
-        } else {
-            mints = mintRepository.findAll(pageable);
-        }
-        
-        return mints.map(mint -> MintAdminResponse.builder()
-                .requestId(mint.getId())
-                .userId(mint.getUser().getId())
-                .userEmail(mint.getUser().getEmail())
-                .walletAddress(mint.getWallet().getWalletAddress())
-                .amountKes(mint.getAmountKes())
-                .status(mint.getStatus())
-                .dateInitiated(mint.getDateInitiated())
-                .treasuryTransactionId(mint.getTreasuryTransactionId())
-                .createdAt(mint.getCreatedAt())
-                .build());
+        Pageable pageable = PageRequest.of(page, size);
+        List<MintAdminRow> rows = status != null
+                ? mintRepository.findAdminRowsByStatus(status, pageable)
+                : mintRepository.findAdminRows(pageable);
+
+        List<MintAdminResponse> content = rows.stream().map(this::toResponse).toList();
+        return PageableExecutionUtils.getPage(content, pageable, () -> status != null
+                ? mintRepository.countByStatus(status)
+                : mintRepository.count());
+    }
+
+    /**
+     * The mint list by continuation token; see {@link #getKycSubmissionsByCursor}.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<MintAdminResponse> getMintsByCursor(MintStatus status, String cursor, int size) {
+        return KeysetPage.fetch(MINT_CURSOR, cursor, size, LocalDate::parse,
+                (dateInitiated, id, pageable) -> {
+                    if (dateInitiated == null) {
+                        return status != null
+                                ? mintRepository.findAdminRowsByStatus(status, pageable)
+                                : mintRepository.findAdminRows(pageable);
+                    }
+                    return status != null
+                            ? mintRepository.findAdminRowsAfterByStatus(status, dateInitiated, id, pageable)
+                            : mintRepository.findAdminRowsAfter(dateInitiated, id, pageable);
+                },
+                MintAdminRow::dateInitiated, MintAdminRow::requestId, this::toResponse);
+    }
+
+    private MintAdminResponse toResponse(MintAdminRow row) {
+        return MintAdminResponse.builder()
+                .requestId(row.requestId())
+                .userId(row.userId())
+                .userEmail(row.userEmail())
+                .walletAddress(row.walletAddress())
+                .amountKes(row.amountKes())
+                .status(row.status())
+                .processingStage(row.processingStage())
+                .dateInitiated(row.dateInitiated())
+                .treasuryTransactionId(row.treasuryTransactionId())
+                .createdAt(row.createdAt())
+                .build();
     }
 
     @Transactional
     public void updateMintStatus(UUID mintId, UpdateMintStatusRequest request) {
-        Mint mint = mintRepository.findById(mintId)
+        Mint mint = mintRepository.findWithUserAndWalletById(mintId)
                 .orElseThrow(() -> new ResourceNotFoundException("Mint request not found"));
         
         MintStatus oldStatus = mint.getStatus();
@@ -3,7 +3,6 @@ package com.javaguy.nhx.service.auth;
 import com.javaguy.nhx.exception.custom.AccountDisabledException;
 import com.javaguy.nhx.exception.custom.ConflictException;
 import com.javaguy.nhx.exception.custom.EmailNotVerifiedException;
-import com.javaguy.nhx.exception.custom.InternalServerException;
 import com.javaguy.nhx.exception.custom.ResourceNotFoundException;
 import com.javaguy.nhx.exception.custom.UnauthorizedException;
 import com.javaguy.nhx.model.dto.request.ForgotPasswordRequest;
@@ -14,10 +13,13 @@ import com.javaguy.nhx.model.dto.request.VerifyOtpRequest;
 import com.javaguy.nhx.model.dto.response.AuthResponse;
 import com.javaguy.nhx.model.entity.RefreshToken;
 import com.javaguy.nhx.model.entity.User;
+import com.javaguy.nhx.model.enums.OtpPurpose;
 import com.javaguy.nhx.repository.RefreshTokenRepository;
 import com.javaguy.nhx.repository.UserRepository;
 import com.javaguy.nhx.security.JwtTokenProvider;
 import com.javaguy.nhx.security.UserPrincipal;
+import com.javaguy.nhx.security.UserPrincipalCache;
+import com.javaguy.nhx.util.TokenDigest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -30,6 +32,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 @Service
@@ -43,6 +46,7 @@ public class AuthService {
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider tokenProvider;
     private final RefreshTokenRepository refreshTokenRepository;
+    private final UserPrincipalCache userPrincipalCache;
 
     @Value("${jwt.access-token-expiry}")
     private Long accessTokenExpiry;
@@ -50,6 +54,10 @@ public class AuthService {
     @Value("${jwt.refresh-token-expiry}")
     private Long refreshTokenExpiry;
 
+    // Oldest sessions are revoked once a user exceeds this many live refresh tokens; 0 disables the cap
+    @Value("${jwt.refresh-token.max-per-user:10}")
+    private int maxRefreshTokensPerUser;
+
     @Transactional
     public void signup(SignupRequest request) {
         if (userRepository.existsByEmail(request.email())) {
@@ -64,18 +72,15 @@ public class AuthService {
 
         userRepository.save(user);
 
-        try {
-            otpService.sendOtp(request.email());
-            log.info("User registered successfully: {}", request.email());
-        } catch (Exception e) {
-            log.error("Failed to send OTP to {}", request.email(), e);
-            throw new InternalServerException("Failed to send verification email");
-        }
+        // a refused send rolls the signup back, so the user can simply sign up again
+        otpService.sendOtp(request.email());
+        log.info("User registered successfully: {}", request.email());
     }
 
-    @Transactional
+    // a wrong code must still commit its failed attempt
+    @Transactional(noRollbackFor = UnauthorizedException.class)
     public AuthResponse verifyOtp(VerifyOtpRequest request) {
-        otpService.verifyOtp(request.email(), request.otp());
+        otpService.verifyOtp(request.email(), request.otp(), OtpPurpose.EMAIL_VERIFICATION);
 
         User user = userRepository.findByEmail(request.email())
                 .orElseThrow(() -> new ResourceNotFoundException("User not found: " + request.email()));
@@ -120,6 +125,7 @@ public class AuthService {
         }
 
         if (!user.isEnabled()) {
+            invalidateCachedPrincipal(user.getId());
             log.warn("Login attempt for disabled account: {}", request.email());
             throw new AccountDisabledException("Account is disabled");
         }
@@ -134,7 +140,7 @@ public class AuthService {
     @Transactional
     public AuthResponse refreshToken(String refreshTokenString) {
         RefreshToken existingToken = refreshTokenRepository
-                .findByToken(refreshTokenString)
+                .findByTokenHash(TokenDigest.sha256Hex(refreshTokenString))
                 .orElseThrow(() -> new UnauthorizedException("Invalid refresh token"));
 
         if (existingToken.getExpiryDate().isBefore(LocalDateTime.now())) {
@@ -146,16 +152,17 @@ public class AuthService {
         User user = existingToken.getUser();
 
         if (!user.isEnabled()) {
+            invalidateCachedPrincipal(user.getId());
             refreshTokenRepository.delete(existingToken);
             throw new AccountDisabledException("User account is disabled");
         }
 
-        String newAccessToken = tokenProvider.generateToken(user.getId());
+        String newAccessToken = tokenProvider.generateToken(user);
         String newRefreshToken = tokenProvider.generateRefreshToken();
 
         RefreshToken newToken = RefreshToken.builder()
                 .user(user)
-                .token(newRefreshToken)
+                .tokenHash(TokenDigest.sha256Hex(newRefreshToken))
                 .expiryDate(LocalDateTime.now().plusSeconds(refreshTokenExpiry))
                 .createdAt(LocalDateTime.now())
                 .build();
@@ -176,7 +183,7 @@ public class AuthService {
 
     @Transactional
     public void logout(String refreshTokenString) {
-        refreshTokenRepository.findByToken(refreshTokenString)
+        refreshTokenRepository.findByTokenHash(TokenDigest.sha256Hex(refreshTokenString))
                 .ifPresent(token -> {
                     refreshTokenRepository.delete(token);
                     log.info("User logged out: {}", token.getUser().getEmail());
@@ -204,9 +211,10 @@ public class AuthService {
                 );
     }
 
-    @Transactional
+    // a wrong code must still commit its failed attempt
+    @Transactional(noRollbackFor = UnauthorizedException.class)
     public void resetPassword(ResetPasswordRequest request) {
-        otpService.verifyOtp(request.email(), request.otp());
+        otpService.verifyOtp(request.email(), request.otp(), OtpPurpose.PASSWORD_RESET);
 
         User user = userRepository.findByEmail(request.email())
                 .orElseThrow(() -> new ResourceNotFoundException("User not found: " + request.email()));
@@ -219,12 +227,14 @@ public class AuthService {
     }
 
     private AuthResponse createTokensForUser(User user) {
-        String accessToken = tokenProvider.generateToken(user.getId());
+        String accessToken = tokenProvider.generateToken(user);
         String refreshToken = tokenProvider.generateRefreshToken();
 
+        enforceRefreshTokenLimit(user);
+
         RefreshToken refreshTokenEntity = RefreshToken.builder()
                 .user(user)
-                .token(refreshToken)
+                .tokenHash(TokenDigest.sha256Hex(refreshToken))
                 .expiryDate(LocalDateTime.now().plusSeconds(refreshTokenExpiry))
                 .createdAt(LocalDateTime.now())
                 .build();
@@ -240,7 +250,27 @@ public class AuthService {
                 .build();
     }
 
+    private void enforceRefreshTokenLimit(User user) {
+        if (maxRefreshTokensPerUser <= 0) {
+            return;
+        }
+        List<UUID> liveTokenIds = refreshTokenRepository.findIdsByUserNewestFirst(user);
+        if (liveTokenIds.size() >= maxRefreshTokensPerUser) {
+            // keep room for the token about to be issued
+            List<UUID> oldest = liveTokenIds.subList(maxRefreshTokensPerUser - 1, liveTokenIds.size());
+            refreshTokenRepository.deleteByIdIn(oldest);
+            log.info("Revoked {} oldest refresh tokens for user {} (limit {})",
+                    oldest.size(), user.getId(), maxRefreshTokensPerUser);
+        }
+    }
+
     private void revokeAllUserTokens(User user) {
         refreshTokenRepository.deleteByUser(user);
+        invalidateCachedPrincipal(user.getId());
+    }
+
+    private void invalidateCachedPrincipal(UUID userId) {
+        userPrincipalCache.evict(userId);
+        tokenProvider.markAuthoritiesChanged(userId);
     }
 }
\ No newline at end of file
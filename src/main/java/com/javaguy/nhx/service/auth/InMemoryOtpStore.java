@@ -0,0 +1,134 @@
+package com.javaguy.nhx.service.auth;
+
+import com.javaguy.nhx.model.enums.OtpPurpose;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Process-local OTP store. Live codes sit in a concurrent map keyed by email and purpose, and a
+ * hashed timing wheel of one-second slots drops them once they expire, so expiry costs a slot
+ * scan per tick instead of a sweep over every entry.
+ *
+ * Codes do not survive a restart and are not shared between instances; use {@link JpaOtpStore}
+ * for that.
+ */
+@Component
+@ConditionalOnProperty(name = "otp.store", havingValue = "memory", matchIfMissing = true)
+@Slf4j
+public class InMemoryOtpStore implements OtpStore {
+
+    static final long TICK_MILLIS = 1000;
+    static final int WHEEL_SIZE = 512;
+
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Timeout>[] wheel;
+    private final int maxAttempts;
+    private final LongSupplier clock;
+    private long lastTick;
+
+    @Autowired
+    public InMemoryOtpStore(@Value("${otp.max-attempts:5}") int maxAttempts) {
+        this(maxAttempts, System::currentTimeMillis);
+    }
+
+    @SuppressWarnings("unchecked")
+    InMemoryOtpStore(int maxAttempts, LongSupplier clock) {
+        this.maxAttempts = maxAttempts;
+        this.clock = clock;
+        this.wheel = new ConcurrentLinkedQueue[WHEEL_SIZE];
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.lastTick = clock.getAsLong() / TICK_MILLIS;
+    }
+
+    @Override
+    public void save(String email, OtpPurpose purpose, String otpCode, Duration ttl) {
+        Key key = new Key(email, purpose);
+        Entry entry = new Entry(otpCode, clock.getAsLong() + ttl.toMillis(), new AtomicInteger());
+        entries.put(key, entry);
+        schedule(new Timeout(key, entry));
+    }
+
+    @Override
+    public boolean verify(String email, OtpPurpose purpose, String otpCode) {
+        Key key = new Key(email, purpose);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return false;
+        }
+        if (entry.expiresAt() <= clock.getAsLong()) {
+            entries.remove(key, entry);
+            return false;
+        }
+        if (MessageDigest.isEqual(entry.otpCode().getBytes(StandardCharsets.UTF_8),
+                otpCode.getBytes(StandardCharsets.UTF_8))) {
+            // only one concurrent verification can consume the code
+            return entries.remove(key, entry);
+        }
+        if (entry.attempts().incrementAndGet() >= maxAttempts) {
+            entries.remove(key, entry);
+            log.warn("OTP for {} ({}) discarded after {} failed attempts", email, purpose, maxAttempts);
+        }
+        return false;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    @Scheduled(fixedRate = TICK_MILLIS)
+    public synchronized void expireEntries() {
+        long now = clock.getAsLong();
+        long currentTick = now / TICK_MILLIS;
+        long firstTick = Math.max(lastTick + 1, currentTick - WHEEL_SIZE + 1);
+        for (long tick = firstTick; tick <= currentTick; tick++) {
+            ConcurrentLinkedQueue<Timeout> slot = wheel[slotIndex(tick)];
+            for (int pending = slot.size(); pending > 0; pending--) {
+                Timeout timeout = slot.poll();
+                if (timeout == null) {
+                    break;
+                }
+                if (entries.get(timeout.key()) != timeout.entry()) {
+                    continue; // already consumed or replaced by a newer code
+                }
+                if (timeout.entry().expiresAt() <= now) {
+                    entries.remove(timeout.key(), timeout.entry());
+                } else {
+                    schedule(timeout); // TTL longer than one turn of the wheel
+                }
+            }
+        }
+        lastTick = currentTick;
+    }
+
+    private void schedule(Timeout timeout) {
+        long expiryTick = (timeout.entry().expiresAt() + TICK_MILLIS - 1) / TICK_MILLIS;
+        wheel[slotIndex(expiryTick)].add(timeout);
+    }
+
+    private static int slotIndex(long tick) {
+        return (int) Math.floorMod(tick, (long) WHEEL_SIZE);
+    }
+
+    private record Key(String email, OtpPurpose purpose) {
+    }
+
+    private record Entry(String otpCode, long expiresAt, AtomicInteger attempts) {
+    }
+
+    private record Timeout(Key key, Entry entry) {
+    }
+}
@@ -0,0 +1,84 @@
+package com.javaguy.nhx.service.auth;
+
+import com.javaguy.nhx.model.entity.Otp;
+import com.javaguy.nhx.model.enums.OtpPurpose;
+import com.javaguy.nhx.repository.OtpRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Durable OTP store on the otps table, enabled with {@code otp.store=jpa}. Used and expired rows
+ * are deleted by a scheduled cleanup so the table only holds live codes.
+ */
+@Component
+@ConditionalOnProperty(name = "otp.store", havingValue = "jpa")
+@RequiredArgsConstructor
+@Slf4j
+public class JpaOtpStore implements OtpStore {
+
+    private final OtpRepository otpRepository;
+
+    @Value("${otp.max-attempts:5}")
+    private int maxAttempts;
+
+    @Override
+    @Transactional
+    public void save(String email, OtpPurpose purpose, String otpCode, Duration ttl) {
+        otpRepository.deleteByEmailAndPurpose(email, purpose);
+        otpRepository.save(Otp.builder()
+                .email(email)
+                .purpose(purpose)
+                .otpCode(otpCode)
+                .expiryTime(LocalDateTime.now().plus(ttl))
+                .used(false)
+                .build());
+    }
+
+    // Joins the caller's transaction: a second connection per check could exhaust the pool under load.
+    // A failed check returns false rather than throwing, so the attempt count is committed as long as
+    // the caller doesn't roll back on the resulting UnauthorizedException (see AuthService)
+    @Override
+    @Transactional
+    public boolean verify(String email, OtpPurpose purpose, String otpCode) {
+        Optional<Otp> live = otpRepository
+                .findTopByEmailAndPurposeAndUsedFalseAndExpiryTimeAfterOrderByCreatedAtDesc(email, purpose, LocalDateTime.now());
+        if (live.isEmpty()) {
+            return false;
+        }
+
+        Otp otp = live.get();
+        boolean matches = MessageDigest.isEqual(otp.getOtpCode().getBytes(StandardCharsets.UTF_8),
+                otpCode.getBytes(StandardCharsets.UTF_8));
+        if (matches) {
+            otp.setUsed(true);
+        } else {
+            otp.setAttempts(otp.getAttempts() + 1);
+            if (otp.getAttempts() >= maxAttempts) {
+                otp.setUsed(true);
+                log.warn("OTP for {} ({}) discarded after {} failed attempts", email, purpose, maxAttempts);
+            }
+        }
+        otpRepository.save(otp);
+        return matches;
+    }
+
+    @Scheduled(fixedDelayString = "${otp.cleanup-interval:3600000}")
+    @Transactional
+    public void deleteUsedAndExpired() {
+        int deleted = otpRepository.deleteUsedOrExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Deleted {} used or expired OTPs", deleted);
+        }
+    }
+}
@@ -1,79 +1,54 @@
 package com.javaguy.nhx.service.auth;
 
-import com.javaguy.nhx.exception.custom.InternalServerException;
 import com.javaguy.nhx.exception.custom.UnauthorizedException;
-import com.javaguy.nhx.model.entity.Otp;
-import com.javaguy.nhx.repository.OtpRepository;
+import com.javaguy.nhx.model.enums.OtpPurpose;
 import com.javaguy.nhx.service.email.EmailNotificationService;
 import com.javaguy.nhx.util.AppConstants;
 import com.javaguy.nhx.util.OtpGenerator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
+import java.time.Duration;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class OtpService {
 
-    private final OtpRepository otpRepository;
+    private static final Duration OTP_TTL = Duration.ofMinutes(AppConstants.OTP_EXPIRY_MINUTES);
+
+    private final OtpStore otpStore;
     private final EmailNotificationService emailNotificationService;
 
-    @Transactional
+    /**
+     * Stores a new code and queues the email carrying it. The email goes out after the caller's
+     * transaction commits; when it cannot be queued (sending busy or failing) the
+     * ServiceUnavailableException reaches the user, who can ask again.
+     */
     public void sendOtp(String email) {
         String otpCode = OtpGenerator.generateOtp();
-        LocalDateTime expiryTime = LocalDateTime.now().plusMinutes(AppConstants.OTP_EXPIRY_MINUTES);
-
-        Otp otp = Otp.builder()
-                .email(email)
-                .otpCode(otpCode)
-                .expiryTime(expiryTime)
-                .used(false)
-                .build();
-        otpRepository.save(otp);
+        otpStore.save(email, OtpPurpose.EMAIL_VERIFICATION, otpCode, OTP_TTL);
 
-        try {
-            emailNotificationService.sendOtpEmail(email, otpCode);
-            log.info("OTP sent to {}", email);
-        } catch (Exception e) {
-            log.error("Failed to send OTP email to {}", email, e);
-            throw new InternalServerException("Failed to send OTP email", e);
-        }
+        emailNotificationService.sendOtpEmail(email, otpCode);
+        log.info("OTP email queued for {}", email);
     }
 
-    @Transactional
+    /**
+     * As {@link #sendOtp}, for a password reset code.
+     */
     public void sendPasswordResetOtp(String email) {
         String otpCode = OtpGenerator.generateOtp();
-        LocalDateTime expiryTime = LocalDateTime.now().plusMinutes(AppConstants.OTP_EXPIRY_MINUTES);
-
-        Otp otp = Otp.builder()
-                .email(email)
-                .otpCode(otpCode)
-                .expiryTime(expiryTime)
-                .used(false)
-                .build();
-        otpRepository.save(otp);
+        otpStore.save(email, OtpPurpose.PASSWORD_RESET, otpCode, OTP_TTL);
 
-        try {
-            emailNotificationService.sendPasswordResetOtp(email, otpCode);
-            log.info("Password reset OTP sent to {}", email);
-        } catch (Exception e) {
-            log.error("Failed to send password reset OTP email to {}", email, e);
-            throw new InternalServerException("Failed to send password reset email", e);
-        }
+        emailNotificationService.sendPasswordResetOtp(email, otpCode);
+        log.info("Password reset OTP email queued for {}", email);
     }
 
-    @Transactional
-    public void verifyOtp(String email, String otpCode) {
-        Otp otp = otpRepository.findByEmailAndOtpCodeAndUsedFalseAndExpiryTimeAfter(
-                        email, otpCode, LocalDateTime.now())
-                .orElseThrow(() -> new UnauthorizedException("Invalid or expired OTP"));
-
-        otp.setUsed(true);
-        otpRepository.save(otp);
+    public void verifyOtp(String email, String otpCode, OtpPurpose purpose) {
+        if (!otpStore.verify(email, purpose, otpCode)) {
+            throw new UnauthorizedException("Invalid or expired OTP");
+        }
         log.info("OTP for {} successfully verified", email);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,23 @@
+package com.javaguy.nhx.service.auth;
+
+import com.javaguy.nhx.model.enums.OtpPurpose;
+
+import java.time.Duration;
+
+/**
+ * Storage for one-time passcodes. At most one code is live per email and purpose: saving a new
+ * code replaces the previous one. A code is consumed by the first successful verification and
+ * discarded after too many failed attempts.
+ *
+ * The default is {@link InMemoryOtpStore}; set {@code otp.store=jpa} for {@link JpaOtpStore}
+ * when codes must survive restarts or be shared between instances.
+ */
+public interface OtpStore {
+
+    void save(String email, OtpPurpose purpose, String otpCode, Duration ttl);
+
+    /**
+     * Returns true and consumes the code if it matches the live code for email and purpose.
+     */
+    boolean verify(String email, OtpPurpose purpose, String otpCode);
+}
@@ -0,0 +1,92 @@
+package com.javaguy.nhx.service.auth;
+
+import com.javaguy.nhx.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes expired refresh tokens in small batches, each in its own short transaction, so the
+ * purge never holds row locks on refresh_tokens for long and interleaves with normal logins.
+ *
+ * Metrics: {@code auth.refresh_tokens.rows} (table size after the last run),
+ * {@code auth.refresh_tokens.purged} (rows deleted) and {@code auth.refresh_tokens.purge}
+ * (duration of each run).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RefreshTokenPurgeService {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${jwt.refresh-token.purge.batch-size:500}")
+    private int batchSize;
+
+    // Upper bound per run so a large backlog is worked off over several runs
+    @Value("${jwt.refresh-token.purge.max-batches:200}")
+    private int maxBatches;
+
+    private final AtomicLong tableSize = new AtomicLong();
+    private TransactionTemplate transactionTemplate;
+    private Counter purgedCounter;
+    private Timer purgeTimer;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        purgedCounter = Counter.builder("auth.refresh_tokens.purged")
+                .description("Expired refresh tokens deleted by the purge job")
+                .register(meterRegistry);
+        purgeTimer = Timer.builder("auth.refresh_tokens.purge")
+                .description("Duration of a refresh token purge run")
+                .register(meterRegistry);
+        Gauge.builder("auth.refresh_tokens.rows", tableSize, AtomicLong::get)
+                .description("Rows in refresh_tokens after the last purge run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh-token.purge.interval:600000}",
+            initialDelayString = "${jwt.refresh-token.purge.initial-delay:60000}")
+    public void purgeExpiredTokens() {
+        long purged = purgeTimer.record(() -> purgeExpired(LocalDateTime.now()));
+        tableSize.set(refreshTokenRepository.count());
+        if (purged > 0) {
+            log.info("Purged {} expired refresh tokens, {} remaining", purged, tableSize.get());
+        }
+    }
+
+    long purgeExpired(LocalDateTime now) {
+        long total = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            Integer deleted = transactionTemplate.execute(status -> {
+                List<UUID> ids = refreshTokenRepository.findExpiredIds(now, PageRequest.of(0, batchSize));
+                return ids.isEmpty() ? 0 : refreshTokenRepository.deleteByIdIn(ids);
+            });
+            int count = deleted == null ? 0 : deleted;
+            total += count;
+            purgedCounter.increment(count);
+            if (count < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+}
@@ -1,19 +1,15 @@
 package com.javaguy.nhx.service.email;
 
 import com.javaguy.nhx.exception.custom.EmailServiceException;
+import com.javaguy.nhx.model.entity.EmailOutbox;
 import com.javaguy.nhx.model.entity.Mint;
 import com.javaguy.nhx.model.entity.User;
 import com.javaguy.nhx.model.enums.KycStatus;
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
+import com.javaguy.nhx.repository.EmailOutboxRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
-import org.thymeleaf.TemplateEngine;
-import org.thymeleaf.context.Context;
 
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
@@ -25,31 +21,26 @@ import java.util.Map;
 @Slf4j
 public class EmailNotificationService implements NotificationService {
 
-    private final JavaMailSender mailSender;
-    private final TemplateEngine templateEngine;
+    private final EmailOutboxRepository outboxRepository;
+    private final EmailTemplateRenderer templateRenderer;
+    private final EmailOutboxDispatcher outboxDispatcher;
 
     @Value("${admin.notification.email:}")
     private String adminEmail;
 
-    @Value("${spring.mail.username}")
-    private String fromAddress;
-
     @Value("${app.base-url}")
     private String appBaseUrl;
 
     @Value("${app.name}")
     private String appName;
 
-    @Value("${app.support-email}")
-    private String supportEmail;
-
     @Override
     public void sendOtpEmail(String email, String otp) {
         Map<String, Object> variables = new HashMap<>();
         variables.put("otp", otp);
         variables.put("expiryMinutes", 10);
 
-        sendHtmlEmail(
+        sendWithoutOutbox(
                 email,
                 "Your " + appName + " Verification Code",
                 "email-otp",
@@ -63,7 +54,7 @@ public class EmailNotificationService implements NotificationService {
         variables.put("otp", otp);
         variables.put("expiryMinutes", 10);
 
-        sendHtmlEmail(
+        sendWithoutOutbox(
                 email,
                 "Reset Your " + appName + " Password",
                 "email-password-reset",
@@ -162,31 +153,41 @@ public class EmailNotificationService implements NotificationService {
         sendHtmlEmail(user.getEmail(), subject, template, variables, "Mint Status Change");
     }
 
+    /**
+     * Queues the template name and its variables in the email outbox, in the caller's
+     * transaction if there is one. {@link EmailOutboxDispatcher} renders and delivers it.
+     */
     private void sendHtmlEmail(String to, String subject, String templateName,
             Map<String, Object> variables, String type) {
         try {
-            variables.put("appName", appName);
-            variables.put("supportEmail", supportEmail);
-            variables.put("currentYear", java.time.Year.now().getValue());
-
-            Context context = new Context();
-            context.setVariables(variables);
-
-            String htmlContent = templateEngine.process(templateName, context);
-
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-            helper.setFrom(fromAddress);
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(htmlContent, true);
+            outboxRepository.save(EmailOutbox.builder()
+                    .recipient(to)
+                    .subject(subject)
+                    .template(templateName)
+                    .variables(variables)
+                    .type(type)
+                    .build());
+            log.info("Queued {} HTML email to: {}", type, to);
+        } catch (RuntimeException e) {
+            log.error("Failed to queue {} email to {}: {}", type, to, e.getMessage(), e);
+            throw new EmailServiceException("Failed to send " + type + " email to " + to, e);
+        }
+    }
 
-            mailSender.send(message);
-            log.info("Sent {} HTML email to: {}", type, to);
-        } catch (MessagingException | RuntimeException e) {
-            log.error("Failed to send {} email to {}: {}", type, to, e.getMessage(), e);
+    /**
+     * Renders a message carrying a one-time code and hands it straight to the SMTP workers, so
+     * the code is never stored in the outbox. A {@code ServiceUnavailableException} from the
+     * dispatcher (busy, or SMTP failing) reaches the caller as is.
+     */
+    private void sendWithoutOutbox(String to, String subject, String templateName,
+            Map<String, Object> variables, String type) {
+        String htmlContent;
+        try {
+            htmlContent = templateRenderer.render(templateName, variables);
+        } catch (RuntimeException e) {
+            log.error("Failed to render {} email to {}: {}", type, to, e.getMessage(), e);
             throw new EmailServiceException("Failed to send " + type + " email to " + to, e);
         }
+        outboxDispatcher.sendWithoutOutbox(to, subject, htmlContent, type);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,408 @@
+package com.javaguy.nhx.service.email;
+
+import com.javaguy.nhx.exception.custom.ServiceUnavailableException;
+import com.javaguy.nhx.model.entity.EmailOutbox;
+import com.javaguy.nhx.model.enums.EmailOutboxStatus;
+import com.javaguy.nhx.repository.EmailOutboxRepository;
+import com.javaguy.nhx.util.DaemonThreadPool;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drains the email outbox. Each poll claims due rows with SELECT ... FOR UPDATE SKIP LOCKED,
+ * leases them by moving them to SENDING under a fresh lease token, and hands them in batches to
+ * a fixed pool of SMTP workers; each batch is rendered from its templates and goes out over one
+ * pooled connection.
+ * A failed send is retried with exponential backoff and jitter; after {@code maxAttempts}
+ * the row is dead-lettered (status DEAD) and kept for inspection. A row whose worker died
+ * mid-send is picked up again once its lease runs out, and the stale worker's updates then
+ * match no row.
+ *
+ * Mail carrying a one-time code goes through {@link #sendWithoutOutbox} instead, so the code
+ * is never written to the table. Those sends have their own small pool, so they never wait behind
+ * outbox batches, and are refused up front when it is full or SMTP keeps failing.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EmailOutboxDispatcher {
+
+    private static final List<EmailOutboxStatus> CLAIMABLE = List.of(EmailOutboxStatus.PENDING, EmailOutboxStatus.SENDING);
+    static final String SMTP_CIRCUIT_BREAKER = "smtpDirect";
+
+    private final EmailOutboxRepository outboxRepository;
+    private final JavaMailSender mailSender;
+    private final EmailTemplateRenderer templateRenderer;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @Value("${spring.mail.username}")
+    private String fromAddress;
+
+    @Value("${email.outbox.workers:4}")
+    private int workers;
+
+    @Value("${email.outbox.batch-size:50}")
+    private int batchSize;
+
+    // Messages a worker sends over one SMTP connection per task
+    @Value("${email.outbox.send-batch-size:10}")
+    private int sendBatchSize;
+
+    @Value("${email.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${email.outbox.initial-backoff:30s}")
+    private Duration initialBackoff;
+
+    @Value("${email.outbox.max-backoff:1h}")
+    private Duration maxBackoff;
+
+    // How long a claimed row stays invisible to other pollers before it is considered abandoned
+    @Value("${email.outbox.lease:5m}")
+    private Duration lease;
+
+    @Value("${email.outbox.sent-retention:7d}")
+    private Duration sentRetention;
+
+    @Value("${email.outbox.purge.batch-size:500}")
+    private int purgeBatchSize;
+
+    // Caps one cleanup run; whatever is left waits for the next one
+    @Value("${email.outbox.purge.max-batches:200}")
+    private int purgeMaxBatches;
+
+    @Value("${email.direct.workers:2}")
+    private int directWorkers;
+
+    // Direct sends waiting for a worker; beyond this a new one is refused
+    @Value("${email.direct.queue-capacity:100}")
+    private int directQueueCapacity;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private TransactionTemplate transactionTemplate;
+    private ExecutorService executor;
+    private ExecutorService directExecutor;
+    // direct sends admitted but not finished
+    private Semaphore directSlots;
+    private CircuitBreaker smtpBreaker;
+    private Counter sentCounter;
+    private Counter retriedCounter;
+    private Counter deadCounter;
+    private Counter directSentCounter;
+    private Counter directFailedCounter;
+    private Counter directRejectedCounter;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        executor = DaemonThreadPool.fixed("email-outbox", workers, new LinkedBlockingQueue<>(),
+                new ThreadPoolExecutor.AbortPolicy());
+        // room for every admitted send, so one that has released its slot but not yet its thread
+        // never makes the pool refuse the next
+        directExecutor = DaemonThreadPool.fixed("email-direct", directWorkers,
+                new ArrayBlockingQueue<>(directWorkers + directQueueCapacity), new ThreadPoolExecutor.AbortPolicy());
+        directSlots = new Semaphore(directWorkers + directQueueCapacity);
+        smtpBreaker = circuitBreakerRegistry.circuitBreaker(SMTP_CIRCUIT_BREAKER);
+        sentCounter = Counter.builder("email.outbox.sent").register(meterRegistry);
+        retriedCounter = Counter.builder("email.outbox.retried").register(meterRegistry);
+        deadCounter = Counter.builder("email.outbox.dead").register(meterRegistry);
+        directSentCounter = Counter.builder("email.direct.sent").register(meterRegistry);
+        directFailedCounter = Counter.builder("email.direct.failed").register(meterRegistry);
+        directRejectedCounter = Counter.builder("email.direct.rejected").register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        directExecutor.shutdown();
+    }
+
+    @Scheduled(fixedDelayString = "${email.outbox.poll-interval:1000}")
+    public void dispatch() {
+        // keep at most two batches per worker in flight so claimed rows don't wait out their lease in our queue
+        int capacity = Math.min(batchSize, workers * sendBatchSize * 2 - inFlight.get());
+        if (capacity <= 0) {
+            return;
+        }
+
+        List<EmailOutbox> claimed = transactionTemplate.execute(status -> claim(capacity));
+        if (claimed == null) {
+            return;
+        }
+        // each worker sends a batch over one pooled SMTP connection
+        for (int from = 0; from < claimed.size(); from += sendBatchSize) {
+            List<EmailOutbox> batch = claimed.subList(from, Math.min(from + sendBatchSize, claimed.size()));
+            inFlight.addAndGet(batch.size());
+            executor.execute(() -> {
+                try {
+                    deliver(batch);
+                } finally {
+                    inFlight.addAndGet(-batch.size());
+                }
+            });
+        }
+    }
+
+    List<EmailOutbox> claim(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<EmailOutbox> due = outboxRepository.findDueForUpdate(CLAIMABLE, now, PageRequest.of(0, limit));
+        UUID leaseToken = UUID.randomUUID();
+        for (EmailOutbox email : due) {
+            email.setStatus(EmailOutboxStatus.SENDING);
+            email.setNextAttemptAt(now.plus(lease));
+            email.setLeaseToken(leaseToken);
+        }
+        return due;
+    }
+
+    void deliver(List<EmailOutbox> emails) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<MimeMessage, EmailOutbox> messages = new LinkedHashMap<>();
+        for (EmailOutbox email : emails) {
+            // the row may already be claimed again by another poller; leave it to that one
+            if (email.getNextAttemptAt().isBefore(now)) {
+                log.warn("Lease on {} email {} expired before sending, skipping", email.getType(), email.getId());
+                continue;
+            }
+            try {
+                messages.put(toMimeMessage(email), email);
+            } catch (MessagingException | RuntimeException e) {
+                recordFailure(email, e);
+            }
+        }
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        Map<Object, Exception> failed = Map.of();
+        try {
+            mailSender.send(messages.keySet().toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            failed = e.getFailedMessages();
+            if (failed.isEmpty()) {
+                failed = allFailed(messages, e);
+            }
+        } catch (MailException e) {
+            failed = allFailed(messages, e);
+        }
+
+        for (Map.Entry<MimeMessage, EmailOutbox> entry : messages.entrySet()) {
+            Exception failure = failed.get(entry.getKey());
+            if (failure == null) {
+                recordSuccess(entry.getValue());
+            } else {
+                recordFailure(entry.getValue(), failure);
+            }
+        }
+    }
+
+    private MimeMessage toMimeMessage(EmailOutbox email) throws MessagingException {
+        return toMimeMessage(email.getRecipient(), email.getSubject(), render(email));
+    }
+
+    private MimeMessage toMimeMessage(String to, String subject, String htmlBody) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        helper.setFrom(fromAddress);
+        helper.setTo(to);
+        helper.setSubject(subject);
+        helper.setText(htmlBody, true);
+        return message;
+    }
+
+    private String render(EmailOutbox email) {
+        if (email.getTemplate() == null) {
+            return email.getHtmlBody();
+        }
+        Map<String, Object> variables = email.getVariables();
+        return templateRenderer.render(email.getTemplate(), variables != null ? variables : Map.of());
+    }
+
+    private static Map<Object, Exception> allFailed(Map<MimeMessage, EmailOutbox> messages, Exception e) {
+        Map<Object, Exception> failed = new HashMap<>();
+        messages.keySet().forEach(message -> failed.put(message, e));
+        return failed;
+    }
+
+    private void recordSuccess(EmailOutbox email) {
+        int updated = outboxRepository.markSent(email.getId(), email.getLeaseToken(), email.getAttempts() + 1,
+                LocalDateTime.now());
+        sentCounter.increment();
+        log.info("Sent {} HTML email to: {}", email.getType(), email.getRecipient());
+        if (updated == 0) {
+            log.warn("Lease on {} email {} was lost during the send; it may be sent again", email.getType(), email.getId());
+        }
+    }
+
+    private void recordFailure(EmailOutbox email, Exception e) {
+        int attempts = email.getAttempts() + 1;
+        String error = truncate(e.getMessage());
+        if (attempts >= maxAttempts) {
+            int updated = outboxRepository.markFailed(email.getId(), email.getLeaseToken(), EmailOutboxStatus.DEAD,
+                    attempts, LocalDateTime.now(), error);
+            if (updated == 0) {
+                logLostLease(email);
+                return;
+            }
+            deadCounter.increment();
+            log.error("Giving up on {} email to {} after {} attempts: {}",
+                    email.getType(), email.getRecipient(), attempts, e.getMessage(), e);
+        } else {
+            Duration backoff = backoff(attempts);
+            int updated = outboxRepository.markFailed(email.getId(), email.getLeaseToken(), EmailOutboxStatus.PENDING,
+                    attempts, LocalDateTime.now().plus(backoff), error);
+            if (updated == 0) {
+                logLostLease(email);
+                return;
+            }
+            retriedCounter.increment();
+            log.warn("Failed to send {} email to {} (attempt {}), retrying in {}s: {}",
+                    email.getType(), email.getRecipient(), attempts, backoff.toSeconds(), e.getMessage());
+        }
+    }
+
+    private static void logLostLease(EmailOutbox email) {
+        log.warn("Lease on {} email {} was lost during the send; leaving it to the current holder",
+                email.getType(), email.getId());
+    }
+
+    Duration backoff(int attempts) {
+        long base = initialBackoff.toMillis() << Math.min(attempts - 1, 20);
+        long capped = Math.min(base, maxBackoff.toMillis());
+        // up to 20% jitter so a burst of failures doesn't retry in lockstep
+        long jitter = ThreadLocalRandom.current().nextLong(capped / 5 + 1);
+        return Duration.ofMillis(capped - jitter);
+    }
+
+    @Scheduled(fixedDelayString = "${email.outbox.cleanup-interval:3600000}")
+    public void deleteSentMessages() {
+        long deleted = deleteSentBefore(LocalDateTime.now().minus(sentRetention));
+        if (deleted > 0) {
+            log.info("Deleted {} sent emails from the outbox", deleted);
+        }
+    }
+
+    // small batches, each in its own transaction, so the purge never holds locks on the outbox for long
+    long deleteSentBefore(LocalDateTime cutoff) {
+        long total = 0;
+        for (int batch = 0; batch < purgeMaxBatches; batch++) {
+            Integer deleted = transactionTemplate.execute(status -> {
+                List<UUID> ids = outboxRepository.findSentIdsBefore(cutoff, PageRequest.of(0, purgeBatchSize));
+                return ids.isEmpty() ? 0 : outboxRepository.deleteByIdIn(ids);
+            });
+            int count = deleted == null ? 0 : deleted;
+            total += count;
+            if (count < purgeBatchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Sends an already rendered message on the direct-send workers without writing it to the
+     * outbox, for mail carrying a one-time code. Inside a transaction the send waits for the commit.
+     * A failed send is not retried; the user can ask for a new code.
+     *
+     * @throws ServiceUnavailableException when the direct-send queue is full or recent sends have
+     *                                     been failing, so the caller can tell the user to try again
+     */
+    public void sendWithoutOutbox(String to, String subject, String htmlBody, String type) {
+        if (!directSlots.tryAcquire()) {
+            directRejectedCounter.increment();
+            log.warn("Refused {} email to {}: {} direct sends already waiting", type, to, directQueueCapacity);
+            throw new ServiceUnavailableException("Email delivery is busy. Please try again shortly.");
+        }
+        if (!smtpBreaker.tryAcquirePermission()) {
+            directSlots.release();
+            directRejectedCounter.increment();
+            log.warn("Refused {} email to {}: recent sends have been failing", type, to);
+            throw new ServiceUnavailableException("Email delivery is unavailable. Please try again shortly.");
+        }
+
+        Runnable send = () -> directExecutor.execute(() -> {
+            try {
+                sendNow(to, subject, htmlBody, type);
+            } finally {
+                directSlots.release();
+            }
+        });
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send.run();
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        smtpBreaker.releasePermission();
+                        directSlots.release();
+                    }
+                }
+            });
+        } else {
+            send.run();
+        }
+    }
+
+    void sendNow(String to, String subject, String htmlBody, String type) {
+        long start = System.nanoTime();
+        try {
+            mailSender.send(toMimeMessage(to, subject, htmlBody));
+            smtpBreaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            directSentCounter.increment();
+            log.info("Sent {} HTML email to: {}", type, to);
+        } catch (MessagingException | RuntimeException e) {
+            smtpBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e);
+            directFailedCounter.increment();
+            log.error("Failed to send {} email to {}: {}", type, to, e.getMessage(), e);
+        }
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+}
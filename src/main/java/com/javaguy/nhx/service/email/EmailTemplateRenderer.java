@@ -0,0 +1,168 @@
+package com.javaguy.nhx.service.email;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.IContext;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.Year;
+import java.time.ZoneId;
+import java.util.*;
+
+/**
+ * Renders the HTML email templates under {@code classpath:templates/email-*.html}.
+ *
+ * Renders through Boot's template engine ({@code spring.thymeleaf.*}) and, at startup, renders
+ * every email template once with sample variables so the first burst of notifications doesn't
+ * pay for parsing or for compiling the SpEL expressions on each branch. The global variables
+ * (appName, supportEmail, currentYear) live in one shared immutable map that every render reads
+ * through, instead of being copied into each call's variables.
+ */
+@Component
+@Slf4j
+public class EmailTemplateRenderer {
+
+    static final String TEMPLATE_PATTERN = "classpath:templates/email-*.html";
+    // Layout holding the fragments every email is rendered into; not an email on its own
+    static final String LAYOUT_TEMPLATE = "email-base";
+
+    // A value for every variable the templates read, so warm-up takes the branches real mail takes
+    private static final Map<String, Object> SAMPLE_VARIABLES = Map.ofEntries(
+            Map.entry("firstName", "Sample"),
+            Map.entry("otp", "000000"),
+            Map.entry("expiryMinutes", 10),
+            Map.entry("userId", "00000000-0000-0000-0000-000000000000"),
+            Map.entry("userEmail", "sample@example.com"),
+            Map.entry("userName", "Sample User"),
+            Map.entry("submittedAt", "2000-01-01T00:00:00"),
+            Map.entry("status", "VERIFIED"),
+            Map.entry("notes", "Sample notes"),
+            Map.entry("amount", "1000"),
+            Map.entry("walletAddress", "0.0.0"),
+            Map.entry("requestId", "00000000-0000-0000-0000-000000000000"),
+            Map.entry("transactionId", "0.0.0@0.0"),
+            Map.entry("restrictionEndDate", "2000-01-01"));
+
+    private final ITemplateEngine templateEngine;
+    private final String appName;
+    private final String supportEmail;
+    private final Locale locale = Locale.getDefault();
+
+    private volatile Globals globals;
+    private List<String> templateNames = List.of();
+
+    public EmailTemplateRenderer(ITemplateEngine templateEngine,
+                                 @Value("${app.name}") String appName,
+                                 @Value("${app.support-email}") String supportEmail) {
+        this.templateEngine = templateEngine;
+        this.appName = appName;
+        this.supportEmail = supportEmail;
+        this.globals = buildGlobals();
+    }
+
+    @PostConstruct
+    public void warmUp() {
+        templateNames = discoverTemplates();
+        for (String template : templateNames) {
+            try {
+                render(template, SAMPLE_VARIABLES);
+            } catch (RuntimeException e) {
+                log.warn("Could not pre-render email template {}: {}", template, e.getMessage());
+            }
+        }
+        log.info("Warmed {} email templates", templateNames.size());
+    }
+
+    public String render(String templateName, Map<String, Object> variables) {
+        return templateEngine.process(templateName, new EmailContext(locale, variables, currentGlobals()));
+    }
+
+    public List<String> getTemplateNames() {
+        return templateNames;
+    }
+
+    private Map<String, Object> currentGlobals() {
+        Globals current = globals;
+        if (System.currentTimeMillis() >= current.validUntil()) {
+            current = buildGlobals();
+            globals = current;
+        }
+        return current.variables();
+    }
+
+    private Globals buildGlobals() {
+        ZoneId zone = ZoneId.systemDefault();
+        Year year = Year.now(zone);
+        long nextYear = LocalDate.of(year.getValue() + 1, 1, 1).atStartOfDay(zone).toInstant().toEpochMilli();
+
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("appName", appName);
+        variables.put("supportEmail", supportEmail);
+        variables.put("currentYear", year.getValue());
+        return new Globals(Collections.unmodifiableMap(variables), nextYear);
+    }
+
+    private static List<String> discoverTemplates() {
+        try {
+            Resource[] resources = new PathMatchingResourcePatternResolver().getResources(TEMPLATE_PATTERN);
+            List<String> names = new ArrayList<>();
+            for (Resource resource : resources) {
+                String filename = resource.getFilename();
+                if (filename == null) {
+                    continue;
+                }
+                String name = filename.substring(0, filename.length() - ".html".length());
+                if (!LAYOUT_TEMPLATE.equals(name)) {
+                    names.add(name);
+                }
+            }
+            Collections.sort(names);
+            return List.copyOf(names);
+        } catch (IOException e) {
+            log.warn("Could not list email templates: {}", e.getMessage());
+            return List.of();
+        }
+    }
+
+    private record Globals(Map<String, Object> variables, long validUntil) {
+    }
+
+    /**
+     * Per-render variables layered over the shared globals, without copying either map.
+     */
+    private record EmailContext(Locale locale, Map<String, Object> variables, Map<String, Object> globals)
+            implements IContext {
+
+        @Override
+        public Locale getLocale() {
+            return locale;
+        }
+
+        @Override
+        public boolean containsVariable(String name) {
+            return variables.containsKey(name) || globals.containsKey(name);
+        }
+
+        @Override
+        public Set<String> getVariableNames() {
+            Set<String> names = new HashSet<>(globals.keySet());
+            names.addAll(variables.keySet());
+            return names;
+        }
+
+        @Override
+        public Object getVariable(String name) {
+            Object value = variables.get(name);
+            if (value != null || variables.containsKey(name)) {
+                return value;
+            }
+            return globals.get(name);
+        }
+    }
+}
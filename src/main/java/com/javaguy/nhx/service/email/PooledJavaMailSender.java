@@ -0,0 +1,231 @@
+package com.javaguy.nhx.service.email;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.mail.Address;
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * JavaMailSender that keeps up to {@code maxConnections} authenticated SMTP transports open and
+ * reuses them across sends, instead of connecting (and doing the STARTTLS handshake) for every
+ * call. A {@code send(MimeMessage...)} batch goes out over a single connection. Connections are
+ * recycled after {@code maxMessagesPerConnection} messages and closed after sitting idle for
+ * {@code idleTimeout}.
+ *
+ * Metrics: {@code mail.smtp.connections.opened}, {@code mail.smtp.messages.sent} and
+ * {@code mail.smtp.connections.idle}.
+ */
+@Slf4j
+public class PooledJavaMailSender extends JavaMailSenderImpl implements MeterBinder, DisposableBean {
+
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<PooledTransport> idle = new LinkedBlockingDeque<>();
+    private final int maxMessagesPerConnection;
+    private final long idleTimeoutMillis;
+
+    private final LongAdder connectionsOpened = new LongAdder();
+    private final LongAdder messagesSent = new LongAdder();
+
+    public PooledJavaMailSender(int maxConnections, int maxMessagesPerConnection, Duration idleTimeout) {
+        this.permits = new Semaphore(Math.max(1, maxConnections));
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+        this.idleTimeoutMillis = idleTimeout != null ? idleTimeout.toMillis() : Duration.ofSeconds(30).toMillis();
+    }
+
+    @Override
+    protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) throws MailException {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MailSendException("Interrupted while waiting for an SMTP connection", e);
+        }
+
+        Map<Object, Exception> failedMessages = new LinkedHashMap<>();
+        PooledTransport connection = null;
+        try {
+            connection = borrow();
+            for (int i = 0; i < mimeMessages.length; i++) {
+                MimeMessage mimeMessage = mimeMessages[i];
+                Object original = originalMessages != null ? originalMessages[i] : mimeMessage;
+                try {
+                    if (connection == null || connection.isExhausted(maxMessagesPerConnection)) {
+                        close(connection);
+                        connection = null;
+                        connection = borrow();
+                    }
+                    sendMessage(connection, mimeMessage);
+                } catch (AuthenticationFailedException e) {
+                    throw new MailAuthenticationException(e);
+                } catch (MessagingException e) {
+                    failedMessages.put(original, e);
+                    if (connection != null && !connection.transport().isConnected()) {
+                        close(connection);
+                        connection = null;
+                    }
+                }
+            }
+        } catch (AuthenticationFailedException e) {
+            throw new MailAuthenticationException(e);
+        } catch (MessagingException e) {
+            throw new MailSendException("Mail server connection failed", e);
+        } finally {
+            release(connection);
+            permits.release();
+        }
+
+        if (!failedMessages.isEmpty()) {
+            throw new MailSendException(failedMessages);
+        }
+    }
+
+    private void sendMessage(PooledTransport connection, MimeMessage mimeMessage) throws MessagingException {
+        // same preparation JavaMailSenderImpl does before handing the message to the transport
+        if (mimeMessage.getSentDate() == null) {
+            mimeMessage.setSentDate(new Date());
+        }
+        String messageId = mimeMessage.getMessageID();
+        mimeMessage.saveChanges();
+        if (messageId != null) {
+            mimeMessage.setHeader("Message-ID", messageId);
+        }
+        Address[] addresses = mimeMessage.getAllRecipients();
+        connection.transport().sendMessage(mimeMessage, addresses != null ? addresses : new Address[0]);
+        connection.incrementSent();
+        messagesSent.increment();
+    }
+
+    private PooledTransport borrow() throws MessagingException {
+        PooledTransport connection;
+        while ((connection = idle.pollFirst()) != null) {
+            // isConnected() sends a NOOP, which also catches connections the server has dropped
+            if (!connection.isIdleLongerThan(idleTimeoutMillis) && connection.transport().isConnected()) {
+                return connection;
+            }
+            close(connection);
+        }
+        Transport transport = connectTransport();
+        connectionsOpened.increment();
+        log.debug("Opened SMTP connection to {}:{}", getHost(), getPort());
+        return new PooledTransport(transport);
+    }
+
+    private void release(PooledTransport connection) {
+        if (connection == null) {
+            return;
+        }
+        if (connection.isExhausted(maxMessagesPerConnection)) {
+            close(connection);
+            return;
+        }
+        connection.touch();
+        // most recently used first, so surplus connections age out at the tail
+        idle.offerFirst(connection);
+    }
+
+    private void close(PooledTransport connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.transport().close();
+        } catch (MessagingException e) {
+            log.debug("Failed to close SMTP connection cleanly: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${email.smtp.pool.eviction-interval:30000}")
+    public void evictIdleConnections() {
+        Iterator<PooledTransport> connections = idle.descendingIterator();
+        while (connections.hasNext()) {
+            PooledTransport connection = connections.next();
+            if (connection.isIdleLongerThan(idleTimeoutMillis) && idle.remove(connection)) {
+                close(connection);
+            }
+        }
+    }
+
+    public int getIdleConnectionCount() {
+        return idle.size();
+    }
+
+    public long getConnectionsOpened() {
+        return connectionsOpened.sum();
+    }
+
+    public long getMessagesSent() {
+        return messagesSent.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("mail.smtp.connections.opened", connectionsOpened, LongAdder::sum)
+                .description("SMTP connections opened")
+                .register(registry);
+        FunctionCounter.builder("mail.smtp.messages.sent", messagesSent, LongAdder::sum)
+                .description("Messages sent over pooled SMTP connections")
+                .register(registry);
+        Gauge.builder("mail.smtp.connections.idle", idle, LinkedBlockingDeque::size)
+                .description("Open SMTP connections waiting in the pool")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        PooledTransport connection;
+        while ((connection = idle.pollFirst()) != null) {
+            close(connection);
+        }
+    }
+
+    private static final class PooledTransport {
+        private final Transport transport;
+        private int sent;
+        private long lastUsed = System.currentTimeMillis();
+
+        private PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+
+        Transport transport() {
+            return transport;
+        }
+
+        void incrementSent() {
+            sent++;
+        }
+
+        void touch() {
+            lastUsed = System.currentTimeMillis();
+        }
+
+        boolean isExhausted(int maxMessages) {
+            return maxMessages > 0 && sent >= maxMessages;
+        }
+
+        boolean isIdleLongerThan(long timeoutMillis) {
+            return System.currentTimeMillis() - lastUsed >= timeoutMillis;
+        }
+    }
+}
@@ -14,15 +14,26 @@ import com.javaguy.nhx.repository.KycDocumentRepository;
 import com.javaguy.nhx.repository.UserRepository;
 import com.javaguy.nhx.service.email.NotificationService;
 import com.javaguy.nhx.service.storage.DocumentStorageService;
+import com.javaguy.nhx.util.DaemonThreadPool;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
@@ -33,6 +44,29 @@ public class KycService {
     private final KycDocumentRepository kycDocumentRepository;
     private final DocumentStorageService storageService;
     private final NotificationService notificationService;
+    private final PlatformTransactionManager transactionManager;
+
+    // Front-document uploads running alongside the request thread; when all are busy the
+    // request thread uploads both documents itself
+    @Value("${kyc.upload.parallelism:16}")
+    private int uploadParallelism;
+
+    private TransactionTemplate transactionTemplate;
+    private ThreadPoolExecutor uploadExecutor;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        uploadExecutor = DaemonThreadPool.fixed("kyc-upload", uploadParallelism, new SynchronousQueue<>(),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        uploadExecutor.setKeepAliveTime(60L, TimeUnit.SECONDS);
+        uploadExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        uploadExecutor.shutdown();
+    }
 
     @Transactional
     public Map<String, String> initiateKyc(UUID userId) {
@@ -52,7 +86,10 @@ public class KycService {
         );
     }
 
-    @Transactional
+    /**
+     * Uploads the front and back documents in parallel, then records the submission in a short
+     * transaction of its own, so no connection or row lock is held while the files are streamed.
+     */
     public KycSubmissionResponse submitDocuments(
             UUID userId,
             KycSubmissionRequest request,
@@ -79,40 +116,69 @@ public class KycService {
         validateDocumentType(documentFront);
         validateDocumentType(documentBack);
 
+        String folder = "kyc/" + userId;
+        CompletableFuture<String> front;
+        String backPath;
+        try {
+            // the back document is stored on the request thread while the front one uploads
+            front = CompletableFuture.supplyAsync(() -> storageService.store(folder, documentFront), uploadExecutor);
+        } catch (RuntimeException e) {
+            throw uploadFailed(userId, e);
+        }
+        try {
+            backPath = storageService.store(folder, documentBack);
+        } catch (RuntimeException e) {
+            // the front upload may still succeed; remove it once it has
+            front.thenAccept(path -> deleteQuietly(userId, path));
+            throw uploadFailed(userId, e);
+        }
+        String frontPath;
+        try {
+            frontPath = front.join();
+        } catch (CompletionException e) {
+            deleteQuietly(userId, backPath);
+            throw uploadFailed(userId, e.getCause() != null ? e.getCause() : e);
+        }
+
+        KycDocument kycDoc;
         try {
-            String frontPath = storageService.store("kyc/" + userId, documentFront);
-            String backPath = storageService.store("kyc/" + userId, documentBack);
-
-            KycDocument kycDoc = KycDocument.builder()
-                    .user(user)
-                    .fullName(request.getFullName())
-                    .dob(request.getDob())
-                    .documentType(request.getDocumentType())
-                    .documentNumber(request.getDocumentNumber())
-                    .documentFrontPath(frontPath)
-                    .documentBackPath(backPath)
-                    .build();
-
-            kycDocumentRepository.save(kycDoc);
-
-            user.setKycStatus(KycStatus.SUBMITTED);
-            userRepository.save(user);
-
-            log.info("KYC documents submitted by user {}. Front: {}, Back: {}",
-                    userId, frontPath, backPath);
-
-            notificationService.notifyAdminsOnKycSubmission(user);
-
-            return KycSubmissionResponse.builder()
-                    .kycId(kycDoc.getId().toString())
-                    .status(user.getKycStatus().name())
-                    .message("KYC documents submitted successfully. Your submission is under review.")
-                    .build();
-
-        } catch (Exception e) {
-            log.error("Failed to store KYC documents for user {}: {}", userId, e.getMessage());
-            throw new InternalServerException("Failed to upload KYC documents. Please try again.", e);
+            kycDoc = transactionTemplate.execute(status -> {
+                User current = userRepository.findById(userId)
+                        .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+                if (current.getKycStatus() == KycStatus.VERIFIED) {
+                    throw new ConflictException("KYC already verified");
+                }
+
+                KycDocument document = kycDocumentRepository.save(KycDocument.builder()
+                        .user(current)
+                        .fullName(request.getFullName())
+                        .dob(request.getDob())
+                        .documentType(request.getDocumentType())
+                        .documentNumber(request.getDocumentNumber())
+                        .documentFrontPath(frontPath)
+                        .documentBackPath(backPath)
+                        .build());
+
+                current.setKycStatus(KycStatus.SUBMITTED);
+                userRepository.save(current);
+
+                notificationService.notifyAdminsOnKycSubmission(current);
+                return document;
+            });
+        } catch (RuntimeException e) {
+            // nothing references the uploads once the submission rolled back
+            deleteQuietly(userId, frontPath);
+            deleteQuietly(userId, backPath);
+            throw e;
         }
+
+        log.info("KYC documents submitted by user {}. Front: {}, Back: {}", userId, frontPath, backPath);
+
+        return KycSubmissionResponse.builder()
+                .kycId(kycDoc.getId().toString())
+                .status(KycStatus.SUBMITTED.name())
+                .message("KYC documents submitted successfully. Your submission is under review.")
+                .build();
     }
 
     @Transactional(readOnly = true)
@@ -136,6 +202,22 @@ public class KycService {
                 .build();
     }
 
+    private InternalServerException uploadFailed(UUID userId, Throwable cause) {
+        log.error("Failed to store KYC documents for user {}: {}", userId, cause.getMessage());
+        return new InternalServerException("Failed to upload KYC documents. Please try again.", cause);
+    }
+
+    private void deleteQuietly(UUID userId, String reference) {
+        if (reference == null) {
+            return;
+        }
+        try {
+            storageService.delete(reference);
+        } catch (RuntimeException e) {
+            log.warn("Failed to delete orphaned KYC document {} for user {}: {}", reference, userId, e.getMessage());
+        }
+    }
+
     private void validateDocumentType(MultipartFile file) {
         String contentType = file.getContentType();
         String filename = file.getOriginalFilename();
@@ -0,0 +1,153 @@
+package com.javaguy.nhx.service.mint;
+
+import com.javaguy.nhx.exception.custom.BadRequestException;
+import com.javaguy.nhx.exception.custom.ServiceUnavailableException;
+import com.javaguy.nhx.model.dto.request.AdminMintRequest;
+import com.javaguy.nhx.model.dto.request.AdminTransferRequest;
+import com.javaguy.nhx.model.dto.response.BatchItemResult;
+import com.javaguy.nhx.model.dto.response.BatchOperationResponse;
+import com.javaguy.nhx.util.DaemonThreadPool;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.BiFunction;
+
+/**
+ * Runs a list of admin mints or transfers through {@link AdminMintService}, at most
+ * {@code sdk.batch.parallelism} SDK calls at a time across all batches, and reports each item's
+ * outcome instead of stopping at the first failure.
+ *
+ * At most {@code sdk.batch.max-queued-items} items wait behind the running ones; a batch that
+ * does not fit is refused whole with a 503 rather than partly started.
+ *
+ * Item {@code i} of a batch uses the idempotency key {@code <batch key>-<i>}, so resubmitting
+ * the same batch with the same key only calls the SDK for the items that did not complete.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AdminBatchService {
+
+    private final AdminMintService adminMintService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${sdk.batch.parallelism:8}")
+    private int parallelism;
+
+    @Value("${sdk.batch.max-items:500}")
+    private int maxItems;
+
+    @Value("${sdk.batch.max-queued-items:1000}")
+    private int maxQueuedItems;
+
+    private ExecutorService executor;
+
+    // items admitted but not finished
+    private Semaphore admittedItems;
+
+    @PostConstruct
+    public void init() {
+        int admitted = parallelism + maxQueuedItems;
+        // an item frees its permit before its worker is free again, so the queue alone has to hold
+        // every admitted item or a newly admitted one can still be refused by the executor
+        BlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(admitted);
+        executor = DaemonThreadPool.fixed("sdk-batch", parallelism, queue, new ThreadPoolExecutor.AbortPolicy());
+        admittedItems = new Semaphore(admitted);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public BatchOperationResponse mintAll(List<AdminMintRequest> requests, String batchKey) {
+        return runAll("mint", requests, batchKey, adminMintService::mint);
+    }
+
+    public BatchOperationResponse transferAll(List<AdminTransferRequest> requests, String batchKey) {
+        return runAll("transfer", requests, batchKey, adminMintService::transfer);
+    }
+
+    private <T> BatchOperationResponse runAll(String operation, List<T> requests, String batchKey,
+                                              BiFunction<T, String, String> call) {
+        if (requests == null || requests.isEmpty()) {
+            throw new BadRequestException("Batch must contain at least one item");
+        }
+        if (requests.size() > maxItems) {
+            throw new BadRequestException("Batch must contain at most " + maxItems + " items");
+        }
+        // the longest item key must still fit the ledger
+        SdkIdempotencyLedger.validateKey(itemKey(batchKey, requests.size() - 1));
+
+        if (!admittedItems.tryAcquire(requests.size())) {
+            log.warn("Admin batch {} {} refused: {} items, {} slots free", operation, batchKey, requests.size(),
+                    admittedItems.availablePermits());
+            meterRegistry.counter("sdk.batch.rejected", "operation", operation).increment();
+            throw new ServiceUnavailableException("Too many batch items in progress. Please retry later.");
+        }
+        List<CompletableFuture<BatchItemResult>> futures = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            int index = i;
+            T request = requests.get(i);
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return runItem(operation, index, itemKey(batchKey, index), request, call);
+                } finally {
+                    admittedItems.release();
+                }
+            }, executor));
+        }
+
+        List<BatchItemResult> results = futures.stream().map(CompletableFuture::join).toList();
+        int succeeded = (int) results.stream().filter(BatchItemResult::isSuccess).count();
+        meterRegistry.counter("sdk.batch.items", "operation", operation, "outcome", "success").increment(succeeded);
+        meterRegistry.counter("sdk.batch.items", "operation", operation, "outcome", "failure")
+                .increment(results.size() - succeeded);
+        log.info("Admin batch {} {} finished: {} of {} succeeded", operation, batchKey, succeeded, results.size());
+
+        return BatchOperationResponse.builder()
+                .idempotencyKey(batchKey)
+                .total(results.size())
+                .succeeded(succeeded)
+                .failed(results.size() - succeeded)
+                .results(results)
+                .build();
+    }
+
+    private <T> BatchItemResult runItem(String operation, int index, String key, T request,
+                                        BiFunction<T, String, String> call) {
+        try {
+            return BatchItemResult.builder()
+                    .index(index)
+                    .idempotencyKey(key)
+                    .success(true)
+                    .response(call.apply(request, key))
+                    .build();
+        } catch (RuntimeException e) {
+            log.warn("Admin batch {} item {} failed: {}", operation, key, e.getMessage());
+            return BatchItemResult.builder()
+                    .index(index)
+                    .idempotencyKey(key)
+                    .success(false)
+                    .error(e.getMessage())
+                    .build();
+        }
+    }
+
+    static String itemKey(String batchKey, int index) {
+        return batchKey + "-" + index;
+    }
+}
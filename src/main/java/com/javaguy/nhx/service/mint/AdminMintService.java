@@ -1,14 +1,18 @@
 package com.javaguy.nhx.service.mint;
 
+import com.javaguy.nhx.client.UpstreamSaturatedException;
 import com.javaguy.nhx.exception.custom.BadRequestException;
 import com.javaguy.nhx.exception.custom.InternalServerException;
 import com.javaguy.nhx.exception.custom.ServiceUnavailableException;
+import com.javaguy.nhx.exception.custom.UpstreamBusyException;
 import com.javaguy.nhx.model.dto.request.AdminMintRequest;
 import com.javaguy.nhx.model.dto.request.AdminTransferRequest;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
@@ -17,14 +21,26 @@ import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClient;
 
+import java.util.Optional;
 import java.util.UUID;
 
+/**
+ * Mint and transfer calls to the SDK. Each call carries the caller's idempotency key, which stays
+ * the same across the retries below, and completed calls are answered from
+ * {@link SdkIdempotencyLedger} when the key is seen again.
+ *
+ * Only connect and read failures are retried (as ServiceUnavailableException). A call refused
+ * by the SDK client's own concurrency limit becomes UpstreamBusyException, which the sdkApi
+ * retry ignores.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class AdminMintService {
 
+    @Qualifier("sdkRestClient")
     private final RestClient restClient;
+    private final SdkIdempotencyLedger idempotencyLedger;
     @Value("${sdk.url}")
     private String SDK_URL;
     @Value("${sdk.sdk-api-key}")
@@ -32,7 +48,13 @@ public class AdminMintService {
 
     @Retry(name = "sdkApi")
     @CircuitBreaker(name = "sdkApi", fallbackMethod = "transferFallback")
-    public String transfer(AdminTransferRequest request) {
+    public String transfer(AdminTransferRequest request, String idempotencyKey) {
+        Optional<String> recorded = idempotencyLedger.findResponse(idempotencyKey, "transfer", request);
+        if (recorded.isPresent()) {
+            log.info("SDK transfer with idempotency key {} already completed, returning recorded response", idempotencyKey);
+            return recorded.get();
+        }
+
         String url = SDK_URL + "/api/token/transfer";
         String requestId = UUID.randomUUID().toString();
 
@@ -44,9 +66,10 @@ public class AdminMintService {
                     .header("Origin", SDK_URL)
                     .header("Authorization", "Bearer " + SDK_API_KEY)
                     .header("X-Request-ID", requestId)
-                    .header("Idempotency-Key", requestId)
+                    .header("Idempotency-Key", idempotencyKey)
                     .retrieve()
                     .body(String.class);
+            idempotencyLedger.record(idempotencyKey, "transfer", request, response);
             return response;
         } catch (HttpClientErrorException e) {
             log.warn("SDK client error ({}): {}", e.getStatusCode(), e.getMessage());
@@ -57,8 +80,7 @@ public class AdminMintService {
             throw new InternalServerException("Server error while calling sdk API", e);
 
         } catch (ResourceAccessException e) {
-            log.warn("SDK network error: {}", e.getMessage());
-            throw new ServiceUnavailableException("Cannot reach sdk service. Please try again later.", e);
+            throw unavailable(e);
 
         } catch (Exception e) {
             log.error("SDK unexpected error: {}", e.getMessage(), e);
@@ -67,14 +89,21 @@ public class AdminMintService {
         }
     }
 
-    public String transferFallback(AdminTransferRequest request, Exception ex) {
+    // only an open circuit lands here; errors from the call itself propagate unchanged
+    public String transferFallback(AdminTransferRequest request, String idempotencyKey, CallNotPermittedException ex) {
         log.warn("SDK circuit breaker open for transfer");
         throw new ServiceUnavailableException("SDK service temporarily unavailable. Please retry later.", ex);
     }
 
     @Retry(name = "sdkApi")
     @CircuitBreaker(name = "sdkApi", fallbackMethod = "mintFallback")
-    public String mint(AdminMintRequest request) {
+    public String mint(AdminMintRequest request, String idempotencyKey) {
+        Optional<String> recorded = idempotencyLedger.findResponse(idempotencyKey, "mint", request);
+        if (recorded.isPresent()) {
+            log.info("SDK mint with idempotency key {} already completed, returning recorded response", idempotencyKey);
+            return recorded.get();
+        }
+
         String url = SDK_URL + "/api/mint";
         String requestId = UUID.randomUUID().toString();
 
@@ -86,9 +115,10 @@ public class AdminMintService {
                     .header("Origin", SDK_URL)
                     .header("Authorization", "Bearer " + SDK_API_KEY)
                     .header("X-Request-ID", requestId)
-                    .header("Idempotency-Key", requestId)
+                    .header("Idempotency-Key", idempotencyKey)
                     .retrieve()
                     .body(String.class);
+            idempotencyLedger.record(idempotencyKey, "mint", request, response);
             return response;
         } catch (HttpClientErrorException e) {
             log.warn("SDK client error ({}): {}", e.getStatusCode(), e.getMessage());
@@ -99,8 +129,7 @@ public class AdminMintService {
             throw new InternalServerException("Server error while calling sdk API", e);
 
         } catch (ResourceAccessException e) {
-            log.warn("SDK network error: {}", e.getMessage());
-            throw new ServiceUnavailableException("Cannot reach sdk service. Please try again later.", e);
+            throw unavailable(e);
 
         } catch (Exception e) {
             log.error("SDK unexpected error: {}", e.getMessage(), e);
@@ -109,8 +138,18 @@ public class AdminMintService {
         }
     }
 
-    public String mintFallback(AdminMintRequest request, Exception ex) {
+    // only an open circuit lands here; errors from the call itself propagate unchanged
+    public String mintFallback(AdminMintRequest request, String idempotencyKey, CallNotPermittedException ex) {
         log.warn("SDK circuit breaker open for mint");
         throw new ServiceUnavailableException("SDK service temporarily unavailable. Please retry later.", ex);
     }
+
+    private static ServiceUnavailableException unavailable(ResourceAccessException e) {
+        if (e.getCause() instanceof UpstreamSaturatedException saturated) {
+            log.warn("SDK call rejected, concurrency limit reached ({})", saturated.getReason());
+            return new UpstreamBusyException("SDK service is busy. Please retry later.", e);
+        }
+        log.warn("SDK network error: {}", e.getMessage());
+        return new ServiceUnavailableException("Cannot reach sdk service. Please try again later.", e);
+    }
 }
@@ -0,0 +1,9 @@
+package com.javaguy.nhx.service.mint;
+
+import java.util.UUID;
+
+/**
+ * Published once a mint request has been persisted; picked up by {@link MintPipeline} after commit.
+ */
+public record MintAcceptedEvent(UUID mintId) {
+}
@@ -0,0 +1,220 @@
+package com.javaguy.nhx.service.mint;
+
+import com.javaguy.nhx.model.entity.Mint;
+import com.javaguy.nhx.model.enums.MintProcessingStage;
+import com.javaguy.nhx.repository.MintRepository;
+import com.javaguy.nhx.service.email.NotificationService;
+import com.javaguy.nhx.util.DaemonThreadPool;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the follow-up work for an accepted mint request off the request thread, one stage at a
+ * time: ACCEPTED -> TREASURY_REGISTERED (handed to treasury) -> COMPLETED (user notified).
+ * Each stage commits on its own, so {@code GET /api/kesy/mint/{requestId}} shows how far a
+ * request has got.
+ *
+ * Requests are picked up right after the creating transaction commits. Anything that was not
+ * (queue full, failed stage, restart) is resumed by {@link #resumeStalled()} once it has been
+ * sitting for {@code stallTimeout}. Stage transitions take a row lock, so a request resumed while
+ * still running elsewhere never runs a stage twice. Every failed run is counted on the mint; after
+ * {@code maxAttempts} failures its processing stage becomes ABANDONED and it is no longer resumed.
+ * The pipeline only does bookkeeping and notification, so it never changes the mint's status; that
+ * stays with the admin flow.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MintPipeline {
+
+    private static final List<MintProcessingStage> UNFINISHED =
+            List.of(MintProcessingStage.ACCEPTED, MintProcessingStage.TREASURY_REGISTERED);
+
+    private final MintRepository mintRepository;
+    private final NotificationService notificationService;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${mint.pipeline.workers:4}")
+    private int workers;
+
+    @Value("${mint.pipeline.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${mint.pipeline.stall-timeout:2m}")
+    private Duration stallTimeout;
+
+    @Value("${mint.pipeline.recovery-batch-size:100}")
+    private int recoveryBatchSize;
+
+    @Value("${mint.pipeline.max-attempts:5}")
+    private int maxAttempts;
+
+    private final Set<UUID> running = ConcurrentHashMap.newKeySet();
+    private final Map<MintProcessingStage, Timer> stageTimers = new EnumMap<>(MintProcessingStage.class);
+    private TransactionTemplate transactionTemplate;
+    private ThreadPoolExecutor executor;
+    private Counter failedCounter;
+    private Counter abandonedCounter;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        executor = DaemonThreadPool.fixed("mint-pipeline", workers, new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        for (MintProcessingStage stage : UNFINISHED) {
+            stageTimers.put(stage, Timer.builder("mint.pipeline.stage")
+                    .tag("stage", stage.name())
+                    .register(meterRegistry));
+        }
+        failedCounter = Counter.builder("mint.pipeline.failed").register(meterRegistry);
+        abandonedCounter = Counter.builder("mint.pipeline.abandoned").register(meterRegistry);
+        Gauge.builder("mint.pipeline.queued", executor, e -> e.getQueue().size()).register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMintAccepted(MintAcceptedEvent event) {
+        submit(event.mintId());
+    }
+
+    void submit(UUID mintId) {
+        if (!running.add(mintId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    process(mintId);
+                } finally {
+                    running.remove(mintId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            running.remove(mintId);
+            log.warn("Mint pipeline queue full, request {} will be resumed by the recovery sweep", mintId);
+        }
+    }
+
+    void process(UUID mintId) {
+        MintProcessingStage stage;
+        do {
+            try {
+                stage = transactionTemplate.execute(status -> advance(mintId));
+            } catch (RuntimeException e) {
+                failedCounter.increment();
+                recordFailure(mintId, e);
+                return;
+            }
+        } while (stage != null && UNFINISHED.contains(stage));
+    }
+
+    private void recordFailure(UUID mintId, RuntimeException failure) {
+        Integer attempts;
+        try {
+            attempts = transactionTemplate.execute(status -> mintRepository.findByIdForProcessing(mintId)
+                    .map(mint -> {
+                        mint.setProcessingAttempts(mint.getProcessingAttempts() + 1);
+                        if (mint.getProcessingAttempts() >= maxAttempts) {
+                            mint.setProcessingStage(MintProcessingStage.ABANDONED);
+                        }
+                        return mint.getProcessingAttempts();
+                    })
+                    .orElse(null));
+        } catch (RuntimeException e) {
+            log.error("Mint pipeline failed for request {} and the failure could not be recorded: {}",
+                    mintId, e.getMessage(), e);
+            return;
+        }
+        if (attempts != null && attempts >= maxAttempts) {
+            abandonedCounter.increment();
+            log.error("Mint pipeline failed for request {} {} times, abandoned: {}",
+                    mintId, attempts, failure.getMessage(), failure);
+        } else {
+            log.error("Mint pipeline failed for request {} (attempt {}), will retry: {}",
+                    mintId, attempts, failure.getMessage(), failure);
+        }
+    }
+
+    /**
+     * Runs the next stage for the mint and returns the stage it ended in, or null if the mint is gone.
+     */
+    MintProcessingStage advance(UUID mintId) {
+        Mint mint = mintRepository.findByIdForProcessing(mintId).orElse(null);
+        if (mint == null) {
+            log.warn("Mint request {} no longer exists, dropping it from the pipeline", mintId);
+            return null;
+        }
+
+        MintProcessingStage stage = mint.getProcessingStage();
+        Timer timer = stageTimers.get(stage);
+        if (timer == null) {
+            return stage;
+        }
+        long start = System.nanoTime();
+        switch (stage) {
+            case ACCEPTED -> registerWithTreasury(mint);
+            case TREASURY_REGISTERED -> notifyUser(mint);
+            default -> { }
+        }
+        timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return mint.getProcessingStage();
+    }
+
+    private void registerWithTreasury(Mint mint) {
+        // assigned when the mint is inserted; only requests accepted before that change lack one
+        if (mint.getTreasuryTransactionId() == null) {
+            mint.setTreasuryTransactionId(MintRequestService.treasuryTransactionId(mint.getId()));
+        }
+        mint.setProcessingStage(MintProcessingStage.TREASURY_REGISTERED);
+        log.info("Mint request {} registered with treasury as {}", mint.getId(), mint.getTreasuryTransactionId());
+    }
+
+    private void notifyUser(Mint mint) {
+        // the notification is queued in the outbox in this transaction, together with the stage change
+        notificationService.notifyUserOnMintStatusChange(mint.getUser(), mint,
+                "Your mint request has been received and is pending.");
+        mint.setProcessingStage(MintProcessingStage.COMPLETED);
+    }
+
+    @Scheduled(fixedDelayString = "${mint.pipeline.recovery-interval:60000}")
+    public void resumeStalled() {
+        List<UUID> stalled = mintRepository.findStalledIds(UNFINISHED,
+                LocalDateTime.now().minus(stallTimeout), maxAttempts, PageRequest.of(0, recoveryBatchSize));
+        if (!stalled.isEmpty()) {
+            log.info("Resuming {} stalled mint requests", stalled.size());
+            stalled.forEach(this::submit);
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package com.javaguy.nhx.service.mint;
 
+import com.javaguy.nhx.exception.custom.BadRequestException;
 import com.javaguy.nhx.exception.custom.InvalidMintAmountException;
 import com.javaguy.nhx.exception.custom.KycNotVerifiedException;
 import com.javaguy.nhx.exception.custom.ResourceNotFoundException;
 import com.javaguy.nhx.exception.custom.WalletMismatchException;
 import com.javaguy.nhx.model.dto.request.MintRequest;
+import com.javaguy.nhx.model.dto.response.CursorPage;
 import com.javaguy.nhx.model.dto.response.MintResponse;
 import com.javaguy.nhx.model.dto.response.MintResponseDto;
 import com.javaguy.nhx.model.dto.response.MintStatusResponse;
@@ -12,13 +14,17 @@ import com.javaguy.nhx.model.entity.Mint;
 import com.javaguy.nhx.model.entity.User;
 import com.javaguy.nhx.model.entity.Wallet;
 import com.javaguy.nhx.model.enums.KycStatus;
+import com.javaguy.nhx.model.enums.MintProcessingStage;
 import com.javaguy.nhx.model.enums.MintStatus;
 import com.javaguy.nhx.repository.MintRepository;
 import com.javaguy.nhx.repository.UserRepository;
 import com.javaguy.nhx.repository.WalletRepository;
-import com.javaguy.nhx.service.email.NotificationService;
+import com.javaguy.nhx.repository.projection.MintHistoryRow;
+import com.javaguy.nhx.util.KeysetPage;
+import com.javaguy.nhx.util.TimeOrderedUuid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -37,9 +43,13 @@ public class MintRequestService {
     private final MintRepository mintRepository;
     private final UserRepository userRepository;
     private final WalletRepository walletRepository;
-    private final NotificationService notificationService;
+    private final ApplicationEventPublisher eventPublisher;
 
     private static final BigDecimal MIN_MINT_AMOUNT = new BigDecimal("1000000.00");
+    private static final String HISTORY_CURSOR = "user-mint";
+    // bounds for an open-ended date range; every mint falls between them
+    private static final LocalDate EARLIEST_DATE = LocalDate.EPOCH;
+    private static final LocalDate LATEST_DATE = LocalDate.of(9999, 12, 31);
 
     @Transactional
     public MintResponse requestMint(UUID userId, MintRequest request) {
@@ -62,25 +72,23 @@ public class MintRequestService {
             throw new WalletMismatchException("Wallet does not belong to the authenticated user");
         }
 
-        Mint mint = Mint.builder()
+        UUID mintId = TimeOrderedUuid.next();
+        Mint mint = mintRepository.save(Mint.builder()
+                .id(mintId)
+                .treasuryTransactionId(treasuryTransactionId(mintId))
                 .user(user)
                 .wallet(wallet)
                 .amountKes(request.getAmountKes())
                 .status(MintStatus.PENDING)
+                .processingStage(MintProcessingStage.ACCEPTED)
                 .dateInitiated(LocalDate.now())
-                .build();
-
-        mint = mintRepository.save(mint);
+                .build());
 
-        String txnId = "mint-" + mint.getId() + "-" + System.currentTimeMillis();
-        mint.setTreasuryTransactionId(txnId);
-        mint = mintRepository.save(mint);
+        log.info("Mint request accepted - ID: {}, TxnID: {}, Amount: {}",
+                mint.getId(), mint.getTreasuryTransactionId(), request.getAmountKes());
 
-        log.warn("Mint request created - ID: {}, TxnID: {}, Amount: {}", 
-                mint.getId(), txnId, request.getAmountKes());
-
-        notificationService.notifyUserOnMintStatusChange(user, mint,
-                "Your mint request has been received and is pending.");
+        // the treasury handoff and the user notification run in MintPipeline once this commits
+        eventPublisher.publishEvent(new MintAcceptedEvent(mint.getId()));
 
         return MintResponse.builder()
                 .requestId(mint.getId())
@@ -88,6 +96,10 @@ public class MintRequestService {
                 .build();
     }
 
+    static String treasuryTransactionId(UUID mintId) {
+        return "mint-" + mintId + "-" + System.currentTimeMillis();
+    }
+
     @Transactional(readOnly = true)
     public MintStatusResponse getMintStatus(UUID userId, UUID requestId) {
         Mint mint = mintRepository.findByUserIdAndId(userId, requestId)
@@ -102,6 +114,7 @@ public class MintRequestService {
         return MintStatusResponse.builder()
                 .requestId(mint.getId())
                 .status(mint.getStatus())
+                .processingStage(mint.getProcessingStage())
                 .tokensMinted(mint.getAmountKes())
                 .dateInitiated(mint.getCreatedAt())
                 .dateCompleted(dateCompleted)
@@ -117,11 +130,55 @@ public class MintRequestService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * The user's mints newest first by continuation token, optionally limited to one status and to
+     * mints initiated between {@code from} and {@code to} inclusive. Each page is one statement
+     * with the wallet address joined in, and costs the same at any depth; there is no total.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<MintResponseDto> getMintHistory(UUID userId, MintStatus status, LocalDate from, LocalDate to,
+                                                      String cursor, int size) {
+        LocalDate earliest = from != null ? from : EARLIEST_DATE;
+        LocalDate latest = to != null ? to : LATEST_DATE;
+        if (earliest.isAfter(latest)) {
+            throw new BadRequestException("'from' must not be after 'to'");
+        }
+        return KeysetPage.fetch(HISTORY_CURSOR, cursor, size, LocalDate::parse,
+                (dateInitiated, id, pageable) -> {
+                    if (dateInitiated == null) {
+                        return status != null
+                                ? mintRepository.findHistoryRowsFirstByStatus(userId, earliest, latest, status,
+                                        pageable)
+                                : mintRepository.findHistoryRowsFirst(userId, earliest, latest, pageable);
+                    }
+                    return status != null
+                            ? mintRepository.findHistoryRowsAfterByStatus(userId, earliest, latest, status,
+                                    dateInitiated, id, pageable)
+                            : mintRepository.findHistoryRowsAfter(userId, earliest, latest, dateInitiated, id,
+                                    pageable);
+                },
+                MintHistoryRow::dateInitiated, MintHistoryRow::requestId, this::toDto);
+    }
+
+    private MintResponseDto toDto(MintHistoryRow row) {
+        return MintResponseDto.builder()
+                .id(row.requestId())
+                .amountKes(row.amountKes())
+                .status(row.status())
+                .processingStage(row.processingStage())
+                .dateInitiated(row.dateInitiated())
+                .treasuryTransactionId(row.treasuryTransactionId())
+                .createdAt(row.createdAt())
+                .walletAddress(row.walletAddress())
+                .build();
+    }
+
     private MintResponseDto convertToDto(Mint mint) {
         return MintResponseDto.builder()
                 .id(mint.getId())
                 .amountKes(mint.getAmountKes())
                 .status(mint.getStatus())
+                .processingStage(mint.getProcessingStage())
                 .dateInitiated(mint.getDateInitiated())
                 .treasuryTransactionId(mint.getTreasuryTransactionId())
                 .createdAt(mint.getCreatedAt())
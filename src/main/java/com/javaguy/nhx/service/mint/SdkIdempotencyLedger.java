@@ -0,0 +1,105 @@
+package com.javaguy.nhx.service.mint;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.javaguy.nhx.exception.custom.BadRequestException;
+import com.javaguy.nhx.exception.custom.ConflictException;
+import com.javaguy.nhx.model.entity.SdkIdempotencyRecord;
+import com.javaguy.nhx.repository.SdkIdempotencyRecordRepository;
+import com.javaguy.nhx.util.TokenDigest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Local record of SDK responses by idempotency key. A mint or transfer repeated with a key that
+ * already succeeded gets the stored response back without another SDK call; the SDK only sees
+ * a key again when the earlier attempt never came back (timeout, network error), and then it
+ * deduplicates on the same Idempotency-Key header itself.
+ *
+ * Records are kept for {@code sdk.idempotency.retention}, which bounds how late a retry can
+ * still be recognised.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SdkIdempotencyLedger {
+
+    static final int MAX_KEY_LENGTH = 128;
+
+    // fixed, sorted output so a request hashes the same regardless of field order or mapper config
+    private static final JsonMapper CANONICAL_JSON = JsonMapper.builder()
+            .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+            .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+            .build();
+
+    private final SdkIdempotencyRecordRepository recordRepository;
+
+    @Value("${sdk.idempotency.retention:7d}")
+    private Duration retention;
+
+    /**
+     * Returns the stored response for the key, or empty if the key has not completed yet.
+     * Throws ConflictException if the key was used for a different operation or request.
+     */
+    public Optional<String> findResponse(String idempotencyKey, String operation, Object request) {
+        validateKey(idempotencyKey);
+        return recordRepository.findById(idempotencyKey)
+                .map(record -> {
+                    if (!record.getOperation().equals(operation)
+                            || !record.getRequestHash().equals(requestHash(operation, request))) {
+                        throw new ConflictException(
+                                "Idempotency key " + idempotencyKey + " was already used for a different request");
+                    }
+                    return record.getResponseBody();
+                });
+    }
+
+    public void record(String idempotencyKey, String operation, Object request, String responseBody) {
+        try {
+            recordRepository.save(SdkIdempotencyRecord.builder()
+                    .idempotencyKey(idempotencyKey)
+                    .operation(operation)
+                    .requestHash(requestHash(operation, request))
+                    .responseBody(responseBody)
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            // a concurrent call with the same key recorded first; the SDK deduplicated the second one
+            log.debug("Idempotency key {} already recorded", idempotencyKey);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${sdk.idempotency.purge-interval:3600000}")
+    public void purgeExpired() {
+        int deleted = recordRepository.deleteCreatedBefore(LocalDateTime.now().minus(retention));
+        if (deleted > 0) {
+            log.info("Purged {} SDK idempotency records older than {}", deleted, retention);
+        }
+    }
+
+    static void validateKey(String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            throw new BadRequestException("Idempotency key is required");
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException("Idempotency key must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+    }
+
+    static String requestHash(String operation, Object request) {
+        try {
+            return TokenDigest.sha256Hex(operation + ":" + CANONICAL_JSON.writeValueAsString(request));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize " + operation + " request for hashing", e);
+        }
+    }
+}
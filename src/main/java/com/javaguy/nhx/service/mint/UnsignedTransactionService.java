@@ -4,6 +4,7 @@ import com.javaguy.nhx.model.dto.request.UnsignedTransactionRequest;
 import com.javaguy.nhx.model.dto.response.UnsignedTransactionResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
@@ -23,6 +24,7 @@ public class UnsignedTransactionService {
     @Value("${multisig.api.url}")
     private String multisigApiUrl;
 
+    @Qualifier("multisigRestClient")
     private final RestClient restClient;
 
     public UnsignedTransactionResponse createUnsignedTransaction(UnsignedTransactionRequest request) {
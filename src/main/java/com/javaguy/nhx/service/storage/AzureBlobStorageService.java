@@ -1,16 +1,37 @@
 package com.javaguy.nhx.service.storage;
 
+import com.azure.core.util.Context;
 import com.azure.storage.blob.BlobClient;
 import com.azure.storage.blob.BlobContainerClient;
+import com.azure.storage.blob.BlobUrlParts;
 import com.azure.storage.blob.models.BlobHttpHeaders;
+import com.azure.storage.blob.models.BlobProperties;
+import com.azure.storage.blob.models.BlobRange;
+import com.azure.storage.blob.models.BlobStorageException;
+import com.azure.storage.blob.models.ParallelTransferOptions;
+import com.azure.storage.blob.options.BlobInputStreamOptions;
+import com.azure.storage.blob.options.BlobParallelUploadOptions;
+import com.azure.storage.blob.sas.BlobSasPermission;
+import com.azure.storage.blob.sas.BlobServiceSasSignatureValues;
+import com.azure.storage.blob.specialized.BlobInputStream;
+import com.azure.storage.common.sas.SasProtocol;
+import com.javaguy.nhx.exception.custom.RangeNotSatisfiableException;
+import com.javaguy.nhx.exception.custom.ResourceNotFoundException;
 import com.javaguy.nhx.exception.custom.StorageException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
 import java.util.UUID;
 
 @Service
@@ -19,7 +40,13 @@ import java.util.UUID;
 @Slf4j
 public class AzureBlobStorageService implements DocumentStorageService {
 
+    private static final Duration SAS_CLOCK_SKEW = Duration.ofMinutes(5);
+
+    // per ranged GET while streaming; the SDK default of 4 MiB over-fetches for small ranges
+    private static final int READ_BLOCK_SIZE = 512 * 1024;
+
     private final BlobContainerClient blobContainerClient;
+    private final ParallelTransferOptions uploadTransferOptions;
 
     @Override
     public String store(String folder, MultipartFile file) {
@@ -32,13 +59,20 @@ public class AzureBlobStorageService implements DocumentStorageService {
             String blobName = folder + "/" + UUID.randomUUID() + extension;
 
             BlobClient blobClient = blobContainerClient.getBlobClient(blobName);
-            blobClient.upload(file.getInputStream(), file.getSize(), true);
-
             String contentType = file.getContentType() != null ? file.getContentType() : "application/octet-stream";
 
-            blobClient.setHttpHeaders(new BlobHttpHeaders()
-                    .setContentType(contentType)
-                    .setContentDisposition("inline"));
+            // headers go with the upload itself (Put Blob or the final Put Block List), so there
+            // is no separate Set Blob Properties round-trip; no request conditions means overwrite.
+            // The stream is read block by block, never as a whole.
+            try (InputStream in = file.getInputStream()) {
+                blobClient.uploadWithResponse(
+                        new BlobParallelUploadOptions(in)
+                                .setParallelTransferOptions(uploadTransferOptions)
+                                .setHeaders(new BlobHttpHeaders()
+                                        .setContentType(contentType)
+                                        .setContentDisposition("inline")),
+                        null, Context.NONE);
+            }
 
             log.info("Uploaded file to Azure Blob Storage: {}", blobClient.getBlobUrl());
             return blobClient.getBlobUrl();
@@ -61,18 +95,93 @@ public class AzureBlobStorageService implements DocumentStorageService {
         }
     }
 
-    public byte[] download(String folder, String fileName) {
-        String blobName = folder + "/" + fileName;
+    @Override
+    public void delete(String reference) {
+        String blobName = BlobUrlParts.parse(reference).getBlobName();
+        try {
+            if (blobContainerClient.getBlobClient(blobName).deleteIfExists()) {
+                log.info("Deleted blob: {}", blobName);
+            }
+        } catch (BlobStorageException e) {
+            throw new StorageException("Failed to delete file from Azure Blob Storage", e);
+        }
+    }
+
+    /**
+     * Streams a blob by the URL {@link #store} returned. The stream is opened on the requested
+     * span, so its first ranged GET starts at the range and also returns the blob properties; a
+     * missing blob surfaces as that request's 404 rather than through a separate exists() call.
+     * Later blocks are fetched as the caller reads, never past the span. Only a suffix range
+     * ("the last n bytes") costs an extra properties call, since its start depends on the size.
+     */
+    @Override
+    public DocumentStream open(String reference, List<HttpRange> ranges) {
+        String blobName = BlobUrlParts.parse(reference).getBlobName();
         BlobClient blobClient = blobContainerClient.getBlobClient(blobName);
+        BlobInputStream in;
+        try {
+            in = blobClient.openInputStream(new BlobInputStreamOptions()
+                    .setRange(blobRange(blobClient, ranges))
+                    .setBlockSize(READ_BLOCK_SIZE));
+        } catch (BlobStorageException e) {
+            if (e.getStatusCode() == HttpStatus.NOT_FOUND.value()) {
+                log.warn("Blob not found for download: {}", blobName);
+                throw new ResourceNotFoundException("Document not found");
+            }
+            if (e.getStatusCode() == HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value()) {
+                throw new RangeNotSatisfiableException("Requested range not satisfiable", e);
+            }
+            throw new StorageException("Failed to read file from Azure Blob Storage", e);
+        }
 
-        if (!blobClient.exists()) {
-            log.warn("Blob not found for download: {}", blobName);
-            throw new StorageException("File not found: " + fileName);
+        try {
+            BlobProperties properties = in.getProperties();
+            long totalLength = properties.getBlobSize();
+            long[] span = DocumentStream.resolve(ranges, totalLength);
+            String contentType = properties.getContentType() != null
+                    ? properties.getContentType()
+                    : DocumentStream.DEFAULT_CONTENT_TYPE;
+            return new DocumentStream(new BoundedInputStream(in, span[1]), contentType, span[0], span[1], totalLength);
+        } catch (RuntimeException e) {
+            closeQuietly(in);
+            throw e;
+        }
+    }
+
+    private static BlobRange blobRange(BlobClient blobClient, List<HttpRange> ranges) {
+        if (ranges == null || ranges.isEmpty()) {
+            return new BlobRange(0);
+        }
+        long[] span = DocumentStream.requestedSpan(ranges);
+        if (span == null) {
+            span = DocumentStream.resolve(ranges, blobClient.getProperties().getBlobSize());
+            return new BlobRange(span[0], span[1]);
         }
+        return span[1] < 0 ? new BlobRange(span[0]) : new BlobRange(span[0], span[1] - span[0] + 1);
+    }
 
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        blobClient.downloadStream(outputStream);
-        log.info("Downloaded blob: {}", blobName);
-        return outputStream.toByteArray();
+    /**
+     * A read-only service SAS for the one blob, signed with the account key the client already
+     * holds, so the browser fetches the document from Azure directly.
+     */
+    @Override
+    public SignedUrl signedUrl(String reference, Duration ttl) {
+        BlobClient blobClient = blobContainerClient.getBlobClient(BlobUrlParts.parse(reference).getBlobName());
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        OffsetDateTime expiresAt = now.plus(ttl);
+        BlobServiceSasSignatureValues values =
+                new BlobServiceSasSignatureValues(expiresAt, new BlobSasPermission().setReadPermission(true))
+                        // tolerate some clock skew between us and the storage service
+                        .setStartTime(now.minus(SAS_CLOCK_SKEW))
+                        .setProtocol(SasProtocol.HTTPS_ONLY);
+        return new SignedUrl(blobClient.getBlobUrl() + "?" + blobClient.generateSas(values), expiresAt.toInstant());
+    }
+
+    private void closeQuietly(InputStream in) {
+        try {
+            in.close();
+        } catch (IOException e) {
+            log.debug("Failed to close blob stream: {}", e.getMessage());
+        }
     }
 }
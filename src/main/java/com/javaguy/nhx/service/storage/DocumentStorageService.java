@@ -1,11 +1,36 @@
 package com.javaguy.nhx.service.storage;
 
 import com.javaguy.nhx.exception.custom.StorageException;
+import org.springframework.http.HttpRange;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.time.Duration;
+import java.util.List;
+
 public interface DocumentStorageService {
     /**
      * Stores a file and returns a storage URI or absolute path reference.
      */
     String store(String folder, MultipartFile file) throws StorageException;
+
+    /**
+     * Opens a stored document for streaming, limited to the requested ranges (the whole
+     * document when there are none). Nothing is buffered; the caller closes the stream.
+     * A missing document raises ResourceNotFoundException and an unsatisfiable range
+     * RangeNotSatisfiableException.
+     */
+    DocumentStream open(String reference, List<HttpRange> ranges) throws StorageException;
+
+    /**
+     * Deletes a stored document by the reference {@link #store} returned. Deleting a document
+     * that is already gone is not an error.
+     */
+    void delete(String reference) throws StorageException;
+
+    /**
+     * Returns a URL from which a browser can read this one document directly, without the
+     * application serving the bytes, until {@code ttl} has passed. Signing is local; it makes
+     * no call to storage.
+     */
+    SignedUrl signedUrl(String reference, Duration ttl) throws StorageException;
 }
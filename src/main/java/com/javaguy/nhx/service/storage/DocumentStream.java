@@ -0,0 +1,93 @@
+package com.javaguy.nhx.service.storage;
+
+import com.javaguy.nhx.exception.custom.RangeNotSatisfiableException;
+import org.springframework.http.HttpRange;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * An open stored document: {@code content} yields {@code length} bytes starting at {@code start}
+ * of a document that is {@code totalLength} bytes long. The caller owns the stream and must close it.
+ */
+public record DocumentStream(InputStream content, String contentType, long start, long length, long totalLength)
+        implements Closeable {
+
+    public static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+    /**
+     * True when only part of the document was requested, i.e. the response is a 206.
+     */
+    public boolean isPartial() {
+        return length != totalLength;
+    }
+
+    /**
+     * Value for the Content-Range header of a partial response.
+     */
+    public String contentRange() {
+        return "bytes " + start + "-" + (start + length - 1) + "/" + totalLength;
+    }
+
+    @Override
+    public void close() throws IOException {
+        content.close();
+    }
+
+    /**
+     * Parses a Range header value; no header means no ranges.
+     */
+    public static List<HttpRange> parseRanges(String rangeHeader) {
+        try {
+            return HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException e) {
+            throw new RangeNotSatisfiableException("Invalid Range header: " + rangeHeader, e);
+        }
+    }
+
+    /**
+     * The {start, end} span the ranges ask for when that does not depend on the document size,
+     * with end -1 for "to the end". Returns null when a suffix range ("the last n bytes") means
+     * the size must be known first.
+     */
+    static long[] requestedSpan(List<HttpRange> ranges) {
+        long start = Long.MAX_VALUE;
+        long end = -1;
+        boolean toEnd = false;
+        for (HttpRange range : ranges) {
+            long rangeStart = range.getRangeStart(Long.MAX_VALUE);
+            if (rangeStart != range.getRangeStart(Long.MAX_VALUE - 1)) {
+                return null;
+            }
+            long rangeEnd = range.getRangeEnd(Long.MAX_VALUE);
+            start = Math.min(start, rangeStart);
+            toEnd |= rangeEnd == Long.MAX_VALUE - 1;
+            end = Math.max(end, rangeEnd);
+        }
+        return new long[]{start, toEnd ? -1 : end};
+    }
+
+    /**
+     * Resolves the requested ranges against the document size into one {start, length} span.
+     * Several ranges are served as the single span covering all of them rather than as a
+     * multipart response. No ranges means the whole document.
+     */
+    static long[] resolve(List<HttpRange> ranges, long totalLength) {
+        if (ranges == null || ranges.isEmpty()) {
+            return new long[]{0, totalLength};
+        }
+        long start = Long.MAX_VALUE;
+        long end = -1;
+        for (HttpRange range : ranges) {
+            start = Math.min(start, range.getRangeStart(totalLength));
+            end = Math.max(end, range.getRangeEnd(totalLength));
+        }
+        if (start >= totalLength || end < start) {
+            throw new RangeNotSatisfiableException("Requested range not satisfiable for a document of "
+                    + totalLength + " bytes");
+        }
+        return new long[]{start, end - start + 1};
+    }
+}
@@ -0,0 +1,65 @@
+package com.javaguy.nhx.service.storage;
+
+import com.javaguy.nhx.util.ExpiringMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Hands out short-lived signed URLs for stored documents (see
+ * {@link DocumentStorageService#signedUrl}), reusing each one until {@code refreshBeforeExpiry}
+ * before it expires, so reloading the admin queue neither re-signs every document nor gives the
+ * browser a new URL, and so a new download, each time.
+ */
+@Component
+@Slf4j
+public class DocumentUrlSigner {
+
+    private final DocumentStorageService storageService;
+    private final Duration ttl;
+    private final long refreshBeforeExpiryMillis;
+
+    // each URL is kept only until it is due for refresh, so anything the map returns is fresh
+    private final ExpiringMap<String, String> entries;
+
+    @Autowired
+    public DocumentUrlSigner(DocumentStorageService storageService,
+                             @Value("${storage.signed-url.ttl:5m}") Duration ttl,
+                             @Value("${storage.signed-url.refresh-before-expiry:1m}") Duration refreshBeforeExpiry,
+                             @Value("${storage.signed-url.cache-max-size:10000}") int maxSize) {
+        this(storageService, ttl, refreshBeforeExpiry, maxSize, System::currentTimeMillis);
+    }
+
+    DocumentUrlSigner(DocumentStorageService storageService, Duration ttl, Duration refreshBeforeExpiry,
+                      int maxSize, LongSupplier clock) {
+        this.storageService = storageService;
+        this.ttl = ttl;
+        this.refreshBeforeExpiryMillis = refreshBeforeExpiry.toMillis();
+        this.entries = new ExpiringMap<>(maxSize, clock);
+    }
+
+    /**
+     * A signed URL for the stored document, or null when there is no document.
+     */
+    public String sign(String reference) {
+        if (reference == null) {
+            return null;
+        }
+        String cached = entries.get(reference);
+        if (cached != null) {
+            return cached;
+        }
+
+        SignedUrl signed = storageService.signedUrl(reference, ttl);
+        entries.put(reference, signed.url(), signed.expiresAt().toEpochMilli() - refreshBeforeExpiryMillis);
+        return signed.url();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+}
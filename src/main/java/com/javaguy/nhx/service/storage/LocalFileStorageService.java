@@ -1,17 +1,39 @@
 package com.javaguy.nhx.service.storage;
 
+import com.javaguy.nhx.exception.custom.ForbiddenException;
+import com.javaguy.nhx.exception.custom.ResourceNotFoundException;
 import com.javaguy.nhx.exception.custom.StorageException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpRange;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
 import java.util.UUID;
 
 @Service
@@ -20,9 +42,24 @@ import java.util.UUID;
 @Slf4j
 public class LocalFileStorageService implements DocumentStorageService {
 
+    /**
+     * Where {@link #signedUrl} links point; served by LocalDocumentController.
+     */
+    public static final String DOWNLOAD_PATH = "/api/storage/local";
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
     @Value("${storage.local.base-path}")
     private String basePath;
 
+    @Value("${storage.local.signing-key:}")
+    private String signingKey;
+
+    @Value("${app.base-url:}")
+    private String appBaseUrl;
+
+    private volatile SecretKeySpec signingKeySpec;
+
     @Override
     public String store(String folder, MultipartFile file) throws StorageException {
         try {
@@ -31,7 +68,7 @@ public class LocalFileStorageService implements DocumentStorageService {
             Files.createDirectories(targetDir);
             String filename = UUID.randomUUID() + "_" + sanitize(file.getOriginalFilename());
             Path target = targetDir.resolve(filename);
-            Files.write(target, file.getBytes());
+            copy(file, target);
             log.info("Stored file locally at {}", target);
             return target.toAbsolutePath().toString();
         } catch (IOException e) {
@@ -40,6 +77,161 @@ public class LocalFileStorageService implements DocumentStorageService {
         }
     }
 
+    /**
+     * Streams the upload to disk without holding it on the heap. The container spools multipart
+     * files to a temp file, and a file-backed input stream transfers into the target FileChannel
+     * with FileChannel.transferTo (no user-space copy); other streams are copied through a small
+     * buffer.
+     */
+    private void copy(MultipartFile file, Path target) throws IOException {
+        try (InputStream in = file.getInputStream();
+             FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+             OutputStream channelOut = Channels.newOutputStream(out)) {
+            in.transferTo(channelOut);
+        } catch (IOException e) {
+            Files.deleteIfExists(target);
+            throw e;
+        }
+    }
+
+    @Override
+    public void delete(String reference) throws StorageException {
+        Path path = resolve(reference);
+        try {
+            if (Files.deleteIfExists(path)) {
+                log.info("Deleted local file {}", path);
+            }
+        } catch (IOException e) {
+            throw new StorageException("Failed to delete local file", e);
+        }
+    }
+
+    /**
+     * Streams a stored file by the absolute path {@link #store} returned. The file is opened
+     * straight away, so a missing file is the NoSuchFileException from that open rather than a
+     * separate existence check. References outside the base path are treated as missing.
+     */
+    @Override
+    public DocumentStream open(String reference, List<HttpRange> ranges) {
+        Path path = resolve(reference);
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            log.warn("File not found for download: {}", path);
+            throw new ResourceNotFoundException("Document not found");
+        } catch (IOException e) {
+            throw new StorageException("Failed to read file from local storage", e);
+        }
+
+        try {
+            long totalLength = channel.size();
+            long[] span = DocumentStream.resolve(ranges, totalLength);
+            String contentType = Files.probeContentType(path);
+            return new DocumentStream(new FileRangeInputStream(channel, span[0], span[1]),
+                    contentType != null ? contentType : DocumentStream.DEFAULT_CONTENT_TYPE,
+                    span[0], span[1], totalLength);
+        } catch (IOException e) {
+            closeQuietly(channel);
+            throw new StorageException("Failed to read file from local storage", e);
+        } catch (RuntimeException e) {
+            closeQuietly(channel);
+            throw e;
+        }
+    }
+
+    /**
+     * A link to {@link #DOWNLOAD_PATH} carrying the file's path relative to the base path, the
+     * expiry and an HMAC-SHA256 of both, standing in for a SAS token when running locally.
+     */
+    @Override
+    public SignedUrl signedUrl(String reference, Duration ttl) {
+        String relativePath = baseDirectory().relativize(resolve(reference)).toString()
+                .replace(File.separatorChar, '/');
+        Instant expiresAt = Instant.now().plus(ttl);
+        long expires = expiresAt.getEpochSecond();
+        String url = UriComponentsBuilder.fromUriString(appBaseUrl)
+                .path(DOWNLOAD_PATH)
+                .queryParam("path", relativePath)
+                .queryParam("expires", expires)
+                .queryParam("signature", sign(relativePath, expires))
+                .encode()
+                .toUriString();
+        return new SignedUrl(url, Instant.ofEpochSecond(expires));
+    }
+
+    /**
+     * Opens the document a {@link #signedUrl} link points at, if its signature matches and it
+     * has not expired.
+     */
+    public DocumentStream openSigned(String relativePath, long expires, String signature, List<HttpRange> ranges) {
+        boolean valid = signature != null && MessageDigest.isEqual(
+                sign(relativePath, expires).getBytes(StandardCharsets.US_ASCII),
+                signature.getBytes(StandardCharsets.US_ASCII));
+        if (!valid || expires < Instant.now().getEpochSecond()) {
+            throw new ForbiddenException("Document link is invalid or has expired");
+        }
+        return open(baseDirectory().resolve(relativePath).toString(), ranges);
+    }
+
+    private String sign(String relativePath, long expires) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(signingKey());
+            byte[] signature = mac.doFinal((relativePath + "\n" + expires).getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(HMAC_ALGORITHM + " not available", e);
+        }
+    }
+
+    private SecretKeySpec signingKey() {
+        SecretKeySpec key = signingKeySpec;
+        if (key == null) {
+            synchronized (this) {
+                key = signingKeySpec;
+                if (key == null) {
+                    byte[] secret;
+                    if (signingKey == null || signingKey.isBlank()) {
+                        // links then stop working on restart, which is fine for local runs
+                        log.warn("storage.local.signing-key is not set; signing document links with a random key");
+                        secret = new byte[32];
+                        new SecureRandom().nextBytes(secret);
+                    } else {
+                        secret = signingKey.getBytes(StandardCharsets.UTF_8);
+                    }
+                    key = new SecretKeySpec(secret, HMAC_ALGORITHM);
+                    signingKeySpec = key;
+                }
+            }
+        }
+        return key;
+    }
+
+    private Path baseDirectory() {
+        return Paths.get(basePath).toAbsolutePath().normalize();
+    }
+
+    /**
+     * The stored file a reference names; references outside the base path are treated as missing.
+     */
+    private Path resolve(String reference) {
+        Path path = Paths.get(reference).toAbsolutePath().normalize();
+        if (!path.startsWith(baseDirectory())) {
+            log.warn("Refusing to read {} outside the storage base path", path);
+            throw new ResourceNotFoundException("Document not found");
+        }
+        return path;
+    }
+
+    private void closeQuietly(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.debug("Failed to close file channel: {}", e.getMessage());
+        }
+    }
+
     private String sanitize(String name) {
         if (name == null) return "file";
         return name.replaceAll("[^a-zA-Z0-9_.-]", "_");
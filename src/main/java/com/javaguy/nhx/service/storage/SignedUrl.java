@@ -0,0 +1,9 @@
+package com.javaguy.nhx.service.storage;
+
+import java.time.Instant;
+
+/**
+ * A URL that grants read access to one stored document until {@code expiresAt}.
+ */
+public record SignedUrl(String url, Instant expiresAt) {
+}
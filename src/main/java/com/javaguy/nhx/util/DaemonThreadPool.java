@@ -0,0 +1,30 @@
+package com.javaguy.nhx.util;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DaemonThreadPool {
+
+    /**
+     * Fixed-size pool of daemon threads named {@code namePrefix-1}, {@code namePrefix-2}, ...
+     * Work beyond {@code threads} waits in {@code queue}; once that is full {@code rejection} decides.
+     */
+    public static ThreadPoolExecutor fixed(String namePrefix, int threads, BlockingQueue<Runnable> queue,
+                                           RejectedExecutionHandler rejection) {
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, queue,
+                threadFactory(namePrefix), rejection);
+    }
+
+    public static ThreadFactory threadFactory(String namePrefix) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,107 @@
+package com.javaguy.nhx.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded concurrent map whose entries each carry an expiry time (in {@code clock} millis). Expired
+ * entries are never returned. A put into a full map first drops the expired entries and then,
+ * if that was not enough, the ones closest to expiry, a sixteenth of the map at a time so a burst
+ * of new keys does not rescan it on every put.
+ */
+public class ExpiringMap<K, V> {
+
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final LongSupplier clock;
+    private final LongAdder evictions = new LongAdder();
+
+    public ExpiringMap(int maxSize, LongSupplier clock) {
+        this.maxSize = maxSize;
+        this.clock = clock;
+    }
+
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() <= clock.getAsLong()) {
+            if (entries.remove(key, entry)) {
+                evictions.increment();
+            }
+            return null;
+        }
+        return entry.value();
+    }
+
+    /**
+     * Stores {@code value} until {@code expiresAt}; does nothing when the map is disabled
+     * ({@code maxSize <= 0}).
+     */
+    public void put(K key, V value, long expiresAt) {
+        if (maxSize <= 0) {
+            return;
+        }
+        if (entries.size() >= maxSize && !entries.containsKey(key)) {
+            makeRoom();
+        }
+        entries.put(key, new Entry<>(value, expiresAt));
+    }
+
+    public boolean remove(K key) {
+        return entries.remove(key) != null;
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Entries dropped for expiry or to make room; explicit removals are not counted.
+     */
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    private synchronized void makeRoom() {
+        if (entries.size() < maxSize) {
+            return;
+        }
+        long now = clock.getAsLong();
+        Iterator<Entry<V>> values = entries.values().iterator();
+        while (values.hasNext()) {
+            if (values.next().expiresAt() <= now) {
+                values.remove();
+                evictions.increment();
+            }
+        }
+
+        int excess = entries.size() - maxSize + 1;
+        if (excess <= 0) {
+            return;
+        }
+        List<Map.Entry<K, Entry<V>>> soonest = new ArrayList<>(entries.entrySet());
+        soonest.sort(Comparator.comparingLong(entry -> entry.getValue().expiresAt()));
+        int drop = Math.min(soonest.size(), Math.max(excess, maxSize / 16));
+        for (int i = 0; i < drop; i++) {
+            Map.Entry<K, Entry<V>> entry = soonest.get(i);
+            if (entries.remove(entry.getKey(), entry.getValue())) {
+                evictions.increment();
+            }
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+}
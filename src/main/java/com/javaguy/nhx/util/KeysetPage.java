@@ -0,0 +1,75 @@
+package com.javaguy.nhx.util;
+
+import com.javaguy.nhx.exception.custom.BadRequestException;
+import com.javaguy.nhx.model.dto.response.CursorPage;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Serves one page of a list ordered newest first by (sort key, id) and continued by a
+ * {@link PageCursor} token: clamps the requested size, asks for one row more than it returns to
+ * learn whether a next page exists, and turns the last row's key into the next token.
+ */
+public class KeysetPage {
+
+    private static final int MAX_SIZE = 100;
+
+    /**
+     * Fetches rows strictly after {@code (key, id)} in the list's order, or from the start when
+     * {@code key} and {@code id} are null.
+     */
+    @FunctionalInterface
+    public interface Query<K, R> {
+        List<R> rows(K key, UUID id, Pageable pageable);
+    }
+
+    public static <K, R, T> CursorPage<T> fetch(String kind, String cursor, int size,
+                                                Function<String, K> parseKey, Query<K, R> query,
+                                                Function<R, K> keyOf, Function<R, UUID> idOf,
+                                                Function<R, T> toContent) {
+        int limit = size(size);
+        // one extra row tells whether there is a next page
+        Pageable pageable = PageRequest.of(0, limit + 1);
+        List<R> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = query.rows(null, null, pageable);
+        } else {
+            String[] keys = PageCursor.decode(cursor, kind, 2);
+            K key;
+            UUID id;
+            try {
+                key = parseKey.apply(keys[0]);
+                id = UUID.fromString(keys[1]);
+            } catch (DateTimeParseException | IllegalArgumentException e) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            rows = query.rows(key, id, pageable);
+        }
+
+        boolean hasNext = rows.size() > limit;
+        List<R> page = hasNext ? rows.subList(0, limit) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            R last = page.get(page.size() - 1);
+            nextCursor = PageCursor.encode(kind, keyOf.apply(last), idOf.apply(last));
+        }
+        return CursorPage.<T>builder()
+                .content(page.stream().map(toContent).toList())
+                .size(limit)
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .build();
+    }
+
+    private static int size(int size) {
+        if (size < 1) {
+            throw new BadRequestException("Page size must be at least 1");
+        }
+        return Math.min(size, MAX_SIZE);
+    }
+}
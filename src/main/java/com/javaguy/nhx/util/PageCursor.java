@@ -0,0 +1,43 @@
+package com.javaguy.nhx.util;
+
+import com.javaguy.nhx.exception.custom.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public class PageCursor {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Opaque continuation token for a keyset page: the sort key of the last row returned, tagged
+     * with the list it belongs to so a token from one list is rejected by another. Clients only
+     * pass it back; the layout is not part of the API.
+     */
+    public static String encode(String kind, Object... keys) {
+        StringBuilder raw = new StringBuilder(kind);
+        for (Object key : keys) {
+            raw.append(SEPARATOR).append(key);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Sort key values from a token produced by {@link #encode} for the same {@code kind}.
+     */
+    public static String[] decode(String cursor, String kind, int keys) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+        String[] parts = raw.split("\\" + SEPARATOR, -1);
+        if (parts.length != keys + 1 || !parts[0].equals(kind)) {
+            throw new BadRequestException("Invalid cursor");
+        }
+        String[] values = new String[keys];
+        System.arraycopy(parts, 1, values, 0, keys);
+        return values;
+    }
+}
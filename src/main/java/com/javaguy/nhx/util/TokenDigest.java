@@ -0,0 +1,22 @@
+package com.javaguy.nhx.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+public class TokenDigest {
+
+    /**
+     * Fixed-length (64 hex chars) SHA-256 digest of a token, used wherever a token has to be
+     * stored or indexed without keeping the token itself.
+     */
+    public static String sha256Hex(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
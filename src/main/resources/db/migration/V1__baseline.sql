@@ -0,0 +1,97 @@
+-- Schema as it stood before migrations were introduced. Databases that already have it are
+-- baselined at this version (spring.flyway.baseline-on-migrate) and start from V2.
+
+create table kyc_documents (
+    submitted_at timestamp(6),
+    id uuid not null,
+    user_id uuid not null,
+    dob varchar(255) not null,
+    document_back_path varchar(255),
+    document_front_path varchar(255),
+    document_number varchar(255) not null,
+    document_type varchar(255) not null,
+    full_name varchar(255) not null,
+    primary key (id)
+);
+
+create table mints (
+    amount_kes numeric(19,2) not null,
+    date_initiated date not null,
+    restriction_end_date date,
+    created_at timestamp(6) not null,
+    id uuid not null,
+    user_id uuid not null,
+    wallet_id uuid not null,
+    payment_reference varchar(255),
+    status varchar(255) not null check (status in ('PENDING','CONFIRMED','MINTED','TRANSFERRED','FAILED')),
+    treasury_transaction_id varchar(255),
+    unsigned_transaction_id varchar(255),
+    primary key (id)
+);
+
+create table newsletter_subscribers (
+    id bigint generated by default as identity,
+    subscribed_at timestamp(6),
+    email varchar(255) not null unique,
+    primary key (id)
+);
+
+create table otps (
+    used boolean not null,
+    created_at timestamp(6),
+    expiry_time timestamp(6) not null,
+    id uuid not null,
+    email varchar(255) not null,
+    otp_code varchar(255) not null,
+    primary key (id)
+);
+
+create table refresh_tokens (
+    created_at timestamp(6),
+    expiry_date timestamp(6) not null,
+    id uuid not null,
+    user_id uuid not null,
+    token varchar(255) not null unique,
+    primary key (id)
+);
+
+create table users (
+    dob date,
+    email_verified boolean not null,
+    enabled boolean not null,
+    terms_accepted boolean,
+    created_at timestamp(6),
+    last_login_at timestamp(6),
+    updated_at timestamp(6),
+    verified_at timestamp(6),
+    id uuid not null,
+    country varchar(255),
+    email varchar(255) not null unique,
+    first_name varchar(255),
+    kyc_status varchar(255) check (kyc_status in ('UNVERIFIED','PENDING','INITIATED','SUBMITTED','VERIFIED','REJECTED','RESUBMISSIONREQUIRED')),
+    last_name varchar(255),
+    mpesa_number varchar(255),
+    password_hash varchar(255) not null,
+    province varchar(255),
+    role varchar(255) check (role in ('INSTITUTIONAL_USER','ADMIN')),
+    terms_version varchar(255),
+    timezone varchar(255),
+    primary key (id)
+);
+
+create table wallets (
+    id uuid not null,
+    user_id uuid not null,
+    wallet_address varchar(255) not null unique,
+    primary key (id)
+);
+
+alter table kyc_documents add constraint FKllb8bcbbyo994afdepf7f7j63 foreign key (user_id) references users;
+
+alter table mints add constraint FKbaoygnlvd3o4t15dm1mg5dt27 foreign key (user_id) references users;
+
+alter table mints add constraint FKkvie99877n9jqbvpb2jqulqn6 foreign key (wallet_id) references wallets;
+
+alter table refresh_tokens add constraint FK1lih5y2npsf8u5o3vhdb9y0os foreign key (user_id) references users;
+
+alter table wallets add constraint FKc1foyisidw7wqqrkamafuwn4e foreign key (user_id) references users;
@@ -0,0 +1,52 @@
+-- Entity changes made while the schema was still managed by hand: the email outbox, SDK
+-- idempotency records, OTP purpose and attempt count, hashed refresh tokens and the mint
+-- processing stage. Indexes on the pre-existing tables are built in V3.
+
+create table email_outbox (
+    attempts integer not null,
+    created_at timestamp(6),
+    next_attempt_at timestamp(6) not null,
+    sent_at timestamp(6),
+    id uuid not null,
+    last_error varchar(1000),
+    html_body text not null,
+    recipient varchar(255) not null,
+    status varchar(255) not null check (status in ('PENDING','SENDING','SENT','DEAD')),
+    subject varchar(255) not null,
+    type varchar(255) not null,
+    primary key (id)
+);
+
+create index idx_email_outbox_status_next_attempt on email_outbox (status, next_attempt_at);
+-- EmailOutboxRepository.deleteSentBefore; sent rows are the bulk of the table
+create index idx_email_outbox_sent_at_sent on email_outbox (sent_at) where status = 'SENT';
+
+create table sdk_idempotency_records (
+    created_at timestamp(6),
+    operation varchar(32) not null,
+    request_hash varchar(64) not null,
+    idempotency_key varchar(128) not null,
+    response_body text,
+    primary key (idempotency_key)
+);
+
+create index idx_sdk_idempotency_records_created_at on sdk_idempotency_records (created_at);
+
+-- codes issued before purposes existed were all for email verification
+alter table otps add column purpose varchar(255) not null default 'EMAIL_VERIFICATION'
+    check (purpose in ('EMAIL_VERIFICATION','PASSWORD_RESET'));
+alter table otps alter column purpose drop default;
+alter table otps add column attempts integer not null default 0;
+alter table otps alter column attempts drop default;
+
+-- same digest as TokenDigest.sha256Hex, so outstanding sessions keep working
+alter table refresh_tokens add column token_hash varchar(64);
+update refresh_tokens set token_hash = encode(sha256(convert_to(token, 'UTF8')), 'hex');
+alter table refresh_tokens alter column token_hash set not null;
+alter table refresh_tokens add constraint uk_refresh_tokens_token_hash unique (token_hash);
+alter table refresh_tokens drop column token;
+
+-- mints accepted before the pipeline were handled in full on the request
+alter table mints add column processing_stage varchar(255) not null default 'COMPLETED'
+    check (processing_stage in ('ACCEPTED','TREASURY_REGISTERED','COMPLETED'));
+alter table mints alter column processing_stage drop default;
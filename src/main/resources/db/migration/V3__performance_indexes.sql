@@ -0,0 +1,56 @@
+-- Indexes for the repository queries on tables that already hold data. Every statement is
+-- CONCURRENTLY, so Flyway runs this script outside a transaction and writes are not blocked
+-- while the indexes build. IF NOT EXISTS lets a run that failed part-way be repeated once the
+-- invalid index it left behind has been dropped.
+
+-- MintRepository.findStalledIds
+create index concurrently if not exists idx_mints_processing_stage_created_at
+    on mints (processing_stage, created_at);
+
+-- MintRepository admin pages: offset and keyset, unfiltered and by status
+create index concurrently if not exists idx_mints_date_initiated_id
+    on mints (date_initiated, id);
+create index concurrently if not exists idx_mints_status_date_initiated_id
+    on mints (status, date_initiated, id);
+
+-- MintRepository.findByUser, findByUserId, findByUserIdAndId, newest first
+create index concurrently if not exists idx_mints_user_id_date_initiated_id
+    on mints (user_id, date_initiated, id);
+
+-- MintRepository.findByPaymentReference; most mints have no payment reference
+create index concurrently if not exists idx_mints_payment_reference
+    on mints (payment_reference) where payment_reference is not null;
+
+-- KycDocumentRepository.findByUserId
+create index concurrently if not exists idx_kyc_documents_user_id
+    on kyc_documents (user_id);
+
+-- KycDocumentRepository admin queue pages
+create index concurrently if not exists idx_kyc_documents_submitted_at_id
+    on kyc_documents (submitted_at, id);
+
+-- WalletRepository.findByUser (findByWalletAddress uses the unique key on wallet_address)
+create index concurrently if not exists idx_wallets_user_id
+    on wallets (user_id);
+
+-- OtpRepository.deleteByEmailAndPurpose
+create index concurrently if not exists idx_otps_email_purpose
+    on otps (email, purpose);
+
+-- OtpRepository.findTopByEmailAndPurposeAndUsedFalseAndExpiryTimeAfterOrderByCreatedAtDesc: the
+-- newest unused code is the first index entry, without reading or sorting used ones
+create index concurrently if not exists idx_otps_unused_email_purpose_created_at
+    on otps (email, purpose, created_at) where not used;
+
+-- OtpRepository.deleteUsedOrExpired
+create index concurrently if not exists idx_otps_expiry_time
+    on otps (expiry_time);
+
+-- RefreshTokenRepository.findIdsByUserNewestFirst and deleteByUser
+-- (findByTokenHash uses the unique key on token_hash)
+create index concurrently if not exists idx_refresh_tokens_user_created_at
+    on refresh_tokens (user_id, created_at);
+
+-- RefreshTokenRepository.findExpiredIds
+create index concurrently if not exists idx_refresh_tokens_expiry_date
+    on refresh_tokens (expiry_date);
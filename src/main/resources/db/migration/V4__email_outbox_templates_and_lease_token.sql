@@ -0,0 +1,11 @@
+-- Outbox rows keep the template name and its variables and are rendered at dispatch, so
+-- message bodies (and the codes in them) are no longer stored. html_body stays only for rows
+-- queued before this change and is cleared once they are sent.
+alter table email_outbox add column template varchar(255);
+alter table email_outbox add column variables jsonb;
+alter table email_outbox add column lease_token uuid;
+alter table email_outbox alter column html_body drop not null;
+
+-- One-time codes must not sit in the table until the purge reaches them
+update email_outbox set html_body = null
+where status = 'SENT' or (status = 'DEAD' and type in ('OTP', 'Password Reset'));
@@ -0,0 +1,3 @@
+-- MintPipeline counts failed runs per mint and stops resuming it at mint.pipeline.max-attempts
+alter table mints add column processing_attempts integer not null default 0;
+alter table mints alter column processing_attempts drop default;
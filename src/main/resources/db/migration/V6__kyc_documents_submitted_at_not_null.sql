@@ -0,0 +1,10 @@
+-- The admin KYC queue pages on (submitted_at, id); a row without submitted_at could neither be
+-- reached by the keyset comparison nor encoded in a cursor. Rows saved before auditing filled it
+-- get the submitter's last update, the closest time on record.
+update kyc_documents d
+set submitted_at = coalesce(u.updated_at, u.created_at, now())
+from users u
+where u.id = d.user_id
+  and d.submitted_at is null;
+
+alter table kyc_documents alter column submitted_at set not null;
@@ -0,0 +1,4 @@
+-- MintPipeline moves a mint it gave up on to processing stage ABANDONED instead of changing its status
+alter table mints drop constraint if exists mints_processing_stage_check;
+alter table mints add constraint mints_processing_stage_check
+    check (processing_stage in ('ACCEPTED','TREASURY_REGISTERED','COMPLETED','ABANDONED'));
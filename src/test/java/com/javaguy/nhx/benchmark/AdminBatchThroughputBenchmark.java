@@ -0,0 +1,99 @@
+package com.javaguy.nhx.benchmark;
+
+import com.javaguy.nhx.config.RestClientConfig;
+import com.javaguy.nhx.config.UpstreamClientProperties;
+import com.javaguy.nhx.model.dto.request.AdminTransferRequest;
+import com.javaguy.nhx.model.dto.response.BatchOperationResponse;
+import com.javaguy.nhx.service.mint.AdminBatchService;
+import com.javaguy.nhx.service.mint.AdminMintService;
+import com.javaguy.nhx.service.mint.InMemorySdkIdempotencyRecords;
+import com.javaguy.nhx.service.mint.SdkIdempotencyLedger;
+import com.javaguy.nhx.service.mint.SdkStubServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Wall-clock time of one {@link AdminBatchService#transferAll} batch through the real sdk
+ * RestClient against a stub SDK that answers every call after {@link #SDK_LATENCY}. With
+ * parallelism 1 the batch costs one round-trip per item; with more it should approach
+ * items / parallelism round-trips. Every invocation uses fresh idempotency keys so the ledger
+ * never short-circuits a call.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *     -Dexec.mainClass=com.javaguy.nhx.benchmark.AdminBatchThroughputBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AdminBatchThroughputBenchmark {
+
+    private static final Duration SDK_LATENCY = Duration.ofMillis(50);
+
+    @Param({"1", "16"})
+    public int parallelism;
+
+    @Param({"64"})
+    public int items;
+
+    private SdkStubServer sdk;
+    private RestClientConfig restClientConfig;
+    private AdminBatchService batchService;
+    private List<AdminTransferRequest> requests;
+    private final AtomicLong batches = new AtomicLong();
+
+    @Setup
+    public void setUp() throws IOException {
+        sdk = new SdkStubServer();
+        sdk.setLatency(SDK_LATENCY);
+        restClientConfig = new RestClientConfig(new UpstreamClientProperties(), new SimpleMeterRegistry());
+
+        AdminMintService adminMintService = new AdminMintService(restClientConfig.sdkRestClient(),
+                new SdkIdempotencyLedger(InMemorySdkIdempotencyRecords.repository()));
+        ReflectionTestUtils.setField(adminMintService, "SDK_URL", sdk.getUrl());
+        ReflectionTestUtils.setField(adminMintService, "SDK_API_KEY", "bench-key");
+
+        batchService = new AdminBatchService(adminMintService, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(batchService, "parallelism", parallelism);
+        ReflectionTestUtils.setField(batchService, "maxItems", 500);
+        ReflectionTestUtils.setField(batchService, "maxQueuedItems", 1000);
+        batchService.init();
+
+        requests = IntStream.range(0, items)
+                .mapToObj(i -> new AdminTransferRequest(String.valueOf(1000 + i), "0.0." + (5000 + i)))
+                .toList();
+    }
+
+    @TearDown
+    public void tearDown() {
+        batchService.shutdown();
+        restClientConfig.destroy();
+        sdk.close();
+    }
+
+    @Benchmark
+    public BatchOperationResponse transferAll() {
+        return batchService.transferAll(requests, "bench-" + batches.incrementAndGet());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(AdminBatchThroughputBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
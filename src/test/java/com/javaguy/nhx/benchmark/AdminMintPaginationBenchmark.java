@@ -0,0 +1,198 @@
+package com.javaguy.nhx.benchmark;
+
+import com.javaguy.nhx.model.entity.User;
+import com.javaguy.nhx.model.entity.Wallet;
+import com.javaguy.nhx.model.enums.KycStatus;
+import com.javaguy.nhx.repository.MintRepository;
+import com.javaguy.nhx.repository.UserRepository;
+import com.javaguy.nhx.repository.WalletRepository;
+import com.javaguy.nhx.repository.projection.MintAdminRow;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of one admin mint page ({@code size=20}) at increasing depth in a synthetic mints table:
+ * the page-number query behind {@code GET /api/admin/mints} (OFFSET; its total is a separate count)
+ * versus the keyset query behind {@code GET /api/admin/mints/cursor}, which starts from the
+ * (dateInitiated, id) of the row before the page. Both return the same rows; setup checks that.
+ *
+ * The table gets {@code rows} mints spread over 2000 days, so pages split between rows sharing a
+ * date. H2 runs in memory and is reseeded for every trial. For Postgres, point it at a scratch
+ * database; the table is seeded once and kept, so later runs start straight away:
+ *     -Dbench.postgres.url=jdbc:postgresql://localhost:5432/nhx_bench
+ *     -Dbench.postgres.username=postgres -Dbench.postgres.password=postgres
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *     -Dexec.mainClass=com.javaguy.nhx.benchmark.AdminMintPaginationBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+@State(Scope.Benchmark)
+public class AdminMintPaginationBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int SEED_BATCH = 500_000;
+
+    private static final String H2_SEED = """
+            INSERT INTO mints (id, user_id, wallet_id, amount_kes, status, processing_stage, processing_attempts,
+                               date_initiated, created_at)
+            SELECT RANDOM_UUID(), ?, ?, 1000 + MOD(X, 100000),
+                   CASE MOD(X, 5) WHEN 0 THEN 'PENDING' WHEN 1 THEN 'CONFIRMED' WHEN 2 THEN 'MINTED'
+                                  WHEN 3 THEN 'TRANSFERRED' ELSE 'FAILED' END,
+                   'COMPLETED', 0, DATEADD(DAY, -MOD(X, 2000), DATE '2025-01-01'), CURRENT_TIMESTAMP
+            FROM SYSTEM_RANGE(?, ?)""";
+
+    private static final String POSTGRES_SEED = """
+            INSERT INTO mints (id, user_id, wallet_id, amount_kes, status, processing_stage, processing_attempts,
+                               date_initiated, created_at)
+            SELECT gen_random_uuid(), ?, ?, 1000 + x % 100000,
+                   CASE x % 5 WHEN 0 THEN 'PENDING' WHEN 1 THEN 'CONFIRMED' WHEN 2 THEN 'MINTED'
+                              WHEN 3 THEN 'TRANSFERRED' ELSE 'FAILED' END,
+                   'COMPLETED', 0, DATE '2025-01-01' - (x % 2000)::int, now()
+            FROM generate_series(?::bigint, ?::bigint) AS x""";
+
+    @Param({"h2", "postgres"})
+    public String database;
+
+    @Param({"5000000"})
+    public int rows;
+
+    // rows before the page being read
+    @Param({"1000", "100000", "1000000", "4000000"})
+    public int depth;
+
+    private HikariDataSource dataSource;
+    private LocalContainerEntityManagerFactoryBean entityManagerFactoryBean;
+    private MintRepository mintRepository;
+    private PageRequest offsetPage;
+    private LocalDate afterDate;
+    private UUID afterId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        boolean postgres = "postgres".equals(database);
+        HikariConfig config = new HikariConfig();
+        if (postgres) {
+            config.setJdbcUrl(System.getProperty("bench.postgres.url", "jdbc:postgresql://localhost:5432/nhx_bench"));
+            config.setUsername(System.getProperty("bench.postgres.username", "postgres"));
+            config.setPassword(System.getProperty("bench.postgres.password", "postgres"));
+        } else {
+            config.setJdbcUrl("jdbc:h2:mem:paginationbench;DB_CLOSE_DELAY=-1;MODE=PostgreSQL");
+            config.setUsername("sa");
+        }
+        dataSource = new HikariDataSource(config);
+
+        entityManagerFactoryBean = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactoryBean.setDataSource(dataSource);
+        entityManagerFactoryBean.setPackagesToScan("com.javaguy.nhx.model.entity");
+        entityManagerFactoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        entityManagerFactoryBean.setJpaPropertyMap(Map.of(
+                // the seeded Postgres table is kept between runs
+                "hibernate.hbm2ddl.auto", postgres ? "update" : "create-drop",
+                "hibernate.physical_naming_strategy",
+                "org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy"));
+        entityManagerFactoryBean.afterPropertiesSet();
+        EntityManagerFactory entityManagerFactory = entityManagerFactoryBean.getObject();
+
+        JpaRepositoryFactory repositoryFactory = new JpaRepositoryFactory(
+                SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory));
+        mintRepository = repositoryFactory.getRepository(MintRepository.class);
+        seed(postgres, repositoryFactory, new TransactionTemplate(new JpaTransactionManager(entityManagerFactory)));
+
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.query("""
+                SELECT date_initiated, id FROM mints ORDER BY date_initiated DESC, id DESC
+                OFFSET ? ROWS FETCH FIRST 1 ROW ONLY""",
+                rs -> {
+                    afterDate = rs.getObject(1, LocalDate.class);
+                    afterId = rs.getObject(2, UUID.class);
+                }, depth - 1);
+        offsetPage = PageRequest.of(depth / PAGE_SIZE, PAGE_SIZE);
+
+        List<UUID> byOffset = offset().stream().map(MintAdminRow::requestId).toList();
+        List<UUID> byKeyset = keyset().stream().map(MintAdminRow::requestId).toList();
+        if (!byOffset.equals(byKeyset)) {
+            throw new IllegalStateException("Offset and keyset pages differ at depth " + depth);
+        }
+    }
+
+    private void seed(boolean postgres, JpaRepositoryFactory repositoryFactory, TransactionTemplate transactionTemplate) {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        Long existing = jdbc.queryForObject("SELECT count(*) FROM mints", Long.class);
+        if (existing != null && existing == rows) {
+            return;
+        }
+        jdbc.update("DELETE FROM mints");
+
+        UserRepository userRepository = repositoryFactory.getRepository(UserRepository.class);
+        WalletRepository walletRepository = repositoryFactory.getRepository(WalletRepository.class);
+        Wallet wallet = transactionTemplate.execute(status -> {
+            User user = userRepository.save(User.builder()
+                    .email("bench-" + UUID.randomUUID() + "@example.com")
+                    .passwordHash("hash")
+                    .kycStatus(KycStatus.VERIFIED)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+            return walletRepository.save(Wallet.builder()
+                    .user(user)
+                    .walletAddress("0.0." + System.nanoTime())
+                    .build());
+        });
+
+        String sql = postgres ? POSTGRES_SEED : H2_SEED;
+        for (long from = 1; from <= rows; from += SEED_BATCH) {
+            long to = Math.min(rows, from + SEED_BATCH - 1);
+            jdbc.update(sql, wallet.getUser().getId(), wallet.getId(), from, to);
+        }
+        if (postgres) {
+            jdbc.execute("ANALYZE mints");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        entityManagerFactoryBean.destroy();
+        dataSource.close();
+    }
+
+    @Benchmark
+    public List<MintAdminRow> offset() {
+        return mintRepository.findAdminRows(offsetPage);
+    }
+
+    @Benchmark
+    public List<MintAdminRow> keyset() {
+        return mintRepository.findAdminRowsAfter(afterDate, afterId, PageRequest.of(0, PAGE_SIZE));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(AdminMintPaginationBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
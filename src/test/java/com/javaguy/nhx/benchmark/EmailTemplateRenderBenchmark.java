@@ -0,0 +1,103 @@
+package com.javaguy.nhx.benchmark;
+
+import com.javaguy.nhx.service.email.EmailTemplateEngines;
+import com.javaguy.nhx.service.email.EmailTemplateRenderer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.time.Year;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-email render cost of the previous inline approach (fresh Context and HashMap with the
+ * globals re-added on every call) versus {@link EmailTemplateRenderer}, for every email template.
+ * email-base is the shared layout and is rendered as part of each of them.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *     -Dexec.mainClass=com.javaguy.nhx.benchmark.EmailTemplateRenderBenchmark
+ * Allocation per email is reported by the gc profiler enabled in {@link #main(String[])}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmailTemplateRenderBenchmark {
+
+    @Param({
+            "email-admin-kyc-submission", "email-kyc-approved", "email-kyc-rejected", "email-kyc-submitted",
+            "email-kyc-update", "email-mint-confirmed", "email-mint-failed", "email-mint-minted",
+            "email-mint-pending", "email-mint-settled", "email-mint-transferred", "email-otp",
+            "email-password-reset", "email-welcome"
+    })
+    public String template;
+
+    private TemplateEngine legacyEngine;
+    private EmailTemplateRenderer renderer;
+
+    @Setup
+    public void setUp() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        SpringTemplateEngine engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(resolver);
+        legacyEngine = engine;
+
+        renderer = new EmailTemplateRenderer(EmailTemplateEngines.classpath(), "NHX", "support@example.com");
+        renderer.warmUp();
+    }
+
+    private static Map<String, Object> callVariables() {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("firstName", "Jane");
+        variables.put("otp", "123456");
+        variables.put("expiryMinutes", 10);
+        variables.put("amount", "10000000");
+        variables.put("walletAddress", "0.0.123456");
+        variables.put("requestId", "6f1c2a9e-0000-4000-8000-000000000000");
+        variables.put("notes", "Processed");
+        variables.put("status", "VERIFIED");
+        variables.put("dashboardUrl", "https://example.com/dashboard");
+        variables.put("mintsUrl", "https://example.com/dashboard/mints");
+        return variables;
+    }
+
+    @Benchmark
+    public String legacy() {
+        Map<String, Object> variables = callVariables();
+        variables.put("appName", "NHX");
+        variables.put("supportEmail", "support@example.com");
+        variables.put("currentYear", Year.now().getValue());
+
+        Context context = new Context();
+        context.setVariables(variables);
+        return legacyEngine.process(template, context);
+    }
+
+    @Benchmark
+    public String renderer() {
+        return renderer.render(template, callVariables());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(EmailTemplateRenderBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,77 @@
+package com.javaguy.nhx.benchmark;
+
+import com.javaguy.nhx.config.JwtConfig;
+import com.javaguy.nhx.security.JwtTokenProvider;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.security.Key;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-request token handling of JwtAuthenticationFilter before and after the
+ * shared parser / claims cache: the legacy path builds a parser and verifies the signature twice
+ * (validateToken, then getUserIdFromJWT), the cached path verifies once and then hits memory.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *     -Dexec.mainClass=com.javaguy.nhx.benchmark.JwtTokenProviderBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+
+    private static final String SECRET = "benchmarkSecretKeyThatIsLongEnoughForHS256Signature1234567890";
+
+    private Key key;
+    private JwtTokenProvider cachedProvider;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtConfig jwtConfig = new JwtConfig();
+        jwtConfig.setSecret(SECRET);
+        jwtConfig.setAccessTokenExpiry(TimeUnit.HOURS.toMillis(1));
+        jwtConfig.setRefreshTokenExpiry(TimeUnit.DAYS.toMillis(7));
+        jwtConfig.setClaimsCacheMaxSize(10_000);
+
+        cachedProvider = new JwtTokenProvider(jwtConfig);
+        cachedProvider.init();
+
+        key = Keys.hmacShaKeyFor(SECRET.getBytes());
+        token = cachedProvider.generateToken(UUID.randomUUID());
+    }
+
+    @Benchmark
+    public UUID legacyDoubleParse() {
+        Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
+        Claims claims = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+        return UUID.fromString(claims.getSubject());
+    }
+
+    @Benchmark
+    public UUID cachedParse() {
+        cachedProvider.validateToken(token);
+        return cachedProvider.getUserIdFromJWT(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : new int[]{1, 8, 32}) {
+            Options options = new OptionsBuilder()
+                    .include(JwtTokenProviderBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.javaguy.nhx.benchmark;
+
+import com.javaguy.nhx.model.entity.Mint;
+import com.javaguy.nhx.model.entity.User;
+import com.javaguy.nhx.model.entity.Wallet;
+import com.javaguy.nhx.model.enums.KycStatus;
+import com.javaguy.nhx.model.enums.MintProcessingStage;
+import com.javaguy.nhx.model.enums.MintStatus;
+import com.javaguy.nhx.repository.MintRepository;
+import com.javaguy.nhx.repository.UserRepository;
+import com.javaguy.nhx.repository.WalletRepository;
+import com.javaguy.nhx.util.TimeOrderedUuid;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mint inserts/sec through MintRepository at 1, 16 and 64 concurrent writers, for the previous
+ * write path (random UUID key, INSERT flushed, then an UPDATE for the treasury transaction id)
+ * and the current one (time-ordered UUID assigned up front, one INSERT).
+ *
+ * H2 runs in memory. For Postgres, point it at a scratch database; the schema is created and
+ * dropped by the benchmark:
+ *     -Dbench.postgres.url=jdbc:postgresql://localhost:5432/nhx_bench
+ *     -Dbench.postgres.username=postgres -Dbench.postgres.password=postgres
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *     -Dexec.mainClass=com.javaguy.nhx.benchmark.MintInsertBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MintInsertBenchmark {
+
+    @Param({"h2", "postgres"})
+    public String database;
+
+    @Param({"insertThenUpdate", "singleInsert"})
+    public String writePath;
+
+    private HikariDataSource dataSource;
+    private LocalContainerEntityManagerFactoryBean entityManagerFactoryBean;
+    private TransactionTemplate transactionTemplate;
+    private MintRepository mintRepository;
+    private User user;
+    private Wallet wallet;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        HikariConfig config = new HikariConfig();
+        if ("postgres".equals(database)) {
+            config.setJdbcUrl(System.getProperty("bench.postgres.url", "jdbc:postgresql://localhost:5432/nhx_bench"));
+            config.setUsername(System.getProperty("bench.postgres.username", "postgres"));
+            config.setPassword(System.getProperty("bench.postgres.password", "postgres"));
+        } else {
+            config.setJdbcUrl("jdbc:h2:mem:mintbench;DB_CLOSE_DELAY=-1;MODE=PostgreSQL");
+            config.setUsername("sa");
+        }
+        config.setMaximumPoolSize(64);
+        dataSource = new HikariDataSource(config);
+
+        entityManagerFactoryBean = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactoryBean.setDataSource(dataSource);
+        entityManagerFactoryBean.setPackagesToScan("com.javaguy.nhx.model.entity");
+        entityManagerFactoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        entityManagerFactoryBean.setJpaPropertyMap(Map.of(
+                "hibernate.hbm2ddl.auto", "create-drop",
+                // same physical names as the application, which gets this strategy from Spring Boot
+                "hibernate.physical_naming_strategy",
+                "org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy"));
+        entityManagerFactoryBean.afterPropertiesSet();
+        EntityManagerFactory entityManagerFactory = entityManagerFactoryBean.getObject();
+
+        transactionTemplate = new TransactionTemplate(new JpaTransactionManager(entityManagerFactory));
+        JpaRepositoryFactory repositoryFactory = new JpaRepositoryFactory(
+                SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory));
+        mintRepository = repositoryFactory.getRepository(MintRepository.class);
+        UserRepository userRepository = repositoryFactory.getRepository(UserRepository.class);
+        WalletRepository walletRepository = repositoryFactory.getRepository(WalletRepository.class);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            user = userRepository.save(User.builder()
+                    .email("bench@example.com")
+                    .passwordHash("hash")
+                    .kycStatus(KycStatus.VERIFIED)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+            wallet = walletRepository.save(Wallet.builder()
+                    .user(user)
+                    .walletAddress("0.0.123456")
+                    .build());
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        entityManagerFactoryBean.destroy();
+        dataSource.close();
+    }
+
+    private Mint newMint(UUID id) {
+        return Mint.builder()
+                .id(id)
+                .user(user)
+                .wallet(wallet)
+                .amountKes(new BigDecimal("1500000.00"))
+                .status(MintStatus.PENDING)
+                .processingStage(MintProcessingStage.ACCEPTED)
+                .dateInitiated(LocalDate.now())
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    private UUID createMint() {
+        return transactionTemplate.execute(status -> {
+            if ("singleInsert".equals(writePath)) {
+                UUID id = TimeOrderedUuid.next();
+                Mint mint = newMint(id);
+                mint.setTreasuryTransactionId("mint-" + id + "-" + System.currentTimeMillis());
+                return mintRepository.save(mint).getId();
+            }
+            Mint mint = mintRepository.saveAndFlush(newMint(UUID.randomUUID()));
+            mint.setTreasuryTransactionId("mint-" + mint.getId() + "-" + System.currentTimeMillis());
+            return mintRepository.save(mint).getId();
+        });
+    }
+
+    @Benchmark
+    @Threads(1)
+    public UUID writers01() {
+        return createMint();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public UUID writers16() {
+        return createMint();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public UUID writers64() {
+        return createMint();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(MintInsertBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
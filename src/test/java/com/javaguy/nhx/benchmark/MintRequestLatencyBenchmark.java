@@ -0,0 +1,188 @@
+package com.javaguy.nhx.benchmark;
+
+import com.javaguy.nhx.model.dto.request.MintRequest;
+import com.javaguy.nhx.model.dto.response.MintResponse;
+import com.javaguy.nhx.model.entity.EmailOutbox;
+import com.javaguy.nhx.model.entity.Mint;
+import com.javaguy.nhx.model.entity.User;
+import com.javaguy.nhx.model.entity.Wallet;
+import com.javaguy.nhx.model.enums.KycStatus;
+import com.javaguy.nhx.model.enums.MintProcessingStage;
+import com.javaguy.nhx.model.enums.MintStatus;
+import com.javaguy.nhx.repository.EmailOutboxRepository;
+import com.javaguy.nhx.repository.MintRepository;
+import com.javaguy.nhx.repository.UserRepository;
+import com.javaguy.nhx.repository.WalletRepository;
+import com.javaguy.nhx.service.email.EmailNotificationService;
+import com.javaguy.nhx.service.email.EmailOutboxDispatcher;
+import com.javaguy.nhx.service.email.EmailTemplateEngines;
+import com.javaguy.nhx.service.email.EmailTemplateRenderer;
+import com.javaguy.nhx.service.mint.MintAcceptedEvent;
+import com.javaguy.nhx.service.mint.MintPipeline;
+import com.javaguy.nhx.service.mint.MintRequestService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Latency distribution of {@code POST /api/kesy/mint} under concurrent load: the previous
+ * synchronous flow (lookups, insert, update for the treasury id, notification rendered and queued
+ * before returning) versus {@link MintRequestService} handing the follow-up work to
+ * {@link MintPipeline}. Every repository call parks for {@code dbLatencyMicros} to stand in for a
+ * Postgres round-trip; the notification renders the real template. Compare the p0.99 rows.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *     -Dexec.mainClass=com.javaguy.nhx.benchmark.MintRequestLatencyBenchmark
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(32)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MintRequestLatencyBenchmark {
+
+    @Param({"500"})
+    public long dbLatencyMicros;
+
+    private UUID userId;
+    private MintRequest request;
+    private Mint stored;
+    private UserRepository userRepository;
+    private WalletRepository walletRepository;
+    private MintRepository mintRepository;
+    private EmailNotificationService notificationService;
+    private MintRequestService mintRequestService;
+    private MintPipeline pipeline;
+
+    @Setup
+    public void setUp() {
+        userId = UUID.randomUUID();
+        User user = User.builder()
+                .id(userId)
+                .email("bench@example.com")
+                .firstName("Jane")
+                .kycStatus(KycStatus.VERIFIED)
+                .build();
+        Wallet wallet = Wallet.builder().id(UUID.randomUUID()).user(user).walletAddress("0.0.123456").build();
+        stored = Mint.builder()
+                .id(UUID.randomUUID())
+                .user(user)
+                .wallet(wallet)
+                .amountKes(new BigDecimal("1500000.00"))
+                .status(MintStatus.PENDING)
+                .processingStage(MintProcessingStage.ACCEPTED)
+                .dateInitiated(LocalDate.now())
+                .createdAt(LocalDateTime.now())
+                .build();
+
+        request = new MintRequest();
+        request.setAmountKes(stored.getAmountKes());
+        request.setWalletId(wallet.getId());
+
+        // stubOnly: no invocation recording, which would otherwise grow without bound under load
+        userRepository = mock(UserRepository.class, withSettings().stubOnly());
+        when(userRepository.findById(any())).thenAnswer(invocation -> roundTrip(Optional.of(user)));
+        walletRepository = mock(WalletRepository.class, withSettings().stubOnly());
+        when(walletRepository.findById(any())).thenAnswer(invocation -> roundTrip(Optional.of(wallet)));
+        mintRepository = mock(MintRepository.class, withSettings().stubOnly());
+        when(mintRepository.save(any(Mint.class))).thenAnswer(invocation -> {
+            Mint mint = invocation.getArgument(0);
+            if (mint.getId() == null) {
+                mint.setId(UUID.randomUUID());
+            }
+            return roundTrip(mint);
+        });
+        when(mintRepository.findByIdForProcessing(any())).thenAnswer(invocation -> roundTrip(Optional.of(
+                Mint.builder()
+                        .id(invocation.getArgument(0))
+                        .user(user)
+                        .wallet(wallet)
+                        .amountKes(stored.getAmountKes())
+                        .status(MintStatus.PENDING)
+                        .processingStage(MintProcessingStage.ACCEPTED)
+                        .dateInitiated(stored.getDateInitiated())
+                        .build())));
+        EmailOutboxRepository outboxRepository = mock(EmailOutboxRepository.class, withSettings().stubOnly());
+        when(outboxRepository.save(any(EmailOutbox.class))).thenAnswer(invocation -> roundTrip(invocation.getArgument(0)));
+
+        EmailTemplateRenderer renderer = new EmailTemplateRenderer(EmailTemplateEngines.classpath(),
+                "NHX", "support@example.com");
+        renderer.warmUp();
+        notificationService = new EmailNotificationService(outboxRepository, renderer,
+                mock(EmailOutboxDispatcher.class, withSettings().stubOnly()));
+        ReflectionTestUtils.setField(notificationService, "appName", "NHX");
+        ReflectionTestUtils.setField(notificationService, "appBaseUrl", "https://example.com");
+
+        pipeline = new MintPipeline(mintRepository, notificationService,
+                mock(PlatformTransactionManager.class, withSettings().stubOnly()), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(pipeline, "workers", 32);
+        ReflectionTestUtils.setField(pipeline, "queueCapacity", 100_000);
+        pipeline.init();
+
+        mintRequestService = new MintRequestService(mintRepository, userRepository, walletRepository,
+                event -> pipeline.onMintAccepted((MintAcceptedEvent) event));
+    }
+
+    @TearDown
+    public void tearDown() {
+        pipeline.shutdown();
+    }
+
+    private <T> T roundTrip(T result) {
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(dbLatencyMicros));
+        return result;
+    }
+
+    /**
+     * The request path as it was before the pipeline: everything happens before the response.
+     */
+    @Benchmark
+    public MintResponse synchronous() {
+        User user = userRepository.findById(userId).orElseThrow();
+        Wallet wallet = walletRepository.findById(request.getWalletId()).orElseThrow();
+        Mint mint = mintRepository.save(Mint.builder()
+                .user(user)
+                .wallet(wallet)
+                .amountKes(request.getAmountKes())
+                .status(MintStatus.PENDING)
+                .dateInitiated(LocalDate.now())
+                .build());
+        mint.setTreasuryTransactionId("mint-" + mint.getId() + "-" + System.currentTimeMillis());
+        mint = mintRepository.save(mint);
+        notificationService.notifyUserOnMintStatusChange(user, mint,
+                "Your mint request has been received and is pending.");
+        return MintResponse.builder().requestId(mint.getId()).transactionId(UUID.randomUUID()).build();
+    }
+
+    @Benchmark
+    public MintResponse pipelined() {
+        return mintRequestService.requestMint(userId, request);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(MintRequestLatencyBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
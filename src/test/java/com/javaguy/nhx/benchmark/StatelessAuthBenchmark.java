@@ -0,0 +1,124 @@
+package com.javaguy.nhx.benchmark;
+
+import com.javaguy.nhx.config.JwtConfig;
+import com.javaguy.nhx.model.entity.User;
+import com.javaguy.nhx.model.enums.UserRole;
+import com.javaguy.nhx.repository.UserRepository;
+import com.javaguy.nhx.security.CustomUserDetailsService;
+import com.javaguy.nhx.security.JwtAuthenticationFilter;
+import com.javaguy.nhx.security.JwtTokenProvider;
+import com.javaguy.nhx.security.UserPrincipalCache;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Load test for JwtAuthenticationFilter: authenticated requests/sec with the database-backed
+ * principal lookup versus the stateless claims mode. The user repository simulates a Postgres
+ * round-trip of {@code dbLatencyMicros} and the principal cache is disabled so the database mode
+ * pays for one query per request, as it did before the cache existed.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *     -Dexec.mainClass=com.javaguy.nhx.benchmark.StatelessAuthBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class StatelessAuthBenchmark {
+
+    private static final String SECRET = "benchmarkSecretKeyThatIsLongEnoughForHS256Signature1234567890";
+
+    @State(Scope.Benchmark)
+    public static class Filter {
+
+        @Param({"false", "true"})
+        public boolean statelessAuth;
+
+        @Param({"500"})
+        public long dbLatencyMicros;
+
+        JwtAuthenticationFilter filter;
+        String token;
+
+        @Setup
+        public void setUp() {
+            JwtConfig jwtConfig = new JwtConfig();
+            jwtConfig.setSecret(SECRET);
+            jwtConfig.setAccessTokenExpiry(TimeUnit.HOURS.toMillis(1));
+            jwtConfig.setRefreshTokenExpiry(TimeUnit.DAYS.toMillis(7));
+            jwtConfig.setClaimsCacheMaxSize(10_000);
+
+            JwtTokenProvider tokenProvider = new JwtTokenProvider(jwtConfig);
+            tokenProvider.init();
+
+            User user = User.builder()
+                    .id(UUID.randomUUID())
+                    .email("bench@example.com")
+                    .passwordHash("hash")
+                    .role(UserRole.INSTITUTIONAL_USER)
+                    .build();
+
+            UserRepository userRepository = mock(UserRepository.class);
+            when(userRepository.findById(any())).thenAnswer(invocation -> {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(dbLatencyMicros));
+                return Optional.of(user);
+            });
+
+            CustomUserDetailsService userDetailsService = new CustomUserDetailsService(
+                    userRepository, new UserPrincipalCache(Duration.ZERO, 0));
+
+            filter = new JwtAuthenticationFilter(tokenProvider, userDetailsService);
+            ReflectionTestUtils.setField(filter, "statelessAuthEnabled", statelessAuth);
+            token = tokenProvider.generateToken(user);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Request {
+        MockHttpServletRequest request;
+        MockHttpServletResponse response;
+        final FilterChain chain = (req, res) -> { };
+
+        @Setup
+        public void setUp(Filter filter) {
+            request = new MockHttpServletRequest("GET", "/api/user");
+            request.addHeader("Authorization", "Bearer " + filter.token);
+            response = new MockHttpServletResponse();
+        }
+    }
+
+    @Benchmark
+    public Object authenticate(Filter filter, Request request) throws Exception {
+        filter.filter.doFilter(request.request, request.response, request.chain);
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        SecurityContextHolder.clearContext();
+        return principal;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(StatelessAuthBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,191 @@
+package com.javaguy.nhx.benchmark;
+
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.embedded.EmbeddedWebServerFactoryCustomizerAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Highest request concurrency the web layer sustains with Tomcat on its platform thread pool
+ * (200 threads by default) versus {@code spring.threads.virtual.enabled=true}. Each request
+ * blocks for {@code load.latency-ms}, standing in for a Postgres, SMTP or SDK round-trip.
+ * Closed-loop clients are added level by level; a level is sustained when it has no errors, its
+ * median stays within 1.25 times the blocking time and its p99 within {@code load.slo-factor} times.
+ *
+ * {@code /io} parks the request thread like a socket read does. {@code /io-pinned} blocks inside
+ * a synchronized block, as the mail stack does: on virtual threads that pins the carrier, so it
+ * tops out at the number of carriers (one per core), which is what
+ * {@code jvm.threads.virtual.pinned} is there to catch.
+ *
+ * A load sweep rather than a JMH benchmark: the result is a concurrency level, not a score.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *     -Dexec.mainClass=com.javaguy.nhx.benchmark.VirtualThreadConcurrencyBenchmark
+ *     [-Dload.latency-ms=50 -Dload.duration-s=5 -Dload.levels=100,200,400,800,1600,3200]
+ */
+public class VirtualThreadConcurrencyBenchmark {
+
+    private static final long LATENCY_MILLIS = Long.getLong("load.latency-ms", 50);
+    private static final Duration WARMUP = Duration.ofSeconds(1);
+    private static final Duration MEASUREMENT = Duration.ofSeconds(Long.getLong("load.duration-s", 5));
+    private static final double SLO_FACTOR = Double.parseDouble(System.getProperty("load.slo-factor", "2"));
+    private static final int[] LEVELS = Arrays.stream(System.getProperty("load.levels",
+            "50,100,200,400,800,1600,3200").split(",")).mapToInt(level -> Integer.parseInt(level.trim())).toArray();
+
+    @RestController
+    static class SimulatedIoController {
+
+        @GetMapping("/thread")
+        String thread() {
+            return Thread.currentThread().isVirtual() ? "virtual" : "platform";
+        }
+
+        @GetMapping("/io")
+        String io() throws InterruptedException {
+            Thread.sleep(LATENCY_MILLIS);
+            return "ok";
+        }
+
+        @GetMapping("/io-pinned")
+        String ioPinned() throws InterruptedException {
+            Object monitor = new Object();
+            synchronized (monitor) {
+                Thread.sleep(LATENCY_MILLIS);
+            }
+            return "ok";
+        }
+    }
+
+    @SpringBootConfiguration
+    // EmbeddedWebServerFactoryCustomizerAutoConfiguration is what moves Tomcat onto virtual threads
+    @ImportAutoConfiguration({ServletWebServerFactoryAutoConfiguration.class,
+            EmbeddedWebServerFactoryCustomizerAutoConfiguration.class, DispatcherServletAutoConfiguration.class,
+            WebMvcAutoConfiguration.class, HttpMessageConvertersAutoConfiguration.class,
+            TaskExecutionAutoConfiguration.class})
+    @Import(SimulatedIoController.class)
+    static class LoadTestApplication {
+    }
+
+    record Level(int concurrency, double throughput, long p50Millis, long p99Millis, long errors) {
+
+        // queueing for a thread shows up in the median before the tail
+        boolean sustained() {
+            return errors == 0 && p50Millis <= LATENCY_MILLIS * 1.25 && p99Millis <= LATENCY_MILLIS * SLO_FACTOR;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> summary = new ArrayList<>();
+        for (boolean virtual : new boolean[]{false, true}) {
+            String mode = virtual ? "virtual" : "platform";
+            try (ServletWebServerApplicationContext context = (ServletWebServerApplicationContext)
+                    new SpringApplicationBuilder(LoadTestApplication.class)
+                            .properties("server.port=0", "spring.threads.virtual.enabled=" + virtual,
+                                    "spring.main.banner-mode=off", "logging.level.root=WARN")
+                            .run()) {
+                String baseUrl = "http://localhost:" + context.getWebServer().getPort();
+                String handlerThread = HttpClient.newHttpClient().send(
+                        HttpRequest.newBuilder(URI.create(baseUrl + "/thread")).build(),
+                        HttpResponse.BodyHandlers.ofString()).body();
+                if (!mode.equals(handlerThread)) {
+                    throw new IllegalStateException("Requests run on " + handlerThread + " threads, expected " + mode);
+                }
+                for (String path : List.of("/io", "/io-pinned")) {
+                    int maxSustained = 0;
+                    for (int concurrency : LEVELS) {
+                        Level level = run(baseUrl + path, concurrency);
+                        System.out.printf("%-8s %-11s %5d clients  %8.0f req/s  p50 %5d ms  p99 %5d ms  errors %d%s%n",
+                                mode, path, concurrency, level.throughput(), level.p50Millis(), level.p99Millis(),
+                                level.errors(), level.sustained() ? "" : "  (over SLO)");
+                        if (!level.sustained()) {
+                            break;
+                        }
+                        maxSustained = concurrency;
+                    }
+                    summary.add(String.format("%-8s %-11s max sustained concurrency: %d", mode, path, maxSustained));
+                }
+            }
+        }
+        System.out.printf("%nblocking time %d ms, SLO p99 <= %.0f ms, %d cores%n",
+                LATENCY_MILLIS, LATENCY_MILLIS * SLO_FACTOR, Runtime.getRuntime().availableProcessors());
+        summary.forEach(System.out::println);
+    }
+
+    private static Level run(String url, int concurrency) throws Exception {
+        long measureFrom = System.nanoTime() + WARMUP.toNanos();
+        long stopAt = measureFrom + MEASUREMENT.toNanos();
+        AtomicLong errors = new AtomicLong();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(30)).build();
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(clients)
+                    .build();
+            List<Future<List<Long>>> results = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                results.add(clients.submit(() -> {
+                    List<Long> latencies = new ArrayList<>();
+                    while (System.nanoTime() < stopAt) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200 && start >= measureFrom) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            if (start >= measureFrom) {
+                                errors.incrementAndGet();
+                            }
+                        }
+                        if (start >= measureFrom) {
+                            latencies.add(System.nanoTime() - start);
+                        }
+                    }
+                    return latencies;
+                }));
+            }
+
+            List<Long> latencies = new ArrayList<>();
+            for (Future<List<Long>> result : results) {
+                latencies.addAll(result.get());
+            }
+            httpClient.close();
+            Collections.sort(latencies);
+            double seconds = MEASUREMENT.toNanos() / 1e9;
+            return new Level(concurrency, latencies.size() / seconds,
+                    percentileMillis(latencies, 0.50), percentileMillis(latencies, 0.99), errors.get());
+        }
+    }
+
+    private static long percentileMillis(List<Long> sorted, double percentile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int index = Math.min(sorted.size() - 1, (int) Math.ceil(percentile * sorted.size()) - 1);
+        return TimeUnit.NANOSECONDS.toMillis(sorted.get(Math.max(0, index)));
+    }
+}
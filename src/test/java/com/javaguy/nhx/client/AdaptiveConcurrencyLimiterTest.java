@@ -0,0 +1,126 @@
+package com.javaguy.nhx.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private AdaptiveConcurrencyLimiter limiter(int min, int max, int maxQueued, Duration maxWait) {
+        return new AdaptiveConcurrencyLimiter("sdk", min, max, maxQueued, maxWait,
+                Duration.ofMillis(100), clock::get);
+    }
+
+    @Test
+    void slowCalls_ShrinkLimitDownToMinimum() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(2, 10, 0, Duration.ZERO);
+
+        for (int i = 0; i < 50; i++) {
+            AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire();
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+            permit.success();
+        }
+
+        assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    void fastCallsAtCapacity_GrowLimitBackUpToMaximum() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(2, 10, 0, Duration.ZERO);
+        AdaptiveConcurrencyLimiter.Permit slow = limiter.acquire();
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        slow.dropped();
+        assertEquals(9, limiter.getLimit());
+
+        for (int round = 0; round < 5; round++) {
+            List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+            for (int i = 0; i < limiter.getLimit(); i++) {
+                permits.add(limiter.acquire());
+            }
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(10));
+            permits.forEach(AdaptiveConcurrencyLimiter.Permit::success);
+        }
+
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    void fastCallsWellUnderLimit_DoNotGrowLimit() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(2, 10, 0, Duration.ZERO);
+        limiter.acquire().dropped();
+        int reduced = limiter.getLimit();
+
+        for (int i = 0; i < 20; i++) {
+            limiter.acquire().success();
+        }
+
+        assertEquals(reduced, limiter.getLimit());
+    }
+
+    @Test
+    void acquire_QueueFull_RejectsImmediately() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 1, 0, Duration.ofSeconds(10));
+        limiter.acquire();
+
+        long start = System.nanoTime();
+        UpstreamSaturatedException e = assertThrows(UpstreamSaturatedException.class, limiter::acquire);
+
+        assertEquals(UpstreamSaturatedException.Reason.QUEUE_FULL, e.getReason());
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    void acquire_QueuedCallerTimesOut() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 1, 1, Duration.ofMillis(50));
+        limiter.acquire();
+
+        UpstreamSaturatedException e = assertThrows(UpstreamSaturatedException.class, limiter::acquire);
+
+        assertEquals(UpstreamSaturatedException.Reason.TIMEOUT, e.getReason());
+        assertEquals(0, limiter.getQueued());
+    }
+
+    @Test
+    void acquire_QueuedCallerGetsFreedSlot() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 1, 1, Duration.ofSeconds(5));
+        AdaptiveConcurrencyLimiter.Permit first = limiter.acquire();
+
+        CompletableFuture<AdaptiveConcurrencyLimiter.Permit> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.acquire();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (limiter.getQueued() == 0) {
+            Thread.onSpinWait();
+        }
+        first.success();
+
+        assertNotNull(waiting.get(5, TimeUnit.SECONDS));
+        assertEquals(1, limiter.getInFlight());
+    }
+
+    @Test
+    void permit_ReleasedTwice_CountsOnce() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 4, 0, Duration.ZERO);
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire();
+        limiter.acquire();
+
+        permit.success();
+        permit.success();
+        permit.dropped();
+
+        assertEquals(1, limiter.getInFlight());
+        assertEquals(4, limiter.getLimit());
+    }
+}
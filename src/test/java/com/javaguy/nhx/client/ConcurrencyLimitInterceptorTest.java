@@ -0,0 +1,93 @@
+package com.javaguy.nhx.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConcurrencyLimitInterceptorTest {
+
+    @Mock
+    private HttpRequest request;
+    @Mock
+    private ClientHttpRequestExecution execution;
+    @Mock
+    private ClientHttpResponse response;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AdaptiveConcurrencyLimiter limiter;
+    private ConcurrencyLimitInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        limiter = new AdaptiveConcurrencyLimiter("sdk", 1, 2, 0, Duration.ofMillis(50), null);
+        interceptor = new ConcurrencyLimitInterceptor(limiter, meterRegistry);
+    }
+
+    @Test
+    void intercept_HoldsSlotUntilResponseClosed() throws Exception {
+        when(execution.execute(any(), any())).thenReturn(response);
+        when(response.getStatusCode()).thenReturn(HttpStatus.OK);
+
+        ClientHttpResponse first = interceptor.intercept(request, new byte[0], execution);
+        assertEquals(1, limiter.getInFlight());
+        assertEquals(1.0, meterRegistry.get("http.client.upstream.in_flight").tag("upstream", "sdk").gauge().value());
+        assertEquals(2.0, meterRegistry.get("http.client.upstream.limit").tag("upstream", "sdk").gauge().value());
+
+        first.close();
+        first.close();
+
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(2, limiter.getLimit());
+        verify(response, times(2)).close();
+    }
+
+    @Test
+    void intercept_LimitReached_RejectsWhenQueueFull() throws Exception {
+        when(execution.execute(any(), any())).thenReturn(response);
+        when(response.getStatusCode()).thenReturn(HttpStatus.OK);
+        interceptor.intercept(request, new byte[0], execution);
+        interceptor.intercept(request, new byte[0], execution);
+
+        assertThrows(UpstreamSaturatedException.class, () -> interceptor.intercept(request, new byte[0], execution));
+
+        verify(execution, times(2)).execute(any(), any());
+        assertEquals(1.0, meterRegistry.get("http.client.upstream.rejected")
+                .tags("upstream", "sdk", "reason", "queue_full").counter().count());
+    }
+
+    @Test
+    void intercept_ExecutionFails_ReleasesSlotAndBacksOff() throws Exception {
+        when(execution.execute(any(), any())).thenThrow(new IOException("connection refused"));
+
+        assertThrows(IOException.class, () -> interceptor.intercept(request, new byte[0], execution));
+
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(1, limiter.getLimit());
+    }
+
+    @Test
+    void intercept_ServiceUnavailable_BacksOff() throws Exception {
+        when(execution.execute(any(), any())).thenReturn(response);
+        when(response.getStatusCode()).thenReturn(HttpStatus.SERVICE_UNAVAILABLE);
+
+        interceptor.intercept(request, new byte[0], execution).close();
+
+        assertEquals(1, limiter.getLimit());
+    }
+}
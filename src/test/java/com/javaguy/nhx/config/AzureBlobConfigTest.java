@@ -2,6 +2,7 @@ package com.javaguy.nhx.config;
 
 import com.azure.storage.blob.BlobContainerClient;
 import com.azure.storage.blob.BlobContainerClientBuilder;
+import com.azure.storage.blob.models.ParallelTransferOptions;
 import com.azure.storage.common.StorageSharedKeyCredential;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,7 +12,9 @@ import org.mockito.Mock;
 import org.mockito.MockedConstruction;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
@@ -92,4 +95,17 @@ class AzureBlobConfigTest {
             }
         }
     }
+
+    @Test
+    void blobUploadTransferOptions_UsesConfiguredValues() {
+        ReflectionTestUtils.setField(azureBlobConfig, "uploadBlockSize", DataSize.ofMegabytes(2));
+        ReflectionTestUtils.setField(azureBlobConfig, "uploadMaxConcurrency", 4);
+        ReflectionTestUtils.setField(azureBlobConfig, "uploadMaxSingleUploadSize", DataSize.ofMegabytes(4));
+
+        ParallelTransferOptions options = azureBlobConfig.blobUploadTransferOptions();
+
+        assertEquals(2L * 1024 * 1024, options.getBlockSizeLong());
+        assertEquals(4, options.getMaxConcurrency());
+        assertEquals(4L * 1024 * 1024, options.getMaxSingleUploadSizeLong());
+    }
 }
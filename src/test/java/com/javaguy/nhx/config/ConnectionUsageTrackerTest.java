@@ -0,0 +1,119 @@
+package com.javaguy.nhx.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionUsageTrackerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ConnectionUsageTracker tracker;
+    private ConnectionUsageDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:connection-usage;DB_CLOSE_DELAY=-1");
+        h2.setUser("sa");
+        tracker = new ConnectionUsageTracker(meterRegistry, Duration.ofMinutes(1));
+        dataSource = new ConnectionUsageDataSource(h2, tracker);
+    }
+
+    @Test
+    void heldConnection_IsTaggedWithHandlerAndRepository() throws Exception {
+        tracker.enterHandler("AdminController.getAllMints");
+        String outer = tracker.enterRepository("MintRepository.findAdminRows");
+        try (Connection connection = dataSource.getConnection()) {
+            connection.prepareStatement("SELECT 1").executeQuery();
+        } finally {
+            tracker.exitRepository(outer);
+            tracker.exitHandler();
+        }
+
+        Timer held = meterRegistry.find("db.connection.held")
+                .tag("handler", "AdminController.getAllMints")
+                .tag("repository", "MintRepository.findAdminRows")
+                .timer();
+        assertNotNull(held);
+        assertEquals(1, held.count());
+        assertEquals(1, meterRegistry.find("db.connection.acquire").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void connectionOpenedAtTransactionStart_IsAttributedToTheFirstRepositoryUsingIt() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            String outer = tracker.enterRepository("UserRepository.findById");
+            try {
+                connection.createStatement().execute("SELECT 1");
+            } finally {
+                tracker.exitRepository(outer);
+            }
+            outer = tracker.enterRepository("MintRepository.save");
+            try {
+                connection.createStatement().execute("SELECT 2");
+            } finally {
+                tracker.exitRepository(outer);
+            }
+        }
+
+        assertNotNull(meterRegistry.find("db.connection.held")
+                .tag("handler", ConnectionUsageTracker.NONE)
+                .tag("repository", "UserRepository.findById")
+                .timer());
+    }
+
+    @Test
+    void outboundCall_WhileHoldingAConnection_IsCounted() throws Exception {
+        tracker.enterHandler("KycController.submitDocuments");
+        try (Connection connection = dataSource.getConnection()) {
+            tracker.beforeOutboundCall("azure-blob");
+            tracker.beforeOutboundCall("azure-blob");
+        }
+        tracker.beforeOutboundCall("azure-blob");
+        tracker.exitHandler();
+
+        Counter outbound = meterRegistry.find("db.connection.held.outbound")
+                .tag("handler", "KycController.submitDocuments")
+                .tag("target", "azure-blob")
+                .counter();
+        assertNotNull(outbound);
+        assertEquals(2, outbound.count());
+    }
+
+    @Test
+    void outboundCall_WithoutAConnection_IsNotCounted() {
+        tracker.beforeOutboundCall("smtp");
+
+        assertNull(meterRegistry.find("db.connection.held.outbound").counter());
+    }
+
+    @Test
+    void failedCheckout_IsRecordedAsFailure() {
+        JdbcDataSource missing = new JdbcDataSource();
+        missing.setURL("jdbc:h2:./target/no-such-database;IFEXISTS=TRUE");
+        ConnectionUsageDataSource failing = new ConnectionUsageDataSource(missing, tracker);
+
+        assertThrows(SQLException.class, failing::getConnection);
+
+        assertEquals(1, meterRegistry.find("db.connection.acquire").tag("outcome", "failure").timer().count());
+        assertNull(meterRegistry.find("db.connection.held").timer());
+    }
+
+    @Test
+    void closingTwice_RecordsOneHold() throws Exception {
+        Connection connection = dataSource.getConnection();
+        connection.close();
+        connection.close();
+
+        assertEquals(1, meterRegistry.find("db.connection.held").timer().count());
+    }
+}
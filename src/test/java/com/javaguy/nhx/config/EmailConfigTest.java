@@ -1,5 +1,6 @@
 package com.javaguy.nhx.config;
 
+import com.javaguy.nhx.service.email.PooledJavaMailSender;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -8,6 +9,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mail.javamail.JavaMailSenderImpl;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Duration;
 import java.util.Properties;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -51,4 +53,16 @@ class EmailConfigTest {
         assertEquals("true", props.getProperty("mail.smtp.starttls.required"));
         assertEquals("false", props.getProperty("mail.debug"));
     }
+
+    @Test
+    void javaMailSender_IsPooled() {
+        ReflectionTestUtils.setField(emailConfig, "maxConnections", 2);
+        ReflectionTestUtils.setField(emailConfig, "maxMessagesPerConnection", 50);
+        ReflectionTestUtils.setField(emailConfig, "idleTimeout", Duration.ofSeconds(30));
+
+        PooledJavaMailSender mailSender = emailConfig.javaMailSender();
+
+        assertEquals(0, mailSender.getIdleConnectionCount());
+        assertEquals(0, mailSender.getConnectionsOpened());
+    }
 }
@@ -0,0 +1,123 @@
+package com.javaguy.nhx.config;
+
+import com.javaguy.nhx.client.UpstreamSaturatedException;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the per-upstream clients against a local server to check that a slow upstream only
+ * exhausts its own concurrency limit.
+ */
+class RestClientConfigTest {
+
+    private HttpServer server;
+    private RestClientConfig config;
+    private String baseUrl;
+    private final CountDownLatch slowCallStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseSlowCall = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/fast", exchange -> {
+            byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.createContext("/slow", exchange -> {
+            slowCallStarted.countDown();
+            try {
+                releaseSlowCall.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "slow".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+
+        UpstreamClientProperties properties = new UpstreamClientProperties();
+        properties.getMultisig().setMaxConcurrentRequests(1);
+        properties.getMultisig().setAcquireTimeout(Duration.ofMillis(100));
+        properties.getSdk().setMaxConcurrentRequests(1);
+        properties.getSdk().setReadTimeout(Duration.ofSeconds(2));
+        config = new RestClientConfig(properties, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseSlowCall.countDown();
+        config.destroy();
+        server.stop(0);
+    }
+
+    @Test
+    void slowMultisig_DoesNotBlockSdk() throws Exception {
+        RestClient multisig = config.multisigRestClient();
+        RestClient sdk = config.sdkRestClient();
+
+        CompletableFuture<String> slowCall = CompletableFuture.supplyAsync(() ->
+                multisig.get().uri(baseUrl + "/slow").retrieve().body(String.class));
+        assertTrue(slowCallStarted.await(5, TimeUnit.SECONDS));
+
+        ResourceAccessException rejected = assertThrows(ResourceAccessException.class,
+                () -> multisig.get().uri(baseUrl + "/fast").retrieve().body(String.class));
+        assertInstanceOf(UpstreamSaturatedException.class, rejected.getCause());
+
+        assertEquals("ok", sdk.get().uri(baseUrl + "/fast").retrieve().body(String.class));
+
+        releaseSlowCall.countDown();
+        assertEquals("slow", slowCall.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void pendingAcquireTimeout_FailsACallWaitingForAPooledConnection() throws Exception {
+        UpstreamClientProperties.Client client = new UpstreamClientProperties.Client();
+        client.setMaxConnections(1);
+        client.setPendingAcquireTimeout(Duration.ofMillis(100));
+        RestClient restClient = config.createRestClient("pool", client);
+
+        CompletableFuture<String> slowCall = CompletableFuture.supplyAsync(() ->
+                restClient.get().uri(baseUrl + "/slow").retrieve().body(String.class));
+        assertTrue(slowCallStarted.await(5, TimeUnit.SECONDS));
+
+        long start = System.nanoTime();
+        assertThrows(ResourceAccessException.class,
+                () -> restClient.get().uri(baseUrl + "/fast").retrieve().body(String.class));
+        // bounded by the pool wait, not by the connect timeout
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(client.getConnectTimeout()) < 0);
+
+        releaseSlowCall.countDown();
+        assertEquals("slow", slowCall.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void readTimeout_FailsSlowCall() {
+        UpstreamClientProperties.Client client = new UpstreamClientProperties.Client();
+        client.setReadTimeout(Duration.ofMillis(200));
+        RestClient restClient = config.createRestClient("test", client);
+
+        assertThrows(ResourceAccessException.class,
+                () -> restClient.get().uri(baseUrl + "/slow").retrieve().body(String.class));
+    }
+}
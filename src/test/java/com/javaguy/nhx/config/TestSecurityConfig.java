@@ -23,6 +23,7 @@ public class TestSecurityConfig {
                         .requestMatchers(
                                 "/api/auth/**",
                                 "/api/newsletter/subscribe",
+                                "/api/storage/local",
                                 "/h2-console/**",
                                 "/v3/api-docs/**",
                                 "/swagger-ui/**",
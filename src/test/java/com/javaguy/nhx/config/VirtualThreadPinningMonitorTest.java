@@ -0,0 +1,105 @@
+package com.javaguy.nhx.config;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualThreadPinningMonitorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private VirtualThreadPinningMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        monitor = new VirtualThreadPinningMonitor(meterRegistry);
+        ReflectionTestUtils.setField(monitor, "threshold", Duration.ofMillis(5));
+        ReflectionTestUtils.setField(monitor, "logInterval", Duration.ofMinutes(1));
+        monitor.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        monitor.stop();
+    }
+
+    @Test
+    void blockingInsideSynchronized_IsRecordedAsPinnedTime() throws Exception {
+        Object monitorLock = new Object();
+        for (int i = 0; i < 3; i++) {
+            Thread.ofVirtual().start(() -> {
+                synchronized (monitorLock) {
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }).join();
+        }
+
+        // JFR hands events to the stream about once a second
+        Timer pinned = null;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            pinned = meterRegistry.find("jvm.threads.virtual.pinned").tag("source", "other").timer();
+            if (pinned != null && pinned.count() == 3) {
+                break;
+            }
+            Thread.sleep(100);
+        }
+        assertNotNull(pinned);
+        assertEquals(3, pinned.count());
+        assertTrue(pinned.totalTime(TimeUnit.MILLISECONDS) >= 3 * 40);
+    }
+
+    @Test
+    void blockingWithoutMonitor_IsNotRecorded() throws Exception {
+        Thread.ofVirtual().start(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }).join();
+
+        Thread.sleep(2000);
+        assertNull(meterRegistry.find("jvm.threads.virtual.pinned").timer());
+    }
+
+    @Test
+    void classify_LooksThroughJdkFramesToTheLibrary() {
+        List<String> smtp = List.of(
+                "java.net.Socket$SocketInputStream.read:1099",
+                "org.eclipse.angus.mail.util.TraceInputStream.read:126",
+                "org.eclipse.angus.mail.smtp.SMTPTransport.readServerResponse:2598",
+                "org.springframework.mail.javamail.JavaMailSenderImpl.doSend:470");
+        List<String> postgres = List.of(
+                "sun.nio.ch.NioSocketImpl.read:346",
+                "org.postgresql.core.VisibleBufferedInputStream.read:168",
+                "com.zaxxer.hikari.pool.ProxyPreparedStatement.executeQuery:52");
+
+        assertEquals("mail", VirtualThreadPinningMonitor.classify(smtp));
+        assertEquals("jdbc", VirtualThreadPinningMonitor.classify(postgres));
+        assertEquals("other", VirtualThreadPinningMonitor.classify(List.of("com.javaguy.nhx.Foo.bar:1")));
+    }
+
+    @Test
+    void site_IsTheInnermostNonJdkFrame() {
+        List<String> frames = List.of(
+                "java.lang.Thread.sleep:507",
+                "com.javaguy.nhx.service.Foo.bar:42",
+                "java.lang.VirtualThread.run:309");
+
+        assertEquals("com.javaguy.nhx.service.Foo.bar:42", VirtualThreadPinningMonitor.site(frames));
+        assertEquals("unknown", VirtualThreadPinningMonitor.site(List.of()));
+    }
+}
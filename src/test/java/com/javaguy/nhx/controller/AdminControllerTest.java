@@ -1,8 +1,14 @@
 package com.javaguy.nhx.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javaguy.nhx.exception.custom.BadRequestException;
+import com.javaguy.nhx.model.dto.request.AdminMintRequest;
+import com.javaguy.nhx.model.dto.request.AdminTransferRequest;
 import com.javaguy.nhx.model.dto.request.UpdateKycStatusRequest;
 import com.javaguy.nhx.model.dto.request.UpdateMintStatusRequest;
+import com.javaguy.nhx.model.dto.response.BatchItemResult;
+import com.javaguy.nhx.model.dto.response.BatchOperationResponse;
+import com.javaguy.nhx.model.dto.response.CursorPage;
 import com.javaguy.nhx.model.dto.response.KycSubmissionAdminResponse;
 import com.javaguy.nhx.model.dto.response.MintAdminResponse;
 import com.javaguy.nhx.model.enums.KycStatus;
@@ -11,6 +17,9 @@ import com.javaguy.nhx.security.CustomUserDetailsService;
 import com.javaguy.nhx.security.JwtTokenProvider;
 import com.javaguy.nhx.security.WithUserPrincipal;
 import com.javaguy.nhx.service.admin.AdminService;
+import com.javaguy.nhx.service.mint.AdminBatchService;
+import com.javaguy.nhx.service.mint.AdminMintService;
+import com.javaguy.nhx.service.storage.DocumentStream;
 import com.javaguy.nhx.config.TestSecurityConfig;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,20 +27,28 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.ByteArrayInputStream;
 import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -45,6 +62,10 @@ class AdminControllerTest {
         @MockitoBean
         private AdminService adminService;
         @MockitoBean
+        private AdminMintService adminMintService;
+        @MockitoBean
+        private AdminBatchService adminBatchService;
+        @MockitoBean
         private JwtTokenProvider jwtTokenProvider;
         @MockitoBean
         private CustomUserDetailsService customUserDetailsService;
@@ -153,6 +174,62 @@ class AdminControllerTest {
                                 .andExpect(jsonPath("$.content[0].status").value(MintStatus.CONFIRMED.name()));
         }
 
+        @Test
+        @WithUserPrincipal(roles = "ROLE_ADMIN")
+        void getMintsByCursor_ReturnsPageAndNextCursor() throws Exception {
+                MintAdminResponse response = MintAdminResponse.builder()
+                                .requestId(mintId)
+                                .status(MintStatus.PENDING)
+                                .build();
+                when(adminService.getMintsByCursor(MintStatus.PENDING, "abc", 1))
+                                .thenReturn(CursorPage.<MintAdminResponse>builder()
+                                                .content(List.of(response))
+                                                .size(1)
+                                                .nextCursor("def")
+                                                .hasNext(true)
+                                                .build());
+
+                mockMvc.perform(get("/api/admin/mints/cursor")
+                                .param("status", MintStatus.PENDING.name())
+                                .param("cursor", "abc")
+                                .param("size", "1"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.content[0].requestId").value(mintId.toString()))
+                                .andExpect(jsonPath("$.nextCursor").value("def"))
+                                .andExpect(jsonPath("$.hasNext").value(true));
+        }
+
+        @Test
+        @WithUserPrincipal(roles = "ROLE_ADMIN")
+        void getKycSubmissionsByCursor_FirstPage_ReturnsOk() throws Exception {
+                KycSubmissionAdminResponse response = KycSubmissionAdminResponse.builder()
+                                .kycId(kycId)
+                                .status(KycStatus.PENDING)
+                                .build();
+                when(adminService.getKycSubmissionsByCursor(null, null, 20))
+                                .thenReturn(CursorPage.<KycSubmissionAdminResponse>builder()
+                                                .content(List.of(response))
+                                                .size(20)
+                                                .hasNext(false)
+                                                .build());
+
+                mockMvc.perform(get("/api/admin/kyc/cursor"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.content[0].kycId").value(kycId.toString()))
+                                .andExpect(jsonPath("$.nextCursor").doesNotExist())
+                                .andExpect(jsonPath("$.hasNext").value(false));
+        }
+
+        @Test
+        @WithUserPrincipal(roles = "ROLE_ADMIN")
+        void getMintsByCursor_InvalidCursor_ReturnsBadRequest() throws Exception {
+                when(adminService.getMintsByCursor(null, "bogus", 20))
+                                .thenThrow(new BadRequestException("Invalid cursor"));
+
+                mockMvc.perform(get("/api/admin/mints/cursor").param("cursor", "bogus"))
+                                .andExpect(status().isBadRequest());
+        }
+
         @Test
         @WithUserPrincipal(roles = "ROLE_ADMIN")
         void updateMintStatus_ReturnsOk() throws Exception {
@@ -175,4 +252,91 @@ class AdminControllerTest {
                 mockMvc.perform(get("/api/admin/kyc"))
                                 .andExpect(status().isForbidden());
         }
+
+        @Test
+        @WithUserPrincipal(roles = "ROLE_ADMIN")
+        void mint_WithIdempotencyKey_PassesKeyThrough() throws Exception {
+                AdminMintRequest request = new AdminMintRequest("1000");
+                when(adminMintService.mint(request, "admin-key-1")).thenReturn("{\"status\":\"minted\"}");
+
+                mockMvc.perform(post("/api/admin/mint")
+                                .with(csrf())
+                                .header("Idempotency-Key", "admin-key-1")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("Idempotency-Key", "admin-key-1"))
+                                .andExpect(jsonPath("$.status").value("minted"));
+        }
+
+        @Test
+        @WithUserPrincipal(roles = "ROLE_ADMIN")
+        void mint_WithoutIdempotencyKey_ReturnsBadRequest() throws Exception {
+                mockMvc.perform(post("/api/admin/mint")
+                                .with(csrf())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(new AdminMintRequest("1000"))))
+                                .andExpect(status().isBadRequest());
+
+                verifyNoInteractions(adminMintService);
+        }
+
+        @Test
+        @WithUserPrincipal(roles = "ROLE_ADMIN")
+        void transferBatch_PartialFailure_ReturnsMultiStatus() throws Exception {
+                List<AdminTransferRequest> requests = List.of(
+                                new AdminTransferRequest("100", "0.0.1001"),
+                                new AdminTransferRequest("200", "0.0.1002"));
+                when(adminBatchService.transferAll(requests, "batch-key")).thenReturn(BatchOperationResponse.builder()
+                                .idempotencyKey("batch-key")
+                                .total(2)
+                                .succeeded(1)
+                                .failed(1)
+                                .results(List.of(
+                                                BatchItemResult.builder().index(0).idempotencyKey("batch-key-0")
+                                                                .success(true).response("{}").build(),
+                                                BatchItemResult.builder().index(1).idempotencyKey("batch-key-1")
+                                                                .success(false).error("Server error while calling sdk API").build()))
+                                .build());
+
+                mockMvc.perform(post("/api/admin/transfer/batch")
+                                .with(csrf())
+                                .header("Idempotency-Key", "batch-key")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(requests)))
+                                .andExpect(status().isMultiStatus())
+                                .andExpect(jsonPath("$.failed").value(1))
+                                .andExpect(jsonPath("$.results[1].success").value(false))
+                                .andExpect(jsonPath("$.results[1].idempotencyKey").value("batch-key-1"));
+        }
+
+        @Test
+        @WithUserPrincipal(roles = "ROLE_ADMIN")
+        void getKycDocument_Range_ReturnsPartialContent() throws Exception {
+                byte[] bytes = "partial".getBytes();
+                when(adminService.openKycDocument(kycId, "front", "bytes=100-106")).thenReturn(new DocumentStream(
+                                new ByteArrayInputStream(bytes), "image/png", 100, bytes.length, 5000));
+
+                mockMvc.perform(get("/api/admin/kyc/{kycId}/documents/front", kycId)
+                                .header(HttpHeaders.RANGE, "bytes=100-106"))
+                                .andExpect(status().isPartialContent())
+                                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 100-106/5000"))
+                                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, bytes.length))
+                                .andExpect(content().contentType(MediaType.IMAGE_PNG))
+                                .andExpect(content().bytes(bytes));
+        }
+
+        @Test
+        @WithUserPrincipal(roles = "ROLE_ADMIN")
+        void getKycDocument_NoRange_ReturnsWholeDocument() throws Exception {
+                byte[] bytes = "whole document".getBytes();
+                when(adminService.openKycDocument(kycId, "back", null)).thenReturn(new DocumentStream(
+                                new ByteArrayInputStream(bytes), "application/pdf", 0, bytes.length, bytes.length));
+
+                mockMvc.perform(get("/api/admin/kyc/{kycId}/documents/back", kycId))
+                                .andExpect(status().isOk())
+                                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_RANGE))
+                                .andExpect(content().bytes(bytes));
+        }
 }
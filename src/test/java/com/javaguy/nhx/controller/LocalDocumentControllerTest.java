@@ -0,0 +1,92 @@
+package com.javaguy.nhx.controller;
+
+import com.javaguy.nhx.config.TestSecurityConfig;
+import com.javaguy.nhx.exception.custom.ForbiddenException;
+import com.javaguy.nhx.security.CustomUserDetailsService;
+import com.javaguy.nhx.security.JwtTokenProvider;
+import com.javaguy.nhx.service.storage.DocumentStream;
+import com.javaguy.nhx.service.storage.LocalFileStorageService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(LocalDocumentController.class)
+@Import(TestSecurityConfig.class)
+@ActiveProfiles("dev")
+class LocalDocumentControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private LocalFileStorageService localFileStorageService;
+    @MockitoBean
+    private JwtTokenProvider jwtTokenProvider;
+    @MockitoBean
+    private CustomUserDetailsService customUserDetailsService;
+
+    @Test
+    void getDocument_ValidSignature_StreamsWithoutLogin() throws Exception {
+        byte[] bytes = "front image".getBytes();
+        when(localFileStorageService.openSigned("kyc/front.png", 1700000000L, "sig", List.of()))
+                .thenReturn(new DocumentStream(new ByteArrayInputStream(bytes), "image/png", 0, bytes.length,
+                        bytes.length));
+
+        mockMvc.perform(get("/api/storage/local")
+                        .param("path", "kyc/front.png")
+                        .param("expires", "1700000000")
+                        .param("signature", "sig"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.IMAGE_PNG))
+                .andExpect(content().bytes(bytes));
+    }
+
+    @Test
+    void getDocument_Range_ReturnsPartialContent() throws Exception {
+        byte[] bytes = "ima".getBytes();
+        when(localFileStorageService.openSigned("kyc/front.png", 1700000000L, "sig",
+                HttpRange.parseRanges("bytes=6-8")))
+                .thenReturn(new DocumentStream(new ByteArrayInputStream(bytes), "image/png", 6, 3, 11));
+
+        mockMvc.perform(get("/api/storage/local")
+                        .param("path", "kyc/front.png")
+                        .param("expires", "1700000000")
+                        .param("signature", "sig")
+                        .header(HttpHeaders.RANGE, "bytes=6-8"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 6-8/11"))
+                .andExpect(content().bytes(bytes));
+    }
+
+    @Test
+    void getDocument_BadSignature_ReturnsForbidden() throws Exception {
+        when(localFileStorageService.openSigned(anyString(), anyLong(), eq("forged"), anyList()))
+                .thenThrow(new ForbiddenException("Document link is invalid or has expired"));
+
+        mockMvc.perform(get("/api/storage/local")
+                        .param("path", "kyc/front.png")
+                        .param("expires", "1700000000")
+                        .param("signature", "forged"))
+                .andExpect(status().isForbidden());
+    }
+}
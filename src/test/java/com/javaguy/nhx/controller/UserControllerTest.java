@@ -1,13 +1,16 @@
 package com.javaguy.nhx.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javaguy.nhx.exception.custom.BadRequestException;
 import com.javaguy.nhx.exception.custom.ResourceNotFoundException;
 import com.javaguy.nhx.exception.custom.ValidationException;
 import com.javaguy.nhx.model.dto.request.DetailsRequest;
 import com.javaguy.nhx.model.dto.request.UserProfileRequest;
+import com.javaguy.nhx.model.dto.response.CursorPage;
 import com.javaguy.nhx.model.dto.response.MintResponseDto;
 import com.javaguy.nhx.model.dto.response.UserProfileResponse;
 import com.javaguy.nhx.model.enums.KycStatus;
+import com.javaguy.nhx.model.enums.MintStatus;
 import com.javaguy.nhx.security.CustomUserDetailsService;
 import com.javaguy.nhx.security.JwtTokenProvider;
 import com.javaguy.nhx.security.WithUserPrincipal;
@@ -25,9 +28,13 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.doThrow;
@@ -284,4 +291,63 @@ class UserControllerTest {
 
                 verify(mintRequestService, times(1)).getAllMintsForUser(any(UUID.class));
         }
+
+        @Test
+        @WithUserPrincipal(username = "test@example.com", roles = "USER")
+        void getMintHistory_WithFilters_ReturnsPageAndNextCursor() throws Exception {
+                when(mintRequestService.getMintHistory(any(UUID.class), eq(MintStatus.PENDING),
+                                eq(LocalDate.of(2024, 1, 1)), eq(LocalDate.of(2024, 3, 31)), eq("abc"), eq(1)))
+                                .thenReturn(CursorPage.<MintResponseDto>builder()
+                                                .content(List.of(mintResponseDto))
+                                                .size(1)
+                                                .nextCursor("def")
+                                                .hasNext(true)
+                                                .build());
+
+                mockMvc.perform(get("/api/user/mints/cursor")
+                                .param("status", "PENDING")
+                                .param("from", "2024-01-01")
+                                .param("to", "2024-03-31")
+                                .param("cursor", "abc")
+                                .param("size", "1"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.content[0].id").value(mintResponseDto.getId().toString()))
+                                .andExpect(jsonPath("$.content[0].walletAddress").value(mintResponseDto.getWalletAddress()))
+                                .andExpect(jsonPath("$.nextCursor").value("def"))
+                                .andExpect(jsonPath("$.hasNext").value(true));
+        }
+
+        @Test
+        @WithUserPrincipal(username = "test@example.com", roles = "USER")
+        void getMintHistory_FirstPage_DefaultsToTwenty() throws Exception {
+                when(mintRequestService.getMintHistory(any(UUID.class), isNull(), isNull(), isNull(), isNull(), eq(20)))
+                                .thenReturn(CursorPage.<MintResponseDto>builder()
+                                                .content(List.of())
+                                                .size(20)
+                                                .hasNext(false)
+                                                .build());
+
+                mockMvc.perform(get("/api/user/mints/cursor"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.nextCursor").doesNotExist())
+                                .andExpect(jsonPath("$.hasNext").value(false));
+        }
+
+        @Test
+        @WithUserPrincipal(username = "test@example.com", roles = "USER")
+        void getMintHistory_InvalidCursor_ReturnsBadRequest() throws Exception {
+                when(mintRequestService.getMintHistory(any(UUID.class), any(), any(), any(), eq("bogus"), anyInt()))
+                                .thenThrow(new BadRequestException("Invalid cursor"));
+
+                mockMvc.perform(get("/api/user/mints/cursor").param("cursor", "bogus"))
+                                .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        void getMintHistory_Unauthenticated_ReturnsUnauthorized() throws Exception {
+                mockMvc.perform(get("/api/user/mints/cursor"))
+                                .andExpect(status().isUnauthorized());
+
+                verify(mintRequestService, never()).getMintHistory(any(), any(), any(), any(), any(), anyInt());
+        }
 }
@@ -28,9 +28,12 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.HttpMediaTypeNotSupportedException;
 import org.springframework.web.HttpRequestMethodNotSupportedException;
+import org.springframework.core.MethodParameter;
+import org.springframework.web.bind.MissingRequestHeaderException;
 import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
@@ -191,6 +194,20 @@ public class GlobalExceptionHandlerTest {
         assertEquals("/api/test", responseEntity.getBody().getPath());
     }
 
+    @Test
+    void handleMissingRequestHeaderException() throws Exception {
+        MethodParameter parameter = new MethodParameter(String.class.getMethod("concat", String.class), 0);
+        MissingRequestHeaderException ex = new MissingRequestHeaderException("Idempotency-Key", parameter);
+        ResponseEntity<ErrorResponse> responseEntity = globalExceptionHandler.handleMissingRequestHeader(ex, request);
+
+        assertEquals(HttpStatus.BAD_REQUEST, responseEntity.getStatusCode());
+        assertNotNull(responseEntity.getBody());
+        assertEquals(400, responseEntity.getBody().getStatus());
+        assertEquals("Missing Header", responseEntity.getBody().getError());
+        assertEquals("Required header 'Idempotency-Key' is missing", responseEntity.getBody().getMessage());
+        assertEquals("/api/test", responseEntity.getBody().getPath());
+    }
+
     @Test
     void handleHttpRequestMethodNotSupportedException() {
         HttpRequestMethodNotSupportedException ex = new HttpRequestMethodNotSupportedException("GET");
@@ -277,6 +294,18 @@ public class GlobalExceptionHandlerTest {
         assertEquals("/api/test", responseEntity.getBody().getPath());
     }
 
+    @Test
+    void handleAuthenticationException_WrappingSaturatedHashingPool_Returns503() {
+        AuthenticationException ex = new InternalAuthenticationServiceException("Too many concurrent authentication requests",
+                new ServiceUnavailableException("Too many concurrent authentication requests"));
+        ResponseEntity<ErrorResponse> responseEntity = globalExceptionHandler.handleAuthenticationException(ex,
+                request);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, responseEntity.getStatusCode());
+        assertNotNull(responseEntity.getBody());
+        assertEquals("Service Unavailable", responseEntity.getBody().getError());
+    }
+
     @Test
     void handleDataIntegrityViolationException() {
         DataIntegrityViolationException ex = new DataIntegrityViolationException("Data integrity violation test");
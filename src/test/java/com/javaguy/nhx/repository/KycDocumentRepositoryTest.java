@@ -0,0 +1,143 @@
+package com.javaguy.nhx.repository;
+
+import com.javaguy.nhx.model.entity.KycDocument;
+import com.javaguy.nhx.model.entity.User;
+import com.javaguy.nhx.model.enums.KycStatus;
+import com.javaguy.nhx.repository.projection.KycSubmissionRow;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class KycDocumentRepositoryTest {
+
+    @Autowired
+    private KycDocumentRepository kycDocumentRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        now = LocalDateTime.now();
+        for (int i = 0; i < 25; i++) {
+            User user = entityManager.persist(User.builder()
+                    .email("kyc" + i + "@example.com")
+                    .passwordHash("hash")
+                    .kycStatus(i % 2 == 0 ? KycStatus.PENDING : KycStatus.VERIFIED)
+                    .build());
+            KycDocument document = entityManager.persist(KycDocument.builder()
+                    .user(user)
+                    .fullName("User " + i)
+                    .dob("1990-01-01")
+                    .documentType("NATIONAL_ID")
+                    .documentNumber("ID" + i)
+                    .documentFrontPath("kyc/" + i + "/front.png")
+                    .submittedAt(now.minusMinutes(i))
+                    .build());
+            // set again after persist so auditing, if enabled, cannot overwrite it
+            document.setSubmittedAt(now.minusMinutes(i));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findSubmissionRows_LoadsPageWithUserColumnsInOneStatement() {
+        List<KycSubmissionRow> rows = kycDocumentRepository.findSubmissionRows(PageRequest.of(0, 20));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(20, rows.size());
+        KycSubmissionRow newest = rows.get(0);
+        assertEquals("kyc0@example.com", newest.userEmail());
+        assertEquals(KycStatus.PENDING, newest.status());
+        assertEquals("kyc/0/front.png", newest.documentFrontPath());
+        assertEquals("kyc19@example.com", rows.get(19).userEmail());
+    }
+
+    @Test
+    void findSubmissionRowsByStatus_FiltersOnUserStatusInOneStatement() {
+        List<KycSubmissionRow> rows = kycDocumentRepository.findSubmissionRowsByStatus(KycStatus.VERIFIED,
+                PageRequest.of(1, 10));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(2, rows.size());
+        assertTrue(rows.stream().allMatch(row -> row.status() == KycStatus.VERIFIED));
+        assertEquals("kyc21@example.com", rows.get(0).userEmail());
+    }
+
+    @Test
+    void findSubmissionRowsAfter_WalksEveryRowInOffsetOrder() {
+        List<UUID> expected = kycDocumentRepository.findSubmissionRows(PageRequest.of(0, 100)).stream()
+                .map(KycSubmissionRow::kycId).toList();
+        statistics.clear();
+
+        List<UUID> walked = new ArrayList<>();
+        List<KycSubmissionRow> page = kycDocumentRepository.findSubmissionRows(PageRequest.of(0, 10));
+        int pages = 1;
+        while (!page.isEmpty()) {
+            page.forEach(row -> walked.add(row.kycId()));
+            KycSubmissionRow last = page.get(page.size() - 1);
+            page = kycDocumentRepository.findSubmissionRowsAfter(last.submittedAt(), last.kycId(), PageRequest.of(0, 10));
+            pages++;
+        }
+
+        assertEquals(expected, walked);
+        assertEquals(pages, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findSubmissionRowsAfterByStatus_ContinuesWithinTheFilter() {
+        List<KycSubmissionRow> first = kycDocumentRepository.findSubmissionRowsByStatus(KycStatus.VERIFIED,
+                PageRequest.of(0, 10));
+        KycSubmissionRow last = first.get(9);
+        List<KycSubmissionRow> rest = kycDocumentRepository.findSubmissionRowsAfterByStatus(KycStatus.VERIFIED,
+                last.submittedAt(), last.kycId(), PageRequest.of(0, 10));
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(2, rest.size());
+        assertEquals("kyc21@example.com", rest.get(0).userEmail());
+    }
+
+    @Test
+    void countByUser_KycStatus_CountsWhatTheStatusPageShows() {
+        assertEquals(12, kycDocumentRepository.countByUser_KycStatus(KycStatus.VERIFIED));
+        assertEquals(25, kycDocumentRepository.count());
+    }
+
+    @Test
+    void findWithUserById_LoadsTheSubmitterInTheSameStatement() {
+        UUID kycId = kycDocumentRepository.findSubmissionRows(PageRequest.of(0, 1)).get(0).kycId();
+        entityManager.clear();
+        statistics.clear();
+
+        KycDocument document = kycDocumentRepository.findWithUserById(kycId).orElseThrow();
+
+        assertTrue(Hibernate.isInitialized(document.getUser()));
+        assertEquals("kyc0@example.com", document.getUser().getEmail());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,299 @@
+package com.javaguy.nhx.repository;
+
+import com.javaguy.nhx.model.entity.Mint;
+import com.javaguy.nhx.model.entity.User;
+import com.javaguy.nhx.model.entity.Wallet;
+import com.javaguy.nhx.model.enums.MintProcessingStage;
+import com.javaguy.nhx.model.enums.MintStatus;
+import com.javaguy.nhx.repository.projection.MintAdminRow;
+import com.javaguy.nhx.repository.projection.MintHistoryRow;
+import com.javaguy.nhx.util.TimeOrderedUuid;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class MintRepositoryTest {
+
+    @Autowired
+    private MintRepository mintRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 25; i++) {
+            User user = entityManager.persist(User.builder()
+                    .email("mint" + i + "@example.com")
+                    .passwordHash("hash")
+                    .build());
+            Wallet wallet = entityManager.persist(Wallet.builder()
+                    .user(user)
+                    .walletAddress("0.0." + (1000 + i))
+                    .build());
+            entityManager.persist(Mint.builder()
+                    .id(TimeOrderedUuid.next())
+                    .user(user)
+                    .wallet(wallet)
+                    .amountKes(new BigDecimal("1500000.00"))
+                    .status(i % 5 == 0 ? MintStatus.FAILED : MintStatus.PENDING)
+                    .processingStage(MintProcessingStage.COMPLETED)
+                    .dateInitiated(LocalDate.now().minusDays(i))
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findAdminRows_LoadsPageWithUserAndWalletInOneStatement() {
+        List<MintAdminRow> rows = mintRepository.findAdminRows(PageRequest.of(0, 20));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(20, rows.size());
+        assertEquals("mint0@example.com", rows.get(0).userEmail());
+        assertEquals("0.0.1000", rows.get(0).walletAddress());
+        assertEquals("0.0.1019", rows.get(19).walletAddress());
+    }
+
+    @Test
+    void findAdminRowsByStatus_FiltersInOneStatement() {
+        List<MintAdminRow> rows = mintRepository.findAdminRowsByStatus(MintStatus.FAILED, PageRequest.of(0, 20));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(5, rows.size());
+        assertTrue(rows.stream().allMatch(row -> row.status() == MintStatus.FAILED));
+    }
+
+    @Test
+    void countByStatus_CountsWhatTheStatusPageShows() {
+        assertEquals(5, mintRepository.countByStatus(MintStatus.FAILED));
+        assertEquals(25, mintRepository.count());
+    }
+
+    @Test
+    void findAdminRowsAfter_WalksEveryRowInOffsetOrder_IncludingTiesOnDate() {
+        // five more mints on the newest date, so pages have to split between rows that share it
+        Mint newest = mintRepository.findAll().stream()
+                .filter(mint -> mint.getDateInitiated().equals(LocalDate.now()))
+                .findFirst().orElseThrow();
+        for (int i = 0; i < 5; i++) {
+            entityManager.persist(Mint.builder()
+                    .id(TimeOrderedUuid.next())
+                    .user(newest.getUser())
+                    .wallet(newest.getWallet())
+                    .amountKes(new BigDecimal("1000.00"))
+                    .status(MintStatus.PENDING)
+                    .processingStage(MintProcessingStage.COMPLETED)
+                    .dateInitiated(newest.getDateInitiated())
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        List<UUID> expected = mintRepository.findAdminRows(PageRequest.of(0, 100)).stream()
+                .map(MintAdminRow::requestId).toList();
+        statistics.clear();
+
+        List<UUID> walked = new ArrayList<>();
+        List<MintAdminRow> page = mintRepository.findAdminRows(PageRequest.of(0, 4));
+        int pages = 1;
+        while (!page.isEmpty()) {
+            page.forEach(row -> walked.add(row.requestId()));
+            MintAdminRow last = page.get(page.size() - 1);
+            page = mintRepository.findAdminRowsAfter(last.dateInitiated(), last.requestId(), PageRequest.of(0, 4));
+            pages++;
+        }
+
+        assertEquals(30, expected.size());
+        assertEquals(expected, walked);
+        // one statement per page and no count
+        assertEquals(pages, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findAdminRowsAfterByStatus_ContinuesWithinTheFilter() {
+        List<MintAdminRow> first = mintRepository.findAdminRowsByStatus(MintStatus.FAILED, PageRequest.of(0, 2));
+        MintAdminRow last = first.get(1);
+        List<MintAdminRow> rest = mintRepository.findAdminRowsAfterByStatus(MintStatus.FAILED,
+                last.dateInitiated(), last.requestId(), PageRequest.of(0, 20));
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(3, rest.size());
+        assertTrue(rest.stream().allMatch(row -> row.status() == MintStatus.FAILED));
+        assertTrue(rest.get(0).dateInitiated().isBefore(last.dateInitiated()));
+    }
+
+    @Test
+    void findAll_ThenWalkingAssociations_IsWhatTheProjectionReplaces() {
+        mintRepository.findAll(PageRequest.of(0, 20))
+                .forEach(mint -> mint.getWallet().getWalletAddress());
+
+        // page + count + one wallet select per row
+        assertEquals(22, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findByUser_LoadsWalletsInTheSameStatement() {
+        User user = entityManager.getEntityManager()
+                .createQuery("SELECT u FROM User u WHERE u.email = 'mint3@example.com'", User.class)
+                .getSingleResult();
+        statistics.clear();
+
+        List<Mint> mints = mintRepository.findByUser(user);
+
+        assertEquals(1, mints.size());
+        assertTrue(Hibernate.isInitialized(mints.get(0).getWallet()));
+        assertEquals("0.0.1003", mints.get(0).getWallet().getWalletAddress());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findStalledIds_SkipsMintsThatUsedUpTheirAttempts() {
+        User user = entityManager.persist(User.builder().email("stalled@example.com").passwordHash("hash").build());
+        Wallet wallet = entityManager.persist(Wallet.builder().user(user).walletAddress("0.0.9999").build());
+        Mint retrying = entityManager.persist(stalledMint(user, wallet, 2));
+        entityManager.persist(stalledMint(user, wallet, 3));
+        entityManager.flush();
+
+        List<UUID> stalled = mintRepository.findStalledIds(
+                List.of(MintProcessingStage.ACCEPTED, MintProcessingStage.TREASURY_REGISTERED),
+                LocalDateTime.now().plusMinutes(1), 3, PageRequest.of(0, 10));
+
+        assertEquals(List.of(retrying.getId()), stalled);
+    }
+
+    private static Mint stalledMint(User user, Wallet wallet, int attempts) {
+        return Mint.builder()
+                .id(TimeOrderedUuid.next())
+                .user(user)
+                .wallet(wallet)
+                .amountKes(new BigDecimal("1500000.00"))
+                .status(MintStatus.PENDING)
+                .processingStage(MintProcessingStage.ACCEPTED)
+                .processingAttempts(attempts)
+                .dateInitiated(LocalDate.now())
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Test
+    void findWithUserAndWalletById_LoadsBothInTheSameStatement() {
+        UUID mintId = mintRepository.findAdminRows(PageRequest.of(0, 1)).get(0).requestId();
+        entityManager.clear();
+        statistics.clear();
+
+        Mint mint = mintRepository.findWithUserAndWalletById(mintId).orElseThrow();
+
+        assertTrue(Hibernate.isInitialized(mint.getUser()));
+        assertTrue(Hibernate.isInitialized(mint.getWallet()));
+        assertEquals("mint0@example.com", mint.getUser().getEmail());
+        assertEquals("0.0.1000", mint.getWallet().getWalletAddress());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findHistoryRowsAfter_WalksOneUsersRangeInOrder_OneStatementPerPage() {
+        User user = entityManager.getEntityManager()
+                .createQuery("SELECT u FROM User u WHERE u.email = 'mint3@example.com'", User.class)
+                .getSingleResult();
+        Wallet wallet = entityManager.getEntityManager()
+                .createQuery("SELECT w FROM Wallet w WHERE w.user = :user", Wallet.class)
+                .setParameter("user", user)
+                .getSingleResult();
+        // twelve more over four days, three per day, so pages split between rows sharing a date
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < 12; i++) {
+            entityManager.persist(Mint.builder()
+                    .id(TimeOrderedUuid.next())
+                    .user(user)
+                    .wallet(wallet)
+                    .amountKes(new BigDecimal("1000.00"))
+                    .status(i % 3 == 0 ? MintStatus.FAILED : MintStatus.PENDING)
+                    .processingStage(MintProcessingStage.COMPLETED)
+                    .dateInitiated(today.minusDays(i / 3))
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        LocalDate from = today.minusDays(2);
+        LocalDate to = today.minusDays(1);
+        List<UUID> expected = entityManager.getEntityManager()
+                .createQuery("""
+                        SELECT m.id FROM Mint m
+                        WHERE m.user.id = :userId AND m.dateInitiated BETWEEN :from AND :to
+                        ORDER BY m.dateInitiated DESC, m.id DESC""", UUID.class)
+                .setParameter("userId", user.getId())
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .getResultList();
+        statistics.clear();
+
+        List<MintHistoryRow> walked = new ArrayList<>();
+        List<MintHistoryRow> page = mintRepository.findHistoryRowsFirst(user.getId(), from, to, PageRequest.of(0, 2));
+        int pages = 1;
+        while (!page.isEmpty()) {
+            walked.addAll(page);
+            MintHistoryRow last = page.get(page.size() - 1);
+            page = mintRepository.findHistoryRowsAfter(user.getId(), from, to, last.dateInitiated(), last.requestId(),
+                    PageRequest.of(0, 2));
+            pages++;
+        }
+
+        // the seeded mint3 row is dated three days back, outside the range
+        assertEquals(6, expected.size());
+        assertEquals(expected, walked.stream().map(MintHistoryRow::requestId).toList());
+        assertTrue(walked.stream().allMatch(row -> row.walletAddress().equals("0.0.1003")));
+        // one statement per page, no user lookup and no wallet loads
+        assertEquals(pages, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findHistoryRowsByStatus_StaysWithinTheUserAndTheFilter() {
+        User user = entityManager.getEntityManager()
+                .createQuery("SELECT u FROM User u WHERE u.email = 'mint5@example.com'", User.class)
+                .getSingleResult();
+        statistics.clear();
+
+        List<MintHistoryRow> failed = mintRepository.findHistoryRowsFirstByStatus(user.getId(), LocalDate.EPOCH,
+                LocalDate.now(), MintStatus.FAILED, PageRequest.of(0, 20));
+        List<MintHistoryRow> rest = mintRepository.findHistoryRowsAfterByStatus(user.getId(), LocalDate.EPOCH,
+                LocalDate.now(), MintStatus.FAILED, failed.get(0).dateInitiated(), failed.get(0).requestId(),
+                PageRequest.of(0, 20));
+        List<MintHistoryRow> pending = mintRepository.findHistoryRowsFirstByStatus(user.getId(), LocalDate.EPOCH,
+                LocalDate.now(), MintStatus.PENDING, PageRequest.of(0, 20));
+
+        assertEquals(1, failed.size());
+        assertEquals("0.0.1005", failed.get(0).walletAddress());
+        assertTrue(rest.isEmpty());
+        assertTrue(pending.isEmpty());
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,318 @@
+package com.javaguy.nhx.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javaguy.nhx.model.entity.User;
+import com.javaguy.nhx.model.enums.EmailOutboxStatus;
+import com.javaguy.nhx.model.enums.MintProcessingStage;
+import com.javaguy.nhx.model.enums.MintStatus;
+import com.javaguy.nhx.model.enums.OtpPurpose;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Applies the Flyway migrations to Postgres, lets Hibernate validate the entities against the
+ * result, and EXPLAINs the SQL the hot repository methods actually send, with the parameters
+ * bound, over a seeded and analyzed dataset. A plan that reads a table with a sequential scan
+ * fails the test. The status-filtered keyset pages are also planned generically, as a reused
+ * server-side prepared statement would be, and must still read their index. Needs Docker; skipped
+ * otherwise.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.flyway.postgresql.transactional-lock=false",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.javaguy.nhx.repository.RecordingStatementInspector"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class PostgresQueryPlanTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.datasource.driver-class-name", POSTGRES::getDriverClassName);
+    }
+
+    // skewed the way production data is: most mints are finished, most codes used, most mail sent
+    private static final String SEED = """
+            insert into users (id, email, password_hash, email_verified, enabled, kyc_status, created_at)
+            select gen_random_uuid(), 'user' || x || '@example.com', 'hash', true, true,
+                   (array['PENDING','VERIFIED','REJECTED'])[x % 3 + 1], now()
+            from generate_series(1, 5000) x;
+
+            insert into wallets (id, user_id, wallet_address)
+            select gen_random_uuid(), id, '0.0.' || email from users;
+
+            insert into mints (id, user_id, wallet_id, amount_kes, status, processing_stage, processing_attempts,
+                               date_initiated, created_at, payment_reference)
+            select gen_random_uuid(), s.user_id, s.wallet_id, 1000 + x % 1000,
+                   (array['PENDING','CONFIRMED','MINTED','TRANSFERRED','FAILED'])[x % 5 + 1],
+                   case when x % 100 = 0 then 'ACCEPTED' else 'COMPLETED' end, 0,
+                   date '2025-01-01' - x % 1000, now() - x * interval '1 minute',
+                   case when x % 10 = 0 then 'pay-' || x end
+            from generate_series(1, 100000) x
+            join (select u.id as user_id, w.id as wallet_id, row_number() over (order by u.id) as n
+                  from users u join wallets w on w.user_id = u.id) s on s.n = x % 5000 + 1;
+
+            insert into kyc_documents (id, user_id, full_name, dob, document_type, document_number, submitted_at)
+            select gen_random_uuid(), id, 'Name', '1990-01-01', 'NATIONAL_ID', 'ID-' || email,
+                   now() - random() * interval '30 days'
+            from users;
+
+            insert into otps (id, email, otp_code, purpose, used, attempts, expiry_time, created_at)
+            select gen_random_uuid(), 'user' || (x % 5000 + 1) || '@example.com', '123456',
+                   case when x % 2 = 0 then 'EMAIL_VERIFICATION' else 'PASSWORD_RESET' end,
+                   x % 10 <> 0, 0, now() + interval '5 minutes' - x * interval '1 minute',
+                   now() - x * interval '1 minute'
+            from generate_series(1, 50000) x;
+
+            insert into refresh_tokens (id, user_id, token_hash, expiry_date, created_at)
+            select gen_random_uuid(), s.user_id, md5(x::text) || md5((x + 1)::text),
+                   now() + (x % 30 - 15) * interval '1 day', now() - x * interval '1 minute'
+            from generate_series(1, 50000) x
+            join (select id as user_id, row_number() over (order by id) as n from users) s on s.n = x % 5000 + 1;
+
+            insert into email_outbox (id, recipient, subject, html_body, type, status, attempts, next_attempt_at,
+                                      sent_at, created_at)
+            select gen_random_uuid(), 'user@example.com', 'Subject', 'Body', 'MINT_STATUS',
+                   case when x % 20 = 0 then 'PENDING' else 'SENT' end, 1, now() - x * interval '1 minute',
+                   case when x % 20 <> 0 then now() - x * interval '1 minute' end, now()
+            from generate_series(1, 50000) x;
+
+            analyze;
+            """;
+
+    @Autowired
+    private Flyway flyway;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private MintRepository mintRepository;
+    @Autowired
+    private KycDocumentRepository kycDocumentRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private WalletRepository walletRepository;
+    @Autowired
+    private OtpRepository otpRepository;
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<String> failures = new ArrayList<>();
+
+    @Test
+    void migrations_AreAppliedAndMatchTheEntities() {
+        // the context only starts when ddl-auto=validate accepts the migrated schema
+        assertEquals("7", flyway.info().current().getVersion().getVersion());
+        assertEquals(0, flyway.info().pending().length);
+    }
+
+    @Test
+    void hotQueries_DoNotScanWholeTables() throws Exception {
+        jdbcTemplate.execute(SEED);
+        User user = userRepository.findByEmail("user42@example.com").orElseThrow();
+        UUID someId = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now();
+        int limit = 21;
+
+        check("UserRepository.findByEmail",
+                () -> userRepository.findByEmail("user7@example.com"), "user7@example.com");
+        check("MintRepository.findAdminRows",
+                () -> mintRepository.findAdminRows(PageRequest.of(0, limit)), limit);
+        check("MintRepository.findAdminRowsByStatus",
+                () -> mintRepository.findAdminRowsByStatus(MintStatus.FAILED, PageRequest.of(0, limit)),
+                "FAILED", limit);
+        check("MintRepository.findAdminRowsAfter",
+                () -> mintRepository.findAdminRowsAfter(LocalDate.of(2023, 6, 1), someId, PageRequest.of(0, limit)),
+                LocalDate.of(2023, 6, 1), someId, limit);
+        check("MintRepository.findAdminRowsAfterByStatus",
+                () -> mintRepository.findAdminRowsAfterByStatus(MintStatus.FAILED, LocalDate.of(2023, 6, 1), someId,
+                        PageRequest.of(0, limit)),
+                "FAILED", LocalDate.of(2023, 6, 1), someId, limit);
+        check("MintRepository.findHistoryRowsFirst",
+                () -> mintRepository.findHistoryRowsFirst(user.getId(), LocalDate.EPOCH, LocalDate.of(9999, 12, 31),
+                        PageRequest.of(0, limit)),
+                user.getId(), LocalDate.EPOCH, LocalDate.of(9999, 12, 31), limit);
+        check("MintRepository.findHistoryRowsAfterByStatus",
+                () -> mintRepository.findHistoryRowsAfterByStatus(user.getId(), LocalDate.of(2023, 1, 1),
+                        LocalDate.of(2023, 12, 31), MintStatus.FAILED, LocalDate.of(2023, 6, 1), someId,
+                        PageRequest.of(0, limit)),
+                user.getId(), LocalDate.of(2023, 1, 1), LocalDate.of(2023, 12, 31), "FAILED",
+                LocalDate.of(2023, 6, 1), someId, limit);
+        check("MintRepository.findByUser",
+                () -> mintRepository.findByUser(user), user.getId());
+        check("MintRepository.findByUserIdAndId",
+                () -> mintRepository.findByUserIdAndId(user.getId(), someId), user.getId(), someId);
+        check("MintRepository.findByPaymentReference",
+                () -> mintRepository.findByPaymentReference("pay-500"), "pay-500");
+        check("MintRepository.findStalledIds",
+                () -> mintRepository.findStalledIds(
+                        List.of(MintProcessingStage.ACCEPTED, MintProcessingStage.TREASURY_REGISTERED),
+                        now.minusMinutes(2), 5, PageRequest.of(0, 100)),
+                "ACCEPTED", "TREASURY_REGISTERED", now.minusMinutes(2), 5, 100);
+        check("KycDocumentRepository.findByUserId",
+                () -> kycDocumentRepository.findByUserId(user.getId()), user.getId());
+        check("KycDocumentRepository.findSubmissionRowsAfter",
+                () -> kycDocumentRepository.findSubmissionRowsAfter(now.minusDays(10), someId, PageRequest.of(0, limit)),
+                now.minusDays(10), someId, limit);
+        check("WalletRepository.findByUser",
+                () -> walletRepository.findByUser(user), user.getId());
+        check("WalletRepository.findByWalletAddress",
+                () -> walletRepository.findByWalletAddress("0.0.user7@example.com"), "0.0.user7@example.com");
+        check("OtpRepository.findTopByEmailAndPurposeAndUsedFalseAndExpiryTimeAfterOrderByCreatedAtDesc",
+                () -> otpRepository.findTopByEmailAndPurposeAndUsedFalseAndExpiryTimeAfterOrderByCreatedAtDesc(
+                        "user7@example.com", OtpPurpose.PASSWORD_RESET, now),
+                "user7@example.com", "PASSWORD_RESET", now, 1);
+        check("RefreshTokenRepository.findByTokenHash",
+                () -> refreshTokenRepository.findByTokenHash("0".repeat(64)), "0".repeat(64));
+        check("RefreshTokenRepository.findIdsByUserNewestFirst",
+                () -> refreshTokenRepository.findIdsByUserNewestFirst(user), user.getId());
+        check("RefreshTokenRepository.findExpiredIds",
+                () -> refreshTokenRepository.findExpiredIds(now, PageRequest.of(0, 500)), now, 500);
+        check("EmailOutboxRepository.findDueForUpdate",
+                () -> emailOutboxRepository.findDueForUpdate(
+                        List.of(EmailOutboxStatus.PENDING, EmailOutboxStatus.SENDING), now, PageRequest.of(0, 50)),
+                "PENDING", "SENDING", now, 50);
+        check("EmailOutboxRepository.findSentIdsBefore",
+                () -> emailOutboxRepository.findSentIdsBefore(now.minusDays(30), PageRequest.of(0, 500)),
+                now.minusDays(30), 500);
+
+        assertTrue(failures.isEmpty(), String.join("\n", failures));
+    }
+
+    @Test
+    void statusPages_KeepTheirIndexUnderAGenericPlan() throws Exception {
+        // after five executions pgjdbc switches to a server-side prepared statement, and Postgres
+        // may then reuse one generic plan made without the parameter values
+        jdbcTemplate.execute(SEED);
+        jdbcTemplate.execute("SET LOCAL plan_cache_mode = force_generic_plan");
+        User user = userRepository.findByEmail("user42@example.com").orElseThrow();
+        UUID someId = UUID.randomUUID();
+        int limit = 21;
+
+        checkGeneric("MintRepository.findAdminRowsByStatus", "idx_mints_status_date_initiated_id",
+                () -> mintRepository.findAdminRowsByStatus(MintStatus.FAILED, PageRequest.of(0, limit)),
+                "FAILED", limit);
+        checkGeneric("MintRepository.findAdminRowsAfterByStatus", "idx_mints_status_date_initiated_id",
+                () -> mintRepository.findAdminRowsAfterByStatus(MintStatus.FAILED, LocalDate.of(2023, 6, 1), someId,
+                        PageRequest.of(0, limit)),
+                "FAILED", LocalDate.of(2023, 6, 1), someId, limit);
+        checkGeneric("MintRepository.findHistoryRowsAfterByStatus", "idx_mints_user_id_date_initiated_id",
+                () -> mintRepository.findHistoryRowsAfterByStatus(user.getId(), LocalDate.of(2023, 1, 1),
+                        LocalDate.of(2023, 12, 31), MintStatus.FAILED, LocalDate.of(2023, 6, 1), someId,
+                        PageRequest.of(0, limit)),
+                user.getId(), LocalDate.of(2023, 1, 1), LocalDate.of(2023, 12, 31), "FAILED",
+                LocalDate.of(2023, 6, 1), someId, limit);
+
+        assertTrue(failures.isEmpty(), String.join("\n", failures));
+    }
+
+    /**
+     * Runs the repository call to capture its SQL, then plans that SQL with {@code parameters}
+     * bound in order, as the driver would send them.
+     */
+    private void check(String method, Runnable call, Object... parameters) throws Exception {
+        String sql = capture(method, call);
+
+        String plan = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + sql, String.class, parameters);
+        List<String> scanned = new ArrayList<>();
+        collectSequentialScans(objectMapper.readTree(plan).get(0).get("Plan"), scanned);
+        if (!scanned.isEmpty()) {
+            failures.add(method + " scans " + scanned + "\n    " + sql + "\n    " + plan);
+        }
+    }
+
+    /**
+     * Plans the repository call's SQL as a prepared statement under the session's plan cache mode,
+     * so a generic plan cannot rely on the parameter values, and requires it to read {@code index}.
+     * EXPLAIN with bound values, as {@link #check} does, always gets a custom plan.
+     */
+    private void checkGeneric(String method, String index, Runnable call, Object... parameters) throws Exception {
+        String sql = capture(method, call);
+        StringBuilder numbered = new StringBuilder();
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+        String placeholders = String.join(", ", Collections.nCopies(parameters.length, "?"));
+
+        jdbcTemplate.execute("PREPARE generic_plan_check AS " + numbered);
+        String plan;
+        try {
+            plan = jdbcTemplate.queryForObject(
+                    "EXPLAIN (FORMAT JSON) EXECUTE generic_plan_check(" + placeholders + ")", String.class, parameters);
+        } finally {
+            jdbcTemplate.execute("DEALLOCATE generic_plan_check");
+        }
+        JsonNode root = objectMapper.readTree(plan).get(0).get("Plan");
+        List<String> scanned = new ArrayList<>();
+        collectSequentialScans(root, scanned);
+        List<String> indexes = new ArrayList<>();
+        collectIndexes(root, indexes);
+        if (!scanned.isEmpty() || !indexes.contains(index)) {
+            failures.add(method + " (generic plan) scans " + scanned + " and reads " + indexes + ", expected "
+                    + index + "\n    " + sql + "\n    " + plan);
+        }
+    }
+
+    private String capture(String method, Runnable call) {
+        RecordingStatementInspector.drain();
+        call.run();
+        List<String> statements = RecordingStatementInspector.drain();
+        assertEquals(1, statements.size(), method + " ran " + statements);
+        return statements.get(0);
+    }
+
+    private static void collectSequentialScans(JsonNode node, List<String> scanned) {
+        if ("Seq Scan".equals(node.path("Node Type").asText())) {
+            scanned.add(node.path("Relation Name").asText());
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collectSequentialScans(child, scanned);
+        }
+    }
+
+    private static void collectIndexes(JsonNode node, List<String> indexes) {
+        if (node.has("Index Name")) {
+            indexes.add(node.path("Index Name").asText());
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collectIndexes(child, indexes);
+        }
+    }
+}
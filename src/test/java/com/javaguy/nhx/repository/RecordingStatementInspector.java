@@ -0,0 +1,31 @@
+package com.javaguy.nhx.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the SQL Hibernate sends, so a test can look at what a repository method actually ran.
+ * Registered by class name through {@code hibernate.session_factory.statement_inspector}.
+ */
+public class RecordingStatementInspector implements StatementInspector {
+
+    private static final List<String> RECORDED = new ArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        synchronized (RECORDED) {
+            RECORDED.add(sql);
+        }
+        return sql;
+    }
+
+    public static List<String> drain() {
+        synchronized (RECORDED) {
+            List<String> recorded = List.copyOf(RECORDED);
+            RECORDED.clear();
+            return recorded;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.javaguy.nhx.repository;
+
+import com.javaguy.nhx.model.entity.RefreshToken;
+import com.javaguy.nhx.model.entity.User;
+import com.javaguy.nhx.util.TokenDigest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class RefreshTokenRepositoryTest {
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = User.builder()
+                .email("tokens@example.com")
+                .passwordHash("hash")
+                .build();
+        entityManager.persist(user);
+    }
+
+    private RefreshToken persistToken(String token, LocalDateTime expiryDate, LocalDateTime createdAt) {
+        RefreshToken refreshToken = RefreshToken.builder()
+                .user(user)
+                .tokenHash(TokenDigest.sha256Hex(token))
+                .expiryDate(expiryDate)
+                .createdAt(createdAt)
+                .build();
+        return entityManager.persist(refreshToken);
+    }
+
+    @Test
+    void findByTokenHash_ReturnsMatchingToken() {
+        RefreshToken saved = persistToken("token-a", LocalDateTime.now().plusDays(1), LocalDateTime.now());
+        entityManager.flush();
+
+        assertEquals(saved.getId(),
+                refreshTokenRepository.findByTokenHash(TokenDigest.sha256Hex("token-a")).orElseThrow().getId());
+        assertTrue(refreshTokenRepository.findByTokenHash(TokenDigest.sha256Hex("token-b")).isEmpty());
+    }
+
+    @Test
+    void findExpiredIds_ReturnsOnlyExpiredWithinPageSize() {
+        LocalDateTime now = LocalDateTime.now();
+        RefreshToken oldest = persistToken("expired-1", now.minusDays(3), now.minusDays(10));
+        RefreshToken older = persistToken("expired-2", now.minusDays(2), now.minusDays(9));
+        persistToken("expired-3", now.minusDays(1), now.minusDays(8));
+        persistToken("live", now.plusDays(1), now);
+        entityManager.flush();
+
+        List<UUID> ids = refreshTokenRepository.findExpiredIds(now, PageRequest.of(0, 2));
+
+        assertEquals(List.of(oldest.getId(), older.getId()), ids);
+    }
+
+    @Test
+    void deleteByIdIn_DeletesOnlyGivenRows() {
+        LocalDateTime now = LocalDateTime.now();
+        RefreshToken expired = persistToken("expired", now.minusDays(1), now.minusDays(8));
+        RefreshToken live = persistToken("live", now.plusDays(1), now);
+        entityManager.flush();
+
+        int deleted = refreshTokenRepository.deleteByIdIn(List.of(expired.getId()));
+        entityManager.clear();
+
+        assertEquals(1, deleted);
+        assertEquals(1, refreshTokenRepository.count());
+        assertTrue(refreshTokenRepository.existsById(live.getId()));
+    }
+
+    @Test
+    void findIdsByUserNewestFirst_OrdersByCreatedAtDescending() {
+        LocalDateTime now = LocalDateTime.now();
+        RefreshToken first = persistToken("first", now.plusDays(1), now.minusHours(2));
+        RefreshToken second = persistToken("second", now.plusDays(1), now.minusHours(1));
+        entityManager.flush();
+
+        assertEquals(List.of(second.getId(), first.getId()), refreshTokenRepository.findIdsByUserNewestFirst(user));
+    }
+}
@@ -0,0 +1,46 @@
+package com.javaguy.nhx.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuthoritiesVersionRegistryTest {
+
+    private final AuthoritiesVersionRegistry registry = new AuthoritiesVersionRegistry();
+    private final UUID userId = UUID.randomUUID();
+
+    @Test
+    void isStale_FalseForUntouchedUser() {
+        assertFalse(registry.isStale(userId, 1_000L));
+    }
+
+    @Test
+    void isStale_TrueForTokensIssuedBeforeOrAtChange() {
+        registry.markChanged(userId, 2_000L);
+
+        assertTrue(registry.isStale(userId, 1_000L));
+        assertTrue(registry.isStale(userId, 2_000L));
+        assertFalse(registry.isStale(userId, 2_001L));
+    }
+
+    @Test
+    void markChanged_KeepsLatestVersion() {
+        registry.markChanged(userId, 5_000L);
+        registry.markChanged(userId, 3_000L);
+
+        assertTrue(registry.isStale(userId, 4_000L));
+    }
+
+    @Test
+    void purgeOlderThan_DropsChangesNoLiveTokenCanPredate() {
+        registry.markChanged(userId, 1_000L);
+        registry.markChanged(UUID.randomUUID(), 9_000L);
+
+        registry.purgeOlderThan(5_000L);
+
+        assertEquals(1, registry.size());
+        assertFalse(registry.isStale(userId, 500L));
+    }
+}
@@ -0,0 +1,102 @@
+package com.javaguy.nhx.security;
+
+import com.javaguy.nhx.exception.custom.ServiceUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedBCryptPasswordEncoderTest {
+
+    private BoundedBCryptPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        if (encoder != null) {
+            encoder.close();
+        }
+    }
+
+    @Test
+    void encode_ProducesHashThatMatches() {
+        encoder = new BoundedBCryptPasswordEncoder(4, 2, 4, Duration.ofSeconds(5));
+
+        String hash = encoder.encode("password123");
+
+        assertTrue(hash.startsWith("$2a$04$"));
+        assertTrue(encoder.matches("password123", hash));
+        assertFalse(encoder.matches("wrongPassword", hash));
+    }
+
+    @Test
+    void matches_RejectsWithServiceUnavailableWhenPoolIsFull() throws Exception {
+        encoder = new BoundedBCryptPasswordEncoder(4, 1, 0, Duration.ofSeconds(5));
+        String hash = encoder.encode("password123");
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CharSequence blockingPassword = new CharSequence() {
+            @Override
+            public int length() {
+                return "password123".length();
+            }
+
+            @Override
+            public char charAt(int index) {
+                return "password123".charAt(index);
+            }
+
+            @Override
+            public CharSequence subSequence(int start, int end) {
+                return "password123".subSequence(start, end);
+            }
+
+            @Override
+            public String toString() {
+                // BCrypt reads the raw password via toString(); hold the only hashing thread here
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "password123";
+            }
+        };
+
+        CompletableFuture<Boolean> inFlight = CompletableFuture.supplyAsync(() -> encoder.matches(blockingPassword, hash));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertThrows(ServiceUnavailableException.class, () -> encoder.matches("password123", hash));
+
+        release.countDown();
+        assertTrue(inFlight.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void upgradeEncoding_TrueForHashWithLowerCost() {
+        encoder = new BoundedBCryptPasswordEncoder(5, 1, 1, Duration.ofSeconds(5));
+
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("password123")));
+        assertFalse(encoder.upgradeEncoding(encoder.encode("password123")));
+    }
+
+    @Test
+    void calibrateStrength_NeverGoesBelowMinimum() {
+        assertEquals(6, BoundedBCryptPasswordEncoder.calibrateStrength(6, Duration.ofNanos(1)));
+        assertTrue(BoundedBCryptPasswordEncoder.calibrateStrength(4, Duration.ofMillis(20)) >= 4);
+    }
+
+    @Test
+    void defaultPoolSize_LeavesHalfTheCoresForOtherWork() {
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        assertEquals(Math.max(1, cores / 2), BoundedBCryptPasswordEncoder.defaultPoolSize());
+    }
+}
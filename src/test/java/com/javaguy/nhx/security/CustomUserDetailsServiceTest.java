@@ -23,6 +23,9 @@ public class CustomUserDetailsServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserPrincipalCache userPrincipalCache;
+
     @InjectMocks
     private CustomUserDetailsService customUserDetailsService;
 
@@ -74,6 +77,18 @@ public class CustomUserDetailsServiceTest {
         assertEquals(testUserId, userPrincipal.getId());
         assertEquals(testEmail, userPrincipal.getEmail());
         verify(userRepository).findById(testUserId);
+        verify(userPrincipalCache).put(userPrincipal, 0L);
+    }
+
+    @Test
+    void testLoadUserById_CacheHitSkipsRepository() {
+        UserPrincipal cached = UserPrincipal.create(testUser);
+        when(userPrincipalCache.get(testUserId)).thenReturn(cached);
+
+        UserPrincipal userPrincipal = customUserDetailsService.loadUserById(testUserId);
+
+        assertSame(cached, userPrincipal);
+        verify(userRepository, never()).findById(any());
     }
 
     @Test
@@ -125,4 +140,16 @@ public class CustomUserDetailsServiceTest {
         assertThrows(UsernameNotFoundException.class,
                 () -> customUserDetailsService.loadUserByUsername(null));
     }
+
+    @Test
+    void testUpdatePassword_StoresNewHashAndEvictsCachedPrincipal() {
+        when(userRepository.findByEmail(testEmail)).thenReturn(Optional.of(testUser));
+
+        UserPrincipal updated = customUserDetailsService.updatePassword(UserPrincipal.create(testUser), "rehashedPassword");
+
+        assertEquals("rehashedPassword", testUser.getPasswordHash());
+        assertEquals("rehashedPassword", updated.getPassword());
+        verify(userRepository).save(testUser);
+        verify(userPrincipalCache).evict(testUserId);
+    }
 }
@@ -12,8 +12,10 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -141,6 +143,37 @@ public class JwtAuthenticationFilterTest {
         verify(jwtTokenProvider).getUserIdFromJWT(token);
     }
 
+    @Test
+    void testDoFilterInternal_StatelessMode_UsesTokenClaims() throws ServletException, IOException {
+        ReflectionTestUtils.setField(jwtAuthenticationFilter, "statelessAuthEnabled", true);
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + validToken);
+        when(jwtTokenProvider.validateToken(validToken)).thenReturn(true);
+        UserPrincipal userPrincipal = new UserPrincipal(testUserId, "test@example.com", null, List.of());
+        when(jwtTokenProvider.getPrincipalFromClaims(validToken)).thenReturn(userPrincipal);
+
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        verify(customUserDetailsService, never()).loadUserById(any());
+        assertSame(userPrincipal, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+        verify(filterChain).doFilter(request, response);
+    }
+
+    @Test
+    void testDoFilterInternal_StatelessMode_FallsBackToDatabaseForChangedUser() throws ServletException, IOException {
+        ReflectionTestUtils.setField(jwtAuthenticationFilter, "statelessAuthEnabled", true);
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + validToken);
+        when(jwtTokenProvider.validateToken(validToken)).thenReturn(true);
+        when(jwtTokenProvider.getPrincipalFromClaims(validToken)).thenReturn(null);
+        when(jwtTokenProvider.getUserIdFromJWT(validToken)).thenReturn(testUserId);
+        UserPrincipal userPrincipal = new UserPrincipal(testUserId, "test@example.com", "password", List.of());
+        when(customUserDetailsService.loadUserById(testUserId)).thenReturn(userPrincipal);
+
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        verify(customUserDetailsService).loadUserById(testUserId);
+        assertSame(userPrincipal, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+    }
+
     @Test
     void testDoFilterInternal_MissingBearerPrefix() throws ServletException, IOException {
         when(request.getHeader("Authorization")).thenReturn(validToken);
@@ -0,0 +1,102 @@
+package com.javaguy.nhx.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtClaimsCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+
+    private Claims claimsExpiringAt(long expiresAt) {
+        return Jwts.claims().setSubject("user").setExpiration(new Date(expiresAt));
+    }
+
+    @Test
+    void get_ReturnsCachedClaimsBeforeExpiry() {
+        JwtClaimsCache cache = new JwtClaimsCache(10, now::get);
+        Claims claims = claimsExpiringAt(now.get() + 5_000);
+
+        cache.put("token", claims);
+
+        assertSame(claims, cache.get("token"));
+        assertNull(cache.get("other-token"));
+    }
+
+    @Test
+    void get_DropsEntryOnceTokenHasExpired() {
+        JwtClaimsCache cache = new JwtClaimsCache(10, now::get);
+        cache.put("token", claimsExpiringAt(now.get() + 5_000));
+
+        now.addAndGet(5_000);
+
+        assertNull(cache.get("token"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void put_IgnoresClaimsWithoutExpiry() {
+        JwtClaimsCache cache = new JwtClaimsCache(10, now::get);
+
+        cache.put("token", Jwts.claims().setSubject("user"));
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void put_EvictsExpiredEntriesWhenFull() {
+        JwtClaimsCache cache = new JwtClaimsCache(2, now::get);
+        cache.put("a", claimsExpiringAt(now.get() + 1_000));
+        cache.put("b", claimsExpiringAt(now.get() + 10_000));
+
+        now.addAndGet(2_000);
+        cache.put("c", claimsExpiringAt(now.get() + 10_000));
+
+        assertNull(cache.get("a"));
+        assertNotNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+    }
+
+    @Test
+    void put_WhenFullOfLiveEntries_EvictsTheOneClosestToExpiry() {
+        JwtClaimsCache cache = new JwtClaimsCache(2, now::get);
+        cache.put("a", claimsExpiringAt(now.get() + 20_000));
+        cache.put("b", claimsExpiringAt(now.get() + 10_000));
+
+        cache.put("c", claimsExpiringAt(now.get() + 30_000));
+
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+    }
+
+    @Test
+    void key_IsTheTokenDigest() {
+        assertEquals(64, JwtClaimsCache.key("token").length());
+        assertEquals(JwtClaimsCache.key("token"), JwtClaimsCache.key("token"));
+        assertNotEquals(JwtClaimsCache.key("token"), JwtClaimsCache.key("other-token"));
+    }
+
+    @Test
+    void disabledCache_NeverStoresClaims() {
+        JwtClaimsCache cache = new JwtClaimsCache(0, now::get);
+        cache.put("token", claimsExpiringAt(now.get() + 5_000));
+
+        assertNull(cache.get("token"));
+    }
+
+    @Test
+    void invalidate_RemovesEntry() {
+        JwtClaimsCache cache = new JwtClaimsCache(10, now::get);
+        cache.put("token", claimsExpiringAt(now.get() + 5_000));
+
+        cache.invalidate("token");
+
+        assertNull(cache.get("token"));
+    }
+}
@@ -1,6 +1,8 @@
 package com.javaguy.nhx.security;
 
 import com.javaguy.nhx.config.JwtConfig;
+import com.javaguy.nhx.model.entity.User;
+import com.javaguy.nhx.model.enums.UserRole;
 import io.jsonwebtoken.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -183,6 +185,63 @@ public class JwtTokenProviderTest {
         assertFalse(jwtTokenProvider.validateToken(emptyToken));
     }
 
+    @Test
+    void testParseClaims_CachedTokenStillResolvesUserId() {
+        when(jwtConfig.getClaimsCacheMaxSize()).thenReturn(100);
+        jwtTokenProvider.init();
+
+        String token = jwtTokenProvider.generateToken(testUserId);
+
+        assertTrue(jwtTokenProvider.validateToken(token));
+        assertSame(jwtTokenProvider.parseClaims(token), jwtTokenProvider.parseClaims(token));
+        assertEquals(testUserId, jwtTokenProvider.getUserIdFromJWT(token));
+    }
+
+    @Test
+    void testParseClaims_TamperedTokenIsRejectedWhenCacheEnabled() {
+        when(jwtConfig.getClaimsCacheMaxSize()).thenReturn(100);
+        jwtTokenProvider.init();
+
+        String token = jwtTokenProvider.generateToken(testUserId);
+        assertTrue(jwtTokenProvider.validateToken(token));
+
+        int signatureStart = token.lastIndexOf('.') + 1;
+        char replacement = token.charAt(signatureStart) == 'A' ? 'B' : 'A';
+        String tampered = token.substring(0, signatureStart) + replacement + token.substring(signatureStart + 1);
+        assertFalse(jwtTokenProvider.validateToken(tampered));
+    }
+
+    @Test
+    void testGetPrincipalFromClaims_BuildsPrincipalWithoutLookup() {
+        User user = User.builder().id(testUserId).email("admin@example.com").role(UserRole.ADMIN).build();
+
+        String token = jwtTokenProvider.generateToken(user);
+        UserPrincipal principal = jwtTokenProvider.getPrincipalFromClaims(token);
+
+        assertNotNull(principal);
+        assertEquals(testUserId, principal.getId());
+        assertEquals("admin@example.com", principal.getEmail());
+        assertTrue(principal.getAuthorities().stream()
+                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN")));
+    }
+
+    @Test
+    void testGetPrincipalFromClaims_SubjectOnlyTokenReturnsNull() {
+        String token = jwtTokenProvider.generateToken(testUserId);
+
+        assertNull(jwtTokenProvider.getPrincipalFromClaims(token));
+    }
+
+    @Test
+    void testGetPrincipalFromClaims_ChangedUserReturnsNull() {
+        User user = User.builder().id(testUserId).email("user@example.com").role(UserRole.INSTITUTIONAL_USER).build();
+        String token = jwtTokenProvider.generateToken(user);
+
+        jwtTokenProvider.markAuthoritiesChanged(testUserId);
+
+        assertNull(jwtTokenProvider.getPrincipalFromClaims(token));
+    }
+
     @Test
     void testGetUserIdFromJWT_InvalidToken() {
         String invalidToken = "invalid.token.format";
@@ -0,0 +1,122 @@
+package com.javaguy.nhx.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserPrincipalCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private UserPrincipalCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new UserPrincipalCache(Duration.ofSeconds(60), 2, now::get);
+    }
+
+    private void put(UserPrincipal principal) {
+        cache.put(principal, cache.generation(principal.getId()));
+    }
+
+    private UserPrincipal principal() {
+        return new UserPrincipal(UUID.randomUUID(), "user@example.com", "hash", List.of());
+    }
+
+    @Test
+    void get_ReturnsCachedPrincipalWithinTtl() {
+        UserPrincipal principal = principal();
+        put(principal);
+
+        now.addAndGet(59_000);
+
+        assertSame(principal, cache.get(principal.getId()));
+    }
+
+    @Test
+    void get_ExpiresPrincipalAfterTtl() {
+        UserPrincipal principal = principal();
+        put(principal);
+
+        now.addAndGet(60_000);
+
+        assertNull(cache.get(principal.getId()));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void evict_RemovesPrincipal() {
+        UserPrincipal principal = principal();
+        put(principal);
+
+        cache.evict(principal.getId());
+
+        assertNull(cache.get(principal.getId()));
+    }
+
+    @Test
+    void put_StaysWithinMaxSize() {
+        put(principal());
+        put(principal());
+        put(principal());
+
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void bindTo_PublishesHitMissAndEvictionCounts() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        UserPrincipal principal = principal();
+        cache.get(principal.getId());
+        put(principal);
+        cache.get(principal.getId());
+        cache.evict(principal.getId());
+
+        assertEquals(1.0, registry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("result", "miss").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.evictions").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.puts").functionCounter().count());
+    }
+
+    @Test
+    void put_AfterAnEvictionSinceTheLoadStarted_IsDropped() {
+        UserPrincipal stale = principal();
+        long generation = cache.generation(stale.getId());
+
+        // the user changes while the loader is reading the old row
+        cache.evict(stale.getId());
+        cache.put(stale, generation);
+
+        assertNull(cache.get(stale.getId()));
+        put(stale);
+        assertSame(stale, cache.get(stale.getId()));
+    }
+
+    @Test
+    void evict_InsideATransaction_EvictsAgainAfterCommit() {
+        UserPrincipal principal = principal();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.evict(principal.getId());
+            // a concurrent request reloads the pre-commit row after the first eviction
+            put(principal);
+            assertSame(principal, cache.get(principal.getId()));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+            assertNull(cache.get(principal.getId()));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
@@ -1,31 +1,43 @@
 package com.javaguy.nhx.service.admin;
 
+import com.javaguy.nhx.exception.custom.BadRequestException;
+import com.javaguy.nhx.exception.custom.RangeNotSatisfiableException;
 import com.javaguy.nhx.exception.custom.ResourceNotFoundException;
 import com.javaguy.nhx.model.dto.request.UpdateKycStatusRequest;
 import com.javaguy.nhx.model.dto.request.UpdateMintStatusRequest;
+import com.javaguy.nhx.model.dto.response.MintAdminResponse;
 import com.javaguy.nhx.model.entity.KycDocument;
 import com.javaguy.nhx.model.entity.Mint;
 import com.javaguy.nhx.model.entity.User;
 import com.javaguy.nhx.model.entity.Wallet;
 import com.javaguy.nhx.model.enums.KycStatus;
+import com.javaguy.nhx.model.enums.MintProcessingStage;
 import com.javaguy.nhx.model.enums.MintStatus;
 import com.javaguy.nhx.repository.KycDocumentRepository;
 import com.javaguy.nhx.repository.MintRepository;
 import com.javaguy.nhx.repository.UserRepository;
+import com.javaguy.nhx.repository.projection.KycSubmissionRow;
+import com.javaguy.nhx.repository.projection.MintAdminRow;
 import com.javaguy.nhx.service.email.NotificationService;
+import com.javaguy.nhx.service.storage.DocumentStorageService;
+import com.javaguy.nhx.service.storage.DocumentStream;
+import com.javaguy.nhx.service.storage.DocumentUrlSigner;
+import com.javaguy.nhx.util.PageCursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpRange;
 
+import java.io.ByteArrayInputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -44,6 +56,10 @@ class AdminServiceTest {
     private MintRepository mintRepository;
     @Mock
     private NotificationService notificationService;
+    @Mock
+    private DocumentStorageService storageService;
+    @Mock
+    private DocumentUrlSigner documentUrlSigner;
 
     @InjectMocks
     private AdminService adminService;
@@ -85,30 +101,76 @@ class AdminServiceTest {
 
     @Test
     void getAllKycSubmissions_NoStatus_ReturnsAll() {
-        when(kycDocumentRepository.findAll(any(Pageable.class)))
-                .thenReturn(new PageImpl<>(Collections.singletonList(kycDocument)));
+        when(kycDocumentRepository.findSubmissionRows(any(Pageable.class)))
+                .thenReturn(List.of(kycRow(null)));
 
         var result = adminService.getAllKycSubmissions(null, 0, 10);
 
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
         assertEquals(kycId, result.getContent().get(0).getKycId());
-        verify(kycDocumentRepository, times(1)).findAll(any(Pageable.class));
-        verify(kycDocumentRepository, never()).findByUser_KycStatus(any(), any());
+        assertEquals("test@example.com", result.getContent().get(0).getUserEmail());
+        verify(kycDocumentRepository, times(1)).findSubmissionRows(any(Pageable.class));
+        verify(kycDocumentRepository, never()).findSubmissionRowsByStatus(any(), any());
+    }
+
+    @Test
+    void getAllKycSubmissions_ShortPage_DoesNotCount() {
+        when(kycDocumentRepository.findSubmissionRows(PageRequest.of(3, 10))).thenReturn(List.of(kycRow(null)));
+
+        var result = adminService.getAllKycSubmissions(null, 3, 10);
+
+        assertEquals(31, result.getTotalElements());
+        verify(kycDocumentRepository, never()).count();
+    }
+
+    @Test
+    void getAllKycSubmissions_FullPage_CountsSeparately() {
+        when(kycDocumentRepository.findSubmissionRows(PageRequest.of(2, 1))).thenReturn(List.of(kycRow(null)));
+        when(kycDocumentRepository.count()).thenReturn(57L);
+
+        var result = adminService.getAllKycSubmissions(null, 2, 1);
+
+        assertEquals(57, result.getTotalElements());
+    }
+
+    @Test
+    void getAllKycSubmissions_EmptyPagePastTheEnd_CountsSeparately() {
+        when(kycDocumentRepository.findSubmissionRowsByStatus(KycStatus.PENDING, PageRequest.of(5, 10)))
+                .thenReturn(List.of());
+        when(kycDocumentRepository.countByUser_KycStatus(KycStatus.PENDING)).thenReturn(12L);
+
+        var result = adminService.getAllKycSubmissions(KycStatus.PENDING, 5, 10);
+
+        assertTrue(result.getContent().isEmpty());
+        assertEquals(12, result.getTotalElements());
+    }
+
+    @Test
+    void getAllKycSubmissions_ReturnsSignedDocumentUrls() {
+        when(kycDocumentRepository.findSubmissionRows(any(Pageable.class)))
+                .thenReturn(List.of(kycRow("https://account.blob.core.windows.net/kyc/front.png")));
+        when(documentUrlSigner.sign("https://account.blob.core.windows.net/kyc/front.png"))
+                .thenReturn("https://account.blob.core.windows.net/kyc/front.png?sig=abc");
+
+        var response = adminService.getAllKycSubmissions(null, 0, 10).getContent().get(0);
+
+        assertEquals("https://account.blob.core.windows.net/kyc/front.png?sig=abc", response.getDocumentFrontUrl());
+        assertNull(response.getDocumentBackUrl());
     }
 
     @Test
     void getAllKycSubmissions_WithStatus_ReturnsFiltered() {
-        when(kycDocumentRepository.findByUser_KycStatus(eq(KycStatus.PENDING), any(Pageable.class)))
-                .thenReturn(new PageImpl<>(Collections.singletonList(kycDocument)));
+        when(kycDocumentRepository.findSubmissionRowsByStatus(eq(KycStatus.PENDING), any(Pageable.class)))
+                .thenReturn(List.of(kycRow(null)));
 
         var result = adminService.getAllKycSubmissions(KycStatus.PENDING, 0, 10);
 
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
         assertEquals(kycId, result.getContent().get(0).getKycId());
-        verify(kycDocumentRepository, times(1)).findByUser_KycStatus(eq(KycStatus.PENDING), any(Pageable.class));
-        verify(kycDocumentRepository, never()).findAll(any(Pageable.class));
+        verify(kycDocumentRepository, times(1)).findSubmissionRowsByStatus(eq(KycStatus.PENDING), any(Pageable.class));
+        verify(kycDocumentRepository, never()).findSubmissionRows(any(Pageable.class));
     }
 
     @Test
@@ -116,7 +178,7 @@ class AdminServiceTest {
         UpdateKycStatusRequest request = new UpdateKycStatusRequest();
         request.setStatus(KycStatus.VERIFIED);
 
-        when(kycDocumentRepository.findById(kycId)).thenReturn(Optional.of(kycDocument));
+        when(kycDocumentRepository.findWithUserById(kycId)).thenReturn(Optional.of(kycDocument));
         when(userRepository.save(any(User.class))).thenReturn(user);
         doNothing().when(notificationService).notifyUserOnKycStatusChange(any(), any(), any());
 
@@ -132,7 +194,7 @@ class AdminServiceTest {
         UpdateKycStatusRequest request = new UpdateKycStatusRequest();
         request.setStatus(KycStatus.VERIFIED);
 
-        when(kycDocumentRepository.findById(kycId)).thenReturn(Optional.empty());
+        when(kycDocumentRepository.findWithUserById(kycId)).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> adminService.updateKycStatus(kycId, request));
 
@@ -140,32 +202,151 @@ class AdminServiceTest {
         verify(notificationService, never()).notifyUserOnKycStatusChange(any(), any(), any());
     }
 
+    @Test
+    void openKycDocument_BackWithRange_OpensStoredReference() {
+        kycDocument.setDocumentBackPath("/var/nhx/kyc/back.png");
+        DocumentStream stream = new DocumentStream(new ByteArrayInputStream(new byte[10]), "image/png", 0, 10, 100);
+        when(kycDocumentRepository.findById(kycId)).thenReturn(Optional.of(kycDocument));
+        when(storageService.open("/var/nhx/kyc/back.png", HttpRange.parseRanges("bytes=0-9"))).thenReturn(stream);
+
+        assertSame(stream, adminService.openKycDocument(kycId, "BACK", "bytes=0-9"));
+    }
+
+    @Test
+    void openKycDocument_UnknownSide_ThrowsBadRequestException() {
+        when(kycDocumentRepository.findById(kycId)).thenReturn(Optional.of(kycDocument));
+
+        assertThrows(BadRequestException.class, () -> adminService.openKycDocument(kycId, "selfie", null));
+        verifyNoInteractions(storageService);
+    }
+
+    @Test
+    void openKycDocument_NoDocumentForSide_ThrowsResourceNotFoundException() {
+        when(kycDocumentRepository.findById(kycId)).thenReturn(Optional.of(kycDocument));
+
+        assertThrows(ResourceNotFoundException.class, () -> adminService.openKycDocument(kycId, "front", null));
+        verifyNoInteractions(storageService);
+    }
+
+    @Test
+    void openKycDocument_MalformedRange_ThrowsRangeNotSatisfiableException() {
+        kycDocument.setDocumentFrontPath("/var/nhx/kyc/front.png");
+        when(kycDocumentRepository.findById(kycId)).thenReturn(Optional.of(kycDocument));
+
+        assertThrows(RangeNotSatisfiableException.class,
+                () -> adminService.openKycDocument(kycId, "front", "pages=1-2"));
+    }
+
     @Test
     void getAllMints_NoStatus_ReturnsAll() {
-        when(mintRepository.findAll(any(Pageable.class)))
-                .thenReturn(new PageImpl<>(Collections.singletonList(mint)));
+        when(mintRepository.findAdminRows(any(Pageable.class)))
+                .thenReturn(List.of(mintRow()));
 
         var result = adminService.getAllMints(null, 0, 10);
 
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
         assertEquals(mintId, result.getContent().get(0).getRequestId());
-        verify(mintRepository, times(1)).findAll(any(Pageable.class));
-        verify(mintRepository, never()).findByStatus(any(), any());
+        assertEquals(wallet.getWalletAddress(), result.getContent().get(0).getWalletAddress());
+        verify(mintRepository, times(1)).findAdminRows(any(Pageable.class));
+        verify(mintRepository, never()).findAdminRowsByStatus(any(), any());
     }
 
     @Test
     void getAllMints_WithStatus_ReturnsFiltered() {
-        when(mintRepository.findByStatus(eq(MintStatus.PENDING), any(Pageable.class)))
-                .thenReturn(new PageImpl<>(Collections.singletonList(mint)));
+        when(mintRepository.findAdminRowsByStatus(eq(MintStatus.PENDING), any(Pageable.class)))
+                .thenReturn(List.of(mintRow()));
 
         var result = adminService.getAllMints(MintStatus.PENDING, 0, 10);
 
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
         assertEquals(mintId, result.getContent().get(0).getRequestId());
-        verify(mintRepository, times(1)).findByStatus(eq(MintStatus.PENDING), any(Pageable.class));
-        verify(mintRepository, never()).findAll(any(Pageable.class));
+        verify(mintRepository, times(1)).findAdminRowsByStatus(eq(MintStatus.PENDING), any(Pageable.class));
+        verify(mintRepository, never()).findAdminRows(any(Pageable.class));
+    }
+
+    @Test
+    void getMintsByCursor_FollowsNextCursorWithoutCounting() {
+        LocalDate today = LocalDate.now();
+        MintAdminRow first = mintRow(UUID.randomUUID(), today);
+        MintAdminRow second = mintRow(UUID.randomUUID(), today.minusDays(1));
+        MintAdminRow third = mintRow(UUID.randomUUID(), today.minusDays(2));
+        when(mintRepository.findAdminRows(PageRequest.of(0, 3))).thenReturn(List.of(first, second, third));
+        when(mintRepository.findAdminRowsAfter(second.dateInitiated(), second.requestId(), PageRequest.of(0, 3)))
+                .thenReturn(List.of(third));
+
+        var page = adminService.getMintsByCursor(null, null, 2);
+
+        assertEquals(List.of(first.requestId(), second.requestId()),
+                page.getContent().stream().map(MintAdminResponse::getRequestId).toList());
+        assertTrue(page.isHasNext());
+        assertNotNull(page.getNextCursor());
+
+        var next = adminService.getMintsByCursor(null, page.getNextCursor(), 2);
+
+        assertEquals(third.requestId(), next.getContent().get(0).getRequestId());
+        assertFalse(next.isHasNext());
+        assertNull(next.getNextCursor());
+        verify(mintRepository, never()).count();
+    }
+
+    @Test
+    void getMintsByCursor_WithStatus_UsesFilteredQueries() {
+        MintAdminRow first = mintRow(UUID.randomUUID(), LocalDate.now());
+        MintAdminRow second = mintRow(UUID.randomUUID(), LocalDate.now());
+        when(mintRepository.findAdminRowsByStatus(MintStatus.PENDING, PageRequest.of(0, 2)))
+                .thenReturn(List.of(first, second));
+
+        var page = adminService.getMintsByCursor(MintStatus.PENDING, null, 1);
+        adminService.getMintsByCursor(MintStatus.PENDING, page.getNextCursor(), 1);
+
+        verify(mintRepository).findAdminRowsAfterByStatus(MintStatus.PENDING, first.dateInitiated(),
+                first.requestId(), PageRequest.of(0, 2));
+    }
+
+    @Test
+    void getMintsByCursor_CapsPageSize() {
+        adminService.getMintsByCursor(null, null, 10_000);
+
+        verify(mintRepository).findAdminRows(PageRequest.of(0, 101));
+    }
+
+    @Test
+    void getMintsByCursor_InvalidCursor_ThrowsBadRequest() {
+        assertThrows(BadRequestException.class, () -> adminService.getMintsByCursor(null, "not a cursor", 20));
+        assertThrows(BadRequestException.class, () -> adminService.getMintsByCursor(null,
+                PageCursor.encode("mint", "yesterday", UUID.randomUUID()), 20));
+        assertThrows(BadRequestException.class, () -> adminService.getMintsByCursor(null, null, 0));
+        verifyNoInteractions(mintRepository);
+    }
+
+    @Test
+    void getMintsByCursor_KycCursor_ThrowsBadRequest() {
+        String kycCursor = PageCursor.encode("kyc", LocalDateTime.now(), UUID.randomUUID());
+
+        assertThrows(BadRequestException.class, () -> adminService.getMintsByCursor(null, kycCursor, 20));
+    }
+
+    @Test
+    void getKycSubmissionsByCursor_FollowsNextCursor() {
+        KycSubmissionRow newest = kycRow(null);
+        KycSubmissionRow older = new KycSubmissionRow(UUID.randomUUID(), user.getId(), user.getEmail(), "Other",
+                null, null, null, null, null, KycStatus.PENDING, newest.submittedAt().minusMinutes(1));
+        when(kycDocumentRepository.findSubmissionRowsByStatus(KycStatus.PENDING, PageRequest.of(0, 2)))
+                .thenReturn(List.of(newest, older));
+
+        var page = adminService.getKycSubmissionsByCursor(KycStatus.PENDING, null, 1);
+
+        assertEquals(1, page.getContent().size());
+        assertEquals(kycId, page.getContent().get(0).getKycId());
+        assertTrue(page.isHasNext());
+
+        adminService.getKycSubmissionsByCursor(KycStatus.PENDING, page.getNextCursor(), 1);
+
+        verify(kycDocumentRepository).findSubmissionRowsAfterByStatus(KycStatus.PENDING, newest.submittedAt(),
+                kycId, PageRequest.of(0, 2));
+        verify(kycDocumentRepository, never()).countByUser_KycStatus(any());
     }
 
     @Test
@@ -174,7 +355,7 @@ class AdminServiceTest {
         request.setStatus(MintStatus.CONFIRMED);
         request.setNotes("Approved by admin");
 
-        when(mintRepository.findById(mintId)).thenReturn(Optional.of(mint));
+        when(mintRepository.findWithUserAndWalletById(mintId)).thenReturn(Optional.of(mint));
         when(mintRepository.save(any(Mint.class))).thenReturn(mint);
         doNothing().when(notificationService).notifyUserOnMintStatusChange(any(), any(), any());
 
@@ -190,11 +371,26 @@ class AdminServiceTest {
         UpdateMintStatusRequest request = new UpdateMintStatusRequest();
         request.setStatus(MintStatus.CONFIRMED);
 
-        when(mintRepository.findById(mintId)).thenReturn(Optional.empty());
+        when(mintRepository.findWithUserAndWalletById(mintId)).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> adminService.updateMintStatus(mintId, request));
 
         verify(mintRepository, never()).save(any(Mint.class));
         verify(notificationService, never()).notifyUserOnMintStatusChange(any(), any(), any());
     }
+
+    private KycSubmissionRow kycRow(String frontPath) {
+        return new KycSubmissionRow(kycId, user.getId(), user.getEmail(), kycDocument.getFullName(), null, null, null,
+                frontPath, null, user.getKycStatus(), kycDocument.getSubmittedAt());
+    }
+
+    private MintAdminRow mintRow() {
+        return new MintAdminRow(mintId, user.getId(), user.getEmail(), wallet.getWalletAddress(), mint.getAmountKes(),
+                mint.getStatus(), MintProcessingStage.COMPLETED, mint.getDateInitiated(), null, null);
+    }
+
+    private MintAdminRow mintRow(UUID requestId, LocalDate dateInitiated) {
+        return new MintAdminRow(requestId, user.getId(), user.getEmail(), wallet.getWalletAddress(),
+                mint.getAmountKes(), mint.getStatus(), MintProcessingStage.COMPLETED, dateInitiated, null, null);
+    }
 }
@@ -7,12 +7,15 @@ import com.javaguy.nhx.model.dto.request.VerifyOtpRequest;
 import com.javaguy.nhx.model.entity.RefreshToken;
 import com.javaguy.nhx.model.entity.User;
 import com.javaguy.nhx.model.enums.KycStatus;
+import com.javaguy.nhx.model.enums.OtpPurpose;
 import com.javaguy.nhx.model.enums.UserRole;
 import com.javaguy.nhx.repository.RefreshTokenRepository;
 import com.javaguy.nhx.repository.UserRepository;
 import com.javaguy.nhx.security.JwtTokenProvider;
 import com.javaguy.nhx.security.UserPrincipal;
+import com.javaguy.nhx.security.UserPrincipalCache;
 import com.javaguy.nhx.model.dto.response.AuthResponse;
+import com.javaguy.nhx.util.TokenDigest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -28,6 +31,7 @@ import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -51,6 +55,8 @@ class AuthServiceTest {
     @Mock
     private RefreshTokenRepository refreshTokenRepository;
     @Mock
+    private UserPrincipalCache userPrincipalCache;
+    @Mock
     private Authentication authentication;
 
     @InjectMocks
@@ -63,6 +69,7 @@ class AuthServiceTest {
     private String otp = "123456";
     private String accessToken = "testAccessToken";
     private String refreshToken = "testRefreshToken";
+    private String refreshTokenHash = TokenDigest.sha256Hex(refreshToken);
 
     @BeforeEach
     void setUp() {
@@ -110,14 +117,15 @@ class AuthServiceTest {
     }
 
     @Test
-    void signup_OtpSendFails_ThrowsInternalServerException() {
+    void signup_OtpSendRefused_ThrowsServiceUnavailable() {
         SignupRequest request = new SignupRequest(email, password);
         when(userRepository.existsByEmail(email)).thenReturn(false);
         when(passwordEncoder.encode(anyString())).thenReturn("encodedPassword");
         when(userRepository.save(any(User.class))).thenReturn(user);
-        doThrow(new RuntimeException("OTP send error")).when(otpService).sendOtp(email);
+        doThrow(new ServiceUnavailableException("Email delivery is busy. Please try again shortly."))
+                .when(otpService).sendOtp(email);
 
-        assertThrows(InternalServerException.class, () -> authService.signup(request));
+        assertThrows(ServiceUnavailableException.class, () -> authService.signup(request));
 
         verify(userRepository, times(1)).existsByEmail(email);
         verify(userRepository, times(1)).save(any(User.class));
@@ -128,10 +136,10 @@ class AuthServiceTest {
     void verifyOtp_Success_UnverifiedEmail() {
         VerifyOtpRequest request = new VerifyOtpRequest(email, otp);
         user.setEmailVerified(false);
-        doNothing().when(otpService).verifyOtp(email, otp);
+        doNothing().when(otpService).verifyOtp(email, otp, OtpPurpose.EMAIL_VERIFICATION);
         when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
         when(userRepository.save(any(User.class))).thenReturn(user);
-        when(tokenProvider.generateToken(userId)).thenReturn(accessToken);
+        when(tokenProvider.generateToken(user)).thenReturn(accessToken);
         when(tokenProvider.generateRefreshToken()).thenReturn(refreshToken);
         when(refreshTokenRepository.save(any(RefreshToken.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -143,10 +151,10 @@ class AuthServiceTest {
         assertNotNull(response);
         assertEquals(accessToken, response.getAccessToken());
         assertEquals(refreshToken, response.getRefreshToken());
-        verify(otpService, times(1)).verifyOtp(email, otp);
+        verify(otpService, times(1)).verifyOtp(email, otp, OtpPurpose.EMAIL_VERIFICATION);
         verify(userRepository, times(1)).findByEmail(email);
         verify(userRepository, times(1)).save(user);
-        verify(tokenProvider, times(1)).generateToken(userId);
+        verify(tokenProvider, times(1)).generateToken(user);
         verify(tokenProvider, times(1)).generateRefreshToken();
         verify(refreshTokenRepository, times(1)).save(any(RefreshToken.class));
     }
@@ -156,10 +164,10 @@ class AuthServiceTest {
         VerifyOtpRequest request = new VerifyOtpRequest(email, otp);
         user.setEmailVerified(true);
         user.setEnabled(true);
-        doNothing().when(otpService).verifyOtp(email, otp);
+        doNothing().when(otpService).verifyOtp(email, otp, OtpPurpose.EMAIL_VERIFICATION);
         when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
         doNothing().when(refreshTokenRepository).deleteByUser(any(User.class));
-        when(tokenProvider.generateToken(userId)).thenReturn(accessToken);
+        when(tokenProvider.generateToken(user)).thenReturn(accessToken);
         when(tokenProvider.generateRefreshToken()).thenReturn(refreshToken);
         when(refreshTokenRepository.save(any(RefreshToken.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -170,11 +178,11 @@ class AuthServiceTest {
         assertNotNull(response);
         assertEquals(accessToken, response.getAccessToken());
         assertEquals(refreshToken, response.getRefreshToken());
-        verify(otpService, times(1)).verifyOtp(email, otp);
+        verify(otpService, times(1)).verifyOtp(email, otp, OtpPurpose.EMAIL_VERIFICATION);
         verify(userRepository, times(1)).findByEmail(email);
         verify(userRepository, never()).save(user); // Should not save if already verified
         verify(refreshTokenRepository, times(1)).deleteByUser(any(User.class));
-        verify(tokenProvider, times(1)).generateToken(userId);
+        verify(tokenProvider, times(1)).generateToken(user);
         verify(tokenProvider, times(1)).generateRefreshToken();
         verify(refreshTokenRepository, times(1)).save(any(RefreshToken.class));
     }
@@ -182,15 +190,15 @@ class AuthServiceTest {
     @Test
     void verifyOtp_UserNotFound_ThrowsResourceNotFoundException() {
         VerifyOtpRequest request = new VerifyOtpRequest(email, otp);
-        doNothing().when(otpService).verifyOtp(email, otp);
+        doNothing().when(otpService).verifyOtp(email, otp, OtpPurpose.EMAIL_VERIFICATION);
         when(userRepository.findByEmail(email)).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> authService.verifyOtp(request));
 
-        verify(otpService, times(1)).verifyOtp(email, otp);
+        verify(otpService, times(1)).verifyOtp(email, otp, OtpPurpose.EMAIL_VERIFICATION);
         verify(userRepository, times(1)).findByEmail(email);
         verify(userRepository, never()).save(any(User.class));
-        verify(tokenProvider, never()).generateToken(any(UUID.class));
+        verify(tokenProvider, never()).generateToken(any(User.class));
     }
 
     @Test
@@ -204,7 +212,7 @@ class AuthServiceTest {
         when(authentication.getPrincipal()).thenReturn(userPrincipal);
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(userRepository.save(any(User.class))).thenReturn(user);
-        when(tokenProvider.generateToken(userId)).thenReturn(accessToken);
+        when(tokenProvider.generateToken(user)).thenReturn(accessToken);
         when(tokenProvider.generateRefreshToken()).thenReturn(refreshToken);
         when(refreshTokenRepository.save(any(RefreshToken.class))).thenReturn(any(RefreshToken.class));
 
@@ -217,7 +225,7 @@ class AuthServiceTest {
         verify(authenticationManager, times(1)).authenticate(any(UsernamePasswordAuthenticationToken.class));
         verify(userRepository, times(1)).findById(userId);
         verify(userRepository, times(1)).save(user);
-        verify(tokenProvider, times(1)).generateToken(userId);
+        verify(tokenProvider, times(1)).generateToken(user);
         verify(tokenProvider, times(1)).generateRefreshToken();
         verify(refreshTokenRepository, times(1)).save(any(RefreshToken.class));
     }
@@ -290,12 +298,12 @@ class AuthServiceTest {
     void refreshToken_Success() {
         user.setEnabled(true); // User must be enabled for refresh token to work
         RefreshToken oldRefreshToken = RefreshToken.builder()
-                .token(refreshToken)
+                .tokenHash(refreshTokenHash)
                 .user(user)
                 .expiryDate(LocalDateTime.now().plusDays(7))
                 .build();
-        when(refreshTokenRepository.findByToken(refreshToken)).thenReturn(Optional.of(oldRefreshToken));
-        when(tokenProvider.generateToken(userId)).thenReturn("newAccessToken");
+        when(refreshTokenRepository.findByTokenHash(refreshTokenHash)).thenReturn(Optional.of(oldRefreshToken));
+        when(tokenProvider.generateToken(user)).thenReturn("newAccessToken");
         when(tokenProvider.generateRefreshToken()).thenReturn("newRefreshToken");
         when(refreshTokenRepository.save(any(RefreshToken.class))).thenAnswer(invocation -> invocation.getArgument(0));
         doNothing().when(refreshTokenRepository).delete(oldRefreshToken);
@@ -305,8 +313,8 @@ class AuthServiceTest {
         assertNotNull(response);
         assertEquals("newAccessToken", response.getAccessToken());
         assertEquals("newRefreshToken", response.getRefreshToken());
-        verify(refreshTokenRepository, times(1)).findByToken(refreshToken);
-        verify(tokenProvider, times(1)).generateToken(userId);
+        verify(refreshTokenRepository, times(1)).findByTokenHash(refreshTokenHash);
+        verify(tokenProvider, times(1)).generateToken(user);
         verify(tokenProvider, times(1)).generateRefreshToken();
         verify(refreshTokenRepository, times(1)).save(any(RefreshToken.class));
         verify(refreshTokenRepository, times(1)).delete(oldRefreshToken);
@@ -314,68 +322,68 @@ class AuthServiceTest {
 
     @Test
     void refreshToken_InvalidToken_ThrowsUnauthorizedException() {
-        when(refreshTokenRepository.findByToken(refreshToken)).thenReturn(Optional.empty());
+        when(refreshTokenRepository.findByTokenHash(refreshTokenHash)).thenReturn(Optional.empty());
 
         assertThrows(UnauthorizedException.class, () -> authService.refreshToken(refreshToken));
 
-        verify(refreshTokenRepository, times(1)).findByToken(refreshToken);
-        verify(tokenProvider, never()).generateToken(any(UUID.class));
+        verify(refreshTokenRepository, times(1)).findByTokenHash(refreshTokenHash);
+        verify(tokenProvider, never()).generateToken(any(User.class));
     }
 
     @Test
     void refreshToken_ExpiredToken_ThrowsUnauthorizedException() {
         RefreshToken oldRefreshToken = RefreshToken.builder()
-                .token(refreshToken)
+                .tokenHash(refreshTokenHash)
                 .user(user)
                 .expiryDate(LocalDateTime.now().minusDays(1))
                 .build();
-        when(refreshTokenRepository.findByToken(refreshToken)).thenReturn(Optional.of(oldRefreshToken));
+        when(refreshTokenRepository.findByTokenHash(refreshTokenHash)).thenReturn(Optional.of(oldRefreshToken));
         doNothing().when(refreshTokenRepository).delete(oldRefreshToken);
 
         assertThrows(UnauthorizedException.class, () -> authService.refreshToken(refreshToken));
 
-        verify(refreshTokenRepository, times(1)).findByToken(refreshToken);
+        verify(refreshTokenRepository, times(1)).findByTokenHash(refreshTokenHash);
         verify(refreshTokenRepository, times(1)).delete(oldRefreshToken);
-        verify(tokenProvider, never()).generateToken(any(UUID.class));
+        verify(tokenProvider, never()).generateToken(any(User.class));
     }
 
     @Test
     void refreshToken_AccountDisabled_ThrowsAccountDisabledException() {
         user.setEnabled(false);
         RefreshToken oldRefreshToken = RefreshToken.builder()
-                .token(refreshToken)
+                .tokenHash(refreshTokenHash)
                 .user(user)
                 .expiryDate(LocalDateTime.now().plusDays(7))
                 .build();
-        when(refreshTokenRepository.findByToken(refreshToken)).thenReturn(Optional.of(oldRefreshToken));
+        when(refreshTokenRepository.findByTokenHash(refreshTokenHash)).thenReturn(Optional.of(oldRefreshToken));
         doNothing().when(refreshTokenRepository).delete(oldRefreshToken);
 
         assertThrows(AccountDisabledException.class, () -> authService.refreshToken(refreshToken));
 
-        verify(refreshTokenRepository, times(1)).findByToken(refreshToken);
+        verify(refreshTokenRepository, times(1)).findByTokenHash(refreshTokenHash);
         verify(refreshTokenRepository, times(1)).delete(oldRefreshToken);
-        verify(tokenProvider, never()).generateToken(any(UUID.class));
+        verify(tokenProvider, never()).generateToken(any(User.class));
     }
 
     @Test
     void logout_Success() {
-        RefreshToken tokenToDelete = RefreshToken.builder().token(refreshToken).user(user).build();
-        when(refreshTokenRepository.findByToken(refreshToken)).thenReturn(Optional.of(tokenToDelete));
+        RefreshToken tokenToDelete = RefreshToken.builder().tokenHash(refreshTokenHash).user(user).build();
+        when(refreshTokenRepository.findByTokenHash(refreshTokenHash)).thenReturn(Optional.of(tokenToDelete));
         doNothing().when(refreshTokenRepository).delete(tokenToDelete);
 
         authService.logout(refreshToken);
 
-        verify(refreshTokenRepository, times(1)).findByToken(refreshToken);
+        verify(refreshTokenRepository, times(1)).findByTokenHash(refreshTokenHash);
         verify(refreshTokenRepository, times(1)).delete(tokenToDelete);
     }
 
     @Test
     void logout_TokenNotFound_NoAction() {
-        when(refreshTokenRepository.findByToken(refreshToken)).thenReturn(Optional.empty());
+        when(refreshTokenRepository.findByTokenHash(refreshTokenHash)).thenReturn(Optional.empty());
 
         authService.logout(refreshToken);
 
-        verify(refreshTokenRepository, times(1)).findByToken(refreshToken);
+        verify(refreshTokenRepository, times(1)).findByTokenHash(refreshTokenHash);
         verify(refreshTokenRepository, never()).delete(any(RefreshToken.class));
     }
 
@@ -388,6 +396,8 @@ class AuthServiceTest {
 
         verify(userRepository, times(1)).findById(userId);
         verify(refreshTokenRepository, times(1)).deleteByUser(user);
+        verify(userPrincipalCache, times(1)).evict(userId);
+        verify(tokenProvider, times(1)).markAuthoritiesChanged(userId);
     }
 
     @Test
@@ -399,4 +409,48 @@ class AuthServiceTest {
         verify(userRepository, times(1)).findById(userId);
         verify(refreshTokenRepository, never()).deleteByUser(any(User.class));
     }
+
+    @Test
+    void verifyOtp_StoresOnlyDigestOfRefreshToken() {
+        VerifyOtpRequest request = new VerifyOtpRequest(email, otp);
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+        when(tokenProvider.generateToken(user)).thenReturn(accessToken);
+        when(tokenProvider.generateRefreshToken()).thenReturn(refreshToken);
+
+        authService.verifyOtp(request);
+
+        verify(refreshTokenRepository).save(argThat(token -> refreshTokenHash.equals(token.getTokenHash())));
+    }
+
+    @Test
+    void verifyOtp_RevokesOldestRefreshTokensOverPerUserLimit() {
+        ReflectionTestUtils.setField(authService, "maxRefreshTokensPerUser", 2);
+        UUID newest = UUID.randomUUID();
+        UUID older = UUID.randomUUID();
+        UUID oldest = UUID.randomUUID();
+        VerifyOtpRequest request = new VerifyOtpRequest(email, otp);
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+        when(tokenProvider.generateToken(user)).thenReturn(accessToken);
+        when(tokenProvider.generateRefreshToken()).thenReturn(refreshToken);
+        when(refreshTokenRepository.findIdsByUserNewestFirst(user)).thenReturn(List.of(newest, older, oldest));
+
+        authService.verifyOtp(request);
+
+        verify(refreshTokenRepository).deleteByIdIn(List.of(older, oldest));
+        verify(refreshTokenRepository).save(any(RefreshToken.class));
+    }
+
+    @Test
+    void verifyOtp_UnderPerUserLimit_RevokesNothing() {
+        ReflectionTestUtils.setField(authService, "maxRefreshTokensPerUser", 2);
+        VerifyOtpRequest request = new VerifyOtpRequest(email, otp);
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+        when(tokenProvider.generateToken(user)).thenReturn(accessToken);
+        when(tokenProvider.generateRefreshToken()).thenReturn(refreshToken);
+        when(refreshTokenRepository.findIdsByUserNewestFirst(user)).thenReturn(List.of(UUID.randomUUID()));
+
+        authService.verifyOtp(request);
+
+        verify(refreshTokenRepository, never()).deleteByIdIn(any());
+    }
 }
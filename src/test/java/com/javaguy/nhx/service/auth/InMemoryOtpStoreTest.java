@@ -0,0 +1,96 @@
+package com.javaguy.nhx.service.auth;
+
+import com.javaguy.nhx.model.enums.OtpPurpose;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryOtpStoreTest {
+
+    private static final String EMAIL = "test@example.com";
+    private static final Duration TTL = Duration.ofMinutes(5);
+
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+    private InMemoryOtpStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryOtpStore(3, now::get);
+    }
+
+    @Test
+    void verify_ConsumesCodeOnSuccess() {
+        store.save(EMAIL, OtpPurpose.EMAIL_VERIFICATION, "123456", TTL);
+
+        assertTrue(store.verify(EMAIL, OtpPurpose.EMAIL_VERIFICATION, "123456"));
+        assertFalse(store.verify(EMAIL, OtpPurpose.EMAIL_VERIFICATION, "123456"));
+    }
+
+    @Test
+    void verify_CodesAreScopedByPurpose() {
+        store.save(EMAIL, OtpPurpose.PASSWORD_RESET, "123456", TTL);
+
+        assertFalse(store.verify(EMAIL, OtpPurpose.EMAIL_VERIFICATION, "123456"));
+        assertTrue(store.verify(EMAIL, OtpPurpose.PASSWORD_RESET, "123456"));
+    }
+
+    @Test
+    void save_ReplacesPreviousLiveCode() {
+        store.save(EMAIL, OtpPurpose.EMAIL_VERIFICATION, "111111", TTL);
+        store.save(EMAIL, OtpPurpose.EMAIL_VERIFICATION, "222222", TTL);
+
+        assertFalse(store.verify(EMAIL, OtpPurpose.EMAIL_VERIFICATION, "111111"));
+        assertTrue(store.verify(EMAIL, OtpPurpose.EMAIL_VERIFICATION, "222222"));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void verify_DiscardsCodeAfterMaxFailedAttempts() {
+        store.save(EMAIL, OtpPurpose.EMAIL_VERIFICATION, "123456", TTL);
+
+        assertFalse(store.verify(EMAIL, OtpPurpose.EMAIL_VERIFICATION, "000000"));
+        assertFalse(store.verify(EMAIL, OtpPurpose.EMAIL_VERIFICATION, "000001"));
+        assertFalse(store.verify(EMAIL, OtpPurpose.EMAIL_VERIFICATION, "000002"));
+
+        assertFalse(store.verify(EMAIL, OtpPurpose.EMAIL_VERIFICATION, "123456"));
+    }
+
+    @Test
+    void verify_RejectsExpiredCode() {
+        store.save(EMAIL, OtpPurpose.EMAIL_VERIFICATION, "123456", TTL);
+
+        now.addAndGet(TTL.toMillis());
+
+        assertFalse(store.verify(EMAIL, OtpPurpose.EMAIL_VERIFICATION, "123456"));
+    }
+
+    @Test
+    void expireEntries_RemovesExpiredCodesOnTick() {
+        store.save(EMAIL, OtpPurpose.EMAIL_VERIFICATION, "123456", TTL);
+        store.save("other@example.com", OtpPurpose.EMAIL_VERIFICATION, "654321", TTL.multipliedBy(2));
+
+        now.addAndGet(TTL.toMillis() + InMemoryOtpStore.TICK_MILLIS);
+        store.expireEntries();
+
+        assertEquals(1, store.size());
+        assertTrue(store.verify("other@example.com", OtpPurpose.EMAIL_VERIFICATION, "654321"));
+    }
+
+    @Test
+    void expireEntries_HandlesTtlLongerThanOneWheelTurn() {
+        Duration longTtl = Duration.ofMillis(InMemoryOtpStore.TICK_MILLIS * (InMemoryOtpStore.WHEEL_SIZE + 10));
+        store.save(EMAIL, OtpPurpose.EMAIL_VERIFICATION, "123456", longTtl);
+
+        now.addAndGet(InMemoryOtpStore.TICK_MILLIS * 20);
+        store.expireEntries();
+        assertEquals(1, store.size());
+
+        now.addAndGet(longTtl.toMillis());
+        store.expireEntries();
+        assertEquals(0, store.size());
+    }
+}
@@ -0,0 +1,102 @@
+package com.javaguy.nhx.service.auth;
+
+import com.javaguy.nhx.model.entity.Otp;
+import com.javaguy.nhx.model.enums.OtpPurpose;
+import com.javaguy.nhx.repository.OtpRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JpaOtpStoreTest {
+
+    @Mock
+    private OtpRepository otpRepository;
+
+    @InjectMocks
+    private JpaOtpStore otpStore;
+
+    private String email = "test@example.com";
+    private Otp otpEntity;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(otpStore, "maxAttempts", 2);
+        otpEntity = Otp.builder()
+                .email(email)
+                .purpose(OtpPurpose.EMAIL_VERIFICATION)
+                .otpCode("123456")
+                .expiryTime(LocalDateTime.now().plusMinutes(5))
+                .used(false)
+                .build();
+    }
+
+    private void stubLiveOtp(Optional<Otp> otp) {
+        when(otpRepository.findTopByEmailAndPurposeAndUsedFalseAndExpiryTimeAfterOrderByCreatedAtDesc(
+                eq(email), eq(OtpPurpose.EMAIL_VERIFICATION), any(LocalDateTime.class)))
+                .thenReturn(otp);
+    }
+
+    @Test
+    void save_ReplacesExistingCodesForEmailAndPurpose() {
+        otpStore.save(email, OtpPurpose.PASSWORD_RESET, "123456", Duration.ofMinutes(5));
+
+        verify(otpRepository).deleteByEmailAndPurpose(email, OtpPurpose.PASSWORD_RESET);
+        verify(otpRepository).save(argThat(otp -> otp.getPurpose() == OtpPurpose.PASSWORD_RESET
+                && otp.getOtpCode().equals("123456") && !otp.getUsed()));
+    }
+
+    @Test
+    void verify_MatchingCode_MarksUsed() {
+        stubLiveOtp(Optional.of(otpEntity));
+
+        assertTrue(otpStore.verify(email, OtpPurpose.EMAIL_VERIFICATION, "123456"));
+
+        assertTrue(otpEntity.getUsed());
+        verify(otpRepository).save(otpEntity);
+    }
+
+    @Test
+    void verify_WrongCode_CountsAttemptsAndDiscardsAtLimit() {
+        stubLiveOtp(Optional.of(otpEntity));
+
+        assertFalse(otpStore.verify(email, OtpPurpose.EMAIL_VERIFICATION, "000000"));
+        assertEquals(1, otpEntity.getAttempts());
+        assertFalse(otpEntity.getUsed());
+
+        assertFalse(otpStore.verify(email, OtpPurpose.EMAIL_VERIFICATION, "000000"));
+        assertEquals(2, otpEntity.getAttempts());
+        assertTrue(otpEntity.getUsed());
+    }
+
+    @Test
+    void verify_NoLiveCode_ReturnsFalse() {
+        stubLiveOtp(Optional.empty());
+
+        assertFalse(otpStore.verify(email, OtpPurpose.EMAIL_VERIFICATION, "123456"));
+
+        verify(otpRepository, never()).save(any(Otp.class));
+    }
+
+    @Test
+    void deleteUsedAndExpired_DeletesInOneStatement() {
+        when(otpRepository.deleteUsedOrExpired(any(LocalDateTime.class))).thenReturn(3);
+
+        otpStore.deleteUsedAndExpired();
+
+        verify(otpRepository).deleteUsedOrExpired(any(LocalDateTime.class));
+    }
+}
@@ -0,0 +1,99 @@
+package com.javaguy.nhx.service.auth;
+
+import com.javaguy.nhx.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenPurgeServiceTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private RefreshTokenPurgeService purgeService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        purgeService = new RefreshTokenPurgeService(refreshTokenRepository, transactionManager, meterRegistry);
+        ReflectionTestUtils.setField(purgeService, "batchSize", 2);
+        ReflectionTestUtils.setField(purgeService, "maxBatches", 10);
+        purgeService.init();
+    }
+
+    private static List<UUID> ids(int count) {
+        return Stream.generate(UUID::randomUUID).limit(count).toList();
+    }
+
+    @Test
+    void purgeExpired_DeletesInBatchesUntilPartialBatch() {
+        List<UUID> first = ids(2);
+        List<UUID> second = ids(1);
+        when(refreshTokenRepository.findExpiredIds(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(first, second);
+        when(refreshTokenRepository.deleteByIdIn(first)).thenReturn(2);
+        when(refreshTokenRepository.deleteByIdIn(second)).thenReturn(1);
+
+        long purged = purgeService.purgeExpired(LocalDateTime.now());
+
+        assertEquals(3, purged);
+        verify(refreshTokenRepository, times(2)).findExpiredIds(any(LocalDateTime.class), any(Pageable.class));
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void purgeExpired_StopsAtMaxBatches() {
+        ReflectionTestUtils.setField(purgeService, "maxBatches", 3);
+        when(refreshTokenRepository.findExpiredIds(any(LocalDateTime.class), any(Pageable.class)))
+                .thenAnswer(invocation -> ids(2));
+        when(refreshTokenRepository.deleteByIdIn(anyCollection())).thenReturn(2);
+
+        long purged = purgeService.purgeExpired(LocalDateTime.now());
+
+        assertEquals(6, purged);
+        verify(refreshTokenRepository, times(3)).deleteByIdIn(anyCollection());
+    }
+
+    @Test
+    void purgeExpired_NothingExpired_DoesNotDelete() {
+        when(refreshTokenRepository.findExpiredIds(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        assertEquals(0, purgeService.purgeExpired(LocalDateTime.now()));
+
+        verify(refreshTokenRepository, never()).deleteByIdIn(anyCollection());
+    }
+
+    @Test
+    void purgeExpiredTokens_PublishesPurgedCountAndTableSize() {
+        List<UUID> batch = ids(1);
+        when(refreshTokenRepository.findExpiredIds(any(LocalDateTime.class), any(Pageable.class))).thenReturn(batch);
+        when(refreshTokenRepository.deleteByIdIn(batch)).thenReturn(1);
+        when(refreshTokenRepository.count()).thenReturn(42L);
+
+        purgeService.purgeExpiredTokens();
+
+        assertEquals(1.0, meterRegistry.get("auth.refresh_tokens.purged").counter().count());
+        assertEquals(42.0, meterRegistry.get("auth.refresh_tokens.rows").gauge().value());
+        assertEquals(1, meterRegistry.get("auth.refresh_tokens.purge").timer().count());
+    }
+}
@@ -1,24 +1,23 @@
 package com.javaguy.nhx.service.email;
 
 import com.javaguy.nhx.exception.custom.EmailServiceException;
+import com.javaguy.nhx.exception.custom.ServiceUnavailableException;
+import com.javaguy.nhx.model.entity.EmailOutbox;
 import com.javaguy.nhx.model.entity.Mint;
 import com.javaguy.nhx.model.entity.User;
 import com.javaguy.nhx.model.entity.Wallet;
+import com.javaguy.nhx.model.enums.EmailOutboxStatus;
 import com.javaguy.nhx.model.enums.KycStatus;
 import com.javaguy.nhx.model.enums.MintStatus;
 import com.javaguy.nhx.model.enums.UserRole;
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
+import com.javaguy.nhx.repository.EmailOutboxRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.test.util.ReflectionTestUtils;
-import org.thymeleaf.TemplateEngine;
-import org.thymeleaf.context.Context;
 
 import java.math.BigDecimal;
 import java.util.UUID;
@@ -32,11 +31,11 @@ import static org.mockito.Mockito.*;
 class EmailNotificationServiceTest {
 
     @Mock
-    private JavaMailSender mailSender;
+    private EmailOutboxRepository outboxRepository;
     @Mock
-    private TemplateEngine templateEngine;
+    private EmailTemplateRenderer templateRenderer;
     @Mock
-    private MimeMessage mimeMessage;
+    private EmailOutboxDispatcher outboxDispatcher;
 
     @InjectMocks
     private EmailNotificationService emailNotificationService;
@@ -45,10 +44,8 @@ class EmailNotificationServiceTest {
     private Mint mint;
     private String email = "test@example.com";
     private String adminEmail = "admin@example.com";
-    private String fromAddress = "from@example.com";
     private String appBaseUrl = "http://localhost:3000";
     private String appName = "TestApp";
-    private String supportEmail = "support@example.com";
 
     @BeforeEach
     void setUp() {
@@ -72,178 +69,172 @@ class EmailNotificationServiceTest {
                 .build();
 
         ReflectionTestUtils.setField(emailNotificationService, "adminEmail", adminEmail);
-        ReflectionTestUtils.setField(emailNotificationService, "fromAddress", fromAddress);
         ReflectionTestUtils.setField(emailNotificationService, "appBaseUrl", appBaseUrl);
         ReflectionTestUtils.setField(emailNotificationService, "appName", appName);
-        ReflectionTestUtils.setField(emailNotificationService, "supportEmail", supportEmail);
-
-        lenient().when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
     }
 
     @Test
-    void sendOtpEmail_Success() throws MessagingException {
+    void sendOtpEmail_Success() {
         String otp = "123456";
-        when(templateEngine.process(eq("email-otp"), any(Context.class))).thenReturn("<html>OTP</html>");
-        doNothing().when(mailSender).send(any(MimeMessage.class));
+        when(templateRenderer.render(eq("email-otp"), anyMap())).thenReturn("<html>OTP</html>");
 
         emailNotificationService.sendOtpEmail(email, otp);
 
-        verify(templateEngine, times(1)).process(eq("email-otp"), any(Context.class));
-        verify(mailSender, times(1)).send(any(MimeMessage.class));
+        verify(templateRenderer, times(1)).render(eq("email-otp"), anyMap());
+        verify(outboxDispatcher).sendWithoutOutbox(eq(email), anyString(), eq("<html>OTP</html>"), eq("OTP"));
     }
 
     @Test
-    void sendOtpEmail_ThrowsEmailServiceExceptionOnMessagingException() {
+    void sendOtpEmail_NeverWritesTheCodeToTheOutbox() {
+        when(templateRenderer.render(eq("email-otp"), anyMap())).thenReturn("<html>OTP</html>");
+
+        emailNotificationService.sendOtpEmail(email, "123456");
+
+        verify(outboxRepository, never()).save(any(EmailOutbox.class));
+    }
+
+    @Test
+    void sendPasswordResetOtp_SendsWithoutTheOutbox() {
+        when(templateRenderer.render(eq("email-password-reset"), anyMap())).thenReturn("<html>Reset</html>");
+
+        emailNotificationService.sendPasswordResetOtp(email, "654321");
+
+        verify(outboxDispatcher).sendWithoutOutbox(eq(email), anyString(), eq("<html>Reset</html>"), eq("Password Reset"));
+        verify(outboxRepository, never()).save(any(EmailOutbox.class));
+    }
+
+    @Test
+    void sendOtpEmail_ThrowsEmailServiceExceptionWhenRenderingFails() {
         String otp = "123456";
-        when(templateEngine.process(eq("email-otp"), any(Context.class))).thenReturn("<html>OTP</html>");
-        when(mailSender.createMimeMessage()).thenThrow(new RuntimeException(new MessagingException("Test")));
+        when(templateRenderer.render(eq("email-otp"), anyMap())).thenThrow(new RuntimeException("template error"));
 
         assertThrows(EmailServiceException.class, () -> emailNotificationService.sendOtpEmail(email, otp));
+        verifyNoInteractions(outboxDispatcher);
     }
 
     @Test
-    void sendWelcomeEmail_Success() throws MessagingException {
-        when(templateEngine.process(eq("email-welcome"), any(Context.class))).thenReturn("<html>Welcome</html>");
-        doNothing().when(mailSender).send(any(MimeMessage.class));
+    void sendOtpEmail_DispatcherRefuses_ReachesTheCallerUnwrapped() {
+        when(templateRenderer.render(eq("email-otp"), anyMap())).thenReturn("<html>OTP</html>");
+        doThrow(new ServiceUnavailableException("Email delivery is busy. Please try again shortly."))
+                .when(outboxDispatcher).sendWithoutOutbox(eq(email), anyString(), eq("<html>OTP</html>"), eq("OTP"));
+
+        assertThrows(ServiceUnavailableException.class, () -> emailNotificationService.sendOtpEmail(email, "123456"));
+    }
 
+    @Test
+    void sendWelcomeEmail_QueuesTemplateAndVariablesWithoutRendering() {
         emailNotificationService.sendWelcomeEmail(user);
 
-        verify(templateEngine, times(1)).process(eq("email-welcome"), any(Context.class));
-        verify(mailSender, times(1)).send(any(MimeMessage.class));
+        verify(outboxRepository).save(argThat(queued -> queued.getRecipient().equals(email)
+                && queued.getTemplate().equals("email-welcome")
+                && "John".equals(queued.getVariables().get("firstName"))
+                && queued.getHtmlBody() == null
+                && queued.getStatus() == EmailOutboxStatus.PENDING
+                && queued.getAttempts() == 0));
+        verifyNoInteractions(templateRenderer);
     }
 
     @Test
-    void notifyAdminsOnKycSubmission_Success() throws MessagingException {
-        when(templateEngine.process(eq("email-admin-kyc-submission"), any(Context.class)))
-                .thenReturn("<html>Admin KYC</html>");
-        doNothing().when(mailSender).send(any(MimeMessage.class));
+    void sendWelcomeEmail_ThrowsEmailServiceExceptionWhenOutboxWriteFails() {
+        when(outboxRepository.save(any(EmailOutbox.class))).thenThrow(new RuntimeException("DB down"));
+
+        assertThrows(EmailServiceException.class, () -> emailNotificationService.sendWelcomeEmail(user));
+    }
 
+    @Test
+    void sendWelcomeEmail_Success() {
+        emailNotificationService.sendWelcomeEmail(user);
+
+        verify(outboxRepository).save(argThat(queued -> "email-welcome".equals(queued.getTemplate())));
+    }
+
+    @Test
+    void notifyAdminsOnKycSubmission_Success() {
         emailNotificationService.notifyAdminsOnKycSubmission(user);
 
-        verify(templateEngine, times(1)).process(eq("email-admin-kyc-submission"), any(Context.class));
-        verify(mailSender, times(1)).send(any(MimeMessage.class));
+        verify(outboxRepository).save(argThat(queued -> "email-admin-kyc-submission".equals(queued.getTemplate())));
     }
 
     @Test
-    void notifyAdminsOnKycSubmission_NoAdminEmailConfigured_SkipsNotification() throws MessagingException {
+    void notifyAdminsOnKycSubmission_NoAdminEmailConfigured_SkipsNotification() {
         ReflectionTestUtils.setField(emailNotificationService, "adminEmail", "");
 
         emailNotificationService.notifyAdminsOnKycSubmission(user);
 
-        verify(templateEngine, never()).process(anyString(), any(Context.class));
-        verify(mailSender, never()).send(any(MimeMessage.class));
+        verify(outboxRepository, never()).save(any(EmailOutbox.class));
     }
 
     @Test
-    void notifyUserOnKycStatusChange_Verified() throws MessagingException {
-        when(templateEngine.process(eq("email-kyc-approved"), any(Context.class)))
-                .thenReturn("<html>KYC Approved</html>");
-        doNothing().when(mailSender).send(any(MimeMessage.class));
-
+    void notifyUserOnKycStatusChange_Verified() {
         emailNotificationService.notifyUserOnKycStatusChange(user, KycStatus.VERIFIED, null);
 
-        verify(templateEngine, times(1)).process(eq("email-kyc-approved"), any(Context.class));
-        verify(mailSender, times(1)).send(any(MimeMessage.class));
+        verify(outboxRepository).save(argThat(queued -> "email-kyc-approved".equals(queued.getTemplate())));
     }
 
     @Test
-    void notifyUserOnKycStatusChange_Rejected() throws MessagingException {
-        when(templateEngine.process(eq("email-kyc-rejected"), any(Context.class)))
-                .thenReturn("<html>KYC Rejected</html>");
-        doNothing().when(mailSender).send(any(MimeMessage.class));
-
+    void notifyUserOnKycStatusChange_Rejected() {
         emailNotificationService.notifyUserOnKycStatusChange(user, KycStatus.REJECTED, "ID expired");
 
-        verify(templateEngine, times(1)).process(eq("email-kyc-rejected"), any(Context.class));
-        verify(mailSender, times(1)).send(any(MimeMessage.class));
+        verify(outboxRepository).save(argThat(queued -> "email-kyc-rejected".equals(queued.getTemplate())));
     }
 
     @Test
-    void notifyUserOnKycStatusChange_Submitted() throws MessagingException {
-        when(templateEngine.process(eq("email-kyc-submitted"), any(Context.class)))
-                .thenReturn("<html>KYC Submitted</html>");
-        doNothing().when(mailSender).send(any(MimeMessage.class));
-
+    void notifyUserOnKycStatusChange_Submitted() {
         emailNotificationService.notifyUserOnKycStatusChange(user, KycStatus.SUBMITTED, null);
 
-        verify(templateEngine, times(1)).process(eq("email-kyc-submitted"), any(Context.class));
-        verify(mailSender, times(1)).send(any(MimeMessage.class));
+        verify(outboxRepository).save(argThat(queued -> "email-kyc-submitted".equals(queued.getTemplate())));
     }
 
     @Test
-    void notifyUserOnKycStatusChange_Default() throws MessagingException {
-        when(templateEngine.process(eq("email-kyc-update"), any(Context.class))).thenReturn("<html>KYC Update</html>");
-        doNothing().when(mailSender).send(any(MimeMessage.class));
-
+    void notifyUserOnKycStatusChange_Default() {
         // Using a status not explicitly handled in the switch to hit default
         emailNotificationService.notifyUserOnKycStatusChange(user, KycStatus.PENDING, null);
 
-        verify(templateEngine, times(1)).process(eq("email-kyc-update"), any(Context.class));
-        verify(mailSender, times(1)).send(any(MimeMessage.class));
+        verify(outboxRepository).save(argThat(queued -> "email-kyc-update".equals(queued.getTemplate())));
     }
 
     @Test
-    void notifyUserOnMintStatusChange_Pending() throws MessagingException {
-        when(templateEngine.process(eq("email-mint-pending"), any(Context.class)))
-                .thenReturn("<html>Mint Pending</html>");
-        doNothing().when(mailSender).send(any(MimeMessage.class));
+    void notifyUserOnMintStatusChange_Pending() {
         mint.setStatus(MintStatus.PENDING);
 
         emailNotificationService.notifyUserOnMintStatusChange(user, mint, null);
 
-        verify(templateEngine, times(1)).process(eq("email-mint-pending"), any(Context.class));
-        verify(mailSender, times(1)).send(any(MimeMessage.class));
+        verify(outboxRepository).save(argThat(queued -> "email-mint-pending".equals(queued.getTemplate())));
     }
 
     @Test
-    void notifyUserOnMintStatusChange_Confirmed() throws MessagingException {
-        when(templateEngine.process(eq("email-mint-confirmed"), any(Context.class)))
-                .thenReturn("<html>Mint Confirmed</html>");
-        doNothing().when(mailSender).send(any(MimeMessage.class));
+    void notifyUserOnMintStatusChange_Confirmed() {
         mint.setStatus(MintStatus.CONFIRMED);
 
         emailNotificationService.notifyUserOnMintStatusChange(user, mint, null);
 
-        verify(templateEngine, times(1)).process(eq("email-mint-confirmed"), any(Context.class));
-        verify(mailSender, times(1)).send(any(MimeMessage.class));
+        verify(outboxRepository).save(argThat(queued -> "email-mint-confirmed".equals(queued.getTemplate())));
     }
 
     @Test
-    void notifyUserOnMintStatusChange_Minted() throws MessagingException {
-        when(templateEngine.process(eq("email-mint-minted"), any(Context.class)))
-                .thenReturn("<html>Mint Minted</html>");
-        doNothing().when(mailSender).send(any(MimeMessage.class));
+    void notifyUserOnMintStatusChange_Minted() {
         mint.setStatus(MintStatus.MINTED);
 
         emailNotificationService.notifyUserOnMintStatusChange(user, mint, null);
 
-        verify(templateEngine, times(1)).process(eq("email-mint-minted"), any(Context.class));
-        verify(mailSender, times(1)).send(any(MimeMessage.class));
+        verify(outboxRepository).save(argThat(queued -> "email-mint-minted".equals(queued.getTemplate())));
     }
 
     @Test
-    void notifyUserOnMintStatusChange_Transferred() throws MessagingException {
-        when(templateEngine.process(eq("email-mint-transferred"), any(Context.class)))
-                .thenReturn("<html>Mint Transferred</html>");
-        doNothing().when(mailSender).send(any(MimeMessage.class));
+    void notifyUserOnMintStatusChange_Transferred() {
         mint.setStatus(MintStatus.TRANSFERRED);
 
         emailNotificationService.notifyUserOnMintStatusChange(user, mint, null);
 
-        verify(templateEngine, times(1)).process(eq("email-mint-transferred"), any(Context.class));
-        verify(mailSender, times(1)).send(any(MimeMessage.class));
+        verify(outboxRepository).save(argThat(queued -> "email-mint-transferred".equals(queued.getTemplate())));
     }
 
     @Test
-    void notifyUserOnMintStatusChange_Failed() throws MessagingException {
-        when(templateEngine.process(eq("email-mint-failed"), any(Context.class)))
-                .thenReturn("<html>Mint Failed</html>");
-        doNothing().when(mailSender).send(any(MimeMessage.class));
+    void notifyUserOnMintStatusChange_Failed() {
         mint.setStatus(MintStatus.FAILED);
 
         emailNotificationService.notifyUserOnMintStatusChange(user, mint, null);
 
-        verify(templateEngine, times(1)).process(eq("email-mint-failed"), any(Context.class));
-        verify(mailSender, times(1)).send(any(MimeMessage.class));
+        verify(outboxRepository).save(argThat(queued -> "email-mint-failed".equals(queued.getTemplate())));
     }
 }
@@ -0,0 +1,368 @@
+package com.javaguy.nhx.service.email;
+
+import com.javaguy.nhx.exception.custom.ServiceUnavailableException;
+import com.javaguy.nhx.model.entity.EmailOutbox;
+import com.javaguy.nhx.model.enums.EmailOutboxStatus;
+import com.javaguy.nhx.repository.EmailOutboxRepository;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmailOutboxDispatcherTest {
+
+    @Mock
+    private EmailOutboxRepository outboxRepository;
+    @Mock
+    private JavaMailSender mailSender;
+    @Mock
+    private EmailTemplateRenderer templateRenderer;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final UUID leaseToken = UUID.randomUUID();
+
+    private SimpleMeterRegistry meterRegistry;
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    private EmailOutboxDispatcher dispatcher;
+    private EmailOutbox email;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowSize(2)
+                .minimumNumberOfCalls(2)
+                .build());
+        dispatcher = new EmailOutboxDispatcher(outboxRepository, mailSender, templateRenderer,
+                transactionManager, meterRegistry, circuitBreakerRegistry);
+        ReflectionTestUtils.setField(dispatcher, "fromAddress", "from@example.com");
+        ReflectionTestUtils.setField(dispatcher, "workers", 2);
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 10);
+        ReflectionTestUtils.setField(dispatcher, "sendBatchSize", 5);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 3);
+        ReflectionTestUtils.setField(dispatcher, "initialBackoff", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(dispatcher, "maxBackoff", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(dispatcher, "lease", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(dispatcher, "sentRetention", Duration.ofDays(7));
+        ReflectionTestUtils.setField(dispatcher, "purgeBatchSize", 2);
+        ReflectionTestUtils.setField(dispatcher, "purgeMaxBatches", 10);
+        ReflectionTestUtils.setField(dispatcher, "directWorkers", 1);
+        ReflectionTestUtils.setField(dispatcher, "directQueueCapacity", 1);
+        dispatcher.init();
+
+        email = leased(EmailOutbox.builder()
+                .id(UUID.randomUUID())
+                .recipient("user@example.com")
+                .subject("Subject")
+                .htmlBody("<html>Body</html>")
+                .type("Welcome")
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    private MimeMessage newMimeMessage() {
+        return new MimeMessage(Session.getInstance(new Properties()));
+    }
+
+    private EmailOutbox leased(EmailOutbox outbox) {
+        outbox.setStatus(EmailOutboxStatus.SENDING);
+        outbox.setNextAttemptAt(LocalDateTime.now().plusMinutes(5));
+        outbox.setLeaseToken(leaseToken);
+        return outbox;
+    }
+
+    @Test
+    void claim_LeasesDueMessages() {
+        when(outboxRepository.findDueForUpdate(anyCollection(), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(email));
+
+        List<EmailOutbox> claimed = dispatcher.claim(5);
+
+        assertEquals(1, claimed.size());
+        assertEquals(EmailOutboxStatus.SENDING, email.getStatus());
+        assertTrue(email.getNextAttemptAt().isAfter(LocalDateTime.now().plusMinutes(4)));
+        assertNotNull(email.getLeaseToken());
+        assertNotEquals(leaseToken, email.getLeaseToken());
+    }
+
+    @Test
+    void deliver_Success_MarksSent() {
+        when(mailSender.createMimeMessage()).thenReturn(newMimeMessage());
+
+        dispatcher.deliver(List.of(email));
+
+        verify(mailSender).send(any(MimeMessage[].class));
+        verify(outboxRepository).markSent(eq(email.getId()), eq(leaseToken), eq(1), any(LocalDateTime.class));
+        assertEquals(1.0, meterRegistry.get("email.outbox.sent").counter().count());
+    }
+
+    @Test
+    void deliver_Failure_SchedulesRetryWithBackoff() {
+        when(mailSender.createMimeMessage()).thenReturn(newMimeMessage());
+        doThrow(new MailSendException("Connection refused")).when(mailSender).send(any(MimeMessage[].class));
+        when(outboxRepository.markFailed(any(), any(), any(), anyInt(), any(), any())).thenReturn(1);
+
+        dispatcher.deliver(List.of(email));
+
+        verify(outboxRepository).markFailed(eq(email.getId()), eq(leaseToken), eq(EmailOutboxStatus.PENDING), eq(1),
+                argThat(next -> next.isAfter(LocalDateTime.now().plusSeconds(20))), eq("Connection refused"));
+        assertEquals(1.0, meterRegistry.get("email.outbox.retried").counter().count());
+    }
+
+    @Test
+    void deliver_FailureOnLastAttempt_DeadLetters() {
+        email.setAttempts(2);
+        when(mailSender.createMimeMessage()).thenReturn(newMimeMessage());
+        doThrow(new MailSendException("Mailbox unavailable")).when(mailSender).send(any(MimeMessage[].class));
+        when(outboxRepository.markFailed(any(), any(), any(), anyInt(), any(), any())).thenReturn(1);
+
+        dispatcher.deliver(List.of(email));
+
+        verify(outboxRepository).markFailed(eq(email.getId()), eq(leaseToken), eq(EmailOutboxStatus.DEAD), eq(3),
+                any(LocalDateTime.class), eq("Mailbox unavailable"));
+        assertEquals(1.0, meterRegistry.get("email.outbox.dead").counter().count());
+    }
+
+    @Test
+    void deliver_Batch_RetriesOnlyFailedMessages() {
+        EmailOutbox other = leased(EmailOutbox.builder()
+                .id(UUID.randomUUID())
+                .recipient("other@example.com")
+                .subject("Subject")
+                .htmlBody("<html>Body</html>")
+                .type("Welcome")
+                .build());
+        when(mailSender.createMimeMessage()).thenAnswer(invocation -> newMimeMessage());
+        doAnswer(invocation -> {
+            MimeMessage[] messages = (MimeMessage[]) invocation.getRawArguments()[0];
+            throw new MailSendException(Map.of(messages[1], new MessagingException("Recipient rejected")));
+        }).when(mailSender).send(any(MimeMessage[].class));
+
+        dispatcher.deliver(List.of(email, other));
+
+        verify(outboxRepository).markSent(eq(email.getId()), eq(leaseToken), eq(1), any(LocalDateTime.class));
+        verify(outboxRepository).markFailed(eq(other.getId()), eq(leaseToken), eq(EmailOutboxStatus.PENDING), eq(1),
+                any(LocalDateTime.class), eq("Recipient rejected"));
+    }
+
+    @Test
+    void deliver_ConnectionFailure_RetriesWholeBatch() {
+        when(mailSender.createMimeMessage()).thenReturn(newMimeMessage());
+        doThrow(new MailSendException("Mail server connection failed")).when(mailSender).send(any(MimeMessage[].class));
+
+        dispatcher.deliver(List.of(email));
+
+        verify(outboxRepository, never()).markSent(any(), any(), anyInt(), any());
+        verify(outboxRepository).markFailed(eq(email.getId()), eq(leaseToken), eq(EmailOutboxStatus.PENDING), eq(1),
+                any(LocalDateTime.class), eq("Mail server connection failed"));
+    }
+
+    @Test
+    void deliver_FailureAfterLosingTheLease_LeavesTheRowToTheNewHolder() {
+        when(mailSender.createMimeMessage()).thenReturn(newMimeMessage());
+        doThrow(new MailSendException("Connection refused")).when(mailSender).send(any(MimeMessage[].class));
+
+        dispatcher.deliver(List.of(email));
+
+        verify(outboxRepository).markFailed(eq(email.getId()), eq(leaseToken), eq(EmailOutboxStatus.PENDING), eq(1),
+                any(LocalDateTime.class), any());
+        assertEquals(0.0, meterRegistry.get("email.outbox.retried").counter().count());
+    }
+
+    @Test
+    void deliver_LeaseAlreadyExpired_SkipsTheMessage() {
+        email.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+
+        dispatcher.deliver(List.of(email));
+
+        verifyNoInteractions(mailSender);
+        verify(outboxRepository, never()).markSent(any(), any(), anyInt(), any());
+    }
+
+    @Test
+    void deliver_RendersTheTemplateAtDispatch() {
+        EmailOutbox templated = leased(EmailOutbox.builder()
+                .id(UUID.randomUUID())
+                .recipient("user@example.com")
+                .subject("Welcome")
+                .template("email-welcome")
+                .variables(Map.of("firstName", "John"))
+                .type("Welcome")
+                .build());
+        MimeMessage message = newMimeMessage();
+        when(mailSender.createMimeMessage()).thenReturn(message);
+        when(templateRenderer.render("email-welcome", Map.of("firstName", "John"))).thenReturn("<html>Hi John</html>");
+
+        dispatcher.deliver(List.of(templated));
+
+        verify(templateRenderer).render("email-welcome", Map.of("firstName", "John"));
+        verify(mailSender).send(any(MimeMessage[].class));
+        verify(outboxRepository).markSent(eq(templated.getId()), eq(leaseToken), eq(1), any(LocalDateTime.class));
+    }
+
+    @Test
+    void sendWithoutOutbox_SendsWithoutTouchingTheTable() {
+        when(mailSender.createMimeMessage()).thenReturn(newMimeMessage());
+
+        dispatcher.sendWithoutOutbox("user@example.com", "Code", "<html>123456</html>", "OTP");
+
+        verify(mailSender, timeout(1000)).send(any(MimeMessage.class));
+        verifyNoInteractions(outboxRepository);
+    }
+
+    @Test
+    void sendWithoutOutbox_InsideATransaction_WaitsForTheCommit() throws Exception {
+        when(mailSender.createMimeMessage()).thenReturn(newMimeMessage());
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            dispatcher.sendWithoutOutbox("user@example.com", "Code", "<html>123456</html>", "OTP");
+
+            Thread.sleep(100);
+            verify(mailSender, never()).send(any(MimeMessage.class));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(mailSender, timeout(1000)).send(any(MimeMessage.class));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void sendWithoutOutbox_QueueFull_RefusesWithoutWaitingBehindTheOutbox() throws Exception {
+        CountDownLatch smtpBlocked = new CountDownLatch(1);
+        when(mailSender.createMimeMessage()).thenAnswer(invocation -> newMimeMessage());
+        doAnswer(invocation -> {
+            smtpBlocked.await();
+            return null;
+        }).when(mailSender).send(any(MimeMessage.class));
+        try {
+            // one on the worker, one waiting
+            dispatcher.sendWithoutOutbox("a@example.com", "Code", "<html>1</html>", "OTP");
+            dispatcher.sendWithoutOutbox("b@example.com", "Code", "<html>2</html>", "OTP");
+
+            assertThrows(ServiceUnavailableException.class,
+                    () -> dispatcher.sendWithoutOutbox("c@example.com", "Code", "<html>3</html>", "OTP"));
+            assertEquals(1.0, meterRegistry.get("email.direct.rejected").counter().count());
+        } finally {
+            smtpBlocked.countDown();
+        }
+        verify(mailSender, timeout(1000).times(2)).send(any(MimeMessage.class));
+    }
+
+    @Test
+    void sendWithoutOutbox_SmtpFailing_RefusesUntilTheBreakerCloses() {
+        when(mailSender.createMimeMessage()).thenAnswer(invocation -> newMimeMessage());
+        doThrow(new MailSendException("connection refused")).when(mailSender).send(any(MimeMessage.class));
+
+        dispatcher.sendWithoutOutbox("a@example.com", "Code", "<html>1</html>", "OTP");
+        dispatcher.sendWithoutOutbox("b@example.com", "Code", "<html>2</html>", "OTP");
+        verify(mailSender, timeout(1000).times(2)).send(any(MimeMessage.class));
+
+        // recorded just after the send throws, on the worker
+        await(() -> circuitBreakerRegistry.circuitBreaker(EmailOutboxDispatcher.SMTP_CIRCUIT_BREAKER).getState()
+                == CircuitBreaker.State.OPEN);
+        assertThrows(ServiceUnavailableException.class,
+                () -> dispatcher.sendWithoutOutbox("c@example.com", "Code", "<html>3</html>", "OTP"));
+        assertEquals(2.0, meterRegistry.get("email.direct.failed").counter().count());
+    }
+
+    @Test
+    void sendWithoutOutbox_RolledBack_FreesItsSlot() {
+        when(mailSender.createMimeMessage()).thenAnswer(invocation -> newMimeMessage());
+        for (int i = 0; i < 3; i++) {
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                dispatcher.sendWithoutOutbox("user@example.com", "Code", "<html>123456</html>", "OTP");
+                TransactionSynchronizationManager.getSynchronizations()
+                        .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+            } finally {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+        }
+
+        dispatcher.sendWithoutOutbox("user@example.com", "Code", "<html>123456</html>", "OTP");
+
+        verify(mailSender, timeout(1000)).send(any(MimeMessage.class));
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met within 1s");
+            Thread.onSpinWait();
+        }
+    }
+
+    @Test
+    void backoff_GrowsExponentiallyUpToCap() {
+        Duration first = dispatcher.backoff(1);
+        Duration third = dispatcher.backoff(3);
+        Duration tenth = dispatcher.backoff(10);
+
+        assertTrue(first.toSeconds() >= 24 && first.toSeconds() <= 30);
+        assertTrue(third.toSeconds() >= 96 && third.toSeconds() <= 120);
+        assertTrue(tenth.compareTo(Duration.ofMinutes(10)) <= 0);
+        assertTrue(tenth.compareTo(Duration.ofMinutes(8)) >= 0);
+    }
+
+    @Test
+    void deleteSentMessages_DeletesOlderThanRetention() {
+        dispatcher.deleteSentMessages();
+
+        verify(outboxRepository).findSentIdsBefore(argThat(cutoff -> cutoff.isBefore(LocalDateTime.now().minusDays(6))),
+                any(Pageable.class));
+        verify(outboxRepository, never()).deleteByIdIn(any());
+    }
+
+    @Test
+    void deleteSentBefore_DeletesInBatchesUntilAShortOne() {
+        List<UUID> full = List.of(UUID.randomUUID(), UUID.randomUUID());
+        List<UUID> last = List.of(UUID.randomUUID());
+        when(outboxRepository.findSentIdsBefore(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(full, last);
+        when(outboxRepository.deleteByIdIn(full)).thenReturn(2);
+        when(outboxRepository.deleteByIdIn(last)).thenReturn(1);
+
+        long deleted = dispatcher.deleteSentBefore(LocalDateTime.now());
+
+        assertEquals(3, deleted);
+        verify(outboxRepository, times(2)).findSentIdsBefore(any(LocalDateTime.class),
+                argThat(page -> page.getPageSize() == 2));
+    }
+}
@@ -0,0 +1,157 @@
+package com.javaguy.nhx.service.email;
+
+import com.javaguy.nhx.model.entity.EmailOutbox;
+import com.javaguy.nhx.model.entity.User;
+import com.javaguy.nhx.model.enums.EmailOutboxStatus;
+import com.javaguy.nhx.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the outbox against a local SMTP server that takes {@link #SMTP_DELAY} per step, to show
+ * that queueing a notification no longer waits on SMTP while the dispatcher still delivers it.
+ */
+class EmailOutboxSlowSmtpTest {
+
+    private static final Duration SMTP_DELAY = Duration.ofMillis(750);
+
+    private FakeSmtpServer smtpServer;
+    private EmailOutboxRepository outboxRepository;
+    private EmailNotificationService notificationService;
+    private EmailOutboxDispatcher dispatcher;
+    private PooledJavaMailSender mailSender;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        smtpServer = new FakeSmtpServer(SMTP_DELAY);
+        outboxRepository = mock(EmailOutboxRepository.class);
+        when(outboxRepository.save(any(EmailOutbox.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        EmailTemplateRenderer templateRenderer = mock(EmailTemplateRenderer.class);
+        when(templateRenderer.render(anyString(), anyMap())).thenReturn("<html>Welcome</html>");
+
+        mailSender = new PooledJavaMailSender(1, 100, Duration.ofMinutes(1));
+        mailSender.setHost("localhost");
+        mailSender.setPort(smtpServer.getPort());
+
+        dispatcher = new EmailOutboxDispatcher(outboxRepository, mailSender, templateRenderer,
+                mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(dispatcher, "fromAddress", "from@example.com");
+        ReflectionTestUtils.setField(dispatcher, "workers", 1);
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 10);
+        ReflectionTestUtils.setField(dispatcher, "sendBatchSize", 10);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 3);
+        ReflectionTestUtils.setField(dispatcher, "initialBackoff", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(dispatcher, "maxBackoff", Duration.ofSeconds(10));
+        ReflectionTestUtils.setField(dispatcher, "lease", Duration.ofMinutes(1));
+        dispatcher.init();
+
+        notificationService = new EmailNotificationService(outboxRepository, templateRenderer, dispatcher);
+        ReflectionTestUtils.setField(notificationService, "appName", "TestApp");
+        ReflectionTestUtils.setField(notificationService, "appBaseUrl", "http://localhost:3000");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        dispatcher.shutdown();
+        mailSender.destroy();
+        smtpServer.close();
+    }
+
+    @Test
+    void queueingEmail_DoesNotWaitForSmtp() {
+        long start = System.nanoTime();
+        notificationService.sendWelcomeEmail(User.builder().email("user@example.com").firstName("John").build());
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        assertTrue(elapsed.compareTo(SMTP_DELAY) < 0, "queueing took " + elapsed.toMillis() + " ms");
+        assertEquals(0, smtpServer.getConnectionCount());
+        verify(outboxRepository).save(any(EmailOutbox.class));
+    }
+
+    @Test
+    void dispatcher_DeliversQueuedEmailThroughSlowSmtp() {
+        EmailOutbox queued = leased(EmailOutbox.builder()
+                .id(UUID.randomUUID())
+                .recipient("user@example.com")
+                .subject("Welcome to TestApp")
+                .template("email-welcome")
+                .type("Welcome")
+                .build());
+
+        long start = System.nanoTime();
+        dispatcher.deliver(List.of(queued));
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        assertTrue(elapsed.compareTo(SMTP_DELAY) >= 0);
+        assertEquals(1, smtpServer.getMessages().size());
+        assertTrue(smtpServer.getMessages().get(0).contains("Subject: Welcome to TestApp"));
+        verify(outboxRepository).markSent(eq(queued.getId()), eq(queued.getLeaseToken()), eq(1), any(LocalDateTime.class));
+    }
+
+    @Test
+    void dispatcher_SendsSuccessiveBatchesOverOneConnection() {
+        List<EmailOutbox> first = List.of(outboxEmail("a@example.com"), outboxEmail("b@example.com"));
+        List<EmailOutbox> second = List.of(outboxEmail("c@example.com"));
+
+        dispatcher.deliver(first);
+        long start = System.nanoTime();
+        dispatcher.deliver(second);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        assertEquals(3, smtpServer.getMessages().size());
+        assertEquals(1, smtpServer.getConnectionCount());
+        assertEquals(1, mailSender.getConnectionsOpened());
+        // the second batch skips the connect and greeting, paying only for its own DATA
+        assertTrue(elapsed.compareTo(SMTP_DELAY.multipliedBy(2)) < 0, "second batch took " + elapsed.toMillis() + " ms");
+        verify(outboxRepository, times(3)).markSent(any(UUID.class), any(UUID.class), eq(1), any(LocalDateTime.class));
+    }
+
+    @Test
+    void sendingAnOtp_DoesNotWaitForSmtpOrTouchTheOutbox() {
+        long start = System.nanoTime();
+        notificationService.sendOtpEmail("user@example.com", "123456");
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        assertTrue(elapsed.compareTo(SMTP_DELAY) < 0, "sending took " + elapsed.toMillis() + " ms");
+        verify(outboxRepository, never()).save(any(EmailOutbox.class));
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            while (smtpServer.getMessages().isEmpty()) {
+                Thread.sleep(50);
+            }
+        });
+    }
+
+    private static EmailOutbox outboxEmail(String recipient) {
+        return leased(EmailOutbox.builder()
+                .id(UUID.randomUUID())
+                .recipient(recipient)
+                .subject("Subject")
+                .htmlBody("<html>Body</html>")
+                .type("Welcome")
+                .build());
+    }
+
+    private static EmailOutbox leased(EmailOutbox email) {
+        email.setStatus(EmailOutboxStatus.SENDING);
+        email.setNextAttemptAt(LocalDateTime.now().plusMinutes(1));
+        email.setLeaseToken(UUID.randomUUID());
+        return email;
+    }
+}
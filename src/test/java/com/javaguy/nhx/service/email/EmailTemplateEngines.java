@@ -0,0 +1,26 @@
+package com.javaguy.nhx.service.email;
+
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+/**
+ * The template engine Boot configures for {@code classpath:templates/}, with caching and the SpEL
+ * compiler on, for tests that build an {@link EmailTemplateRenderer} without a context.
+ */
+public class EmailTemplateEngines {
+
+    public static SpringTemplateEngine classpath() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        resolver.setCacheable(true);
+
+        SpringTemplateEngine engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(resolver);
+        engine.setEnableSpringELCompiler(true);
+        return engine;
+    }
+}
@@ -0,0 +1,83 @@
+package com.javaguy.nhx.service.email;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.IContext;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class EmailTemplateRendererTest {
+
+    private EmailTemplateRenderer renderer;
+
+    @BeforeEach
+    void setUp() {
+        renderer = new EmailTemplateRenderer(EmailTemplateEngines.classpath(), "TestApp", "support@example.com");
+        renderer.warmUp();
+    }
+
+    @Test
+    void warmUp_DiscoversEveryEmailTemplateExceptLayout() {
+        assertEquals(14, renderer.getTemplateNames().size());
+        assertTrue(renderer.getTemplateNames().contains("email-otp"));
+        assertFalse(renderer.getTemplateNames().contains(EmailTemplateRenderer.LAYOUT_TEMPLATE));
+    }
+
+    @Test
+    void warmUp_RendersEveryTemplateThroughTheInjectedEngineWithSampleVariables() {
+        ITemplateEngine engine = mock(ITemplateEngine.class);
+        EmailTemplateRenderer injected = new EmailTemplateRenderer(engine, "TestApp", "support@example.com");
+
+        injected.warmUp();
+
+        verify(engine, times(14)).process(anyString(),
+                argThat((IContext context) -> context.getVariable("otp") != null && context.getVariable("notes") != null));
+    }
+
+    @Test
+    void render_SubstitutesCallVariables() {
+        String html = renderer.render("email-otp", Map.of("otp", "987654", "expiryMinutes", 10));
+
+        assertTrue(html.contains("987654"));
+        assertTrue(html.contains("10"));
+    }
+
+    @Test
+    void render_AllowsNullCallVariables() {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("firstName", "John");
+        variables.put("notes", null);
+
+        assertDoesNotThrow(() -> renderer.render("email-kyc-rejected", variables));
+    }
+
+    @Test
+    void render_EveryTemplateRendersWithoutCallVariables() {
+        for (String template : renderer.getTemplateNames()) {
+            assertDoesNotThrow(() -> renderer.render(template, Map.of()), template);
+        }
+    }
+
+    @Test
+    void render_ExposesSharedGlobals() {
+        String html = renderer.render("email-welcome", Map.of("firstName", "John", "dashboardUrl", "http://localhost"));
+
+        assertTrue(html.contains("TestApp"));
+    }
+
+    @Test
+    void render_CallVariablesTakePrecedenceOverGlobals() {
+        String html = renderer.render("email-welcome",
+                Map.of("firstName", "John", "dashboardUrl", "http://localhost", "appName", "OtherApp"));
+
+        assertTrue(html.contains("OtherApp"));
+        assertFalse(html.contains("TestApp"));
+    }
+}
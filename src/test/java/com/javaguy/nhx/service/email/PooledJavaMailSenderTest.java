@@ -0,0 +1,101 @@
+package com.javaguy.nhx.service.email;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PooledJavaMailSenderTest {
+
+    private FakeSmtpServer smtpServer;
+    private PooledJavaMailSender mailSender;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        smtpServer = new FakeSmtpServer(Duration.ZERO);
+        mailSender = newSender(2, 3, Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        mailSender.destroy();
+        smtpServer.close();
+    }
+
+    private PooledJavaMailSender newSender(int maxConnections, int maxMessagesPerConnection, Duration idleTimeout) {
+        PooledJavaMailSender sender = new PooledJavaMailSender(maxConnections, maxMessagesPerConnection, idleTimeout);
+        sender.setHost("localhost");
+        sender.setPort(smtpServer.getPort());
+        return sender;
+    }
+
+    private MimeMessage message(String to) throws Exception {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, false, "UTF-8");
+        helper.setFrom("from@example.com");
+        helper.setTo(to);
+        helper.setSubject("Hello " + to);
+        helper.setText("<p>Hi</p>", true);
+        return message;
+    }
+
+    @Test
+    void send_ReusesConnectionAcrossCalls() throws Exception {
+        mailSender.send(message("a@example.com"));
+        mailSender.send(message("b@example.com"));
+
+        assertEquals(2, smtpServer.getMessages().size());
+        assertEquals(1, smtpServer.getConnectionCount());
+        assertEquals(1, mailSender.getConnectionsOpened());
+        assertEquals(1, mailSender.getIdleConnectionCount());
+    }
+
+    @Test
+    void send_BatchGoesOverOneConnection() throws Exception {
+        mailSender.send(message("a@example.com"), message("b@example.com"), message("c@example.com"));
+
+        assertEquals(3, smtpServer.getMessages().size());
+        assertEquals(1, smtpServer.getConnectionCount());
+    }
+
+    @Test
+    void send_RecyclesConnectionAfterMaxMessages() throws Exception {
+        mailSender.send(message("a@example.com"), message("b@example.com"), message("c@example.com"),
+                message("d@example.com"));
+
+        assertEquals(4, smtpServer.getMessages().size());
+        assertEquals(2, mailSender.getConnectionsOpened());
+        assertEquals(4, mailSender.getMessagesSent());
+    }
+
+    @Test
+    void evictIdleConnections_ClosesConnectionsPastIdleTimeout() throws Exception {
+        mailSender.destroy();
+        mailSender = newSender(2, 100, Duration.ZERO);
+
+        mailSender.send(message("a@example.com"));
+        assertEquals(1, mailSender.getIdleConnectionCount());
+
+        mailSender.evictIdleConnections();
+
+        assertEquals(0, mailSender.getIdleConnectionCount());
+    }
+
+    @Test
+    void bindTo_PublishesConnectionAndMessageCounts() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        mailSender.bindTo(registry);
+
+        mailSender.send(message("a@example.com"), message("b@example.com"));
+
+        assertEquals(1.0, registry.get("mail.smtp.connections.opened").functionCounter().count());
+        assertEquals(2.0, registry.get("mail.smtp.messages.sent").functionCounter().count());
+        assertEquals(1.0, registry.get("mail.smtp.connections.idle").gauge().value());
+    }
+}
@@ -13,20 +13,25 @@ import com.javaguy.nhx.repository.KycDocumentRepository;
 import com.javaguy.nhx.repository.UserRepository;
 import com.javaguy.nhx.service.email.NotificationService;
 import com.javaguy.nhx.service.storage.DocumentStorageService;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -44,8 +49,9 @@ class KycServiceTest {
     private DocumentStorageService storageService;
     @Mock
     private NotificationService notificationService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
 
-    @InjectMocks
     private KycService kycService;
 
     private UUID userId;
@@ -56,6 +62,11 @@ class KycServiceTest {
 
     @BeforeEach
     void setUp() {
+        kycService = new KycService(userRepository, kycDocumentRepository, storageService, notificationService,
+                transactionManager);
+        ReflectionTestUtils.setField(kycService, "uploadParallelism", 2);
+        kycService.init();
+
         userId = UUID.randomUUID();
         user = User.builder()
                 .id(userId)
@@ -76,6 +87,11 @@ class KycServiceTest {
                 "documentBack", "back.jpg", MediaType.IMAGE_JPEG_VALUE, "back_content".getBytes());
     }
 
+    @AfterEach
+    void tearDown() {
+        kycService.shutdown();
+    }
+
     @Test
     void initiateKyc_Success() {
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
@@ -121,13 +137,60 @@ class KycServiceTest {
         assertNotNull(response);
         assertEquals(KycStatus.SUBMITTED.name(), response.getStatus());
         assertEquals("KYC documents submitted successfully. Your submission is under review.", response.getMessage());
-        verify(userRepository, times(1)).findById(userId);
+        // once to validate before the uploads, once inside the transaction that records them
+        verify(userRepository, times(2)).findById(userId);
         verify(storageService, times(1)).store(anyString(), eq(mockDocumentFront));
         verify(storageService, times(1)).store(anyString(), eq(mockDocumentBack));
         verify(kycDocumentRepository, times(1)).save(any(KycDocument.class));
         verify(userRepository, times(1)).save(user);
         assertEquals(KycStatus.SUBMITTED, user.getKycStatus());
         verify(notificationService, times(1)).notifyAdminsOnKycSubmission(user);
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    void submitDocuments_UploadsFrontAndBackConcurrently() throws Exception {
+        user.setKycStatus(KycStatus.INITIATED);
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        CountDownLatch bothUploading = new CountDownLatch(2);
+        when(storageService.store(anyString(), any(MultipartFile.class))).thenAnswer(invocation -> {
+            bothUploading.countDown();
+            // only returns once the other document is uploading at the same time
+            assertTrue(bothUploading.await(2, TimeUnit.SECONDS), "uploads did not overlap");
+            return "path/to/" + invocation.<MultipartFile>getArgument(1).getOriginalFilename();
+        });
+        when(kycDocumentRepository.save(any(KycDocument.class))).thenAnswer(invocation -> {
+            KycDocument kycDoc = invocation.getArgument(0);
+            kycDoc.setId(UUID.randomUUID());
+            return kycDoc;
+        });
+
+        kycService.submitDocuments(userId, kycSubmissionRequest, mockDocumentFront, mockDocumentBack);
+
+        ArgumentCaptor<KycDocument> saved = ArgumentCaptor.forClass(KycDocument.class);
+        verify(kycDocumentRepository).save(saved.capture());
+        assertEquals("path/to/front.jpg", saved.getValue().getDocumentFrontPath());
+        assertEquals("path/to/back.jpg", saved.getValue().getDocumentBackPath());
+    }
+
+    @Test
+    void submitDocuments_NoTransactionDuringUpload() {
+        user.setKycStatus(KycStatus.INITIATED);
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(storageService.store(anyString(), any(MultipartFile.class))).thenAnswer(invocation -> {
+            verifyNoInteractions(transactionManager);
+            return "path/to/document";
+        });
+        when(kycDocumentRepository.save(any(KycDocument.class))).thenAnswer(invocation -> {
+            KycDocument kycDoc = invocation.getArgument(0);
+            kycDoc.setId(UUID.randomUUID());
+            return kycDoc;
+        });
+
+        kycService.submitDocuments(userId, kycSubmissionRequest, mockDocumentFront, mockDocumentBack);
+
+        verify(transactionManager, times(1)).getTransaction(any());
+        verify(transactionManager, times(1)).commit(any());
     }
 
     @Test
@@ -220,6 +283,54 @@ class KycServiceTest {
         verify(kycDocumentRepository, never()).save(any(KycDocument.class));
     }
 
+    @Test
+    void submitDocuments_FrontUploadFails_DeletesStoredBack() {
+        user.setKycStatus(KycStatus.INITIATED);
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(storageService.store(anyString(), eq(mockDocumentFront))).thenThrow(new RuntimeException("Storage error"));
+        when(storageService.store(anyString(), eq(mockDocumentBack))).thenReturn("path/to/back.jpg");
+
+        assertThrows(InternalServerException.class,
+                () -> kycService.submitDocuments(userId, kycSubmissionRequest, mockDocumentFront, mockDocumentBack));
+
+        verify(storageService).delete("path/to/back.jpg");
+        verify(kycDocumentRepository, never()).save(any(KycDocument.class));
+    }
+
+    @Test
+    void submitDocuments_BackUploadFails_DeletesFrontOnceStored() {
+        user.setKycStatus(KycStatus.INITIATED);
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(storageService.store(anyString(), eq(mockDocumentFront))).thenReturn("path/to/front.jpg");
+        when(storageService.store(anyString(), eq(mockDocumentBack))).thenThrow(new RuntimeException("Storage error"));
+
+        assertThrows(InternalServerException.class,
+                () -> kycService.submitDocuments(userId, kycSubmissionRequest, mockDocumentFront, mockDocumentBack));
+
+        // the front upload may finish after the request has failed
+        verify(storageService, timeout(5000)).delete("path/to/front.jpg");
+        verify(kycDocumentRepository, never()).save(any(KycDocument.class));
+    }
+
+    @Test
+    void submitDocuments_SaveFails_DeletesBothDocuments() {
+        user.setKycStatus(KycStatus.INITIATED);
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(storageService.store(anyString(), eq(mockDocumentFront))).thenReturn("path/to/front.jpg");
+        when(storageService.store(anyString(), eq(mockDocumentBack))).thenReturn("path/to/back.jpg");
+        when(kycDocumentRepository.save(any(KycDocument.class))).thenThrow(new RuntimeException("DB error"));
+        doThrow(new RuntimeException("Blob gone")).when(storageService).delete("path/to/front.jpg");
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> kycService.submitDocuments(userId, kycSubmissionRequest, mockDocumentFront, mockDocumentBack));
+
+        assertEquals("DB error", e.getMessage());
+        // a failed cleanup is logged and does not stop the next one
+        verify(storageService).delete("path/to/front.jpg");
+        verify(storageService).delete("path/to/back.jpg");
+        verify(transactionManager).rollback(any());
+    }
+
     @Test
     void getKycStatus_UserNotFound_ThrowsResourceNotFoundException() {
         when(userRepository.findById(userId)).thenReturn(Optional.empty());
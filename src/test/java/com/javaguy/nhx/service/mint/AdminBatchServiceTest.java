@@ -0,0 +1,127 @@
+package com.javaguy.nhx.service.mint;
+
+import com.javaguy.nhx.exception.custom.BadRequestException;
+import com.javaguy.nhx.exception.custom.InternalServerException;
+import com.javaguy.nhx.exception.custom.ServiceUnavailableException;
+import com.javaguy.nhx.model.dto.request.AdminMintRequest;
+import com.javaguy.nhx.model.dto.response.BatchItemResult;
+import com.javaguy.nhx.model.dto.response.BatchOperationResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AdminBatchServiceTest {
+
+    @Mock
+    private AdminMintService adminMintService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AdminBatchService batchService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        batchService = new AdminBatchService(adminMintService, meterRegistry);
+        ReflectionTestUtils.setField(batchService, "parallelism", 4);
+        ReflectionTestUtils.setField(batchService, "maxItems", 10);
+        ReflectionTestUtils.setField(batchService, "maxQueuedItems", 6);
+        batchService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        batchService.shutdown();
+    }
+
+    @Test
+    void mintAll_ReturnsResultPerItemInOrder() {
+        List<AdminMintRequest> requests = List.of(
+                new AdminMintRequest("100"), new AdminMintRequest("200"), new AdminMintRequest("300"));
+        when(adminMintService.mint(any(AdminMintRequest.class), anyString()))
+                .thenAnswer(invocation -> "minted " + invocation.<AdminMintRequest>getArgument(0).amount());
+        when(adminMintService.mint(requests.get(1), "batch-1-1"))
+                .thenThrow(new InternalServerException("Server error while calling sdk API"));
+
+        BatchOperationResponse response = batchService.mintAll(requests, "batch-1");
+
+        assertEquals("batch-1", response.getIdempotencyKey());
+        assertEquals(3, response.getTotal());
+        assertEquals(2, response.getSucceeded());
+        assertEquals(1, response.getFailed());
+
+        List<BatchItemResult> results = response.getResults();
+        assertEquals(List.of(0, 1, 2), results.stream().map(BatchItemResult::getIndex).toList());
+        assertEquals(List.of("batch-1-0", "batch-1-1", "batch-1-2"),
+                results.stream().map(BatchItemResult::getIdempotencyKey).toList());
+        assertEquals("minted 100", results.get(0).getResponse());
+        assertFalse(results.get(1).isSuccess());
+        assertEquals("Server error while calling sdk API", results.get(1).getError());
+        assertEquals("minted 300", results.get(2).getResponse());
+
+        assertEquals(2.0, meterRegistry.get("sdk.batch.items").tag("outcome", "success").counter().count());
+        assertEquals(1.0, meterRegistry.get("sdk.batch.items").tag("outcome", "failure").counter().count());
+    }
+
+    @Test
+    void mintAll_EmptyBatch_Throws() {
+        assertThrows(BadRequestException.class, () -> batchService.mintAll(Collections.emptyList(), "batch-1"));
+        verifyNoInteractions(adminMintService);
+    }
+
+    @Test
+    void mintAll_TooManyItems_Throws() {
+        List<AdminMintRequest> requests = Collections.nCopies(11, new AdminMintRequest("100"));
+
+        assertThrows(BadRequestException.class, () -> batchService.mintAll(requests, "batch-1"));
+        verifyNoInteractions(adminMintService);
+    }
+
+    @Test
+    void mintAll_KeyTooLongForItems_Throws() {
+        assertThrows(BadRequestException.class,
+                () -> batchService.mintAll(List.of(new AdminMintRequest("100")), "k".repeat(127)));
+        verifyNoInteractions(adminMintService);
+    }
+
+    @Test
+    void mintAll_NoRoomForWholeBatch_RefusedWithoutStartingIt() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(adminMintService.mint(any(AdminMintRequest.class), anyString())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return "minted";
+        });
+        List<AdminMintRequest> requests = Collections.nCopies(8, new AdminMintRequest("100"));
+        CompletableFuture<BatchOperationResponse> first =
+                CompletableFuture.supplyAsync(() -> batchService.mintAll(requests, "batch-1"));
+        verify(adminMintService, timeout(5000).times(4)).mint(any(AdminMintRequest.class), anyString());
+
+        // 4 running + 4 queued leaves 2 of the 10 slots
+        assertThrows(ServiceUnavailableException.class,
+                () -> batchService.mintAll(List.of(new AdminMintRequest("1"), new AdminMintRequest("2"),
+                        new AdminMintRequest("3")), "batch-2"));
+        assertEquals(1.0, meterRegistry.get("sdk.batch.rejected").counter().count());
+
+        release.countDown();
+        assertEquals(8, first.get(5, TimeUnit.SECONDS).getSucceeded());
+        assertEquals(3, batchService.mintAll(requests.subList(0, 3), "batch-2").getSucceeded());
+        // the refused attempt never reached the SDK
+        verify(adminMintService, times(11)).mint(any(AdminMintRequest.class), anyString());
+    }
+}
@@ -0,0 +1,100 @@
+package com.javaguy.nhx.service.mint;
+
+import com.javaguy.nhx.config.RestClientConfig;
+import com.javaguy.nhx.config.UpstreamClientProperties;
+import com.javaguy.nhx.model.dto.request.AdminTransferRequest;
+import com.javaguy.nhx.model.dto.response.BatchItemResult;
+import com.javaguy.nhx.model.dto.response.BatchOperationResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Batch transfers through the real sdk RestClient against a stub SDK with a fixed per-call
+ * latency: the batch should keep {@code parallelism} calls in flight at once, report failed items
+ * individually, and on resubmission only call the SDK for the items that failed. Wall-clock
+ * throughput is measured by {@code AdminBatchThroughputBenchmark}.
+ */
+class AdminBatchServiceThroughputTest {
+
+    private static final int ITEMS = 64;
+    private static final int PARALLELISM = 16;
+    private static final Duration SDK_LATENCY = Duration.ofMillis(50);
+
+    private SdkStubServer sdk;
+    private RestClientConfig restClientConfig;
+    private AdminBatchService batchService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        sdk = new SdkStubServer();
+        sdk.setLatency(SDK_LATENCY);
+
+        UpstreamClientProperties properties = new UpstreamClientProperties();
+        restClientConfig = new RestClientConfig(properties, new SimpleMeterRegistry());
+
+        AdminMintService adminMintService = new AdminMintService(restClientConfig.sdkRestClient(),
+                new SdkIdempotencyLedger(InMemorySdkIdempotencyRecords.repository()));
+        ReflectionTestUtils.setField(adminMintService, "SDK_URL", sdk.getUrl());
+        ReflectionTestUtils.setField(adminMintService, "SDK_API_KEY", "test-key");
+
+        batchService = new AdminBatchService(adminMintService, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(batchService, "parallelism", PARALLELISM);
+        ReflectionTestUtils.setField(batchService, "maxItems", 500);
+        ReflectionTestUtils.setField(batchService, "maxQueuedItems", 1000);
+        batchService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        batchService.shutdown();
+        restClientConfig.destroy();
+        sdk.close();
+    }
+
+    private static List<AdminTransferRequest> transfers(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new AdminTransferRequest(String.valueOf(1000 + i), "0.0." + (5000 + i)))
+                .toList();
+    }
+
+    @Test
+    void transferAll_RunsItemsInParallel() {
+        BatchOperationResponse response = batchService.transferAll(transfers(ITEMS), "batch-1");
+
+        assertEquals(ITEMS, response.getSucceeded());
+        assertEquals(0, response.getFailed());
+        assertEquals(PARALLELISM, sdk.getMaxInProgress());
+    }
+
+    @Test
+    void transferAll_PartialFailure_ReportsPerItemAndResubmitOnlyRetriesFailures() {
+        List<AdminTransferRequest> requests = transfers(8);
+        sdk.rejectBodiesContaining("\"targetAccountId\":\"0.0.5003\"");
+
+        BatchOperationResponse first = batchService.transferAll(requests, "batch-2");
+
+        assertEquals(7, first.getSucceeded());
+        assertEquals(1, first.getFailed());
+        BatchItemResult failed = first.getResults().get(3);
+        assertFalse(failed.isSuccess());
+        assertEquals("batch-2-3", failed.getIdempotencyKey());
+        assertNotNull(failed.getError());
+        assertEquals(8, sdk.getRequestCount());
+
+        sdk.rejectBodiesContaining(null);
+        BatchOperationResponse second = batchService.transferAll(requests, "batch-2");
+
+        assertEquals(8, second.getSucceeded());
+        assertEquals(9, sdk.getRequestCount());
+        assertEquals("batch-2-3", sdk.getIdempotencyKeys().get(8));
+    }
+}
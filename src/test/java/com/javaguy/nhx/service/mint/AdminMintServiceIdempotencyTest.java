@@ -0,0 +1,87 @@
+package com.javaguy.nhx.service.mint;
+
+import com.javaguy.nhx.config.RestClientConfig;
+import com.javaguy.nhx.config.UpstreamClientProperties;
+import com.javaguy.nhx.exception.custom.ServiceUnavailableException;
+import com.javaguy.nhx.model.dto.request.AdminMintRequest;
+import com.javaguy.nhx.model.dto.request.AdminTransferRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * AdminMintService against a stub SDK, with the ledger backed by an in-memory map: a call that
+ * timed out on our side but completed at the SDK is retried with the same key, and once a key
+ * has completed the SDK is not called again.
+ */
+class AdminMintServiceIdempotencyTest {
+
+    private SdkStubServer sdk;
+    private RestClientConfig restClientConfig;
+    private AdminMintService adminMintService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        sdk = new SdkStubServer();
+
+        UpstreamClientProperties properties = new UpstreamClientProperties();
+        properties.getSdk().setReadTimeout(Duration.ofMillis(200));
+        restClientConfig = new RestClientConfig(properties, new SimpleMeterRegistry());
+
+        adminMintService = new AdminMintService(restClientConfig.sdkRestClient(),
+                new SdkIdempotencyLedger(InMemorySdkIdempotencyRecords.repository()));
+        ReflectionTestUtils.setField(adminMintService, "SDK_URL", sdk.getUrl());
+        ReflectionTestUtils.setField(adminMintService, "SDK_API_KEY", "test-key");
+    }
+
+    @AfterEach
+    void tearDown() {
+        restClientConfig.destroy();
+        sdk.close();
+    }
+
+    @Test
+    void mint_TimedOutThenRetried_SendsSameKeyAndRecordsResponse() {
+        AdminMintRequest request = new AdminMintRequest("1000");
+
+        // the SDK completes the mint, but only after our read timeout
+        sdk.setLatency(Duration.ofMillis(500));
+        assertThrows(ServiceUnavailableException.class, () -> adminMintService.mint(request, "mint-key-1"));
+
+        sdk.setLatency(Duration.ZERO);
+        assertEquals("{\"status\":\"minted\"}", adminMintService.mint(request, "mint-key-1"));
+        assertEquals("{\"status\":\"minted\"}", adminMintService.mint(request, "mint-key-1"));
+
+        // both SDK calls carried the caller's key, so the SDK can deduplicate the second;
+        // the third was answered from the ledger
+        assertEquals(List.of("mint-key-1", "mint-key-1"), sdk.getIdempotencyKeys());
+    }
+
+    @Test
+    void transfer_RepeatedKey_CallsSdkOnce() {
+        AdminTransferRequest request = new AdminTransferRequest("1000", "0.0.1234");
+
+        String first = adminMintService.transfer(request, "transfer-key-1");
+        String second = adminMintService.transfer(request, "transfer-key-1");
+
+        assertEquals(first, second);
+        assertEquals(1, sdk.getRequestCount());
+    }
+
+    @Test
+    void mint_DifferentKeys_CallSdkForEach() {
+        AdminMintRequest request = new AdminMintRequest("1000");
+
+        adminMintService.mint(request, "mint-key-1");
+        adminMintService.mint(request, "mint-key-2");
+
+        assertEquals(List.of("mint-key-1", "mint-key-2"), sdk.getIdempotencyKeys());
+    }
+}
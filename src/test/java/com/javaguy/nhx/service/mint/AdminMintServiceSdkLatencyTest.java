@@ -0,0 +1,136 @@
+package com.javaguy.nhx.service.mint;
+
+import com.javaguy.nhx.config.RestClientConfig;
+import com.javaguy.nhx.config.UpstreamClientProperties;
+import com.javaguy.nhx.exception.custom.ServiceUnavailableException;
+import com.javaguy.nhx.exception.custom.UpstreamBusyException;
+import com.javaguy.nhx.model.dto.request.AdminMintRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Drives AdminMintService against a stub SDK that injects latency, to check that the adaptive
+ * limit on the sdk client shrinks when the SDK slows down, rejects excess calls quickly instead
+ * of blocking the callers, and recovers once the SDK is fast again.
+ */
+class AdminMintServiceSdkLatencyTest {
+
+    private static final int MAX_LIMIT = 8;
+
+    private SdkStubServer sdk;
+    private RestClientConfig restClientConfig;
+    private SimpleMeterRegistry meterRegistry;
+    private AdminMintService adminMintService;
+    private ExecutorService callers;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        sdk = new SdkStubServer();
+        meterRegistry = new SimpleMeterRegistry();
+
+        UpstreamClientProperties properties = new UpstreamClientProperties();
+        properties.getSdk().setMaxConcurrentRequests(MAX_LIMIT);
+        properties.getSdk().setMinConcurrentRequests(2);
+        properties.getSdk().setSlowCallThreshold(Duration.ofMillis(100));
+        properties.getSdk().setMaxQueuedRequests(2);
+        properties.getSdk().setAcquireTimeout(Duration.ofMillis(100));
+        properties.getSdk().setReadTimeout(Duration.ofSeconds(5));
+        restClientConfig = new RestClientConfig(properties, meterRegistry);
+
+        adminMintService = new AdminMintService(restClientConfig.sdkRestClient(), mock(SdkIdempotencyLedger.class));
+        ReflectionTestUtils.setField(adminMintService, "SDK_URL", sdk.getUrl());
+        ReflectionTestUtils.setField(adminMintService, "SDK_API_KEY", "test-key");
+
+        callers = Executors.newFixedThreadPool(32);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        restClientConfig.destroy();
+        sdk.close();
+    }
+
+    private double limit() {
+        return meterRegistry.get("http.client.upstream.limit").tag("upstream", "sdk").gauge().value();
+    }
+
+    private double rejected() {
+        return meterRegistry.get("http.client.upstream.rejected").tag("upstream", "sdk").counters().stream()
+                .mapToDouble(counter -> counter.count())
+                .sum();
+    }
+
+    private void runWave(int calls, AtomicInteger failures, AtomicLong slowestFailureNanos) throws Exception {
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < calls; i++) {
+            futures.add(callers.submit(() -> {
+                long start = System.nanoTime();
+                try {
+                    adminMintService.mint(new AdminMintRequest("1000"), UUID.randomUUID().toString());
+                } catch (ServiceUnavailableException e) {
+                    // only local rejections fail here, and those must not be retried
+                    assertInstanceOf(UpstreamBusyException.class, e);
+                    failures.incrementAndGet();
+                    slowestFailureNanos.accumulateAndGet(System.nanoTime() - start, Math::max);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void slowSdk_ShrinksLimitAndRejectsExcessCallsFast() throws Exception {
+        sdk.setLatency(Duration.ofMillis(400));
+        AtomicInteger failures = new AtomicInteger();
+        AtomicLong slowestFailure = new AtomicLong();
+
+        runWave(MAX_LIMIT, failures, slowestFailure);
+        assertTrue(limit() < MAX_LIMIT, "limit should back off, was " + limit());
+
+        runWave(24, failures, slowestFailure);
+
+        assertTrue(failures.get() > 0);
+        assertEquals(failures.get(), (int) rejected());
+        // rejected callers gave up after at most the queue wait, well before a slow SDK call would finish
+        assertTrue(slowestFailure.get() < TimeUnit.MILLISECONDS.toNanos(400),
+                "slowest rejection took " + TimeUnit.NANOSECONDS.toMillis(slowestFailure.get()) + " ms");
+        assertTrue(sdk.getMaxInProgress() <= MAX_LIMIT);
+    }
+
+    @Test
+    void fastSdk_LimitRecovers() throws Exception {
+        sdk.setLatency(Duration.ofMillis(200));
+        AtomicInteger failures = new AtomicInteger();
+        AtomicLong slowestFailure = new AtomicLong();
+        runWave(MAX_LIMIT, failures, slowestFailure);
+        double reduced = limit();
+        assertTrue(reduced < MAX_LIMIT);
+
+        sdk.setLatency(Duration.ofMillis(20));
+        for (int i = 0; i < 10 && limit() < MAX_LIMIT; i++) {
+            runWave((int) limit(), failures, slowestFailure);
+        }
+
+        assertEquals(MAX_LIMIT, limit());
+    }
+}
@@ -0,0 +1,36 @@
+package com.javaguy.nhx.service.mint;
+
+import com.javaguy.nhx.model.entity.SdkIdempotencyRecord;
+import com.javaguy.nhx.repository.SdkIdempotencyRecordRepository;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * SdkIdempotencyRecordRepository backed by a map, for tests that run the real ledger against the
+ * stub SDK.
+ */
+public final class InMemorySdkIdempotencyRecords {
+
+    private InMemorySdkIdempotencyRecords() {
+    }
+
+    public static SdkIdempotencyRecordRepository repository() {
+        Map<String, SdkIdempotencyRecord> records = new ConcurrentHashMap<>();
+        SdkIdempotencyRecordRepository recordRepository = mock(SdkIdempotencyRecordRepository.class);
+        when(recordRepository.findById(anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(records.get(invocation.<String>getArgument(0))));
+        when(recordRepository.save(any(SdkIdempotencyRecord.class))).thenAnswer(invocation -> {
+            SdkIdempotencyRecord record = invocation.getArgument(0);
+            records.put(record.getIdempotencyKey(), record);
+            return record;
+        });
+        return recordRepository;
+    }
+}
@@ -0,0 +1,187 @@
+package com.javaguy.nhx.service.mint;
+
+import com.javaguy.nhx.model.entity.Mint;
+import com.javaguy.nhx.model.entity.User;
+import com.javaguy.nhx.model.entity.Wallet;
+import com.javaguy.nhx.model.enums.MintProcessingStage;
+import com.javaguy.nhx.model.enums.MintStatus;
+import com.javaguy.nhx.repository.MintRepository;
+import com.javaguy.nhx.service.email.NotificationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MintPipelineTest {
+
+    @Mock
+    private MintRepository mintRepository;
+    @Mock
+    private NotificationService notificationService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private MintPipeline pipeline;
+    private Mint mint;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        pipeline = new MintPipeline(mintRepository, notificationService, transactionManager, meterRegistry);
+        ReflectionTestUtils.setField(pipeline, "workers", 1);
+        ReflectionTestUtils.setField(pipeline, "queueCapacity", 10);
+        ReflectionTestUtils.setField(pipeline, "stallTimeout", Duration.ofMinutes(2));
+        ReflectionTestUtils.setField(pipeline, "recoveryBatchSize", 100);
+        ReflectionTestUtils.setField(pipeline, "maxAttempts", 3);
+        pipeline.init();
+
+        User user = User.builder().id(UUID.randomUUID()).email("user@example.com").build();
+        mint = Mint.builder()
+                .id(UUID.randomUUID())
+                .user(user)
+                .wallet(Wallet.builder().id(UUID.randomUUID()).user(user).walletAddress("0.0.1234").build())
+                .amountKes(new BigDecimal("1500000.00"))
+                .status(MintStatus.PENDING)
+                .processingStage(MintProcessingStage.ACCEPTED)
+                .dateInitiated(LocalDate.now())
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.shutdown();
+    }
+
+    @Test
+    void process_RunsEveryStageInOrder() {
+        when(mintRepository.findByIdForProcessing(mint.getId())).thenReturn(Optional.of(mint));
+
+        pipeline.process(mint.getId());
+
+        assertEquals(MintProcessingStage.COMPLETED, mint.getProcessingStage());
+        assertNotNull(mint.getTreasuryTransactionId());
+        assertTrue(mint.getTreasuryTransactionId().startsWith("mint-" + mint.getId()));
+        verify(notificationService).notifyUserOnMintStatusChange(eq(mint.getUser()), eq(mint), anyString());
+        verify(mintRepository, times(2)).findByIdForProcessing(mint.getId());
+        assertEquals(1, meterRegistry.get("mint.pipeline.stage").tag("stage", "ACCEPTED").timer().count());
+        assertEquals(1, meterRegistry.get("mint.pipeline.stage").tag("stage", "TREASURY_REGISTERED").timer().count());
+    }
+
+    @Test
+    void process_ResumesFromRecordedStage() {
+        mint.setProcessingStage(MintProcessingStage.TREASURY_REGISTERED);
+        mint.setTreasuryTransactionId("mint-existing");
+        when(mintRepository.findByIdForProcessing(mint.getId())).thenReturn(Optional.of(mint));
+
+        pipeline.process(mint.getId());
+
+        assertEquals(MintProcessingStage.COMPLETED, mint.getProcessingStage());
+        assertEquals("mint-existing", mint.getTreasuryTransactionId());
+        verify(notificationService).notifyUserOnMintStatusChange(eq(mint.getUser()), eq(mint), anyString());
+    }
+
+    @Test
+    void process_CompletedMint_DoesNothing() {
+        mint.setProcessingStage(MintProcessingStage.COMPLETED);
+        when(mintRepository.findByIdForProcessing(mint.getId())).thenReturn(Optional.of(mint));
+
+        pipeline.process(mint.getId());
+
+        verifyNoInteractions(notificationService);
+    }
+
+    @Test
+    void process_FailedStage_StopsAndKeepsProgress() {
+        when(mintRepository.findByIdForProcessing(mint.getId())).thenReturn(Optional.of(mint));
+        doThrow(new RuntimeException("outbox unavailable"))
+                .when(notificationService).notifyUserOnMintStatusChange(any(), any(), anyString());
+
+        pipeline.process(mint.getId());
+
+        // the treasury stage committed on its own; the notification is retried by the recovery sweep
+        assertEquals(MintProcessingStage.TREASURY_REGISTERED, mint.getProcessingStage());
+        assertEquals(1, mint.getProcessingAttempts());
+        assertEquals(MintStatus.PENDING, mint.getStatus());
+        assertEquals(1.0, meterRegistry.get("mint.pipeline.failed").counter().count());
+    }
+
+    @Test
+    void process_FailureAtTheAttemptCap_AbandonsProcessingAndLeavesStatusAlone() {
+        mint.setProcessingAttempts(2);
+        when(mintRepository.findByIdForProcessing(mint.getId())).thenReturn(Optional.of(mint));
+        doThrow(new RuntimeException("outbox unavailable"))
+                .when(notificationService).notifyUserOnMintStatusChange(any(), any(), anyString());
+
+        pipeline.process(mint.getId());
+
+        assertEquals(3, mint.getProcessingAttempts());
+        assertEquals(MintProcessingStage.ABANDONED, mint.getProcessingStage());
+        // a paid mint is not failed over bookkeeping; its status stays with the admin flow
+        assertEquals(MintStatus.PENDING, mint.getStatus());
+        assertEquals(1.0, meterRegistry.get("mint.pipeline.abandoned").counter().count());
+    }
+
+    @Test
+    void process_AbandonedMint_DoesNothing() {
+        mint.setProcessingStage(MintProcessingStage.ABANDONED);
+        when(mintRepository.findByIdForProcessing(mint.getId())).thenReturn(Optional.of(mint));
+
+        pipeline.process(mint.getId());
+
+        assertEquals(MintProcessingStage.ABANDONED, mint.getProcessingStage());
+        verify(mintRepository, times(1)).findByIdForProcessing(mint.getId());
+        verifyNoInteractions(notificationService);
+    }
+
+    @Test
+    void process_MissingMint_Stops() {
+        when(mintRepository.findByIdForProcessing(mint.getId())).thenReturn(Optional.empty());
+
+        pipeline.process(mint.getId());
+
+        verifyNoInteractions(notificationService);
+    }
+
+    @Test
+    void onMintAccepted_ProcessesInBackground() {
+        when(mintRepository.findByIdForProcessing(mint.getId())).thenReturn(Optional.of(mint));
+
+        pipeline.onMintAccepted(new MintAcceptedEvent(mint.getId()));
+
+        verify(notificationService, timeout(2000))
+                .notifyUserOnMintStatusChange(eq(mint.getUser()), eq(mint), anyString());
+    }
+
+    @Test
+    void resumeStalled_ResubmitsUnfinishedMints() {
+        when(mintRepository.findStalledIds(anyCollection(), any(LocalDateTime.class), eq(3), any(Pageable.class)))
+                .thenReturn(List.of(mint.getId()));
+        when(mintRepository.findByIdForProcessing(mint.getId())).thenReturn(Optional.of(mint));
+
+        pipeline.resumeStalled();
+
+        verify(notificationService, timeout(2000))
+                .notifyUserOnMintStatusChange(eq(mint.getUser()), eq(mint), anyString());
+    }
+}
@@ -1,34 +1,37 @@
 package com.javaguy.nhx.service.mint;
 
-import com.javaguy.nhx.config.MultisigProperties;
+import com.javaguy.nhx.exception.custom.BadRequestException;
 import com.javaguy.nhx.exception.custom.InvalidMintAmountException;
 import com.javaguy.nhx.exception.custom.KycNotVerifiedException;
 import com.javaguy.nhx.exception.custom.ResourceNotFoundException;
 import com.javaguy.nhx.exception.custom.WalletMismatchException;
 import com.javaguy.nhx.model.dto.request.MintRequest;
-import com.javaguy.nhx.model.dto.request.UnsignedTransactionRequest;
 import com.javaguy.nhx.model.dto.response.MintResponseDto;
-import com.javaguy.nhx.model.dto.response.UnsignedTransactionResponse;
 import com.javaguy.nhx.model.entity.Mint;
 import com.javaguy.nhx.model.entity.User;
 import com.javaguy.nhx.model.entity.Wallet;
 import com.javaguy.nhx.model.enums.KycStatus;
+import com.javaguy.nhx.model.enums.MintProcessingStage;
 import com.javaguy.nhx.model.enums.MintStatus;
 import com.javaguy.nhx.repository.MintRepository;
 import com.javaguy.nhx.repository.UserRepository;
 import com.javaguy.nhx.repository.WalletRepository;
-import com.javaguy.nhx.service.email.NotificationService;
+import com.javaguy.nhx.repository.projection.MintHistoryRow;
+import com.javaguy.nhx.util.PageCursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -36,7 +39,6 @@ import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -49,11 +51,7 @@ class MintRequestServiceTest {
     @Mock
     private WalletRepository walletRepository;
     @Mock
-    private NotificationService notificationService;
-    @Mock
-    private UnsignedTransactionService unsignedTransactionService;
-    @Mock
-    private MultisigProperties multisigProperties;
+    private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private MintRequestService mintRequestService;
@@ -86,7 +84,7 @@ class MintRequestServiceTest {
                 .build();
 
         mintRequest = new MintRequest();
-        mintRequest.setAmountKes(BigDecimal.valueOf(150.00));
+        mintRequest.setAmountKes(new BigDecimal("1500000.00"));
         mintRequest.setWalletId(walletId);
         //mintRequest.setTransaction_message("Test transaction message");
 
@@ -96,36 +94,31 @@ class MintRequestServiceTest {
                 .wallet(wallet)
                 .amountKes(mintRequest.getAmountKes())
                 .status(MintStatus.PENDING)
+                .processingStage(MintProcessingStage.ACCEPTED)
                 .dateInitiated(LocalDate.now())
                 .createdAt(LocalDateTime.now())
                 .build();
-
-        lenient().when(multisigProperties.getAccountId()).thenReturn("1.2.3");
-        lenient().when(multisigProperties.getKeyList()).thenReturn(Arrays.asList("key1", "key2", "key3"));
     }
 
     @Test
     void requestMint_Success() {
-        UUID mockTransactionId = UUID.randomUUID();
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(walletRepository.findById(walletId)).thenReturn(Optional.of(wallet));
-        when(unsignedTransactionService.createUnsignedTransaction(any(UnsignedTransactionRequest.class)))
-                .thenReturn(new UnsignedTransactionResponse(mockTransactionId.toString()));
-        when(mintRepository.save(any(Mint.class))).thenReturn(mint);
-        doNothing().when(notificationService).notifyUserOnMintStatusChange(any(User.class), any(Mint.class),
-                anyString());
+        when(mintRepository.save(any(Mint.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         var response = mintRequestService.requestMint(userId, mintRequest);
 
-        assertNotNull(response);
-        assertEquals(mintId, response.getRequestId());
-        assertEquals(mockTransactionId, response.getTransactionId());
-        verify(userRepository, times(1)).findById(userId);
-        verify(walletRepository, times(1)).findById(walletId);
-        verify(unsignedTransactionService, times(1)).createUnsignedTransaction(any(UnsignedTransactionRequest.class));
-        verify(mintRepository, times(1)).save(any(Mint.class));
-        verify(notificationService, times(1)).notifyUserOnMintStatusChange(any(User.class), any(Mint.class),
-                anyString());
+        ArgumentCaptor<Mint> captor = ArgumentCaptor.forClass(Mint.class);
+        verify(mintRepository, times(1)).save(captor.capture());
+        Mint saved = captor.getValue();
+        assertNotNull(saved.getId());
+        assertEquals(7, saved.getId().version());
+        assertTrue(saved.isNew());
+        assertTrue(saved.getTreasuryTransactionId().startsWith("mint-" + saved.getId() + "-"));
+        assertEquals(MintProcessingStage.ACCEPTED, saved.getProcessingStage());
+        assertEquals(MintStatus.PENDING, saved.getStatus());
+        assertEquals(saved.getId(), response.getRequestId());
+        verify(eventPublisher).publishEvent(new MintAcceptedEvent(saved.getId()));
     }
 
     @Test
@@ -136,6 +129,7 @@ class MintRequestServiceTest {
 
         verify(userRepository, times(1)).findById(userId);
         verify(walletRepository, never()).findById(any(UUID.class));
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
@@ -199,6 +193,7 @@ class MintRequestServiceTest {
         assertNotNull(response);
         assertEquals(mintId, response.getRequestId());
         assertEquals(MintStatus.PENDING, response.getStatus());
+        assertEquals(MintProcessingStage.ACCEPTED, response.getProcessingStage());
         assertNull(response.getDateCompleted());
         verify(mintRepository, times(1)).findByUserIdAndId(userId, mintId);
     }
@@ -251,4 +246,76 @@ class MintRequestServiceTest {
         verify(userRepository, times(1)).findById(userId);
         verify(mintRepository, never()).findByUser(any(User.class));
     }
+
+    @Test
+    void getMintHistory_FollowsNextCursorWithoutLoadingTheUser() {
+        LocalDate today = LocalDate.now();
+        MintHistoryRow first = historyRow(UUID.randomUUID(), today);
+        MintHistoryRow second = historyRow(UUID.randomUUID(), today.minusDays(1));
+        MintHistoryRow third = historyRow(UUID.randomUUID(), today.minusDays(2));
+        LocalDate earliest = LocalDate.EPOCH;
+        LocalDate latest = LocalDate.of(9999, 12, 31);
+        when(mintRepository.findHistoryRowsFirst(userId, earliest, latest, PageRequest.of(0, 3)))
+                .thenReturn(List.of(first, second, third));
+        when(mintRepository.findHistoryRowsAfter(userId, earliest, latest, second.dateInitiated(), second.requestId(),
+                PageRequest.of(0, 3)))
+                .thenReturn(List.of(third));
+
+        var page = mintRequestService.getMintHistory(userId, null, null, null, null, 2);
+
+        assertEquals(List.of(first.requestId(), second.requestId()),
+                page.getContent().stream().map(MintResponseDto::getId).toList());
+        assertEquals("0xabcdef1234567890", page.getContent().get(0).getWalletAddress());
+        assertTrue(page.isHasNext());
+        assertNotNull(page.getNextCursor());
+
+        var next = mintRequestService.getMintHistory(userId, null, null, null, page.getNextCursor(), 2);
+
+        assertEquals(third.requestId(), next.getContent().get(0).getId());
+        assertFalse(next.isHasNext());
+        assertNull(next.getNextCursor());
+        verifyNoInteractions(userRepository);
+        verify(mintRepository, never()).findByUser(any(User.class));
+    }
+
+    @Test
+    void getMintHistory_WithStatusAndDates_UsesFilteredQueries() {
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        LocalDate to = LocalDate.of(2024, 3, 31);
+        MintHistoryRow row = historyRow(UUID.randomUUID(), to);
+        String cursor = PageCursor.encode("user-mint", LocalDate.of(2024, 4, 1), mintId);
+        when(mintRepository.findHistoryRowsAfterByStatus(userId, from, to, MintStatus.PENDING,
+                LocalDate.of(2024, 4, 1), mintId, PageRequest.of(0, 101)))
+                .thenReturn(List.of(row));
+
+        var page = mintRequestService.getMintHistory(userId, MintStatus.PENDING, from, to, cursor, 500);
+
+        assertEquals(100, page.getSize());
+        assertEquals(1, page.getContent().size());
+        assertFalse(page.isHasNext());
+    }
+
+    @Test
+    void getMintHistory_FromAfterTo_ThrowsBadRequestException() {
+        assertThrows(BadRequestException.class, () -> mintRequestService.getMintHistory(userId, null,
+                LocalDate.of(2024, 2, 1), LocalDate.of(2024, 1, 1), null, 20));
+
+        verifyNoInteractions(mintRepository);
+    }
+
+    @Test
+    void getMintHistory_CursorFromAnotherList_ThrowsBadRequestException() {
+        String adminCursor = PageCursor.encode("mint", LocalDate.now(), mintId);
+
+        assertThrows(BadRequestException.class,
+                () -> mintRequestService.getMintHistory(userId, null, null, null, adminCursor, 20));
+        assertThrows(BadRequestException.class,
+                () -> mintRequestService.getMintHistory(userId, null, null, null, null, 0));
+        verify(mintRepository, never()).findHistoryRowsAfter(any(), any(), any(), any(), any(), any(Pageable.class));
+    }
+
+    private MintHistoryRow historyRow(UUID id, LocalDate dateInitiated) {
+        return new MintHistoryRow(id, wallet.getWalletAddress(), new BigDecimal("1500000.00"), MintStatus.PENDING,
+                MintProcessingStage.ACCEPTED, dateInitiated, "mint-" + id, LocalDateTime.now());
+    }
 }
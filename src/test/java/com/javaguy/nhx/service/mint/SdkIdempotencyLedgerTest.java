@@ -0,0 +1,118 @@
+package com.javaguy.nhx.service.mint;
+
+import com.javaguy.nhx.exception.custom.BadRequestException;
+import com.javaguy.nhx.exception.custom.ConflictException;
+import com.javaguy.nhx.model.dto.request.AdminMintRequest;
+import com.javaguy.nhx.model.dto.request.AdminTransferRequest;
+import com.javaguy.nhx.model.entity.SdkIdempotencyRecord;
+import com.javaguy.nhx.repository.SdkIdempotencyRecordRepository;
+import com.javaguy.nhx.util.TokenDigest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SdkIdempotencyLedgerTest {
+
+    @Mock
+    private SdkIdempotencyRecordRepository recordRepository;
+
+    private SdkIdempotencyLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        ledger = new SdkIdempotencyLedger(recordRepository);
+        ReflectionTestUtils.setField(ledger, "retention", Duration.ofDays(7));
+    }
+
+    private SdkIdempotencyRecord recorded(String key, String operation, Object request) {
+        ledger.record(key, operation, request, "{\"status\":\"minted\"}");
+        ArgumentCaptor<SdkIdempotencyRecord> captor = ArgumentCaptor.forClass(SdkIdempotencyRecord.class);
+        verify(recordRepository).save(captor.capture());
+        return captor.getValue();
+    }
+
+    @Test
+    void findResponse_UnknownKey_ReturnsEmpty() {
+        when(recordRepository.findById("key-1")).thenReturn(Optional.empty());
+
+        assertTrue(ledger.findResponse("key-1", "mint", new AdminMintRequest("1000")).isEmpty());
+    }
+
+    @Test
+    void findResponse_SameRequest_ReturnsRecordedResponse() {
+        SdkIdempotencyRecord record = recorded("key-1", "mint", new AdminMintRequest("1000"));
+        when(recordRepository.findById("key-1")).thenReturn(Optional.of(record));
+
+        Optional<String> response = ledger.findResponse("key-1", "mint", new AdminMintRequest("1000"));
+
+        assertEquals(Optional.of("{\"status\":\"minted\"}"), response);
+    }
+
+    @Test
+    void findResponse_KeyReusedForDifferentRequest_Throws() {
+        SdkIdempotencyRecord record = recorded("key-1", "mint", new AdminMintRequest("1000"));
+        when(recordRepository.findById("key-1")).thenReturn(Optional.of(record));
+
+        assertThrows(ConflictException.class,
+                () -> ledger.findResponse("key-1", "mint", new AdminMintRequest("2000")));
+    }
+
+    @Test
+    void requestHash_HashesCanonicalJson() {
+        String hash = SdkIdempotencyLedger.requestHash("transfer", new AdminTransferRequest("1000", "0.0.1234"));
+
+        // properties sorted by name, independent of component order or toString
+        assertEquals(TokenDigest.sha256Hex("transfer:{\"amount\":\"1000\",\"targetAccountId\":\"0.0.1234\"}"), hash);
+        assertNotEquals(hash, SdkIdempotencyLedger.requestHash("transfer", new AdminTransferRequest("1000", "0.0.1235")));
+    }
+
+    @Test
+    void findResponse_KeyReusedForDifferentOperation_Throws() {
+        SdkIdempotencyRecord record = recorded("key-1", "mint", new AdminMintRequest("1000"));
+        when(recordRepository.findById("key-1")).thenReturn(Optional.of(record));
+
+        assertThrows(ConflictException.class,
+                () -> ledger.findResponse("key-1", "transfer", new AdminTransferRequest("1000", "0.0.1234")));
+    }
+
+    @Test
+    void findResponse_InvalidKey_Throws() {
+        assertThrows(BadRequestException.class, () -> ledger.findResponse(" ", "mint", new AdminMintRequest("1")));
+        assertThrows(BadRequestException.class,
+                () -> ledger.findResponse("k".repeat(129), "mint", new AdminMintRequest("1")));
+        verifyNoInteractions(recordRepository);
+    }
+
+    @Test
+    void record_ConcurrentDuplicate_IsIgnored() {
+        when(recordRepository.save(any(SdkIdempotencyRecord.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        assertDoesNotThrow(() -> ledger.record("key-1", "mint", new AdminMintRequest("1000"), "{}"));
+    }
+
+    @Test
+    void purgeExpired_DeletesRecordsOlderThanRetention() {
+        LocalDateTime before = LocalDateTime.now().minusDays(7);
+
+        ledger.purgeExpired();
+
+        ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(recordRepository).deleteCreatedBefore(cutoff.capture());
+        assertFalse(cutoff.getValue().isBefore(before));
+    }
+}
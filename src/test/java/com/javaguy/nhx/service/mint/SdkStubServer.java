@@ -0,0 +1,91 @@
+package com.javaguy.nhx.service.mint;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal stand-in for the token SDK: answers POST /api/mint and /api/token/transfer after an
+ * adjustable delay, and records how many requests it had in progress at once and the
+ * Idempotency-Key of each request. Requests whose body contains {@link #rejectBodiesContaining}
+ * get a 422.
+ */
+public class SdkStubServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger inProgress = new AtomicInteger();
+    private final AtomicInteger maxInProgress = new AtomicInteger();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final List<String> idempotencyKeys = new CopyOnWriteArrayList<>();
+    private volatile Duration latency = Duration.ZERO;
+    private volatile String rejectedBodyFragment;
+
+    public SdkStubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/api/mint", exchange -> respond(exchange, "{\"status\":\"minted\"}"));
+        server.createContext("/api/token/transfer", exchange -> respond(exchange, "{\"status\":\"transferred\"}"));
+        server.start();
+    }
+
+    public String getUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    public void setLatency(Duration latency) {
+        this.latency = latency;
+    }
+
+    int getMaxInProgress() {
+        return maxInProgress.get();
+    }
+
+    int getRequestCount() {
+        return requests.get();
+    }
+
+    void rejectBodiesContaining(String fragment) {
+        this.rejectedBodyFragment = fragment;
+    }
+
+    List<String> getIdempotencyKeys() {
+        return idempotencyKeys;
+    }
+
+    private void respond(HttpExchange exchange, String body) throws IOException {
+        requests.incrementAndGet();
+        idempotencyKeys.add(String.valueOf(exchange.getRequestHeaders().getFirst("Idempotency-Key")));
+        maxInProgress.accumulateAndGet(inProgress.incrementAndGet(), Math::max);
+        try {
+            String requestBody = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            Thread.sleep(latency.toMillis());
+            String fragment = rejectedBodyFragment;
+            boolean rejected = fragment != null && requestBody.contains(fragment);
+            byte[] bytes = (rejected ? "{\"error\":\"rejected\"}" : body).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(rejected ? 422 : 200, bytes.length);
+            exchange.getResponseBody().write(bytes);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inProgress.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,147 @@
+package com.javaguy.nhx.service.storage;
+
+import com.azure.storage.blob.BlobClient;
+import com.azure.storage.blob.BlobContainerClient;
+import com.azure.storage.blob.BlobServiceClientBuilder;
+import com.azure.storage.blob.models.BlobProperties;
+import com.azure.storage.blob.models.ParallelTransferOptions;
+import com.javaguy.nhx.exception.custom.ResourceNotFoundException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpRange;
+import org.springframework.mock.web.MockMultipartFile;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Uploads through AzureBlobStorageService against the Azurite storage emulator, for several
+ * transfer configurations, checking the stored content and headers and reporting upload time
+ * per MB, and streams documents back whole and by range. Needs Docker; skipped otherwise.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class AzureBlobStorageServiceAzuriteTest {
+
+    // Azurite's fixed development account
+    private static final String ACCOUNT_NAME = "devstoreaccount1";
+    private static final String ACCOUNT_KEY =
+            "Eby8vdM02xNOcqFlqUwJPLlmEtlCDXJ1OUzFT50uSRZ6IFsuFq2UVErCz4I6tq/K1SZFPTOtr/KBHBeksoGMGw==";
+    private static final int MB = 1024 * 1024;
+    private static final int DOCUMENT_SIZE = 10 * MB;
+    private static final int ROUNDS = 5;
+
+    @Container
+    private static final GenericContainer<?> AZURITE =
+            new GenericContainer<>("mcr.microsoft.com/azure-storage/azurite:3.33.0")
+                    .withCommand("azurite-blob", "--blobHost", "0.0.0.0", "--skipApiVersionCheck", "--loose")
+                    .withExposedPorts(10000);
+
+    private static BlobContainerClient containerClient;
+    private static byte[] document;
+
+    @BeforeAll
+    static void setUp() {
+        String connectionString = String.format(
+                "DefaultEndpointsProtocol=http;AccountName=%s;AccountKey=%s;BlobEndpoint=http://%s:%d/%s;",
+                ACCOUNT_NAME, ACCOUNT_KEY, AZURITE.getHost(), AZURITE.getMappedPort(10000), ACCOUNT_NAME);
+        containerClient = new BlobServiceClientBuilder()
+                .connectionString(connectionString)
+                .buildClient()
+                .createBlobContainerIfNotExists("kyc-documents");
+
+        document = new byte[DOCUMENT_SIZE];
+        new Random(7).nextBytes(document);
+    }
+
+    private record Configuration(String name, long blockSize, int maxConcurrency, long maxSingleUploadSize) {
+
+        ParallelTransferOptions toOptions() {
+            return new ParallelTransferOptions()
+                    .setBlockSizeLong(blockSize)
+                    .setMaxConcurrency(maxConcurrency)
+                    .setMaxSingleUploadSizeLong(maxSingleUploadSize);
+        }
+    }
+
+    private static BlobClient blobFor(String url) {
+        return containerClient.getBlobClient(url.substring(url.indexOf("kyc-documents/") + "kyc-documents/".length()));
+    }
+
+    @Test
+    void store_UploadsContentAndHeadersInEveryConfiguration() {
+        List<Configuration> configurations = List.of(
+                new Configuration("single put", 4L * MB, 1, 32L * MB),
+                new Configuration("4MB blocks x1", 4L * MB, 1, 4L * MB),
+                new Configuration("4MB blocks x4", 4L * MB, 4, 4L * MB),
+                new Configuration("2MB blocks x4", 2L * MB, 4, 4L * MB),
+                new Configuration("1MB blocks x8", 1L * MB, 8, 4L * MB));
+
+        List<String> report = new ArrayList<>();
+        for (Configuration configuration : configurations) {
+            AzureBlobStorageService storageService =
+                    new AzureBlobStorageService(containerClient, configuration.toOptions());
+
+            // first upload warms up the connection pool and is not timed
+            String url = storageService.store("kyc/user", pdf());
+            long totalNanos = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                url = storageService.store("kyc/user", pdf());
+                totalNanos += System.nanoTime() - start;
+            }
+
+            BlobClient blob = blobFor(url);
+            BlobProperties properties = blob.getProperties();
+            assertEquals("application/pdf", properties.getContentType());
+            assertEquals("inline", properties.getContentDisposition());
+            assertEquals(DOCUMENT_SIZE, properties.getBlobSize());
+            ByteArrayOutputStream downloaded = new ByteArrayOutputStream();
+            blob.downloadStream(downloaded);
+            assertArrayEquals(document, downloaded.toByteArray(), configuration.name());
+
+            double millisPerMb = totalNanos / 1e6 / ROUNDS / (DOCUMENT_SIZE / (double) MB);
+            report.add(String.format("%-16s %6.2f ms/MB", configuration.name(), millisPerMb));
+        }
+        System.out.println("Azurite upload of a " + DOCUMENT_SIZE / MB + "MB document:");
+        report.forEach(line -> System.out.println("  " + line));
+    }
+
+    @Test
+    void open_StreamsWholeBlobAndRanges() throws Exception {
+        AzureBlobStorageService storageService = new AzureBlobStorageService(containerClient,
+                new ParallelTransferOptions().setBlockSizeLong(2L * MB).setMaxConcurrency(4));
+        String url = storageService.store("kyc/user", pdf());
+
+        try (DocumentStream whole = storageService.open(url, List.of())) {
+            assertEquals("application/pdf", whole.contentType());
+            assertArrayEquals(document, whole.content().readAllBytes());
+        }
+
+        // crosses the stream's 4MB chunk boundary
+        int start = 4 * MB - 100;
+        try (DocumentStream range = storageService.open(url, HttpRange.parseRanges("bytes=" + start + "-" + (start + 299)))) {
+            assertEquals("bytes " + start + "-" + (start + 299) + "/" + DOCUMENT_SIZE, range.contentRange());
+            assertArrayEquals(Arrays.copyOfRange(document, start, start + 300), range.content().readAllBytes());
+        }
+
+        try (DocumentStream tail = storageService.open(url, HttpRange.parseRanges("bytes=-10"))) {
+            assertArrayEquals(Arrays.copyOfRange(document, DOCUMENT_SIZE - 10, DOCUMENT_SIZE),
+                    tail.content().readAllBytes());
+        }
+
+        String missing = url.substring(0, url.lastIndexOf('/')) + "/missing.pdf";
+        assertThrows(ResourceNotFoundException.class, () -> storageService.open(missing, List.of()));
+    }
+
+    private static MockMultipartFile pdf() {
+        return new MockMultipartFile("documentFront", "front.pdf", "application/pdf", document);
+    }
+}
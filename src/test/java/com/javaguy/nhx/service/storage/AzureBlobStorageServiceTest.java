@@ -1,24 +1,39 @@
 package com.javaguy.nhx.service.storage;
 
+import com.azure.core.util.Context;
 import com.azure.storage.blob.BlobClient;
 import com.azure.storage.blob.BlobContainerClient;
 import com.azure.storage.blob.models.BlobHttpHeaders;
+import com.azure.storage.blob.models.BlobProperties;
+import com.azure.storage.blob.models.BlobRange;
+import com.azure.storage.blob.models.BlobStorageException;
+import com.azure.storage.blob.models.ParallelTransferOptions;
+import com.azure.storage.blob.options.BlobInputStreamOptions;
+import com.azure.storage.blob.options.BlobParallelUploadOptions;
+import com.azure.storage.blob.sas.BlobServiceSasSignatureValues;
+import com.azure.storage.blob.specialized.BlobInputStream;
+import com.azure.storage.common.sas.SasProtocol;
+import com.javaguy.nhx.exception.custom.RangeNotSatisfiableException;
+import com.javaguy.nhx.exception.custom.ResourceNotFoundException;
 import com.javaguy.nhx.exception.custom.StorageException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpRange;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
@@ -33,7 +48,11 @@ class AzureBlobStorageServiceTest {
     @Mock
     private BlobClient blobClient;
 
-    @InjectMocks
+    private final ParallelTransferOptions transferOptions = new ParallelTransferOptions()
+            .setBlockSizeLong(2L * 1024 * 1024)
+            .setMaxConcurrency(4)
+            .setMaxSingleUploadSizeLong(4L * 1024 * 1024);
+
     private AzureBlobStorageService azureBlobStorageService;
 
     private String folder = "test-folder";
@@ -44,6 +63,7 @@ class AzureBlobStorageServiceTest {
 
     @BeforeEach
     void setUp() {
+        azureBlobStorageService = new AzureBlobStorageService(blobContainerClient, transferOptions);
         mockMultipartFile = new MockMultipartFile(
                 "file", fileName, "text/plain", fileContent);
 
@@ -53,15 +73,21 @@ class AzureBlobStorageServiceTest {
 
     @Test
     void store_Success() throws IOException {
-        doNothing().when(blobClient).upload(any(InputStream.class), anyLong(), eq(true));
-        doNothing().when(blobClient).setHttpHeaders(any(BlobHttpHeaders.class));
+        ArgumentCaptor<BlobParallelUploadOptions> optionsCaptor = ArgumentCaptor.forClass(BlobParallelUploadOptions.class);
+        when(blobClient.uploadWithResponse(optionsCaptor.capture(), any(), any(Context.class))).thenReturn(null);
 
         String resultUrl = azureBlobStorageService.store(folder, mockMultipartFile);
 
         assertEquals(blobUrl, resultUrl);
         verify(blobContainerClient, times(1)).getBlobClient(anyString());
-        verify(blobClient, times(1)).upload(any(InputStream.class), eq((long) fileContent.length), eq(true));
-        verify(blobClient, times(1)).setHttpHeaders(any(BlobHttpHeaders.class));
+        BlobParallelUploadOptions options = optionsCaptor.getValue();
+        assertArrayEquals(fileContent, options.getDataStream().readAllBytes());
+        assertEquals("text/plain", options.getHeaders().getContentType());
+        assertEquals("inline", options.getHeaders().getContentDisposition());
+        assertSame(transferOptions, options.getParallelTransferOptions());
+        // headers travel with the upload, not in a second request
+        verify(blobClient, never()).setHttpHeaders(any(BlobHttpHeaders.class));
+        verify(blobClient, never()).upload(any(InputStream.class), anyLong(), anyBoolean());
     }
 
     @Test
@@ -72,26 +98,25 @@ class AzureBlobStorageServiceTest {
 
         when(blobContainerClient.getBlobClient(argThat(s -> s.matches(expectedBlobNamePattern))))
                 .thenReturn(blobClient);
-        doNothing().when(blobClient).upload(any(InputStream.class), anyLong(), eq(true));
-        doNothing().when(blobClient).setHttpHeaders(any(BlobHttpHeaders.class));
+        when(blobClient.uploadWithResponse(any(BlobParallelUploadOptions.class), any(), any(Context.class)))
+                .thenReturn(null);
 
         String resultUrl = azureBlobStorageService.store(folder, fileWithoutExtension);
 
         assertEquals(blobUrl, resultUrl);
         verify(blobContainerClient, times(1)).getBlobClient(argThat(s -> s.matches(expectedBlobNamePattern)));
-        verify(blobClient, times(1)).upload(any(InputStream.class), eq((long) fileContent.length), eq(true));
-        verify(blobClient, times(1)).setHttpHeaders(any(BlobHttpHeaders.class));
+        verify(blobClient, times(1)).uploadWithResponse(any(BlobParallelUploadOptions.class), any(), any(Context.class));
     }
 
     @Test
     void store_ExceptionDuringUpload_ThrowsStorageException() throws IOException {
-        doThrow(RuntimeException.class).when(blobClient).upload(any(InputStream.class), anyLong(), eq(true));
+        when(blobClient.uploadWithResponse(any(BlobParallelUploadOptions.class), any(), any(Context.class)))
+                .thenThrow(RuntimeException.class);
 
         assertThrows(StorageException.class, () -> azureBlobStorageService.store(folder, mockMultipartFile));
 
         verify(blobContainerClient, times(1)).getBlobClient(anyString());
-        verify(blobClient, times(1)).upload(any(InputStream.class), eq((long) fileContent.length), eq(true));
-        verify(blobClient, never()).setHttpHeaders(any(BlobHttpHeaders.class));
+        verify(blobClient, times(1)).uploadWithResponse(any(BlobParallelUploadOptions.class), any(), any(Context.class));
     }
 
     @Test
@@ -118,32 +143,139 @@ class AzureBlobStorageServiceTest {
     }
 
     @Test
-    void download_Success() {
-        when(blobClient.exists()).thenReturn(true);
-        doAnswer(invocation -> {
-            ByteArrayOutputStream outputStream = invocation.getArgument(0);
-            outputStream.write(fileContent);
-            return null;
-        }).when(blobClient).downloadStream(any(ByteArrayOutputStream.class));
+    void delete_ByReference_DeletesBlobNamedInUrl() {
+        when(blobClient.deleteIfExists()).thenReturn(true);
 
-        byte[] downloadedBytes = azureBlobStorageService.download(folder, fileName);
+        azureBlobStorageService.delete(blobUrl);
 
-        assertNotNull(downloadedBytes);
-        assertArrayEquals(fileContent, downloadedBytes);
-        verify(blobContainerClient, times(1)).getBlobClient(anyString());
-        verify(blobClient, times(1)).exists();
-        verify(blobClient, times(1)).downloadStream(any(ByteArrayOutputStream.class));
+        verify(blobContainerClient).getBlobClient("test-file.txt");
+        verify(blobClient).deleteIfExists();
+        verify(blobClient, never()).exists();
     }
 
     @Test
-    void download_BlobDoesNotExist_ThrowsStorageException() {
-        when(blobClient.exists()).thenReturn(false);
+    void open_WholeBlob_StreamsWithoutExistsCheck() throws IOException {
+        BlobInputStream blobStream = mock(BlobInputStream.class);
+        BlobProperties properties = mock(BlobProperties.class);
+        when(blobClient.openInputStream(any(BlobInputStreamOptions.class))).thenReturn(blobStream);
+        when(blobStream.getProperties()).thenReturn(properties);
+        when(properties.getBlobSize()).thenReturn(1000L);
+        when(properties.getContentType()).thenReturn("image/png");
+
+        try (DocumentStream document = azureBlobStorageService.open(blobUrl, List.of())) {
+            assertEquals(0, document.start());
+            assertEquals(1000, document.length());
+            assertEquals(1000, document.totalLength());
+            assertEquals("image/png", document.contentType());
+            assertFalse(document.isPartial());
+        }
+
+        verify(blobContainerClient).getBlobClient("test-file.txt");
+        verify(blobClient, never()).exists();
+                verify(blobStream).close();
+    }
 
-        assertThrows(StorageException.class, () -> azureBlobStorageService.download(folder, fileName));
+    @Test
+    void open_Range_OpensStreamOnTheRange() {
+        BlobInputStream blobStream = mock(BlobInputStream.class);
+        BlobProperties properties = mock(BlobProperties.class);
+        ArgumentCaptor<BlobInputStreamOptions> optionsCaptor = ArgumentCaptor.forClass(BlobInputStreamOptions.class);
+        when(blobClient.openInputStream(optionsCaptor.capture())).thenReturn(blobStream);
+        when(blobStream.getProperties()).thenReturn(properties);
+        when(properties.getBlobSize()).thenReturn(1000L);
+
+        DocumentStream document = azureBlobStorageService.open(blobUrl, HttpRange.parseRanges("bytes=200-299"));
+
+        assertEquals(200, document.start());
+        assertEquals(100, document.length());
+        assertTrue(document.isPartial());
+        assertEquals("bytes 200-299/1000", document.contentRange());
+        assertEquals("application/octet-stream", document.contentType());
+        BlobRange range = optionsCaptor.getValue().getRange();
+        assertEquals(200, range.getOffset());
+        assertEquals(100L, range.getCount());
+        assertTrue(optionsCaptor.getValue().getBlockSize() < 4 * 1024 * 1024);
+        verify(blobClient, never()).getProperties();
+    }
 
-        verify(blobContainerClient, times(1)).getBlobClient(anyString());
-        verify(blobClient, times(1)).exists();
-        verify(blobClient, never()).downloadStream(any(ByteArrayOutputStream.class));
+    @Test
+    void open_SuffixRange_ReadsSizeFirst() {
+        BlobInputStream blobStream = mock(BlobInputStream.class);
+        BlobProperties properties = mock(BlobProperties.class);
+        ArgumentCaptor<BlobInputStreamOptions> optionsCaptor = ArgumentCaptor.forClass(BlobInputStreamOptions.class);
+        when(blobClient.getProperties()).thenReturn(properties);
+        when(blobClient.openInputStream(optionsCaptor.capture())).thenReturn(blobStream);
+        when(blobStream.getProperties()).thenReturn(properties);
+        when(properties.getBlobSize()).thenReturn(1000L);
+
+        DocumentStream document = azureBlobStorageService.open(blobUrl, HttpRange.parseRanges("bytes=-100"));
+
+        assertEquals("bytes 900-999/1000", document.contentRange());
+        assertEquals(900, optionsCaptor.getValue().getRange().getOffset());
+        assertEquals(100L, optionsCaptor.getValue().getRange().getCount());
+    }
+
+    @Test
+    void open_StorageRejectsRange_ThrowsRangeNotSatisfiable() {
+        BlobStorageException invalidRange = mock(BlobStorageException.class);
+        when(invalidRange.getStatusCode()).thenReturn(416);
+        when(blobClient.openInputStream(any(BlobInputStreamOptions.class))).thenThrow(invalidRange);
+
+        assertThrows(RangeNotSatisfiableException.class,
+                () -> azureBlobStorageService.open(blobUrl, HttpRange.parseRanges("bytes=5000-")));
+    }
+
+    @Test
+    void open_UnsatisfiableRange_ClosesStream() throws IOException {
+        BlobInputStream blobStream = mock(BlobInputStream.class);
+        BlobProperties properties = mock(BlobProperties.class);
+        when(blobClient.openInputStream(any(BlobInputStreamOptions.class))).thenReturn(blobStream);
+        when(blobStream.getProperties()).thenReturn(properties);
+        when(properties.getBlobSize()).thenReturn(1000L);
+
+        assertThrows(RangeNotSatisfiableException.class,
+                () -> azureBlobStorageService.open(blobUrl, HttpRange.parseRanges("bytes=5000-")));
+
+        verify(blobStream).close();
+    }
+
+    @Test
+    void open_BlobNotFound_ThrowsResourceNotFoundException() {
+        BlobStorageException notFound = mock(BlobStorageException.class);
+        when(notFound.getStatusCode()).thenReturn(404);
+        when(blobClient.openInputStream(any(BlobInputStreamOptions.class))).thenThrow(notFound);
+
+        assertThrows(ResourceNotFoundException.class, () -> azureBlobStorageService.open(blobUrl, List.of()));
+
+        verify(blobClient, never()).exists();
+    }
+
+    @Test
+    void open_StorageFailure_ThrowsStorageException() {
+        BlobStorageException failure = mock(BlobStorageException.class);
+        when(failure.getStatusCode()).thenReturn(503);
+        when(blobClient.openInputStream(any(BlobInputStreamOptions.class))).thenThrow(failure);
+
+        assertThrows(StorageException.class, () -> azureBlobStorageService.open(blobUrl, List.of()));
+    }
+
+    @Test
+    void signedUrl_ReadOnlySasForTheOneBlob() {
+        ArgumentCaptor<BlobServiceSasSignatureValues> valuesCaptor =
+                ArgumentCaptor.forClass(BlobServiceSasSignatureValues.class);
+        when(blobClient.generateSas(valuesCaptor.capture())).thenReturn("sv=2024-01-01&sp=r&sig=abc");
+
+        SignedUrl signed = azureBlobStorageService.signedUrl(blobUrl, Duration.ofMinutes(5));
+
+        assertEquals(blobUrl + "?sv=2024-01-01&sp=r&sig=abc", signed.url());
+        verify(blobContainerClient).getBlobClient("test-file.txt");
+        BlobServiceSasSignatureValues values = valuesCaptor.getValue();
+        assertEquals("r", values.getPermissions());
+        assertEquals(SasProtocol.HTTPS_ONLY, values.getProtocol());
+        assertEquals(signed.expiresAt(), values.getExpiryTime().toInstant());
+        Duration lifetime = Duration.between(Instant.now(), signed.expiresAt());
+        assertTrue(lifetime.compareTo(Duration.ofMinutes(4)) > 0 && lifetime.compareTo(Duration.ofMinutes(5)) <= 0);
+        verify(blobClient, never()).exists();
     }
 
     @Test
@@ -151,13 +283,11 @@ class AzureBlobStorageServiceTest {
         MultipartFile fileWithNullContentType = new MockMultipartFile(
                 "file", fileName, null, fileContent);
 
-        doNothing().when(blobClient).upload(any(InputStream.class), anyLong(), eq(true));
-        ArgumentCaptor<BlobHttpHeaders> headersCaptor = ArgumentCaptor.forClass(BlobHttpHeaders.class);
-        doNothing().when(blobClient).setHttpHeaders(headersCaptor.capture());
+        ArgumentCaptor<BlobParallelUploadOptions> optionsCaptor = ArgumentCaptor.forClass(BlobParallelUploadOptions.class);
+        when(blobClient.uploadWithResponse(optionsCaptor.capture(), any(), any(Context.class))).thenReturn(null);
 
         azureBlobStorageService.store(folder, fileWithNullContentType);
 
-        assertEquals("application/octet-stream", headersCaptor.getValue().getContentType());
-        verify(blobClient, times(1)).setHttpHeaders(any(BlobHttpHeaders.class));
+        assertEquals("application/octet-stream", optionsCaptor.getValue().getHeaders().getContentType());
     }
 }
@@ -0,0 +1,90 @@
+package com.javaguy.nhx.service.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentUrlSignerTest {
+
+    private static final Duration TTL = Duration.ofMinutes(5);
+
+    @Mock
+    private DocumentStorageService storageService;
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private DocumentUrlSigner signer;
+
+    @BeforeEach
+    void setUp() {
+        signer = new DocumentUrlSigner(storageService, TTL, Duration.ofMinutes(1), 2, now::get);
+        lenient().when(storageService.signedUrl(anyString(), eq(TTL))).thenAnswer(invocation -> new SignedUrl(
+                invocation.getArgument(0) + "?signed-at=" + now.get(),
+                Instant.ofEpochMilli(now.get()).plus(TTL)));
+    }
+
+    @Test
+    void sign_NullReference_ReturnsNull() {
+        assertNull(signer.sign(null));
+        verifyNoInteractions(storageService);
+    }
+
+    @Test
+    void sign_RepeatedWithinLifetime_ReusesUrl() {
+        String first = signer.sign("kyc/front.png");
+        now.addAndGet(Duration.ofMinutes(3).toMillis());
+
+        assertEquals(first, signer.sign("kyc/front.png"));
+        verify(storageService, times(1)).signedUrl("kyc/front.png", TTL);
+    }
+
+    @Test
+    void sign_CloseToExpiry_SignsAgain() {
+        String first = signer.sign("kyc/front.png");
+        now.addAndGet(Duration.ofMinutes(4).toMillis());
+
+        String second = signer.sign("kyc/front.png");
+
+        assertNotEquals(first, second);
+        verify(storageService, times(2)).signedUrl("kyc/front.png", TTL);
+    }
+
+    @Test
+    void sign_DifferentDocuments_SignedSeparately() {
+        assertNotEquals(signer.sign("kyc/front.png"), signer.sign("kyc/back.png"));
+        verify(storageService, times(2)).signedUrl(anyString(), any(Duration.class));
+    }
+
+    @Test
+    void sign_Full_StaysWithinMaxSize() {
+        signer.sign("kyc/a.png");
+        signer.sign("kyc/b.png");
+        signer.sign("kyc/c.png");
+
+        assertEquals(2, signer.size());
+    }
+
+    @Test
+    void sign_Full_DropsUrlClosestToRefresh() {
+        signer.sign("kyc/a.png");
+        now.addAndGet(Duration.ofSeconds(30).toMillis());
+        String b = signer.sign("kyc/b.png");
+        signer.sign("kyc/c.png");
+
+        assertEquals(b, signer.sign("kyc/b.png"));
+        signer.sign("kyc/a.png");
+        verify(storageService, times(2)).signedUrl("kyc/a.png", TTL);
+        verify(storageService, times(1)).signedUrl("kyc/b.png", TTL);
+    }
+}
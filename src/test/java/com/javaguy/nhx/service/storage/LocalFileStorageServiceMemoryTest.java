@@ -0,0 +1,153 @@
+package com.javaguy.nhx.service.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Concurrent 4MB uploads through LocalFileStorageService, each from a file-backed part the way
+ * the servlet container hands them over. Heap use is measured as the bytes allocated by the
+ * uploading threads (exact, unlike sampling the heap, which depends on GC timing): with streaming
+ * it is a small constant per upload instead of the file size.
+ */
+class LocalFileStorageServiceMemoryTest {
+
+    private static final int UPLOADS = 8;
+    private static final int FILE_SIZE = 4 * 1024 * 1024;
+    // generous bound for the stream/channel plumbing; reading the file into memory is >= 4MB
+    private static final long MAX_ALLOCATED_PER_UPLOAD = 1024 * 1024;
+
+    private final com.sun.management.ThreadMXBean threadMXBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private Path tempDir;
+    private Path spooledUpload;
+    private LocalFileStorageService storageService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("local-storage-memory-test");
+        spooledUpload = tempDir.resolve("upload.tmp");
+        byte[] content = new byte[FILE_SIZE];
+        new Random(42).nextBytes(content);
+        Files.write(spooledUpload, content);
+
+        storageService = new LocalFileStorageService();
+        ReflectionTestUtils.setField(storageService, "basePath", tempDir.resolve("store").toString());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (var paths = Files.walk(tempDir)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    void concurrentUploads_AllocateFarLessThanFileSize() throws Exception {
+        assertTrue(threadMXBean.isThreadAllocatedMemorySupported());
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+        ExecutorService uploaders = Executors.newFixedThreadPool(UPLOADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> allocations = new ArrayList<>();
+        List<String> storedPaths = new ArrayList<>();
+        try {
+            for (int i = 0; i < UPLOADS; i++) {
+                allocations.add(uploaders.submit(() -> {
+                    start.await();
+                    long before = threadMXBean.getCurrentThreadAllocatedBytes();
+                    String path = storageService.store("kyc/user", new SpooledMultipartFile(spooledUpload));
+                    long allocated = threadMXBean.getCurrentThreadAllocatedBytes() - before;
+                    synchronized (storedPaths) {
+                        storedPaths.add(path);
+                    }
+                    return allocated;
+                }));
+            }
+            start.countDown();
+
+            long maxAllocated = 0;
+            for (Future<Long> allocation : allocations) {
+                maxAllocated = Math.max(maxAllocated, allocation.get(60, TimeUnit.SECONDS));
+            }
+            assertTrue(maxAllocated < MAX_ALLOCATED_PER_UPLOAD,
+                    "an upload allocated " + maxAllocated + " bytes for a " + FILE_SIZE + " byte file");
+        } finally {
+            uploaders.shutdownNow();
+        }
+
+        assertEquals(UPLOADS, storedPaths.size());
+        for (String path : storedPaths) {
+            assertEquals(FILE_SIZE, Files.size(Paths.get(path)));
+        }
+        assertEquals(-1, Files.mismatch(spooledUpload, Paths.get(storedPaths.get(0))));
+    }
+
+    /**
+     * A multipart file already spooled to disk by the container; reading it into memory fails the test.
+     */
+    private record SpooledMultipartFile(Path spooled) implements MultipartFile {
+
+        @Override
+        public String getName() {
+            return "documentFront";
+        }
+
+        @Override
+        public String getOriginalFilename() {
+            return "front.pdf";
+        }
+
+        @Override
+        public String getContentType() {
+            return "application/pdf";
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return false;
+        }
+
+        @Override
+        public long getSize() {
+            return FILE_SIZE;
+        }
+
+        @Override
+        public byte[] getBytes() {
+            throw new AssertionError("upload was read into memory");
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return Files.newInputStream(spooled);
+        }
+
+        @Override
+        public void transferTo(File dest) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.javaguy.nhx.service.storage;
 
+import com.javaguy.nhx.exception.custom.ForbiddenException;
+import com.javaguy.nhx.exception.custom.RangeNotSatisfiableException;
+import com.javaguy.nhx.exception.custom.ResourceNotFoundException;
 import com.javaguy.nhx.exception.custom.StorageException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.AfterEach;
@@ -7,14 +10,24 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpRange;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -61,6 +74,16 @@ class LocalFileStorageServiceTest {
         assertArrayEquals(fileContent, assertDoesNotThrow(() -> Files.readAllBytes(expectedFilePath)));
     }
 
+    @Test
+    void delete_StoredFile_RemovesItAndToleratesRepeat() {
+        String storedPath = localFileStorageService.store(folder, mockMultipartFile);
+
+        localFileStorageService.delete(storedPath);
+
+        assertFalse(Files.exists(Paths.get(storedPath)));
+        assertDoesNotThrow(() -> localFileStorageService.delete(storedPath));
+    }
+
     @Test
     void store_NullFolder_Success() {
         String storedPath = localFileStorageService.store(null, mockMultipartFile);
@@ -107,19 +130,157 @@ class LocalFileStorageServiceTest {
     }
 
     @Test
-    void store_IOExceptionDuringFileWrite_ThrowsStorageException() throws IOException {
-        // Mock Files.write to throw IOException
-        try (var mockedFiles = mockStatic(Files.class, CALLS_REAL_METHODS)) {
-            // Allow createDirectories to work but mock write
-            mockedFiles.when(() -> Files.createDirectories(any(Path.class)))
-                    .thenCallRealMethod();
-            mockedFiles.when(() -> Files.write(any(Path.class), any(byte[].class)))
-                    .thenThrow(new IOException("Cannot write file"));
+    void store_IOExceptionDuringFileWrite_ThrowsStorageExceptionAndRemovesPartialFile() throws IOException {
+        // the upload stream fails half way through
+        MultipartFile failingFile = mock(MultipartFile.class);
+        when(failingFile.getOriginalFilename()).thenReturn(fileName);
+        when(failingFile.getInputStream()).thenReturn(new InputStream() {
+            private int remaining = 1024;
 
-            assertThrows(StorageException.class, () -> localFileStorageService.store(folder, mockMultipartFile));
+            @Override
+            public int read() throws IOException {
+                if (remaining-- == 0) {
+                    throw new IOException("Connection reset");
+                }
+                return 'x';
+            }
+        });
+
+        assertThrows(StorageException.class, () -> localFileStorageService.store(folder, failingFile));
+
+        try (var files = Files.list(tempBasePath.resolve(folder))) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void store_StreamsWithoutReadingWholeFile() throws IOException {
+        MultipartFile streamOnly = mock(MultipartFile.class);
+        when(streamOnly.getOriginalFilename()).thenReturn(fileName);
+        when(streamOnly.getInputStream()).thenReturn(new ByteArrayInputStream(fileContent));
+
+        String storedPath = localFileStorageService.store(folder, streamOnly);
+
+        assertArrayEquals(fileContent, Files.readAllBytes(Paths.get(storedPath)));
+        verify(streamOnly, never()).getBytes();
+    }
+
+    @Test
+    void open_WholeFile_StreamsContent() throws IOException {
+        String storedPath = localFileStorageService.store(folder, mockMultipartFile);
+
+        try (DocumentStream document = localFileStorageService.open(storedPath, List.of())) {
+            assertFalse(document.isPartial());
+            assertEquals(0, document.start());
+            assertEquals(fileContent.length, document.totalLength());
+            assertArrayEquals(fileContent, document.content().readAllBytes());
+        }
+    }
+
+    @Test
+    void open_Range_StreamsOnlyThoseBytes() throws IOException {
+        String storedPath = localFileStorageService.store(folder, mockMultipartFile);
+
+        try (DocumentStream document = localFileStorageService.open(storedPath, HttpRange.parseRanges("bytes=5-11"))) {
+            assertTrue(document.isPartial());
+            assertEquals(7, document.length());
+            assertEquals("bytes 5-11/" + fileContent.length, document.contentRange());
+            assertEquals("content", new String(document.content().readAllBytes()));
+        }
+    }
+
+    @Test
+    void open_SuffixRange_TransfersTail() throws IOException {
+        String storedPath = localFileStorageService.store(folder, mockMultipartFile);
+
+        try (DocumentStream document = localFileStorageService.open(storedPath, HttpRange.parseRanges("bytes=-5"))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            assertEquals(5, document.content().transferTo(out));
+            assertEquals("file.", out.toString());
+            assertEquals(fileContent.length - 5, document.start());
         }
     }
 
+    @Test
+    void open_SeveralRanges_ServesCoveringSpan() throws IOException {
+        String storedPath = localFileStorageService.store(folder, mockMultipartFile);
+
+        try (DocumentStream document = localFileStorageService.open(storedPath,
+                HttpRange.parseRanges("bytes=5-6, 0-3"))) {
+            assertEquals(0, document.start());
+            assertEquals("Test co", new String(document.content().readAllBytes()));
+        }
+    }
+
+    @Test
+    void open_UnsatisfiableRange_ThrowsRangeNotSatisfiableException() {
+        String storedPath = localFileStorageService.store(folder, mockMultipartFile);
+
+        assertThrows(RangeNotSatisfiableException.class,
+                () -> localFileStorageService.open(storedPath, HttpRange.parseRanges("bytes=1000-")));
+    }
+
+    @Test
+    void open_MissingFile_ThrowsResourceNotFoundException() {
+        String missing = tempBasePath.resolve(folder).resolve("missing.png").toString();
+
+        assertThrows(ResourceNotFoundException.class, () -> localFileStorageService.open(missing, List.of()));
+    }
+
+    @Test
+    void open_PathOutsideBasePath_ThrowsResourceNotFoundException() throws IOException {
+        Path outside = Files.createTempFile("outside", ".txt");
+        try {
+            assertThrows(ResourceNotFoundException.class,
+                    () -> localFileStorageService.open(outside.toString(), List.of()));
+            assertThrows(ResourceNotFoundException.class,
+                    () -> localFileStorageService.open(tempBasePath.resolve("../" + outside.getFileName()).toString(),
+                            List.of()));
+        } finally {
+            Files.deleteIfExists(outside);
+        }
+    }
+
+    @Test
+    void signedUrl_OpensOnlyWithMatchingSignatureBeforeExpiry() throws IOException {
+        ReflectionTestUtils.setField(localFileStorageService, "signingKey", "test-signing-key");
+        ReflectionTestUtils.setField(localFileStorageService, "appBaseUrl", "http://localhost:8080");
+        String storedPath = localFileStorageService.store(folder, mockMultipartFile);
+
+        SignedUrl signed = localFileStorageService.signedUrl(storedPath, Duration.ofMinutes(5));
+
+        UriComponents uri = UriComponentsBuilder.fromUriString(signed.url()).build();
+        assertEquals("/api/storage/local", uri.getPath());
+        String path = URLDecoder.decode(uri.getQueryParams().getFirst("path"), StandardCharsets.UTF_8);
+        long expires = Long.parseLong(uri.getQueryParams().getFirst("expires"));
+        String signature = uri.getQueryParams().getFirst("signature");
+        assertTrue(path.startsWith(folder + "/"));
+        assertEquals(signed.expiresAt().getEpochSecond(), expires);
+
+        try (DocumentStream document = localFileStorageService.openSigned(path, expires, signature, List.of())) {
+            assertArrayEquals(fileContent, document.content().readAllBytes());
+        }
+        assertThrows(ForbiddenException.class,
+                () -> localFileStorageService.openSigned(path, expires + 60, signature, List.of()));
+        assertThrows(ForbiddenException.class,
+                () -> localFileStorageService.openSigned(folder + "/other.txt", expires, signature, List.of()));
+        assertThrows(ForbiddenException.class,
+                () -> localFileStorageService.openSigned(path, expires, null, List.of()));
+    }
+
+    @Test
+    void openSigned_Expired_ThrowsForbiddenException() {
+        String storedPath = localFileStorageService.store(folder, mockMultipartFile);
+        SignedUrl signed = localFileStorageService.signedUrl(storedPath, Duration.ofSeconds(-10));
+
+        UriComponents uri = UriComponentsBuilder.fromUriString(signed.url()).build();
+        String path = URLDecoder.decode(uri.getQueryParams().getFirst("path"), StandardCharsets.UTF_8);
+
+        assertThrows(ForbiddenException.class, () -> localFileStorageService.openSigned(path,
+                Long.parseLong(uri.getQueryParams().getFirst("expires")),
+                uri.getQueryParams().getFirst("signature"), List.of()));
+    }
+
     private String sanitizeFilename(String originalFilename) {
         if (originalFilename == null)
             return "file";
@@ -0,0 +1,76 @@
+package com.javaguy.nhx.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpiringMapTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+
+    @Test
+    void get_HidesAndDropsExpiredEntries() {
+        ExpiringMap<String, String> map = new ExpiringMap<>(10, now::get);
+        map.put("a", "1", now.get() + 1_000);
+
+        assertEquals("1", map.get("a"));
+        now.addAndGet(1_000);
+
+        assertNull(map.get("a"));
+        assertEquals(0, map.size());
+        assertEquals(1, map.evictionCount());
+    }
+
+    @Test
+    void put_WhenFull_DropsExpiredBeforeLiveEntries() {
+        ExpiringMap<String, String> map = new ExpiringMap<>(2, now::get);
+        map.put("a", "1", now.get() + 1_000);
+        map.put("b", "2", now.get() + 10_000);
+        now.addAndGet(2_000);
+
+        map.put("c", "3", now.get() + 5_000);
+
+        assertNull(map.get("a"));
+        assertEquals("2", map.get("b"));
+        assertEquals("3", map.get("c"));
+    }
+
+    @Test
+    void put_WhenFullOfLiveEntries_DropsTheSoonestToExpire() {
+        ExpiringMap<Integer, String> map = new ExpiringMap<>(32, now::get);
+        for (int i = 0; i < 32; i++) {
+            map.put(i, "v" + i, now.get() + 1_000 + i);
+        }
+
+        map.put(100, "new", now.get() + 500);
+
+        // a sixteenth of the map goes at once: the two closest to expiry
+        assertEquals(31, map.size());
+        assertNull(map.get(0));
+        assertNull(map.get(1));
+        assertEquals("v2", map.get(2));
+        assertEquals("new", map.get(100));
+        assertEquals(2, map.evictionCount());
+    }
+
+    @Test
+    void put_ReplacingAnExistingKey_DoesNotEvict() {
+        ExpiringMap<String, String> map = new ExpiringMap<>(1, now::get);
+        map.put("a", "1", now.get() + 1_000);
+
+        map.put("a", "2", now.get() + 1_000);
+
+        assertEquals("2", map.get("a"));
+        assertEquals(0, map.evictionCount());
+    }
+
+    @Test
+    void disabledMap_NeverStores() {
+        ExpiringMap<String, String> map = new ExpiringMap<>(0, now::get);
+        map.put("a", "1", now.get() + 1_000);
+
+        assertNull(map.get("a"));
+    }
+}
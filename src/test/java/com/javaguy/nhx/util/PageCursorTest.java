@@ -0,0 +1,46 @@
+package com.javaguy.nhx.util;
+
+import com.javaguy.nhx.exception.custom.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageCursorTest {
+
+    @Test
+    void decode_ReturnsEncodedKeys() {
+        UUID id = UUID.randomUUID();
+        String cursor = PageCursor.encode("mint", LocalDate.of(2024, 3, 1), id);
+
+        assertArrayEquals(new String[]{"2024-03-01", id.toString()}, PageCursor.decode(cursor, "mint", 2));
+    }
+
+    @Test
+    void encode_IsUrlSafeWithoutPadding() {
+        String cursor = PageCursor.encode("kyc", "2024-03-01T10:15:30.123456", UUID.randomUUID());
+
+        assertTrue(cursor.matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    void decode_OtherKind_ThrowsBadRequest() {
+        String cursor = PageCursor.encode("kyc", "2024-03-01T10:15:30", UUID.randomUUID());
+
+        assertThrows(BadRequestException.class, () -> PageCursor.decode(cursor, "mint", 2));
+    }
+
+    @Test
+    void decode_WrongNumberOfKeys_ThrowsBadRequest() {
+        String cursor = PageCursor.encode("mint", "2024-03-01");
+
+        assertThrows(BadRequestException.class, () -> PageCursor.decode(cursor, "mint", 2));
+    }
+
+    @Test
+    void decode_NotBase64_ThrowsBadRequest() {
+        assertThrows(BadRequestException.class, () -> PageCursor.decode("not a cursor!", "mint", 2));
+    }
+}
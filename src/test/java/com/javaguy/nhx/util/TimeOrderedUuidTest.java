@@ -0,0 +1,48 @@
+package com.javaguy.nhx.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeOrderedUuidTest {
+
+    @Test
+    void next_IsVersion7WithIetfVariant() {
+        UUID uuid = TimeOrderedUuid.next();
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+    }
+
+    @Test
+    void next_EmbedsCurrentTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID uuid = TimeOrderedUuid.next();
+        long after = System.currentTimeMillis();
+
+        long millis = uuid.getMostSignificantBits() >>> 16;
+        // ids generated in a burst may run slightly ahead of the clock once the counter overflows
+        assertTrue(millis >= before && millis <= after + 50, "timestamp " + millis);
+    }
+
+    @Test
+    void next_IsStrictlyIncreasingAndUnique() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            ids.add(TimeOrderedUuid.next());
+        }
+
+        Set<UUID> unique = new HashSet<>(ids);
+        assertEquals(ids.size(), unique.size());
+        for (int i = 1; i < ids.size(); i++) {
+            // compare as unsigned, the way the database orders uuid keys
+            assertTrue(Long.compareUnsigned(ids.get(i - 1).getMostSignificantBits(),
+                    ids.get(i).getMostSignificantBits()) < 0, "not increasing at " + i);
+        }
+    }
+}
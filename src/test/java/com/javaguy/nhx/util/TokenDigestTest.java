@@ -0,0 +1,25 @@
+package com.javaguy.nhx.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenDigestTest {
+
+    @Test
+    void sha256Hex_ReturnsFixedLengthHex() {
+        String digest = TokenDigest.sha256Hex("some.jwt.token");
+        assertTrue(digest.matches("[0-9a-f]{64}"));
+    }
+
+    @Test
+    void sha256Hex_IsDeterministic() {
+        assertEquals(TokenDigest.sha256Hex("token"), TokenDigest.sha256Hex("token"));
+        assertNotEquals(TokenDigest.sha256Hex("token"), TokenDigest.sha256Hex("token2"));
+    }
+
+    @Test
+    void sha256Hex_MatchesKnownVector() {
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", TokenDigest.sha256Hex("abc"));
+    }
+}